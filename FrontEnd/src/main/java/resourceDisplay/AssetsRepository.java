@@ -1,15 +1,28 @@
 package resourceDisplay;
 
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DatabaseClient;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.Statement;
 import com.google.cloud.spanner.Type;
 import com.google.cloud.spanner.Mutation;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This Class does all DB access
@@ -18,6 +31,27 @@ import java.util.List;
 public class AssetsRepository {
     private static final String SPANNER_STING_FOR_WORKSPACE_ID = "SELECT DISTINCT workspaceId, workspaceDisplayName " +
             "FROM Workspace_User_Table WHERE userEmail = @userID ORDER BY workspaceId";
+    private static final String SPANNER_STRING_FOR_FACETS = "SELECT facetType, facetValue, " +
+            "SUM(assetsCount) AS assetsCount FROM Workspace_Facets WHERE workspaceId = @workspaceId " +
+            "GROUP BY facetType, facetValue ORDER BY facetType, facetValue";
+    public static final List<String> FACET_TYPES = Arrays.asList("location", "status", "kind");
+    private static final String SPANNER_STRING_FOR_PRIMARY_KEYS = "SELECT columnName, columnType FROM Asset_Tables_Config " +
+            "WHERE assetTableName = 'forAllAssets' AND isPrimaryKey = True ORDER BY primaryKeyIndex";
+    // The primary key columns are selected with these aliases (pageKey0, pageKey1...) to build the
+    // page tokens, as they are not necessarily displayed
+    private static final String PAGE_KEY_ALIAS = "pageKey";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    private final QueryPlanCache queryPlanCache;
+
+    /**
+     * @param configCheckSeconds - The minimal time between two checks of whether the
+     *                           Asset_Tables_Config table was changed (and the cached query plans
+     *                           should be rebuilt)
+     */
+    public AssetsRepository(@Value("${assets.config-check-interval-seconds:60}") long configCheckSeconds) {
+        this.queryPlanCache = new QueryPlanCache(configCheckSeconds);
+    }
 
     /**
      * This is used to check if a workspaceID already exists
@@ -147,6 +181,46 @@ public class AssetsRepository {
         return filterList;
     }
 
+    /**
+     * This is used to get the values of all filters of a workspace with the number of assets of
+     * each value, from the Workspace_Facets table which is maintained by the discovery (so only the
+     * facets are read and not the assets). If the workspace has no facets yet (it was not discovered
+     * since the table was added), the values are read from the assets without their counts
+     *
+     * @param dbClient    - A client for connection to the DB
+     * @param workspaceId - A workspace for which we want the filter values
+     * @return a map between each filter type and its values
+     */
+    public Map<String, List<FacetObject>> getFacets(DatabaseClient dbClient, String workspaceId) {
+        Map<String, List<FacetObject>> facets = new HashMap<>();
+        for (String facetType : FACET_TYPES) {
+            facets.put(facetType, new ArrayList<>());
+        }
+        boolean hasFacets = false;
+        Statement statement = Statement.newBuilder(SPANNER_STRING_FOR_FACETS)
+                .bind("workspaceId")
+                .to(workspaceId)
+                .build();
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(statement)) {
+            while (resultSet.next()) {
+                List<FacetObject> facetList = facets.get(resultSet.getString("facetType"));
+                if (facetList != null) {
+                    facetList.add(new FacetObject(resultSet.getString("facetValue"),
+                            resultSet.getLong("assetsCount")));
+                    hasFacets = true;
+                }
+            }
+        }
+        if (!hasFacets) {
+            for (String facetType : FACET_TYPES) {
+                for (String filterValue : getFilterList(dbClient, workspaceId, facetType)) {
+                    facets.get(facetType).add(new FacetObject(filterValue, null));
+                }
+            }
+        }
+        return facets;
+    }
+
     /**
      * This is used to execute a query that was built dynamically and column types are unknown
      * and return a list of data
@@ -165,55 +239,217 @@ public class AssetsRepository {
         List<List<String>> allAssets = new ArrayList<>();
         try (ResultSet resultSet = dbClient.singleUse().executeQuery(statement)) {
             while (resultSet.next()) {
-                List<String> row = new ArrayList<>();
-                for (int i = 0; i < columnNames.size(); i++) {
-                    if (resultSet.isNull(columnNames.get(i))) {
-                        row.add("");
-                        continue;
-                    }
-                    Type type = resultSet.getColumnType(columnNames.get(i));
-                    switch (type.getCode()) {
-                        case ARRAY:
-                            String arrayType = columnTypes.get(i);
-                            if (arrayType.equals("ARRAY<STRING(MAX)>")) {
-                                row.add(String.valueOf(resultSet.getStringList(columnNames.get(i))));
-                            }
-                            break;
-                        case BOOL:
-                            row.add(String.valueOf(resultSet.getBoolean(columnNames.get(i))));
-                            break;
-                        case BYTES:
-                            row.add(String.valueOf(resultSet.getBytes(columnNames.get(i))));
-                            break;
-                        case DATE:
-                            row.add(String.valueOf(resultSet.getDate(columnNames.get(i))));
-                            break;
-                        case FLOAT64:
-                            row.add(String.valueOf(resultSet.getDouble(columnNames.get(i))));
-                            break;
-                        case INT64:
-                            row.add(String.valueOf(resultSet.getLong(columnNames.get(i))));
-                            break;
-                        case NUMERIC:
-                            row.add(String.valueOf(resultSet.getBigDecimal(columnNames.get(i))));
-                            break;
-                        case STRING:
-                            row.add(resultSet.getString(columnNames.get(i)));
-                            break;
-                        case STRUCT:
-                            //not used at the moment
-                            break;
-                        case TIMESTAMP:
-                            row.add(String.valueOf(resultSet.getTimestamp(columnNames.get(i))));
-                            break;
-                    }
-                }
-                allAssets.add(row);
+                allAssets.add(getRowStrings(resultSet, columnNames, columnTypes));
             }
             return allAssets;
         }
     }
 
+    /**
+     * This is used to execute a paginated query of a TableQueryObject and return a single page of
+     * data. The rows are ordered by the primary key and the page begins right after (or right
+     * before) the primary key in the page token, so that only one page is read regardless of the
+     * number of assets in the workspace
+     *
+     * @param statementBuilder - A builder of a statement with the query of the tableQueryObject
+     *                         and its parameters (the page condition and order are appended to it)
+     * @param dbClient         - A client for connection to the DB
+     * @param tableQueryObject - The TableQueryObject of the query
+     * @param pageToken        - The token of the wanted page, or null for the first page
+     * @param pageSize         - The maximal number of rows in the page
+     * @return A ResultListObject with the rows of the page and the tokens of the next and
+     * previous pages
+     * @throws IllegalArgumentException if the page token does not match the primary key
+     */
+    public ResultListObject executeQueryAndReturnPage(Statement.Builder statementBuilder,
+                                                      DatabaseClient dbClient,
+                                                      TableQueryObject tableQueryObject,
+                                                      PageToken pageToken, int pageSize) {
+        pageSize = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        boolean isBefore = pageToken != null && pageToken.getIsBefore();
+        List<String> keyColumns = tableQueryObject.primaryKeyColumns;
+        StringBuilder queryString = new StringBuilder();
+        if (pageToken != null) {
+            if (pageToken.getKeyValues().size() != keyColumns.size()) {
+                throw new IllegalArgumentException("The page token does not match the primary key");
+            }
+            queryString.append(" AND (").append(getKeysetCondition(keyColumns, isBefore ? "<" : ">")).append(")");
+            for (int i = 0; i < keyColumns.size(); i++) {
+                bindPageKey(statementBuilder, PAGE_KEY_ALIAS + i, tableQueryObject.primaryKeyTypes.get(i),
+                        pageToken.getKeyValues().get(i));
+            }
+        }
+        List<String> orderColumns = new ArrayList<>();
+        for (String keyColumn : keyColumns) {
+            orderColumns.add(isBefore ? keyColumn + " DESC" : keyColumn);
+        }
+        // One more row is read to know if there is another page in the same direction
+        queryString.append(" ORDER BY ").append(String.join(", ", orderColumns))
+                .append(" LIMIT ").append(pageSize + 1);
+
+        List<String> pageKeyAliases = new ArrayList<>();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            pageKeyAliases.add(PAGE_KEY_ALIAS + i);
+        }
+        List<List<String>> rows = new ArrayList<>();
+        List<List<String>> rowKeys = new ArrayList<>();
+        boolean hasMoreRows = false;
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(
+                statementBuilder.append(queryString.toString()).build())) {
+            while (resultSet.next()) {
+                if (rows.size() == pageSize) {
+                    hasMoreRows = true;
+                    break;
+                }
+                rows.add(getRowStrings(resultSet, tableQueryObject.columnNames, tableQueryObject.columnTypes));
+                rowKeys.add(getRowStrings(resultSet, pageKeyAliases, tableQueryObject.primaryKeyTypes));
+            }
+        }
+        if (isBefore) {
+            Collections.reverse(rows);
+            Collections.reverse(rowKeys);
+        }
+
+        String nextPageToken = null;
+        String previousPageToken = null;
+        if (!rows.isEmpty()) {
+            // A page which was reached from another page always has a page in the other direction
+            if (isBefore ? pageToken != null : hasMoreRows) {
+                nextPageToken = new PageToken(false, rowKeys.get(rowKeys.size() - 1)).encode();
+            }
+            if (isBefore ? hasMoreRows : pageToken != null) {
+                previousPageToken = new PageToken(true, rowKeys.get(0)).encode();
+            }
+        }
+        return new ResultListObject(tableQueryObject.columnDisplays, rows, nextPageToken, previousPageToken);
+    }
+
+    /**
+     * This is used to execute the query of a TableQueryObject without a limit and write all of its
+     * rows to the output stream in the given format. The rows are written while they are streamed
+     * from Spanner, so only the current row is held in memory regardless of the number of assets
+     *
+     * @param statementBuilder - A builder of a statement with the query of the tableQueryObject
+     *                         and its parameters (the order is appended to it)
+     * @param dbClient         - A client for connection to the DB
+     * @param tableQueryObject - The TableQueryObject of the query
+     * @param format           - The format of the exported assets
+     * @param outputStream     - The stream to which the assets are written (the http response)
+     * @throws IOException if the assets could not be written to the output stream
+     */
+    public void executeQueryAndExport(Statement.Builder statementBuilder, DatabaseClient dbClient,
+                                      TableQueryObject tableQueryObject, ExportFormat format,
+                                      OutputStream outputStream) throws IOException {
+        // The assets are exported by the same order as the pages
+        statementBuilder.append(" ORDER BY ").append(String.join(", ", tableQueryObject.primaryKeyColumns));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        format.writeHeader(writer, tableQueryObject);
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(statementBuilder.build())) {
+            while (resultSet.next()) {
+                format.writeRow(writer, tableQueryObject,
+                        getRowStrings(resultSet, tableQueryObject.columnNames, tableQueryObject.columnTypes));
+            }
+        }
+        writer.flush();
+    }
+
+    /*
+    This helper returns a condition on the primary key columns which is true for the rows after
+    (operator is '>') or before (operator is '<') the primary key in the page key parameters, by the
+    primary key order
+     */
+    private String getKeysetCondition(List<String> keyColumns, String operator) {
+        List<String> conditions = new ArrayList<>();
+        for (int i = 0; i < keyColumns.size(); i++) {
+            List<String> columnConditions = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                columnConditions.add(String.format("%s = @%s%d", keyColumns.get(j), PAGE_KEY_ALIAS, j));
+            }
+            columnConditions.add(String.format("%s %s @%s%d", keyColumns.get(i), operator, PAGE_KEY_ALIAS, i));
+            conditions.add("(" + String.join(" AND ", columnConditions) + ")");
+        }
+        return String.join(" OR ", conditions);
+    }
+
+    /*
+    This helper binds a primary key value of a page token to the parameter of the given name by
+    the type of its primary key column (the values are kept in the token as strings), so that it is
+    compared with the column by its own type. Throws IllegalArgumentException if the value does not
+    match the type
+     */
+    private void bindPageKey(Statement.Builder statementBuilder, String parameterName, String columnType,
+                             String keyValue) {
+        try {
+            if (columnType.startsWith("INT64")) {
+                statementBuilder.bind(parameterName).to(Long.parseLong(keyValue));
+            } else if (columnType.startsWith("FLOAT64")) {
+                statementBuilder.bind(parameterName).to(Double.parseDouble(keyValue));
+            } else if (columnType.startsWith("BOOL")) {
+                statementBuilder.bind(parameterName).to(Boolean.parseBoolean(keyValue));
+            } else if (columnType.startsWith("NUMERIC")) {
+                statementBuilder.bind(parameterName).to(new BigDecimal(keyValue));
+            } else if (columnType.startsWith("TIMESTAMP")) {
+                statementBuilder.bind(parameterName).to(Timestamp.parseTimestamp(keyValue));
+            } else if (columnType.startsWith("DATE")) {
+                statementBuilder.bind(parameterName).to(Date.parseDate(keyValue));
+            } else {
+                statementBuilder.bind(parameterName).to(keyValue);
+            }
+        } catch (RuntimeException exception) {
+            throw new IllegalArgumentException("The page token does not match the primary key", exception);
+        }
+    }
+
+    /*
+    This helper converts the current row of the resultSet into strings (to use in template)
+     */
+    private List<String> getRowStrings(ResultSet resultSet, List<String> columnNames, List<String> columnTypes) {
+        List<String> row = new ArrayList<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (resultSet.isNull(columnNames.get(i))) {
+                row.add("");
+                continue;
+            }
+            Type type = resultSet.getColumnType(columnNames.get(i));
+            switch (type.getCode()) {
+                case ARRAY:
+                    String arrayType = columnTypes.get(i);
+                    if (arrayType.equals("ARRAY<STRING(MAX)>")) {
+                        row.add(String.valueOf(resultSet.getStringList(columnNames.get(i))));
+                    }
+                    break;
+                case BOOL:
+                    row.add(String.valueOf(resultSet.getBoolean(columnNames.get(i))));
+                    break;
+                case BYTES:
+                    row.add(String.valueOf(resultSet.getBytes(columnNames.get(i))));
+                    break;
+                case DATE:
+                    row.add(String.valueOf(resultSet.getDate(columnNames.get(i))));
+                    break;
+                case FLOAT64:
+                    row.add(String.valueOf(resultSet.getDouble(columnNames.get(i))));
+                    break;
+                case INT64:
+                    row.add(String.valueOf(resultSet.getLong(columnNames.get(i))));
+                    break;
+                case NUMERIC:
+                    row.add(String.valueOf(resultSet.getBigDecimal(columnNames.get(i))));
+                    break;
+                case STRING:
+                    row.add(resultSet.getString(columnNames.get(i)));
+                    break;
+                case STRUCT:
+                    //not used at the moment
+                    break;
+                case TIMESTAMP:
+                    row.add(String.valueOf(resultSet.getTimestamp(columnNames.get(i))));
+                    break;
+            }
+        }
+        return row;
+    }
+
     /**
      * This is used specifically to build and run query to get table schema as a result set
      *
@@ -234,6 +470,38 @@ public class AssetsRepository {
         return dbClient.singleUse().executeQuery(statement);
     }
 
+    /**
+     * This is used to fill-in the primary key columns of Main_Assets and their types (by their
+     * order in the primary key), which are used to order and paginate the assets
+     *
+     * @param dbClient          - A client for connection to the DB
+     * @param primaryKeyColumns - The list to fill with the primary key column names qualified by
+     *                          the Main_Assets table
+     * @param primaryKeyTypes   - The list to fill with the types of the primary key columns
+     */
+    public void fillInPrimaryKeys(DatabaseClient dbClient, List<String> primaryKeyColumns,
+                                  List<String> primaryKeyTypes) {
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(
+                Statement.of(SPANNER_STRING_FOR_PRIMARY_KEYS))) {
+            while (resultSet.next()) {
+                primaryKeyColumns.add("Main_Assets." + resultSet.getString("columnName"));
+                primaryKeyTypes.add(resultSet.getString("columnType"));
+            }
+        }
+    }
+
+    /*
+    This helper returns the primary key columns as additional select columns with the page key
+    aliases (to be appended to the displayed columns)
+     */
+    private String getPageKeyColumns(List<String> primaryKeyColumns) {
+        List<String> pageKeyColumns = new ArrayList<>();
+        for (int i = 0; i < primaryKeyColumns.size(); i++) {
+            pageKeyColumns.add(String.format("%s AS %s%d", primaryKeyColumns.get(i), PAGE_KEY_ALIAS, i));
+        }
+        return String.join(", ", pageKeyColumns);
+    }
+
     /**
      * This is used to fill-in the tables for building a TableQueryObject with kind filter
      *
@@ -267,28 +535,48 @@ public class AssetsRepository {
     }
 
     /**
-     * This is used to create TableQueryObject dynamically for kind
+     * This is used to get the TableQueryObject for kind from the query plan cache (it is only
+     * created if it is not cached). Only the plans of configured kinds are cached, so that unknown
+     * kinds from the request do not fill the cache
      *
      * @param dbClient - A client for connection to the DB
      * @param kind     - The kind of object we want to filter by
      * @return A TableQueryObject for using when running query
+     * @throws IllegalArgumentException if the kind has no configured asset table
      */
-    public TableQueryObject createTableQueryObjectForKind(DatabaseClient dbClient, String kind) {
-        List<String> columnDisplays = new ArrayList<>();
-        List<String> columnNames = new ArrayList<>();
-        List<String> columnNamesForKindQuery = new ArrayList<>();
-        List<String> columnTypes = new ArrayList<>();
-        List<String> columnsForUsing = new ArrayList<>();
-        String statementString = "";
-
-        ResultSet resultSetForAllAssets = runConfigQuery("forAllAssets", dbClient);
-        fillInLists(resultSetForAllAssets, columnDisplays, columnNames, columnNamesForKindQuery,
-                columnTypes, columnsForUsing, "Main_Assets", true);
+    public TableQueryObject getTableQueryObjectForKind(DatabaseClient dbClient, String kind) {
+        TableQueryObject tableQueryObject = queryPlanCache.getQueryPlan(dbClient, "kind:" + kind,
+                () -> createTableQueryObjectForKind(dbClient, kind));
+        if (tableQueryObject == null) {
+            throw new IllegalArgumentException("Unknown kind: " + kind);
+        }
+        return tableQueryObject;
+    }
 
-        ResultSet resultSetForMainAssets = runConfigQuery("Main_Assets", dbClient);
-        fillInLists(resultSetForMainAssets, columnDisplays, columnNames, columnNamesForKindQuery,
-                columnTypes, columnsForUsing, "Main_Assets", false);
+    /**
+     * This is used to get the TableQueryObject for all cases other than kind from the query plan
+     * cache (it is only created if it is not cached)
+     *
+     * @param dbClient - A client for connection to the DB
+     * @param filters  - The types of filters we want to use
+     * @return A TableQueryObject for using when running query
+     */
+    public TableQueryObject getTableQueryObject(DatabaseClient dbClient, List<String> filters) {
+        return queryPlanCache.getQueryPlan(dbClient, "filters:" + String.join(",", filters),
+                () -> createTableQueryObject(dbClient, filters));
+    }
 
+    /**
+     * This is used to create TableQueryObject dynamically for kind
+     *
+     * @param dbClient - A client for connection to the DB
+     * @param kind     - The kind of object we want to filter by
+     * @return A TableQueryObject for using when running query, or null if the kind has no
+     * configured asset table
+     */
+    public TableQueryObject createTableQueryObjectForKind(DatabaseClient dbClient, String kind) {
+        // The asset table of the kind is read first, so that an unknown kind costs a single query
+        String tableName = null;
         Statement statementForQueryFromKindTable =
                 Statement.newBuilder(
                         "SELECT DISTINCT assetTableName FROM Asset_Tables_Config "
@@ -300,21 +588,42 @@ public class AssetsRepository {
                      dbClient.singleUse().executeQuery(statementForQueryFromKindTable)) {
             while (resultSetForQueryForTableName.next()) {
                 if (!resultSetForQueryForTableName.isNull("assetTableName")) {
-                    String tableName = resultSetForQueryForTableName.getString("assetTableName");
-                    ResultSet resultSetForKindTable = runConfigQuery(tableName, dbClient);
-                    fillInLists(resultSetForKindTable, columnDisplays, columnNames,
-                            columnNamesForKindQuery,
-                            columnTypes, columnsForUsing, tableName, false);
-                    String columns = String.join(", ", columnNamesForKindQuery);
-                    String usingString = String.join(", ", columnsForUsing);
-                    statementString = String.format("SELECT %s FROM Main_Assets JOIN %s USING " +
-                                    "(%s) WHERE Main_Assets.workspaceId = @workspaceId ORDER By %s"
-                            , columns, tableName, usingString, columnNames.get(0));
+                    tableName = resultSetForQueryForTableName.getString("assetTableName");
                 }
             }
         }
+        if (tableName == null) {
+            return null;
+        }
+
+        List<String> columnDisplays = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>();
+        List<String> columnNamesForKindQuery = new ArrayList<>();
+        List<String> columnTypes = new ArrayList<>();
+        List<String> columnsForUsing = new ArrayList<>();
+        List<String> primaryKeyColumns = new ArrayList<>();
+        List<String> primaryKeyTypes = new ArrayList<>();
+        fillInPrimaryKeys(dbClient, primaryKeyColumns, primaryKeyTypes);
+
+        ResultSet resultSetForAllAssets = runConfigQuery("forAllAssets", dbClient);
+        fillInLists(resultSetForAllAssets, columnDisplays, columnNames, columnNamesForKindQuery,
+                columnTypes, columnsForUsing, "Main_Assets", true);
+
+        ResultSet resultSetForMainAssets = runConfigQuery("Main_Assets", dbClient);
+        fillInLists(resultSetForMainAssets, columnDisplays, columnNames, columnNamesForKindQuery,
+                columnTypes, columnsForUsing, "Main_Assets", false);
+
+        ResultSet resultSetForKindTable = runConfigQuery(tableName, dbClient);
+        fillInLists(resultSetForKindTable, columnDisplays, columnNames,
+                columnNamesForKindQuery,
+                columnTypes, columnsForUsing, tableName, false);
+        String columns = String.join(", ", columnNamesForKindQuery);
+        String usingString = String.join(", ", columnsForUsing);
+        String statementString = String.format("SELECT %s, %s FROM Main_Assets JOIN %s USING " +
+                        "(%s) WHERE Main_Assets.workspaceId = @workspaceId"
+                , columns, getPageKeyColumns(primaryKeyColumns), tableName, usingString);
         TableQueryObject tableQueryObject = new TableQueryObject(columnDisplays, columnNames,
-                columnTypes, statementString);
+                columnTypes, statementString, primaryKeyColumns, primaryKeyTypes);
         return tableQueryObject;
     }
 
@@ -344,12 +653,14 @@ public class AssetsRepository {
             columnNames.add(resultSetForMainAssets.getString("columnName"));
             columnTypes.add(resultSetForMainAssets.getString("columnType"));
         }
-        String columns = String.join(", ", columnNames);
+        List<String> primaryKeyColumns = new ArrayList<>();
+        List<String> primaryKeyTypes = new ArrayList<>();
+        fillInPrimaryKeys(dbClient, primaryKeyColumns, primaryKeyTypes);
+        String columns = String.join(", ", columnNames) + ", " + getPageKeyColumns(primaryKeyColumns);
         String statementString;
         if (filters.isEmpty()) {
             statementString = String.format("SELECT %s FROM Main_Assets WHERE workspaceId = " +
-                            "@workspaceId ORDER By %s", columns,
-                    columnNames.get(0));
+                            "@workspaceId", columns);
         } else {
             List<String> queryFilters = new ArrayList<>();
             for (String filter : filters) {
@@ -359,12 +670,12 @@ public class AssetsRepository {
             String workspaceIdFilter = String.format("%s", "workspaceId = @workspaceId");
             queryFilters.add(workspaceIdFilter);
             String where = String.join(" AND ", queryFilters);
-            statementString = String.format("SELECT %s FROM Main_Assets WHERE %s ORDER By %s",
-                    columns, where, columnNames.get(0));
+            statementString = String.format("SELECT %s FROM Main_Assets WHERE %s",
+                    columns, where);
         }
 
         TableQueryObject tableQueryObject = new TableQueryObject(columnDisplays, columnNames,
-                columnTypes, statementString);
+                columnTypes, statementString, primaryKeyColumns, primaryKeyTypes);
         return tableQueryObject;
     }
 
@@ -376,12 +687,50 @@ public class AssetsRepository {
      * @param status      - The wanted status from the user
      * @param kind        - The wanted kind from the user
      * @param workspaceId - The chosen workspace from the user
+     * @param pageToken   - The token of the wanted page, or null for the first page
+     * @param pageSize    - The maximal number of assets in the page
      * @return A ResultListObject witch holds a list of display names for each column and a list
      * of lists where each row holds information of one asset in strings (to use
-     * in template)
+     * in template), and the tokens of the next and previous pages
      */
     public ResultListObject getAllAssets(DatabaseClient dbClient, String location, String status,
-                                         String kind, String workspaceId) {
+                                         String kind, String workspaceId, PageToken pageToken,
+                                         int pageSize) {
+        TableQueryObject tableQueryObject = getTableQueryObject(dbClient, getFilters(location, status, kind));
+        Statement.Builder statementBuilder =
+                Statement.newBuilder(tableQueryObject.Query).bind("location").to(location).bind(
+                        "status").to(status).bind("kind").to(kind).bind("workspaceId").to(workspaceId);
+        return executeQueryAndReturnPage(statementBuilder, dbClient, tableQueryObject, pageToken,
+                pageSize);
+    }
+
+    /**
+     * This builds and executes the query with all the different filters, and writes all of the
+     * assets to the output stream
+     *
+     * @param dbClient     - A client for connection to the DB
+     * @param location     - The wanted location from the user
+     * @param status       - The wanted status from the user
+     * @param kind         - The wanted kind from the user
+     * @param workspaceId  - The chosen workspace from the user
+     * @param format       - The format of the exported assets
+     * @param outputStream - The stream to which the assets are written
+     * @throws IOException if the assets could not be written to the output stream
+     */
+    public void exportAllAssets(DatabaseClient dbClient, String location, String status, String kind,
+                                String workspaceId, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        TableQueryObject tableQueryObject = getTableQueryObject(dbClient, getFilters(location, status, kind));
+        Statement.Builder statementBuilder =
+                Statement.newBuilder(tableQueryObject.Query).bind("location").to(location).bind(
+                        "status").to(status).bind("kind").to(kind).bind("workspaceId").to(workspaceId);
+        executeQueryAndExport(statementBuilder, dbClient, tableQueryObject, format, outputStream);
+    }
+
+    /*
+    This helper returns the types of filters which were chosen (all of the filters which are not "all")
+     */
+    private List<String> getFilters(String location, String status, String kind) {
         List<String> filters = new ArrayList<>();
         if (!status.equals("all")) {
             filters.add("status");
@@ -392,15 +741,7 @@ public class AssetsRepository {
         if (!kind.equals("all")) {
             filters.add("kind");
         }
-        TableQueryObject tableQueryObject = createTableQueryObject(dbClient, filters);
-        Statement statement =
-                Statement.newBuilder(tableQueryObject.Query).bind("location").to(location).bind(
-                        "status").to(status).bind("kind").to(kind).bind("workspaceId").to(workspaceId).build();
-        List<List<String>> results = executeQueryAndReturnList(statement, dbClient,
-                tableQueryObject.columnNames, tableQueryObject.columnTypes);
-        ResultListObject resultList = new ResultListObject(tableQueryObject.columnDisplays,
-                results);
-        return resultList;
+        return filters;
     }
 
     /**
@@ -409,20 +750,38 @@ public class AssetsRepository {
      * @param dbClient    - A client for connection to the DB
      * @param kind        - The wanted status from the user
      * @param workspaceId - The chosen workspace from the user
+     * @param pageToken   - The token of the wanted page, or null for the first page
+     * @param pageSize    - The maximal number of assets in the page
      * @return A ResultListObject witch holds a list of display names for each column and a list
      * of lists where each row holds information of one asset in strings (to use
-     * in template)
+     * in template), and the tokens of the next and previous pages
      */
     public ResultListObject getAssetsByKind(DatabaseClient dbClient, String kind,
-                                            String workspaceId) {
-        TableQueryObject tableQueryObject = createTableQueryObjectForKind(dbClient, kind);
-        Statement statement =
-                Statement.newBuilder(tableQueryObject.Query).bind("workspaceId").to(workspaceId).build();
-        List<List<String>> results = executeQueryAndReturnList(statement, dbClient,
-                tableQueryObject.columnNames, tableQueryObject.columnTypes);
-        ResultListObject resultList = new ResultListObject(tableQueryObject.columnDisplays,
-                results);
-        return resultList;
+                                            String workspaceId, PageToken pageToken, int pageSize) {
+        TableQueryObject tableQueryObject = getTableQueryObjectForKind(dbClient, kind);
+        Statement.Builder statementBuilder =
+                Statement.newBuilder(tableQueryObject.Query).bind("workspaceId").to(workspaceId);
+        return executeQueryAndReturnPage(statementBuilder, dbClient, tableQueryObject, pageToken,
+                pageSize);
+    }
+
+    /**
+     * This builds and executes the query with kind (type of asset) filter, and writes all of the
+     * assets to the output stream
+     *
+     * @param dbClient     - A client for connection to the DB
+     * @param kind         - The wanted kind from the user
+     * @param workspaceId  - The chosen workspace from the user
+     * @param format       - The format of the exported assets
+     * @param outputStream - The stream to which the assets are written
+     * @throws IOException if the assets could not be written to the output stream
+     */
+    public void exportAssetsByKind(DatabaseClient dbClient, String kind, String workspaceId,
+                                   ExportFormat format, OutputStream outputStream) throws IOException {
+        TableQueryObject tableQueryObject = getTableQueryObjectForKind(dbClient, kind);
+        Statement.Builder statementBuilder =
+                Statement.newBuilder(tableQueryObject.Query).bind("workspaceId").to(workspaceId);
+        executeQueryAndExport(statementBuilder, dbClient, tableQueryObject, format, outputStream);
     }
 
 
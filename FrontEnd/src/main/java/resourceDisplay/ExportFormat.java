@@ -0,0 +1,118 @@
+package resourceDisplay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This enum holds the formats in which assets can be exported, and writes the exported rows one
+ * by one (so that the rows are never held in memory together)
+ */
+public enum ExportFormat {
+    CSV("text/csv", "csv") {
+        @Override
+        public void writeHeader(Writer writer, TableQueryObject tableQueryObject) throws IOException {
+            writeCsvLine(writer, tableQueryObject.columnDisplays);
+        }
+
+        @Override
+        public void writeRow(Writer writer, TableQueryObject tableQueryObject, List<String> row)
+                throws IOException {
+            writeCsvLine(writer, row);
+        }
+    },
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public void writeHeader(Writer writer, TableQueryObject tableQueryObject) {
+            // Every line is a self describing json object, so there is no header
+        }
+
+        @Override
+        public void writeRow(Writer writer, TableQueryObject tableQueryObject, List<String> row)
+                throws IOException {
+            Map<String, String> asset = new LinkedHashMap<>();
+            for (int i = 0; i < row.size(); i++) {
+                asset.put(tableQueryObject.columnNames.get(i), row.get(i));
+            }
+            writer.write(jsonMapper.writeValueAsString(asset));
+            writer.write('\n');
+        }
+    };
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * This is used to write the header of the export (before all of the rows)
+     *
+     * @param writer           - The writer of the exported assets
+     * @param tableQueryObject - The TableQueryObject of the exported query (with the column names)
+     */
+    public abstract void writeHeader(Writer writer, TableQueryObject tableQueryObject) throws IOException;
+
+    /**
+     * This is used to write one exported asset
+     *
+     * @param writer           - The writer of the exported assets
+     * @param tableQueryObject - The TableQueryObject of the exported query (with the column names)
+     * @param row              - The values of the asset in strings, by the order of the columns
+     */
+    public abstract void writeRow(Writer writer, TableQueryObject tableQueryObject, List<String> row)
+            throws IOException;
+
+    /**
+     * This is used to get the format which was requested by the user
+     *
+     * @param name - The name of the format (csv or ndjson)
+     * @return the ExportFormat of the name
+     * @throws IllegalArgumentException if there is no such format
+     */
+    public static ExportFormat fromName(String name) {
+        for (ExportFormat format : values()) {
+            if (format.fileExtension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + name);
+    }
+
+    /*
+    This helper writes one line of csv, where values with separators, quotes or line breaks are
+    quoted (and their quotes are doubled)
+     */
+    private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i) == null ? "" : values.get(i);
+            if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,37 @@
+package resourceDisplay;
+
+/**
+ * This Class holds one value of a filter and the number of assets with this value
+ */
+public class FacetObject {
+    private String value;
+    private Long count;
+
+    public FacetObject(String value, Long count) {
+        this.value = value;
+        this.count = count;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    /**
+     * @return the text of the value in the filter (with its number of assets, if it is known)
+     */
+    public String getLabel() {
+        return count == null ? value : String.format("%s (%d)", value, count);
+    }
+}
@@ -1,10 +1,11 @@
 package resourceDisplay;
 
 import com.google.cloud.spanner.DatabaseClient;
-import com.google.cloud.spanner.DatabaseId;
-import com.google.cloud.spanner.Spanner;
-import com.google.cloud.spanner.SpannerOptions;
 import com.google.cloudassets.acounts.CreateWorkspace;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Controller;
@@ -12,38 +13,35 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This Class holds all the different mappings
  */
 @Controller
 public class IndexController {
-    private static final String SPANNER_PROJECT_ID = "noa-yarden-2020";
-    private static final String SPANNER_INSTANCE_ID = "spanner1";
-    private static final String SPANNER_DATABASE_ID = "db1";
-    private static Spanner spanner;
-    private static DatabaseId db;
-    private static DatabaseClient dbClient;
     private static String userID;
     private static String userName;
     private static WorkspaceObject chosenWorkspace;
+    private final DatabaseClient dbClient;
+    private final AssetsRepository assets;
 
     /**
-     * This helper function returns a DatabaseClient to use for connection to DB
+     * The DatabaseClient is the application scoped client which is configured by the
+     * spring.cloud.gcp.spanner properties (including its session pool), so that all of the requests
+     * share the same sessions instead of creating a new Spanner service per request. The
+     * AssetsRepository is shared as well, so that its cached query plans are reused
      *
-     * @param projectID    - The project ID that the spanner instance is on
-     * @param instanceID        - The spanner instance ID
-     * @param dbID - The DB ID
-     * @return A db client
+     * @param dbClient - A client for connection to the DB
+     * @param assets - The repository of all DB access
      */
-    private DatabaseClient getDbClient(String projectID, String instanceID, String dbID) {
-        SpannerOptions options =
-                SpannerOptions.newBuilder().setProjectId(projectID).build();
-        spanner = options.getService();
-        db = DatabaseId.of(projectID, instanceID, dbID);
-        dbClient = spanner.getDatabaseClient(db);
-        return dbClient;
+    public IndexController(DatabaseClient dbClient, AssetsRepository assets) {
+        this.dbClient = dbClient;
+        this.assets = assets;
     }
 
     /**
@@ -69,8 +67,6 @@ public class IndexController {
                                   @ModelAttribute FilterObject filterObject, @ModelAttribute WorkspaceObject workspaceObject) {
         userID = principal.getAttribute("email");
         userName = principal.getAttribute("name");
-        dbClient = getDbClient(SPANNER_PROJECT_ID, SPANNER_INSTANCE_ID, SPANNER_DATABASE_ID);
-        AssetsRepository assets = new AssetsRepository();
         List<WorkspaceObject> workspaceIdList = assets.getWorkspaceIdList(dbClient, userID);
         model.addAttribute("workspaceIdList", workspaceIdList);
         //model.addAttribute("workspaceObject", workspaceObject);
@@ -99,13 +95,15 @@ public class IndexController {
      * @param model        - Used to show table to user
      * @param filterObject - Used to get filters from the user
      * @param workspaceObject - Holds the current chosen workspace
+     * @param pageToken - The token of the wanted page of assets (the first page if it is empty)
+     * @param pageSize - The maximal number of assets in a page
      * @return the allassets template
      */
     @GetMapping("/allassets")
     public String getAll(@AuthenticationPrincipal OAuth2User principal, Model model,
-                         @ModelAttribute FilterObject filterObject, @ModelAttribute WorkspaceObject workspaceObject) {
-        dbClient = getDbClient(SPANNER_PROJECT_ID, SPANNER_INSTANCE_ID, SPANNER_DATABASE_ID);
-        AssetsRepository assets = new AssetsRepository();
+                         @ModelAttribute FilterObject filterObject, @ModelAttribute WorkspaceObject workspaceObject,
+                         @RequestParam(required = false) String pageToken,
+                         @RequestParam(defaultValue = "" + AssetsRepository.DEFAULT_PAGE_SIZE) int pageSize) {
         List<WorkspaceObject> workspaceIdList = assets.getWorkspaceIdList(dbClient, userID);
         model.addAttribute("workspaceIdList", workspaceIdList);
         model.addAttribute("workspaceObject", workspaceObject);
@@ -121,19 +119,23 @@ public class IndexController {
         }
         if (chosenWorkspace.getWorkspaceID() != null) {
             model.addAttribute("filterObject", filterObject);
-            List<String> locationList = assets.getFilterList(dbClient, chosenWorkspace.getWorkspaceID() , "location");
-            model.addAttribute("locationList", locationList);
-            List<String> statusList = assets.getFilterList(dbClient, chosenWorkspace.getWorkspaceID() , "status");
-            model.addAttribute("statusList", statusList);
-            List<String> kindList = assets.getFilterList(dbClient, chosenWorkspace.getWorkspaceID() , "kind");
-            model.addAttribute("kindList", kindList);
+            Map<String, List<FacetObject>> facets = assets.getFacets(dbClient, chosenWorkspace.getWorkspaceID());
+            model.addAttribute("locationList", facets.get("location"));
+            model.addAttribute("statusList", facets.get("status"));
+            model.addAttribute("kindList", facets.get("kind"));
             String status = filterObject.getStatus();
             String location = filterObject.getLocation();
             String kind = filterObject.getKind();
             if (status != null && location != null && kind != null) {
-                ResultListObject resultListObject = assets.getAllAssets(dbClient, location, status, kind, chosenWorkspace.getWorkspaceID() );
-                model.addAttribute("displayNames", resultListObject.columnDisplays);
-                model.addAttribute("allAssets", resultListObject.columnResults);
+                PageToken decodedPageToken = decodePageToken(pageToken);
+                ResultListObject resultListObject;
+                try {
+                    resultListObject = assets.getAllAssets(dbClient, location, status, kind,
+                            chosenWorkspace.getWorkspaceID(), decodedPageToken, pageSize);
+                } catch (IllegalArgumentException exception) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token", exception);
+                }
+                addPageAttributes(model, resultListObject, pageSize);
             }
         }
         return "allassets";
@@ -146,13 +148,15 @@ public class IndexController {
      * @param model        - Used to show table to user
      * @param kindObject - Used to get kind filter from the user
      * @param workspaceObject - Holds the current chosen workspace
+     * @param pageToken - The token of the wanted page of assets (the first page if it is empty)
+     * @param pageSize - The maximal number of assets in a page
      * @return the bykind template
      */
     @GetMapping("/bykind")
     public String getByKind(@AuthenticationPrincipal OAuth2User principal, Model model,
-                            @ModelAttribute KindObject kindObject, @ModelAttribute WorkspaceObject workspaceObject) {
-        dbClient = getDbClient(SPANNER_PROJECT_ID, SPANNER_INSTANCE_ID, SPANNER_DATABASE_ID);
-        AssetsRepository assets = new AssetsRepository();
+                            @ModelAttribute KindObject kindObject, @ModelAttribute WorkspaceObject workspaceObject,
+                            @RequestParam(required = false) String pageToken,
+                            @RequestParam(defaultValue = "" + AssetsRepository.DEFAULT_PAGE_SIZE) int pageSize) {
         List<WorkspaceObject> workspaceIdList = assets.getWorkspaceIdList(dbClient, userID);
         model.addAttribute("workspaceIdList", workspaceIdList);
         model.addAttribute("workspaceObject", workspaceObject);
@@ -167,17 +171,171 @@ public class IndexController {
             }
         }
         model.addAttribute("kindObject", kindObject);
-        List<String> kindList = assets.getFilterList(dbClient, chosenWorkspace.getWorkspaceID(), "kind");
-        model.addAttribute("kindList", kindList);
+        Map<String, List<FacetObject>> facets = assets.getFacets(dbClient, chosenWorkspace.getWorkspaceID());
+        model.addAttribute("kindList", facets.get("kind"));
         String kind = kindObject.getKind();
         if (kind != null && !kind.equals("")) {
-            ResultListObject resultListObject = assets.getAssetsByKind(dbClient, kind, chosenWorkspace.getWorkspaceID());
-            model.addAttribute("displayNames", resultListObject.columnDisplays);
-            model.addAttribute("allAssets", resultListObject.columnResults);
+            checkKind(kind);
+            PageToken decodedPageToken = decodePageToken(pageToken);
+            ResultListObject resultListObject;
+            try {
+                resultListObject = assets.getAssetsByKind(dbClient, kind, chosenWorkspace.getWorkspaceID(),
+                        decodedPageToken, pageSize);
+            } catch (IllegalArgumentException exception) {
+                // The kind was already checked, so the page token does not match the primary key
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token", exception);
+            }
+            addPageAttributes(model, resultListObject, pageSize);
         }
         return "bykind";
     }
 
+    /**
+     * This returns all assets in the DB with the chosen filters as a file. The assets are streamed
+     * to the response while they are read from the DB (with chunked transfer encoding), so the
+     * export does not depend on the number of assets
+     *
+     * @param principal    - Used to check authentication and that the user can access the workspace
+     * @param filterObject - Used to get filters from the user
+     * @param workspaceId  - The workspace whose assets are exported
+     * @param format       - The format of the file (csv or ndjson)
+     * @return the streamed file of the assets
+     */
+    @GetMapping("/export/allassets")
+    public ResponseEntity<StreamingResponseBody> exportAll(@AuthenticationPrincipal OAuth2User principal,
+                                                           @ModelAttribute FilterObject filterObject,
+                                                           @RequestParam String workspaceId,
+                                                           @RequestParam(defaultValue = "csv") String format) {
+        checkWorkspaceAccess(principal, workspaceId);
+        String location = filterObject.getLocation() == null ? "all" : filterObject.getLocation();
+        String status = filterObject.getStatus() == null ? "all" : filterObject.getStatus();
+        String kind = filterObject.getKind() == null ? "all" : filterObject.getKind();
+        ExportFormat exportFormat = getExportFormat(format);
+        return createExportResponse(exportFormat, "assets", outputStream ->
+                assets.exportAllAssets(dbClient, location, status, kind, workspaceId, exportFormat, outputStream));
+    }
+
+    /**
+     * This returns the assets of a kind (with the specific data per asset) as a file, which is
+     * streamed like in exportAll
+     *
+     * @param principal   - Used to check authentication and that the user can access the workspace
+     * @param kindObject  - Used to get kind filter from the user
+     * @param workspaceId - The workspace whose assets are exported
+     * @param format      - The format of the file (csv or ndjson)
+     * @return the streamed file of the assets
+     */
+    @GetMapping("/export/bykind")
+    public ResponseEntity<StreamingResponseBody> exportByKind(@AuthenticationPrincipal OAuth2User principal,
+                                                              @ModelAttribute KindObject kindObject,
+                                                              @RequestParam String workspaceId,
+                                                              @RequestParam(defaultValue = "csv") String format) {
+        checkWorkspaceAccess(principal, workspaceId);
+        String kind = kindObject.getKind();
+        if (kind == null || kind.equals("")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No kind was chosen");
+        }
+        // The kind is checked before the response is streamed, so that an unknown kind is rejected
+        checkKind(kind);
+        ExportFormat exportFormat = getExportFormat(format);
+        return createExportResponse(exportFormat, kind.replaceAll("[^A-Za-z0-9_.-]", "_"), outputStream ->
+                assets.exportAssetsByKind(dbClient, kind, workspaceId, exportFormat, outputStream));
+    }
+
+    /**
+     * This helper checks that the signed-in user is a member of the requested workspace (the
+     * workspace is received with every export request, as the chosen workspace is shared by all of
+     * the users)
+     *
+     * @param principal   - The signed-in user
+     * @param workspaceId - The requested workspace
+     */
+    private void checkWorkspaceAccess(OAuth2User principal, String workspaceId) {
+        String email = principal == null ? null : principal.getAttribute("email");
+        if (email != null) {
+            for (WorkspaceObject workspace : assets.getWorkspaceIdList(dbClient, email)) {
+                if (workspaceId.equals(workspace.getWorkspaceID())) {
+                    return;
+                }
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.FORBIDDEN, "No access to the workspace");
+    }
+
+    /**
+     * This helper checks that the kind which was requested by the user has a configured asset table
+     *
+     * @param kind - The received kind
+     */
+    private void checkKind(String kind) {
+        try {
+            assets.getTableQueryObjectForKind(dbClient, kind);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown kind", exception);
+        }
+    }
+
+    /**
+     * This helper reads the export format which was requested by the user
+     *
+     * @param format - The received format name
+     * @return the ExportFormat
+     */
+    private ExportFormat getExportFormat(String format) {
+        try {
+            return ExportFormat.fromName(format);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid export format", exception);
+        }
+    }
+
+    /**
+     * This helper creates the response of an export as a downloaded file. No content length is set,
+     * so the body is sent in chunks while it is written
+     *
+     * @param exportFormat - The format of the file
+     * @param fileName     - The name of the file (without its extension)
+     * @param body         - Writes the assets to the response
+     * @return the response of the export
+     */
+    private ResponseEntity<StreamingResponseBody> createExportResponse(ExportFormat exportFormat, String fileName,
+                                                                       StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s.%s\"",
+                        fileName, exportFormat.getFileExtension()))
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * This helper reads the page token which was received from a next or previous link
+     *
+     * @param pageToken - The received page token
+     * @return the PageToken, or null for the first page
+     */
+    private PageToken decodePageToken(String pageToken) {
+        try {
+            return PageToken.decode(pageToken);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid page token", exception);
+        }
+    }
+
+    /**
+     * This helper adds a page of assets and the tokens of the next and previous pages to the model
+     *
+     * @param model            - Used to show table to user
+     * @param resultListObject - The page of assets
+     * @param pageSize         - The maximal number of assets in a page
+     */
+    private void addPageAttributes(Model model, ResultListObject resultListObject, int pageSize) {
+        model.addAttribute("displayNames", resultListObject.columnDisplays);
+        model.addAttribute("allAssets", resultListObject.columnResults);
+        model.addAttribute("nextPageToken", resultListObject.nextPageToken);
+        model.addAttribute("previousPageToken", resultListObject.previousPageToken);
+        model.addAttribute("pageSize", pageSize);
+    }
+
     /**
      * This page is used to create a new workspace
      *
@@ -190,9 +348,7 @@ public class IndexController {
     @GetMapping("/newworkspace")
     public String createNewWorkspace(@AuthenticationPrincipal OAuth2User principal, Model model,
                                      @ModelAttribute CreateWorkspace createWorkspace, @ModelAttribute WorkspaceObject workspaceObject) {
-        dbClient = getDbClient(SPANNER_PROJECT_ID, SPANNER_INSTANCE_ID, SPANNER_DATABASE_ID);
         createWorkspace.setUserName(userName);
-        AssetsRepository assets = new AssetsRepository();
         List<WorkspaceObject> workspaceIdList = assets.getWorkspaceIdList(dbClient, userID);
         model.addAttribute("workspaceIdList", workspaceIdList);
         model.addAttribute("createWorkspace", createWorkspace);
@@ -223,8 +379,6 @@ public class IndexController {
     @PostMapping("/newworkspace")
     public String showNewWorkspace(@AuthenticationPrincipal OAuth2User principal, Model model,
                                    @ModelAttribute CreateWorkspace createWorkspace, @ModelAttribute WorkspaceObject workspaceObject) {
-        dbClient = getDbClient(SPANNER_PROJECT_ID, SPANNER_INSTANCE_ID, SPANNER_DATABASE_ID);
-        AssetsRepository assets = new AssetsRepository();
         List<WorkspaceObject> workspaceIdList = assets.getWorkspaceIdList(dbClient, userID);
         model.addAttribute("workspaceIdList", workspaceIdList);
         model.addAttribute("workspaceObject", workspaceObject);
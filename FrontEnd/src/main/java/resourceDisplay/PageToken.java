@@ -0,0 +1,77 @@
+package resourceDisplay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * This Class is a keyset cursor of a page of assets - the primary key values of the row before
+ * which (previous page) or after which (next page) the page begins, in an opaque url safe string
+ */
+public class PageToken {
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+
+    private boolean isBefore;
+    private List<String> keyValues;
+
+    public PageToken() {
+    }
+
+    public PageToken(boolean isBefore, List<String> keyValues) {
+        this.isBefore = isBefore;
+        this.keyValues = keyValues;
+    }
+
+    public boolean getIsBefore() {
+        return isBefore;
+    }
+
+    public void setIsBefore(boolean isBefore) {
+        this.isBefore = isBefore;
+    }
+
+    public List<String> getKeyValues() {
+        return keyValues;
+    }
+
+    public void setKeyValues(List<String> keyValues) {
+        this.keyValues = keyValues;
+    }
+
+    /**
+     * This is used to turn the token into a string for the next and previous links
+     *
+     * @return the token as a url safe string
+     */
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(jsonMapper.writeValueAsBytes(this));
+        } catch (IOException exception) {
+            throw new IllegalStateException("Could not encode the page token", exception);
+        }
+    }
+
+    /**
+     * This is used to read a token which was received from a next or previous link
+     *
+     * @param token - The token as a url safe string
+     * @return the PageToken, or null if no token was received (the first page)
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static PageToken decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            PageToken pageToken = jsonMapper.readValue(Base64.getUrlDecoder().decode(token), PageToken.class);
+            if (pageToken.keyValues == null || pageToken.keyValues.isEmpty()) {
+                throw new IllegalArgumentException("The page token has no key values");
+            }
+            return pageToken;
+        } catch (IOException exception) {
+            throw new IllegalArgumentException("The page token is not valid", exception);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package resourceDisplay;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * This Class caches the TableQueryObjects (the query plans) which are built from the
+ * Asset_Tables_Config table, by the kind or the filters of the query. The cache is cleared when a
+ * checksum of the config table changes, and the checksum is checked at most once per check interval
+ * (so that most requests do not query the config table at all)
+ */
+public class QueryPlanCache {
+    // An order independent checksum of all of the config table columns which the plans depend on
+    private static final String SPANNER_STRING_FOR_CONFIG_CHECKSUM = "SELECT COUNT(*) AS numOfRows, " +
+            "BIT_XOR(FARM_FINGERPRINT(CONCAT(assetTableName, '|', IFNULL(assetKind, ''), '|', columnName, '|', " +
+            "IFNULL(columnDisplayName, ''), '|', IFNULL(columnType, ''), '|', " +
+            "CAST(IFNULL(toDisplay, false) AS STRING), '|', CAST(IFNULL(isPrimaryKey, false) AS STRING), '|', " +
+            "CAST(IFNULL(primaryKeyIndex, 0) AS STRING)))) AS checksum FROM Asset_Tables_Config";
+
+    private final long checkIntervalNanos;
+    private final Map<String, TableQueryObject> queryPlans = new ConcurrentHashMap<>();
+    private String configChecksum;
+    private long lastCheckNanos;
+
+    /**
+     * @param checkIntervalSeconds - The minimal time between two checks of the config checksum
+     */
+    public QueryPlanCache(long checkIntervalSeconds) {
+        this.checkIntervalNanos = TimeUnit.SECONDS.toNanos(checkIntervalSeconds);
+    }
+
+    /**
+     * This is used to get the query plan of the given key, which is built by the planBuilder only if
+     * it is not cached (or the config table was changed since it was cached)
+     *
+     * @param dbClient    - A client for connection to the DB
+     * @param planKey     - The key of the plan (its kind or filters)
+     * @param planBuilder - Builds the plan from the config table, or returns null if there is no
+     *                    such plan (which is not cached)
+     * @return the TableQueryObject of the given key, or null if there is no such plan
+     */
+    public TableQueryObject getQueryPlan(DatabaseClient dbClient, String planKey,
+                                         Supplier<TableQueryObject> planBuilder) {
+        checkConfigChecksum(dbClient);
+        return queryPlans.computeIfAbsent(planKey, key -> planBuilder.get());
+    }
+
+    /**
+     * This helper clears the cached plans if the checksum of the config table was changed since it
+     * was last checked (only if the check interval passed since then)
+     *
+     * @param dbClient - A client for connection to the DB
+     */
+    private synchronized void checkConfigChecksum(DatabaseClient dbClient) {
+        long currentNanos = System.nanoTime();
+        if (configChecksum != null && currentNanos - lastCheckNanos < checkIntervalNanos) {
+            return;
+        }
+        String currentChecksum;
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(
+                Statement.of(SPANNER_STRING_FOR_CONFIG_CHECKSUM))) {
+            resultSet.next();
+            currentChecksum = resultSet.getLong("numOfRows") + ":" +
+                    (resultSet.isNull("checksum") ? "" : String.valueOf(resultSet.getLong("checksum")));
+        }
+        if (!currentChecksum.equals(configChecksum)) {
+            queryPlans.clear();
+            configChecksum = currentChecksum;
+        }
+        lastCheckNanos = currentNanos;
+    }
+}
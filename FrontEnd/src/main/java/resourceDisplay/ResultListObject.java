@@ -5,9 +5,19 @@ import java.util.List;
 public class ResultListObject {
     List<String> columnDisplays;
     List<List<String>> columnResults;
+    // The tokens of the next and previous pages of the results (null if there is no such page)
+    String nextPageToken;
+    String previousPageToken;
 
     public ResultListObject(List<String> columnDisplays, List<List<String>> columnResults) {
+        this(columnDisplays, columnResults, null, null);
+    }
+
+    public ResultListObject(List<String> columnDisplays, List<List<String>> columnResults,
+                            String nextPageToken, String previousPageToken) {
         this.columnDisplays = columnDisplays;
         this.columnResults = columnResults;
+        this.nextPageToken = nextPageToken;
+        this.previousPageToken = previousPageToken;
     }
 }
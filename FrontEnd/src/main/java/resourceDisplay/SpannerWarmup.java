@@ -0,0 +1,36 @@
+package resourceDisplay;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * This Class warms up the shared Spanner client when the application starts, so that the first
+ * page view does not pay for opening the connection to the DB
+ */
+@Component
+public class SpannerWarmup {
+    private final DatabaseClient dbClient;
+
+    /**
+     * @param dbClient - The application scoped client for connection to the DB
+     */
+    public SpannerWarmup(DatabaseClient dbClient) {
+        this.dbClient = dbClient;
+    }
+
+    /**
+     * This runs a trivial query once the application is ready. The session pool already creates its
+     * minimum number of sessions together with the client, and the query also opens the channel to
+     * the DB (an unreachable DB is therefore reported at startup and not on the first page view)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(Statement.of("SELECT 1"))) {
+            resultSet.next();
+        }
+    }
+}
@@ -7,13 +7,20 @@ public class TableQueryObject {
     List<String> columnNames;
     List<String> columnTypes;
     String Query;
+    // The primary key columns of Main_Assets, which are selected by the Query with page key aliases
+    List<String> primaryKeyColumns;
+    // The types of the primary key columns (by the same order), which are used to bind page tokens
+    List<String> primaryKeyTypes;
 
     public TableQueryObject(List<String> columnDisplays, List<String> columnNames,
-                            List<String> columnTypes, String query) {
+                            List<String> columnTypes, String query, List<String> primaryKeyColumns,
+                            List<String> primaryKeyTypes) {
         this.columnDisplays = columnDisplays;
         this.columnNames = columnNames;
         this.columnTypes = columnTypes;
         Query = query;
+        this.primaryKeyColumns = primaryKeyColumns;
+        this.primaryKeyTypes = primaryKeyTypes;
     }
 
 }
@@ -1,2 +1,259 @@
-package resourceDisplay;public class AssetsRepositoryTest {
+package resourceDisplay;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.Value;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetsRepositoryTest {
+    private static final Type PAGE_ROW_TYPE = Type.struct(StructField.of("assetName", Type.string()),
+            StructField.of("pageKey0", Type.int64()), StructField.of("pageKey1", Type.string()));
+    private static final Type FACET_ROW_TYPE = Type.struct(StructField.of("facetType", Type.string()),
+            StructField.of("facetValue", Type.string()), StructField.of("assetsCount", Type.int64()));
+    private static final TableQueryObject TABLE_QUERY_OBJECT = new TableQueryObject(
+            Collections.singletonList("Name"), Collections.singletonList("assetName"),
+            Collections.singletonList("STRING(MAX)"),
+            "SELECT assetName, Main_Assets.shardId AS pageKey0, Main_Assets.assetName AS pageKey1 " +
+                    "FROM Main_Assets WHERE workspaceId = @workspaceId",
+            Arrays.asList("Main_Assets.shardId", "Main_Assets.assetName"), Arrays.asList("INT64", "STRING(MAX)"));
+
+    private final AssetsRepository assets = new AssetsRepository(60);
+
+    /**
+     * This is used to check that the first page has a next page token (of its last row) only if
+     * there are more rows, and no previous page token
+     */
+    @Test
+    public void testFirstPage() {
+        FakeClient client = new FakeClient(Arrays.asList(createRow(1, "a"), createRow(1, "b"), createRow(2, "a")));
+        ResultListObject page = assets.executeQueryAndReturnPage(createStatementBuilder(), client.create(),
+                TABLE_QUERY_OBJECT, null, 2);
+
+        assertEquals(Arrays.asList(Collections.singletonList("1/a"), Collections.singletonList("1/b")),
+                page.columnResults);
+        assertKeyValues(false, Arrays.asList("1", "b"), page.nextPageToken);
+        assertNull(page.previousPageToken);
+        assertTrue(client.statement.getSql().endsWith(" ORDER BY Main_Assets.shardId, Main_Assets.assetName LIMIT 3"));
+    }
+
+    /**
+     * This is used to check that a next page begins after the key of its token (which is bound by
+     * the type of each primary key column), and that the last page has only a previous page token
+     */
+    @Test
+    public void testNextPage() {
+        FakeClient client = new FakeClient(Collections.singletonList(createRow(2, "a")));
+        ResultListObject page = assets.executeQueryAndReturnPage(createStatementBuilder(), client.create(),
+                TABLE_QUERY_OBJECT, new PageToken(false, Arrays.asList("1", "b")), 2);
+
+        assertEquals(Collections.singletonList(Collections.singletonList("2/a")), page.columnResults);
+        assertNull(page.nextPageToken);
+        assertKeyValues(true, Arrays.asList("2", "a"), page.previousPageToken);
+        assertTrue(client.statement.getSql().contains("(Main_Assets.shardId > @pageKey0) OR " +
+                "(Main_Assets.shardId = @pageKey0 AND Main_Assets.assetName > @pageKey1)"));
+        assertEquals(Value.int64(1), client.statement.getParameters().get("pageKey0"));
+        assertEquals(Value.string("b"), client.statement.getParameters().get("pageKey1"));
+    }
+
+    /**
+     * This is used to check that a previous page is read backwards from the key of its token, that
+     * its rows are reversed back to the primary key order and that it has tokens of both directions
+     * when there are more rows before it
+     */
+    @Test
+    public void testPreviousPage() {
+        // The rows are returned by the descending order of the query
+        FakeClient client = new FakeClient(Arrays.asList(createRow(2, "a"), createRow(1, "b"), createRow(1, "a")));
+        ResultListObject page = assets.executeQueryAndReturnPage(createStatementBuilder(), client.create(),
+                TABLE_QUERY_OBJECT, new PageToken(true, Arrays.asList("2", "b")), 2);
+
+        assertEquals(Arrays.asList(Collections.singletonList("1/b"), Collections.singletonList("2/a")),
+                page.columnResults);
+        assertKeyValues(false, Arrays.asList("2", "a"), page.nextPageToken);
+        assertKeyValues(true, Arrays.asList("1", "b"), page.previousPageToken);
+        assertTrue(client.statement.getSql().contains("(Main_Assets.shardId < @pageKey0)"));
+        assertTrue(client.statement.getSql().endsWith(
+                " ORDER BY Main_Assets.shardId DESC, Main_Assets.assetName DESC LIMIT 3"));
+    }
+
+    /**
+     * This is used to check that the first page of the previous pages has no previous page token
+     */
+    @Test
+    public void testPreviousFirstPage() {
+        FakeClient client = new FakeClient(Collections.singletonList(createRow(1, "a")));
+        ResultListObject page = assets.executeQueryAndReturnPage(createStatementBuilder(), client.create(),
+                TABLE_QUERY_OBJECT, new PageToken(true, Arrays.asList("1", "b")), 2);
+
+        assertKeyValues(false, Arrays.asList("1", "a"), page.nextPageToken);
+        assertNull(page.previousPageToken);
+    }
+
+    /**
+     * This is used to check that a page token which does not match the primary key is rejected
+     * before any query is executed
+     */
+    @Test
+    public void testInvalidPageToken() {
+        FakeClient client = new FakeClient(new ArrayList<>());
+        assertThrows(IllegalArgumentException.class, () -> assets.executeQueryAndReturnPage(
+                createStatementBuilder(), client.create(), TABLE_QUERY_OBJECT,
+                new PageToken(false, Collections.singletonList("1")), 2));
+        assertThrows(IllegalArgumentException.class, () -> assets.executeQueryAndReturnPage(
+                createStatementBuilder(), client.create(), TABLE_QUERY_OBJECT,
+                new PageToken(false, Arrays.asList("not a number", "b")), 2));
+        assertNull(client.statement);
+    }
+
+    /**
+     * This is used to check that the filters of a workspace are read from its facets with their
+     * number of assets, without reading its assets
+     */
+    @Test
+    public void testFacets() {
+        FakeClient client = new FakeClient(statement -> ResultSets.forRows(FACET_ROW_TYPE, Arrays.asList(
+                createFacetRow("kind", "compute#disk", 2), createFacetRow("location", "us-east1", 3),
+                createFacetRow("unknownType", "value", 1))));
+        Map<String, List<FacetObject>> facets = assets.getFacets(client.create(), "workspace");
+
+        assertEquals(Collections.singletonList("us-east1 (3)"), getLabels(facets.get("location")));
+        assertEquals(Collections.singletonList("compute#disk (2)"), getLabels(facets.get("kind")));
+        assertTrue(facets.get("status").isEmpty());
+        assertEquals(1, client.statements.size());
+        assertEquals(Value.string("workspace"), client.statement.getParameters().get("workspaceId"));
+    }
+
+    /**
+     * This is used to check that the filters of a workspace which has no facets yet are read from
+     * its assets (by the getFilterList function of every filter type), without their number of assets
+     */
+    @Test
+    public void testFacetsFallbackToFilterList() {
+        FakeClient client = new FakeClient(statement -> {
+            if (statement.getSql().contains("Workspace_Facets")) {
+                return ResultSets.forRows(FACET_ROW_TYPE, new ArrayList<>());
+            }
+            String filterType = AssetsRepository.FACET_TYPES.stream()
+                    .filter(facetType -> statement.getSql().startsWith("SELECT DISTINCT " + facetType + " "))
+                    .findFirst().get();
+            return ResultSets.forRows(Type.struct(StructField.of(filterType, Type.string())), Arrays.asList(
+                    Struct.newBuilder().set(filterType).to((String) null).build(),
+                    Struct.newBuilder().set(filterType).to(filterType + "-value").build()));
+        });
+        Map<String, List<FacetObject>> facets = assets.getFacets(client.create(), "workspace");
+
+        for (String facetType : AssetsRepository.FACET_TYPES) {
+            assertEquals(Collections.singletonList(facetType + "-value"), getLabels(facets.get(facetType)));
+            assertNull(facets.get(facetType).get(0).getCount());
+        }
+        assertEquals(1 + AssetsRepository.FACET_TYPES.size(), client.statements.size());
+        for (Statement statement : client.statements) {
+            assertEquals(Value.string("workspace"), statement.getParameters().get("workspaceId"));
+        }
+    }
+
+    /*
+    This helper returns a row of the facets query
+     */
+    private static Struct createFacetRow(String facetType, String facetValue, long assetsCount) {
+        return Struct.newBuilder()
+                .set("facetType").to(facetType)
+                .set("facetValue").to(facetValue)
+                .set("assetsCount").to(assetsCount)
+                .build();
+    }
+
+    /*
+    This helper returns the labels of the given facets by their order
+     */
+    private static List<String> getLabels(List<FacetObject> facets) {
+        List<String> labels = new ArrayList<>();
+        for (FacetObject facet : facets) {
+            labels.add(facet.getLabel());
+        }
+        return labels;
+    }
+
+    /*
+    This helper returns a row whose displayed name is made of its primary key values
+     */
+    private static Struct createRow(long shardId, String assetName) {
+        return Struct.newBuilder()
+                .set("assetName").to(shardId + "/" + assetName)
+                .set("pageKey0").to(shardId)
+                .set("pageKey1").to(assetName)
+                .build();
+    }
+
+    /*
+    This helper returns a builder of the statement of the test query with its parameters
+     */
+    private static Statement.Builder createStatementBuilder() {
+        return Statement.newBuilder(TABLE_QUERY_OBJECT.Query).bind("workspaceId").to("workspace");
+    }
+
+    /*
+    This helper checks the direction and the primary key values of an encoded page token
+     */
+    private static void assertKeyValues(boolean isBefore, List<String> keyValues, String encodedToken) {
+        PageToken pageToken = PageToken.decode(encodedToken);
+        assertEquals(isBefore, pageToken.getIsBefore());
+        assertEquals(keyValues, pageToken.getKeyValues());
+    }
+
+    /*
+    This Class is a DatabaseClient whose single use queries return the given rows (or the results
+    of the given function of their statements), and which keeps the executed statements
+     */
+    private static class FakeClient {
+        private final Function<Statement, ResultSet> results;
+        private final List<Statement> statements = new ArrayList<>();
+        private Statement statement;
+
+        FakeClient(List<Struct> rows) {
+            this.results = statement -> ResultSets.forRows(PAGE_ROW_TYPE, rows);
+        }
+
+        FakeClient(Function<Statement, ResultSet> results) {
+            this.results = results;
+        }
+
+        DatabaseClient create() {
+            ReadContext readContext = (ReadContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{ReadContext.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("executeQuery")) {
+                            statement = (Statement) args[0];
+                            statements.add(statement);
+                            return results.apply(statement);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            return (DatabaseClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{DatabaseClient.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("singleUse")) {
+                            return readContext;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
 }
@@ -4,12 +4,28 @@ import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 /**
- * The ApiDetails class maps a json file and extracts its "state" field.
+ * The ApiDetails class maps a json file and extracts its "name" & "state" fields.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class ApiDetails {
+    private String apiName;
     private String apiState;
 
+    /**
+     * This function updates the apiName field from the json file.
+     */
+    @JsonAlias({"name"})
+    public void setApiName(String item) {
+        apiName = item;
+    }
+
+    /**
+     * @return this API's resource name (in the projects/{project}/services/{service} format).
+     */
+    public String getApiName() {
+        return apiName;
+    }
+
     /**
      * This function updates the apiState field from the json file.
      */
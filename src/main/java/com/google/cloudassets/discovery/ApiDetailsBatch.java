@@ -0,0 +1,31 @@
+package com.google.cloudassets.discovery;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ApiDetailsBatch class maps the json file of a services batchGet request and extracts the
+ * details of each of its APIs from its "services" field.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ApiDetailsBatch {
+    private List<ApiDetails> apiDetailsList = new ArrayList<>();
+
+    /**
+     * This function updates the apiDetailsList field from the json file.
+     */
+    @JsonAlias({"services"})
+    public void setApiDetailsList(List<ApiDetails> items) {
+        apiDetailsList = items;
+    }
+
+    /**
+     * @return the details of the requested APIs.
+     */
+    public List<ApiDetails> getApiDetailsList() {
+        return apiDetailsList;
+    }
+}
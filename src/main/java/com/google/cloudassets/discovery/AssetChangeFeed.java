@@ -0,0 +1,122 @@
+package com.google.cloudassets.discovery;
+
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.GrpcTransportChannel;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.cloud.pubsub.v1.AckReplyConsumer;
+import com.google.cloud.pubsub.v1.Subscriber;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.common.flogger.FluentLogger;
+import com.google.pubsub.v1.PubsubMessage;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The AssetChangeFeed class consumes the asset change notifications which a Cloud Asset Inventory
+ * feed publishes into a Pub/Sub topic, and writes every changed asset into the asset tables as soon
+ * as its notification arrives (instead of listing all of the assets of every project).
+ * A notification is acknowledged once its Mutations were committed, and it is redelivered if they
+ * could not be committed. Notifications which could not be parsed are logged and acknowledged, as
+ * they would never be parsed successfully.
+ */
+public class AssetChangeFeed {
+    // The host and port of a local Pub/Sub emulator (can be set with the
+    // -Ddiscovery.pubsubEmulatorHost system property), the Pub/Sub service is used if it is not set.
+    private static final String PUBSUB_EMULATOR_HOST = System.getProperty("discovery.pubsubEmulatorHost");
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final DatabaseClient dbClient;
+    private final String subscriptionName;
+    private final AssetChangeMapper changeMapper;
+
+    /**
+     * The AssetChangeFeed constructor initializes the subscription from which the asset change
+     * notifications are consumed.
+     * @param client - the spanner DatabaseClient to which the changed rows should be written.
+     * @param subscription - the full name of the Pub/Sub subscription of the feed's topic (in the
+     *                     projects/{project}/subscriptions/{subscription} format).
+     * @param mapper - the AssetChangeMapper which converts the notifications into Mutations.
+     */
+    public AssetChangeFeed(DatabaseClient client, String subscription, AssetChangeMapper mapper) {
+        this.dbClient = client;
+        this.subscriptionName = subscription;
+        this.changeMapper = mapper;
+    }
+
+    /**
+     * This function consumes the asset change notifications of the subscription for the provided
+     * amount of time, and then stops (so that a full discovery can periodically reconcile the
+     * changes that were missed).
+     * @param runMillis - the amount of time in milliseconds for which the notifications are consumed.
+     * @throws TableInsertionException if the subscriber failed.
+     */
+    public void run(long runMillis) throws TableInsertionException {
+        ManagedChannel emulatorChannel = null;
+        Subscriber.Builder subscriberBuilder = Subscriber.newBuilder(this.subscriptionName, this::receiveMessage);
+        if (PUBSUB_EMULATOR_HOST != null) {
+            emulatorChannel = ManagedChannelBuilder.forTarget(PUBSUB_EMULATOR_HOST).usePlaintext().build();
+            subscriberBuilder.setChannelProvider(FixedTransportChannelProvider.create(
+                                    GrpcTransportChannel.create(emulatorChannel)))
+                             .setCredentialsProvider(NoCredentialsProvider.create());
+        }
+
+        Subscriber subscriber = subscriberBuilder.build();
+        try {
+            subscriber.startAsync().awaitRunning();
+            logger.atInfo().log("Consuming the asset change notifications of %s", this.subscriptionName);
+            subscriber.awaitTerminated(runMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            // The subscriber ran for the whole run time
+        } catch (IllegalStateException exception) {
+            throw new TableInsertionException("Could not consume the asset change notifications of the "
+                    + "following subscription: " + this.subscriptionName, exception);
+        } finally {
+            subscriber.stopAsync().awaitTerminated();
+            if (emulatorChannel != null) {
+                emulatorChannel.shutdown();
+            }
+        }
+    }
+
+    /*
+    This function writes the changed rows of a single asset change notification and acknowledges it
+    once they were committed.
+     */
+    private void receiveMessage(PubsubMessage message, AckReplyConsumer consumer) {
+        String notificationJson = message.getData().toStringUtf8();
+        List<Mutation> mutations;
+        try {
+            mutations = this.changeMapper.getMutations(notificationJson);
+        } catch (IOException exception) {
+            logger.atWarning().withCause(exception).log("Skipping an invalid asset change notification: %s",
+                                                        notificationJson);
+            consumer.ack();
+            return;
+        } catch (TableInsertionException exception) {
+            logger.atWarning().withCause(exception).log("Could not convert the following asset change "
+                    + "notification, it will be redelivered: %s", message.getMessageId());
+            consumer.nack();
+            return;
+        }
+
+        try {
+            if (!mutations.isEmpty()) {
+                this.dbClient.write(mutations);
+            }
+            consumer.ack();
+        } catch (SpannerException exception) {
+            logger.atWarning().withCause(exception).log("Could not write the following asset change "
+                    + "notification, it will be redelivered: %s", message.getMessageId());
+            consumer.nack();
+        }
+    }
+}
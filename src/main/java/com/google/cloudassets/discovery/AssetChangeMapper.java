@@ -0,0 +1,228 @@
+package com.google.cloudassets.discovery;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.cloudassets.discovery.assetobjects.AssetObject;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import com.google.cloudassets.discovery.projectobjects.ProjectMutationsList;
+import com.google.common.flogger.FluentLogger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The AssetChangeMapper class converts the asset change notifications of a Cloud Asset Inventory
+ * feed into the Mutations of the changed asset rows: a created or updated asset is converted into
+ * an AssetObject by the AssetObjectsFactory (from the resource data of the notification) and then
+ * into insertOrUpdate Mutations, and a deleted asset is converted into a delete Mutation of its main
+ * table row (which cascades to its specific asset table row).
+ * The asset of a notification belongs to every workspace in which its project is active.
+ */
+public class AssetChangeMapper {
+    private static final String PROJECTS_SEGMENT = "projects";
+    private static final String APPS_SEGMENT = "apps";
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final AssetObjectsFactory assetObjectFactory = new AssetObjectsFactory();
+    private static final Map<String, AssetKind> assetTypeKinds = new HashMap<>();
+    // The asset kinds whose name (as returned by their list API) is their whole resource path, such
+    // as "projects/{project}/topics/{topic}", while the names of all of the other kinds are the last
+    // segment of their resource path
+    private static final Set<AssetKind> fullNameKinds = EnumSet.of(AssetKind.TOPIC_PUB_SUB_ASSET,
+            AssetKind.SUBSCRIPTION_PUB_SUB_ASSET, AssetKind.INSTANCE_SPANNER_ASSET, AssetKind.APP_APP_ENGINE_ASSET);
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    static {
+        assetTypeKinds.put("compute.googleapis.com/Instance", AssetKind.INSTANCE_COMPUTE_ASSET);
+        assetTypeKinds.put("compute.googleapis.com/Disk", AssetKind.DISK_COMPUTE_ASSET);
+        assetTypeKinds.put("pubsub.googleapis.com/Topic", AssetKind.TOPIC_PUB_SUB_ASSET);
+        assetTypeKinds.put("pubsub.googleapis.com/Subscription", AssetKind.SUBSCRIPTION_PUB_SUB_ASSET);
+        assetTypeKinds.put("storage.googleapis.com/Bucket", AssetKind.BUCKET_STORAGE_ASSET);
+        assetTypeKinds.put("sqladmin.googleapis.com/Instance", AssetKind.INSTANCE_CLOUD_SQL_ASSET);
+        assetTypeKinds.put("spanner.googleapis.com/Instance", AssetKind.INSTANCE_SPANNER_ASSET);
+        assetTypeKinds.put("appengine.googleapis.com/Application", AssetKind.APP_APP_ENGINE_ASSET);
+        assetTypeKinds.put("container.googleapis.com/Cluster", AssetKind.CLUSTER_KUBERNETES_ASSET);
+    }
+
+    private final Map<String, List<ProjectConfig>> projectsConfigs;
+    private final AssetTablesConfig tablesConfig;
+
+    /**
+     * The ChangeNotification class is the typed representation of a single asset change
+     * notification (a TemporalAsset in json format). Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ChangeNotification {
+        public Asset asset;
+        public boolean deleted;
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class Asset {
+            public String name;
+            public String assetType;
+            public Resource resource;
+        }
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class Resource {
+            public JsonNode data;
+            public String location;
+        }
+    }
+
+    /**
+     * The AssetChangeMapper constructor initializes the projects whose asset changes should be
+     * mapped.
+     * @param projectsList - the configurations of all of the active projects.
+     * @param config - a snapshot of the Asset_Tables_Config table.
+     */
+    public AssetChangeMapper(List<ProjectConfig> projectsList, AssetTablesConfig config) {
+        this.projectsConfigs = new HashMap<>();
+        for (ProjectConfig project : projectsList) {
+            this.projectsConfigs.computeIfAbsent(project.getProjectId(), projectId -> new ArrayList<>()).add(project);
+        }
+        this.tablesConfig = config;
+    }
+
+    /**
+     * This is the main function of this class and it converts a single asset change notification
+     * into the Mutations of the changed asset rows.
+     * @param notificationJson - the json asset change notification.
+     * @return a list of the Mutations of the changed asset, or an empty list if the asset is not of
+     * a supported asset kind or its project is not active.
+     * @throws IOException if the notification could not be parsed.
+     * @throws TableInsertionException if the Mutations could not be created.
+     */
+    public List<Mutation> getMutations(String notificationJson) throws IOException, TableInsertionException {
+        ChangeNotification notification = parseNotification(notificationJson);
+        if (notification.deleted) {
+            return getDeleteMutations(notification);
+        }
+        return new ProjectMutationsList(true).getMutationList(getChangedAssets(notification));
+    }
+
+    /**
+     * This function parses a single asset change notification.
+     * @param notificationJson - the json asset change notification.
+     * @return the typed ChangeNotification.
+     * @throws IOException if the notification could not be parsed or it has no asset.
+     */
+    public static ChangeNotification parseNotification(String notificationJson) throws IOException {
+        ChangeNotification notification = jsonMapper.readValue(notificationJson, ChangeNotification.class);
+        if (notification.asset == null || notification.asset.name == null || notification.asset.assetType == null) {
+            throw new IOException("Encountered an asset change notification without an asset name or type.");
+        }
+        return notification;
+    }
+
+    /**
+     * This function creates the AssetObjects of a created or updated asset (one for each workspace
+     * in which the asset's project is active).
+     * @param notification - a ChangeNotification of a created or updated asset.
+     * @return a list of the AssetObjects of the changed asset, or an empty list if the asset is not
+     * of a supported asset kind or its project is not active.
+     * @throws IOException if the resource data of the asset could not be read.
+     */
+    public List<AssetObject> getChangedAssets(ChangeNotification notification) throws IOException {
+        AssetKind assetKind = assetTypeKinds.get(notification.asset.assetType);
+        List<ProjectConfig> projects = getProjectsConfigs(notification);
+        if (assetKind == null || projects.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ChangeNotification.Resource resource = notification.asset.resource;
+        if (resource == null || resource.data == null) {
+            throw new IOException("Encountered an asset change notification without resource data for the "
+                                    + "following asset: " + notification.asset.name);
+        }
+
+        List<AssetObject> changedAssets = new ArrayList<>();
+        for (ProjectConfig project : projects) {
+            changedAssets.add(assetObjectFactory.createAssetObject(assetKind, jsonMapper.treeAsTokens(resource.data),
+                                                                   project, resource.location));
+        }
+        return changedAssets;
+    }
+
+    /*
+    This function creates a delete Mutation of the main table row of a deleted asset for each
+    workspace in which the asset's project is active. The specific asset table rows are deleted with
+    it, as they are interleaved in the main table.
+    Throws a TableInsertionException if the primary key of the main table has an unknown column.
+     */
+    private List<Mutation> getDeleteMutations(ChangeNotification notification) throws TableInsertionException {
+        AssetKind assetKind = assetTypeKinds.get(notification.asset.assetType);
+        List<Mutation> deleteMutations = new ArrayList<>();
+        if (assetKind == null) {
+            return deleteMutations;
+        }
+
+        String assetName = getAssetName(notification.asset.name, assetKind);
+        for (ProjectConfig project : getProjectsConfigs(notification)) {
+            Key.Builder keyBuilder = Key.newBuilder();
+            for (String primaryKey : this.tablesConfig.getCommonPrimaryKeys()) {
+                switch (primaryKey) {
+                    case "workspaceId":
+                        keyBuilder.append(project.getWorkspaceId());
+                        break;
+                    case "projectId":
+                        keyBuilder.append(project.getProjectId());
+                        break;
+                    case "kind":
+                        keyBuilder.append(assetKind.toString());
+                        break;
+                    case "assetName":
+                        keyBuilder.append(assetName);
+                        break;
+                    default:
+                        throw new TableInsertionException("Could not delete the following asset as the " + primaryKey
+                                + " primary key column is unknown: " + notification.asset.name, null);
+                }
+            }
+            deleteMutations.add(Mutation.delete(this.tablesConfig.getMainTableName(), keyBuilder.build()));
+        }
+        return deleteMutations;
+    }
+
+    /*
+    This function returns the configurations of the active project of the notification's asset in
+    every one of its workspaces. The project ID is taken from the asset's full resource name (such as
+    "//compute.googleapis.com/projects/{project}/zones/{zone}/instances/{instance}"), and therefore
+    assets whose name does not contain it (such as buckets) are only updated by the full discovery.
+     */
+    private List<ProjectConfig> getProjectsConfigs(ChangeNotification notification) {
+        String[] nameSegments = notification.asset.name.split("/");
+        for (int i = 0; i < nameSegments.length - 1; i++) {
+            if (nameSegments[i].equals(PROJECTS_SEGMENT) || nameSegments[i].equals(APPS_SEGMENT)) {
+                return this.projectsConfigs.getOrDefault(nameSegments[i + 1], Collections.emptyList());
+            }
+        }
+        logger.atInfo().log("Could not find the project of the following changed asset: %s",
+                            notification.asset.name);
+        return Collections.emptyList();
+    }
+
+    /*
+    This function returns the name of an asset as it is stored in the asset tables from its full
+    resource name (which starts with "//{service host}/").
+     */
+    private static String getAssetName(String fullResourceName, AssetKind assetKind) {
+        String resourcePath = fullResourceName.substring(fullResourceName.indexOf('/', 2) + 1);
+        if (fullNameKinds.contains(assetKind)) {
+            return resourcePath;
+        }
+        return resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+    }
+}
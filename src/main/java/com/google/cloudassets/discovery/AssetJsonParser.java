@@ -1,20 +1,32 @@
 package com.google.cloudassets.discovery;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloudassets.discovery.assetobjects.LenientPropertiesHandler;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 /**
  * The AssetJsonParser class maps a json node which returns from a HTTP GET request of a specific
  * asset API into a list of Maps in which each map represent a different asset object's data.
+ * It can also read the json response as a stream and hand over each asset as soon as it is read.
  */
 public class AssetJsonParser {
     private static final String NEXT_PAGE_KEY = "nextPageToken";
-    private static final ObjectMapper jsonMapper = new ObjectMapper();
+    private static final String ITEMS_KEY = "items";
+    // Aggregated lists are only used for zonal assets, so the scope of each asset is its zone
+    private static final String SCOPE_PROPERTY_KEY = "zone";
+    // Malformed properties of a streamed asset are logged and set to null (like the properties of
+    // the assets which are built from a map)
+    private static final ObjectMapper jsonMapper = new ObjectMapper().addHandler(new LenientPropertiesHandler());
 
     private List<Map<String,Object>> assetsList;
     private List<String> zonesList;
@@ -22,6 +34,22 @@ public class AssetJsonParser {
     private Boolean hasNextPage;
     private String nextPageToken;
 
+    /**
+     * The AssetReader interface is used by the streaming constructor of the AssetJsonParser class
+     * in order to hand over every asset as soon as it is reached in the json stream.
+     */
+    public interface AssetReader {
+        /**
+         * This function reads a single asset from the provided JsonParser.
+         * @param assetParser - a JsonParser which points to the START_OBJECT token of the asset and
+         *                    which should be left on its matching END_OBJECT token.
+         * @param scopeName - the scope (zone) under which the asset was listed in an aggregated list
+         *                  response, or null for any other response.
+         * @throws IOException if the asset could not be read.
+         */
+        void readAsset(JsonParser assetParser, String scopeName) throws IOException;
+    }
+
     /**
      * This constructor function creates a list of maps in which each map represents the properties
      * of a different AssetObject that should be constructed. For example, the following json:
@@ -43,6 +71,41 @@ public class AssetJsonParser {
      *                  properties belong.
      */
     public AssetJsonParser(JsonNode jsonNode, AssetKind assetKind) {
+        this(jsonNode, assetKind, false);
+    }
+
+    /**
+     * This constructor function creates a list of maps in which each map represents the properties
+     * of a different AssetObject that should be constructed.
+     * If isAggregatedList is true, the provided json is expected to be the response of an aggregated
+     * list API in which the assets are grouped by their zone, for example:
+     *  {
+     *   "items": {
+     *     "zones/us-central1-a": {
+     *       "instances": [{"name": "instancename1"}]
+     *     },
+     *     "zones/us-east1-b": {
+     *       "warning": {"code": "NO_RESULTS_ON_PAGE"}
+     *     }
+     *   }
+     * }
+     *
+     *  would be parsed into a List containing one map with the "name" key and a "zone" key with the
+     *  "zones/us-central1-a" value (the zone is only added if the asset does not already have one).
+     * @param jsonNode - a JsonNode object which returns from a HTTP GET request and which contains
+     *                 the properties of a given asset object.
+     * @param assetKind - an AssetKind enum which represents for which asset kind the provided
+     *                  properties belong.
+     * @param isAggregatedList - whether or not the provided jsonNode is an aggregated list response.
+     */
+    public AssetJsonParser(JsonNode jsonNode, AssetKind assetKind, boolean isAggregatedList) {
+        if (isAggregatedList) {
+            this.assetsList = new ArrayList<>();
+            findNextPageToken(jsonNode);
+            addAggregatedAssets(jsonNode.get(ITEMS_KEY), assetKind.getAggregatedListKey());
+            return;
+        }
+
         this.assetsList = new ArrayList<>();
         findNextPageToken(jsonNode);
         Map<String, Object> propertiesMap = jsonMapper.convertValue(jsonNode, Map.class);
@@ -54,11 +117,9 @@ public class AssetJsonParser {
         } else if (assetKey != null) {
             this.assetsList = (List<Map<String,Object>>) propertiesMap.get(assetKey);
         } else {
-            this.assetsList = (List<Map<String,Object>>) propertiesMap.get("items");
+            this.assetsList = (List<Map<String,Object>>) propertiesMap.get(ITEMS_KEY);
         }
 
-
-
         // In case the provided jsonNode returned no actual assets data, convert the assetList into
         // an emptyList in order not to fail the for loops which are using this list
         if (this.assetsList == null) {
@@ -66,6 +127,56 @@ public class AssetJsonParser {
         }
     }
 
+    /**
+     * This constructor function reads the provided json stream token by token, without
+     * materializing it, and hands each asset to the provided assetReader as soon as it is reached.
+     * Only the nextPageToken is kept by this object, the getAssetsList function returns an empty list.
+     * The json structure which is expected for each assetKind is the same as in the JsonNode
+     * constructor functions and all of the fields except for the assets list and the nextPageToken
+     * are skipped.
+     * @param jsonStream - an InputStream of the response of a HTTP GET request which contains the
+     *                   properties of the assets. It is closed once it was read.
+     * @param assetKind - an AssetKind enum which represents for which asset kind the provided
+     *                  properties belong.
+     * @param isAggregatedList - whether or not the provided jsonStream is an aggregated list response.
+     * @param assetReader - the AssetReader to which every asset is handed.
+     * @throws IOException if the provided jsonStream could not be read or is not a valid json.
+     */
+    public AssetJsonParser(InputStream jsonStream, AssetKind assetKind, boolean isAggregatedList,
+                           AssetReader assetReader) throws IOException {
+        this.assetsList = Collections.emptyList();
+
+        try (JsonParser jsonParser = jsonMapper.getFactory().createParser(jsonStream)) {
+            if (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+                if (assetKind == AssetKind.APP_APP_ENGINE_ASSET) {
+                    // The whole response is a single asset
+                    assetReader.readAsset(jsonParser, null);
+                } else {
+                    readAssetsFields(jsonParser, assetKind, isAggregatedList, assetReader);
+                }
+            }
+        }
+        this.hasNextPage = (this.nextPageToken != null);
+    }
+
+    /**
+     * This function reads the current asset of the provided JsonParser into a map of its properties.
+     * It can be used by AssetReaders which need the properties of the asset as a map.
+     * @param assetParser - a JsonParser which points to the START_OBJECT token of the asset.
+     * @param scopeName - the scope (zone) of the asset in an aggregated list response, or null. If
+     *                  provided, it is added as the zone of the asset (if it does not have one).
+     * @return a map of the properties of the asset.
+     * @throws IOException if the asset could not be read.
+     */
+    public static Map<String,Object> readAssetProperties(JsonParser assetParser, String scopeName)
+            throws IOException {
+        Map<String, Object> assetProperties = jsonMapper.readValue(assetParser, Map.class);
+        if (scopeName != null) {
+            assetProperties.putIfAbsent(SCOPE_PROPERTY_KEY, scopeName);
+        }
+        return assetProperties;
+    }
+
     /**
      * This constructor function creates a list of strings in which each string represents a
      * different zone name.
@@ -82,6 +193,98 @@ public class AssetJsonParser {
         }
     }
 
+    /*
+    This function reads the fields of the top level json object of the provided jsonParser. It
+    keeps the nextPageToken, hands the assets of the assets list to the assetReader and skips any
+    other field.
+     */
+    private void readAssetsFields(JsonParser jsonParser, AssetKind assetKind, boolean isAggregatedList,
+                                  AssetReader assetReader) throws IOException {
+        String assetKey = assetKind.getJsonParserKey() != null ? assetKind.getJsonParserKey() : ITEMS_KEY;
+
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.getCurrentName();
+            JsonToken valueToken = jsonParser.nextToken();
+
+            if (fieldName.equals(NEXT_PAGE_KEY)) {
+                this.nextPageToken = jsonParser.getValueAsString();
+            } else if (isAggregatedList && fieldName.equals(ITEMS_KEY) && valueToken == JsonToken.START_OBJECT) {
+                readAggregatedAssets(jsonParser, assetKind.getAggregatedListKey(), assetReader);
+            } else if (!isAggregatedList && fieldName.equals(assetKey) && valueToken == JsonToken.START_ARRAY) {
+                readAssetsArray(jsonParser, null, assetReader);
+            } else {
+                jsonParser.skipChildren();
+            }
+        }
+    }
+
+    /*
+    This function reads the scopes of the "items" object of an aggregated list response and hands
+    the assets of every scope to the assetReader. Scopes without assets only contain a warning and
+    are therefore skipped.
+     */
+    private void readAggregatedAssets(JsonParser jsonParser, String aggregatedListKey,
+                                      AssetReader assetReader) throws IOException {
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String scopeName = jsonParser.getCurrentName();
+            if (jsonParser.nextToken() != JsonToken.START_OBJECT) {
+                jsonParser.skipChildren();
+                continue;
+            }
+
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = jsonParser.getCurrentName();
+                if (jsonParser.nextToken() == JsonToken.START_ARRAY && fieldName.equals(aggregatedListKey)) {
+                    readAssetsArray(jsonParser, scopeName, assetReader);
+                } else {
+                    jsonParser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /*
+    This function hands every object of the current json array of the jsonParser to the assetReader.
+     */
+    private void readAssetsArray(JsonParser jsonParser, String scopeName, AssetReader assetReader)
+            throws IOException {
+        JsonToken elementToken = jsonParser.nextToken();
+        while (elementToken != JsonToken.END_ARRAY && elementToken != null) {
+            if (elementToken == JsonToken.START_OBJECT) {
+                assetReader.readAsset(jsonParser, scopeName);
+            } else {
+                jsonParser.skipChildren();
+            }
+            elementToken = jsonParser.nextToken();
+        }
+    }
+
+    /*
+    This function adds the assets of every zone in the provided scopesNode (the "items" object of an
+    aggregated list response) to the assetsList. Zones without assets only contain a warning and
+    are therefore skipped.
+     */
+    private void addAggregatedAssets(JsonNode scopesNode, String aggregatedListKey) {
+        if (scopesNode == null) {
+            return;
+        }
+
+        Iterator<Map.Entry<String, JsonNode>> scopes = scopesNode.fields();
+        while (scopes.hasNext()) {
+            Map.Entry<String, JsonNode> scope = scopes.next();
+            JsonNode scopeAssets = scope.getValue().get(aggregatedListKey);
+            if (scopeAssets == null) {
+                continue;
+            }
+
+            for (JsonNode assetNode : scopeAssets) {
+                Map<String, Object> assetProperties = jsonMapper.convertValue(assetNode, Map.class);
+                assetProperties.putIfAbsent(SCOPE_PROPERTY_KEY, scope.getKey());
+                this.assetsList.add(assetProperties);
+            }
+        }
+    }
+
     /*
     This function checks if the given jsonNode have a nextPageToken field and sets the nextPageToken
     & hasNextPage accordingly
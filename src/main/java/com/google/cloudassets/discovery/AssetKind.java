@@ -1,11 +1,6 @@
 package com.google.cloudassets.discovery;
 
-import com.google.cloud.spanner.ResultSet;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
-import com.google.cloudassets.discovery.AssetDiscoveryExceptions.NoTableConfigException;
-import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TooManyTablesConfigException;
-
-import static com.google.cloudassets.discovery.Main.executeStringQuery;
 
 /**
  This enum class maps the kind string for each asset and provides its relevant asset table name in
@@ -13,9 +8,9 @@ import static com.google.cloudassets.discovery.Main.executeStringQuery;
  */
 public enum AssetKind {
     BUCKET_STORAGE_ASSET("storage#bucket"),
-    DISK_COMPUTE_ASSET("compute#disk"),
+    DISK_COMPUTE_ASSET("compute#disk", null, "disks"),
     INSTANCE_CLOUD_SQL_ASSET("sql#instance"),
-    INSTANCE_COMPUTE_ASSET("compute#instance"),
+    INSTANCE_COMPUTE_ASSET("compute#instance", null, "instances"),
     SUBSCRIPTION_PUB_SUB_ASSET("pubsub#subscription", "subscriptions"),
     TOPIC_PUB_SUB_ASSET("pubsub#topic", "topics"),
     INSTANCE_SPANNER_ASSET("spanner#instance", "instances"),
@@ -26,6 +21,10 @@ public enum AssetKind {
     // This key is used to parse the json returned by the specific asset's API. If it is not provided,
     // the AssetJsonParser class uses a default key which works for most assets.
     private String jsonParserKey;
+    // This key is used to parse the json returned by the aggregated list API of the specific asset
+    // (in which the assets are grouped by their zone). It is only provided for assets which
+    // support aggregated listing.
+    private String aggregatedListKey;
 
     /*
     This private constructor initialized the kindString field for the given enum.
@@ -42,6 +41,16 @@ public enum AssetKind {
         this.jsonParserKey = key;
     }
 
+    /*
+    This private constructor initialized the kindString, jsonParserKey & aggregatedListKey fields
+    for the given enum.
+     */
+    AssetKind(String kind, String key, String aggregatedKey) {
+        this.kindString = kind;
+        this.jsonParserKey = key;
+        this.aggregatedListKey = aggregatedKey;
+    }
+
     /**
      * @return a string representing the kind of this asset.
      */
@@ -59,69 +68,30 @@ public enum AssetKind {
     }
 
     /**
-     * @return a string representing the table name of a given asset kind.
+     * @return a string representing the key under which the assets of each zone can be found in
+     * the json returned by the aggregated list API of this asset, or null if it is not supported.
+     */
+    public String getAggregatedListKey() {
+        return this.aggregatedListKey;
+    }
+
+    /**
+     * @return a string representing the table name of a given asset kind (as configured in the
+     * loaded snapshot of the configuration table).
      * @throws ConfigTableException if the asset kind table is not properly configured in the
      * configuration table.
      */
     public String getAssetTableName() throws ConfigTableException {
-        String queryStr = "SELECT DISTINCT assetTableName FROM Asset_Tables_Config WHERE assetKind = '"
-                + this.kindString + "'";
-        try {
-            return getTableName(queryStr);
-        } catch (NoTableConfigException exception) {
-            String errorMsg = "No table was configured as the asset table in Asset_Tables_Config for the '"
-                    + this.kindString + "' asset kind. Please make sure that exactly one table is configured"
-                    + " for each asset kind.";
-            throw new ConfigTableException(errorMsg, exception);
-        } catch (TooManyTablesConfigException exception) {
-            String errorMsg = "More than one table was was configured as the asset table in Asset_Tables_Config for the '"
-                    + this.kindString + "' asset kind. Please make sure that exactly one table is configured"
-                    + " for each asset kind.";
-            throw new ConfigTableException(errorMsg, exception);
-        }
+        return AssetTablesConfig.getInstance().getAssetTableName(this);
     }
 
     /**
-     * @return a string representing the main asset table name.
+     * @return a string representing the main asset table name (as configured in the loaded snapshot
+     * of the configuration table).
      * @throws ConfigTableException if the main table is not properly configured in the configuration
      * table.
      */
     public static String getMainTableName() throws ConfigTableException {
-        String queryStr = "SELECT DISTINCT assetTableName FROM Asset_Tables_Config WHERE isMainTable = True";
-        try {
-            return getTableName(queryStr);
-        } catch (NoTableConfigException exception) {
-            String errorMsg = "No table was configured as the main table in Asset_Tables_Config. "
-                    + "Please make sure that exactly one table has the 'isMainTable' flag on.";
-            throw new ConfigTableException(errorMsg, exception);
-        } catch (TooManyTablesConfigException exception) {
-            String errorMsg = "More than one table was configured as the main table in Asset_Tables_Config. "
-                    + "Please make sure that exactly one table has the 'isMainTable' flag on.";
-            throw new ConfigTableException(errorMsg, exception);
-        }
-    }
-
-    /*
-    This function returns a table name returned from the provided queryStr. If there is not exactly
-    one table name returned from the provided query it means that the Asset_Tables_Config is not
-    configured properly and therefore unexpected behaviors may arise. In this case a
-    NoTableConfigException / TooManyTablesConfigException is thrown.
-     */
-    protected static String getTableName(String queryStr) throws NoTableConfigException, TooManyTablesConfigException {
-        ResultSet resultSet = executeStringQuery(queryStr);
-        String tableName = null;
-        if (resultSet.next()) {
-            tableName = resultSet.getString("assetTableName");
-        } else {
-            throw new NoTableConfigException();
-        }
-
-        // Each asset should have exactly one table name associated with it
-        if (resultSet.next()) {
-            throw new TooManyTablesConfigException();
-        }
-
-        return tableName;
+        return AssetTablesConfig.getInstance().getMainTableName();
     }
 }
-
@@ -1,8 +1,10 @@
 package com.google.cloudassets.discovery;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.google.cloudassets.discovery.assetobjects.*;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -41,4 +43,51 @@ public class AssetObjectsFactory {
         }
         return null;
     }
+
+    /**
+     * This function is in charge of creating a specific AssetObject based on the provided assetKind
+     * by binding the json object which the provided assetParser points to directly into the typed
+     * json properties of the specific AssetObject (without building an intermediate map).
+     * @param assetKind - an enum which indicates which type of AssetObject should be created.
+     * @param assetParser - a JsonParser which points to the start of the asset's json object.
+     * @param projectConfig - the relevant project configurations for these assets.
+     * @param scopeName - the name of the aggregated list scope of the asset (such as "zones/us-east1-b"),
+     *                  which is used as its location if it has none, or null.
+     * @return an object of one of the classes the extends the AssetObject class.
+     * @throws IOException if the json object of the asset could not be read.
+     */
+    public AssetObject createAssetObject(AssetKind assetKind, JsonParser assetParser, ProjectConfig projectConfig,
+                                         String scopeName) throws IOException {
+        switch (assetKind) {
+            case INSTANCE_COMPUTE_ASSET:
+                return new InstanceComputeObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(InstanceComputeObject.JsonProperties.class));
+            case DISK_COMPUTE_ASSET:
+                return new DiskComputeObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(DiskComputeObject.JsonProperties.class));
+            case TOPIC_PUB_SUB_ASSET:
+                return new TopicPubSubObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(TopicPubSubObject.JsonProperties.class));
+            case SUBSCRIPTION_PUB_SUB_ASSET:
+                return new SubscriptionPubSubObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(SubscriptionPubSubObject.JsonProperties.class));
+            case BUCKET_STORAGE_ASSET:
+                return new BucketStorageObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(BucketStorageObject.JsonProperties.class));
+            case INSTANCE_CLOUD_SQL_ASSET:
+                return new InstanceCloudSqlObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(InstanceCloudSqlObject.JsonProperties.class));
+            case INSTANCE_SPANNER_ASSET:
+                return new InstanceSpannerObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(InstanceSpannerObject.JsonProperties.class));
+            case APP_APP_ENGINE_ASSET:
+                return new AppAppEngineObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(AppAppEngineObject.JsonProperties.class));
+            case CLUSTER_KUBERNETES_ASSET:
+                return new ClusterKubernetesObject.Builder(projectConfig).setDefaultLocation(scopeName)
+                        .build(assetParser.readValueAs(ClusterKubernetesObject.JsonProperties.class));
+        }
+        assetParser.skipChildren();
+        return null;
+    }
 }
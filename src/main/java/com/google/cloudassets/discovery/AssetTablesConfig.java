@@ -0,0 +1,289 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.NoTableConfigException;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TooManyTablesConfigException;
+import com.google.common.flogger.FluentLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.cloudassets.discovery.Main.executeSingleUseQuery;
+
+/**
+ * The AssetTablesConfig class is an in memory snapshot of the Asset_Tables_Config table. The whole
+ * table is read with a single query once per run (by the load function) and validated, so that the
+ * table names and columns of the asset tables can be resolved without querying our spanner db for
+ * every asset. The snapshot is immutable - the refresh function replaces it with a new one.
+ */
+public class AssetTablesConfig {
+    private static final String COMMON_COLUMNS_TABLE_NAME = "forAllAssets";
+    private static final String GET_TABLES_CONFIG_QUERY = "SELECT assetTableName, assetKind, isMainTable, "
+                                                        + "columnName, columnType, isNotNull, isPrimaryKey, "
+                                                        + "primaryKeyIndex, allowCommitTimestamp "
+                                                        + "FROM Asset_Tables_Config";
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private static volatile AssetTablesConfig currentConfig;
+
+    private final String mainTableName;
+    private final Map<AssetKind, String> assetKindTableNames;
+    // The columns of every table (including the common 'forAllAssets' columns) by their config order
+    private final Map<String, List<ColumnConfig>> tablesColumns;
+    private final List<String> commonPrimaryKeys;
+
+    /**
+     * The ColumnConfig class represents a single row of the Asset_Tables_Config table, which is the
+     * configuration of a single column in one of the asset tables.
+     */
+    public static class ColumnConfig {
+        private final String columnName;
+        private final String columnType;
+        private final boolean isNotNull;
+        private final boolean isPrimaryKey;
+        private final long primaryKeyIndex;
+        private final boolean allowCommitTimestamp;
+
+        private ColumnConfig(ResultSet resultSet) {
+            this.columnName = resultSet.getString("columnName");
+            this.columnType = resultSet.getString("columnType");
+            this.isNotNull = getBoolean(resultSet, "isNotNull");
+            this.isPrimaryKey = getBoolean(resultSet, "isPrimaryKey");
+            this.primaryKeyIndex = resultSet.isNull("primaryKeyIndex") ? 0 : resultSet.getLong("primaryKeyIndex");
+            this.allowCommitTimestamp = getBoolean(resultSet, "allowCommitTimestamp");
+        }
+
+        public String getColumnName() {
+            return this.columnName;
+        }
+
+        public String getColumnType() {
+            return this.columnType;
+        }
+
+        public boolean isNotNull() {
+            return this.isNotNull;
+        }
+
+        public boolean isPrimaryKey() {
+            return this.isPrimaryKey;
+        }
+
+        public long getPrimaryKeyIndex() {
+            return this.primaryKeyIndex;
+        }
+
+        public boolean isAllowCommitTimestamp() {
+            return this.allowCommitTimestamp;
+        }
+    }
+
+    /*
+    The constructor of the AssetTablesConfig class which builds the snapshot from the rows of the
+    Asset_Tables_Config table and validates it.
+    Throws a ConfigTableException if the configuration is not consistent.
+     */
+    AssetTablesConfig(ResultSet configRows) throws ConfigTableException {
+        Set<String> mainTableNames = new LinkedHashSet<>();
+        Map<AssetKind, Set<String>> kindsTableNames = new EnumMap<>(AssetKind.class);
+        Map<String, AssetKind> kindsByString = new HashMap<>();
+        for (AssetKind assetKind : AssetKind.values()) {
+            kindsByString.put(assetKind.toString(), assetKind);
+        }
+
+        this.tablesColumns = new LinkedHashMap<>();
+        while (configRows.next()) {
+            String tableName = configRows.getString("assetTableName");
+            this.tablesColumns.computeIfAbsent(tableName, name -> new ArrayList<>()).add(new ColumnConfig(configRows));
+
+            // The main table and the common columns are shared by all of the asset kinds
+            if (getBoolean(configRows, "isMainTable")) {
+                mainTableNames.add(tableName);
+                continue;
+            }
+            String kindString = configRows.isNull("assetKind") ? null : configRows.getString("assetKind");
+            if (kindString == null || tableName.equals(COMMON_COLUMNS_TABLE_NAME)) {
+                continue;
+            }
+            AssetKind assetKind = kindsByString.get(kindString);
+            if (assetKind != null) {
+                kindsTableNames.computeIfAbsent(assetKind, kind -> new LinkedHashSet<>()).add(tableName);
+            } else {
+                logger.atWarning().log("The '%s' asset kind of the %s table in Asset_Tables_Config does "
+                        + "not match any AssetKind and is ignored.", kindString, tableName);
+            }
+        }
+
+        this.mainTableName = getSingleTableName(mainTableNames, "main table",
+                "Please make sure that exactly one table has the 'isMainTable' flag on.");
+        this.assetKindTableNames = new EnumMap<>(AssetKind.class);
+        for (AssetKind assetKind : AssetKind.values()) {
+            this.assetKindTableNames.put(assetKind, getSingleTableName(
+                    kindsTableNames.getOrDefault(assetKind, Collections.emptySet()),
+                    "asset table for the '" + assetKind + "' asset kind",
+                    "Please make sure that exactly one table is configured for each asset kind."));
+        }
+        this.commonPrimaryKeys = getCommonPrimaryKeys(this.tablesColumns.get(COMMON_COLUMNS_TABLE_NAME));
+    }
+
+    /**
+     * This function reads the whole Asset_Tables_Config table from our spanner db and replaces the
+     * current snapshot with it. It should be called once at the start of the run, so that an
+     * inconsistent configuration fails the run before any asset is written.
+     * @return the newly loaded AssetTablesConfig.
+     * @throws ConfigTableException if the configuration table is not configured properly.
+     */
+    public static AssetTablesConfig load() throws ConfigTableException {
+        AssetTablesConfig config = new AssetTablesConfig(executeSingleUseQuery(GET_TABLES_CONFIG_QUERY));
+        currentConfig = config;
+        return config;
+    }
+
+    /**
+     * This function reloads the Asset_Tables_Config table (for example after it was changed while
+     * the process is running). The table is read at the current time and not at the time in which
+     * this process began. Snapshots that were already retrieved are not affected.
+     * @return the newly loaded AssetTablesConfig.
+     * @throws ConfigTableException if the configuration table is not configured properly.
+     */
+    public static AssetTablesConfig refresh() throws ConfigTableException {
+        return load();
+    }
+
+    /**
+     * This function returns the current snapshot of the Asset_Tables_Config table, and loads it if
+     * it was not loaded yet.
+     * This function is thread safe.
+     * @return the current AssetTablesConfig.
+     * @throws ConfigTableException if the configuration table is not configured properly.
+     */
+    public static AssetTablesConfig getInstance() throws ConfigTableException {
+        AssetTablesConfig config = currentConfig;
+        if (config == null) {
+            synchronized (AssetTablesConfig.class) {
+                config = currentConfig;
+                if (config == null) {
+                    config = load();
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * @return a string representing the main asset table name.
+     */
+    public String getMainTableName() {
+        return this.mainTableName;
+    }
+
+    /**
+     * @param assetKind - the asset kind of the wanted table.
+     * @return a string representing the table name of the given asset kind.
+     */
+    public String getAssetTableName(AssetKind assetKind) {
+        return this.assetKindTableNames.get(assetKind);
+    }
+
+    /**
+     * @return a list of all of the configured asset table names, where the main table is first (as
+     * it should be created before the tables which are interleaved in it).
+     */
+    public List<String> getAssetTableNames() {
+        List<String> tableNames = new ArrayList<>();
+        tableNames.add(this.mainTableName);
+        for (String tableName : this.tablesColumns.keySet()) {
+            if (!tableName.equals(this.mainTableName) && !tableName.equals(COMMON_COLUMNS_TABLE_NAME)) {
+                tableNames.add(tableName);
+            }
+        }
+        return tableNames;
+    }
+
+    /**
+     * @return a list of the primary key columns which are common to all of the asset tables,
+     * ordered by their primaryKeyIndex.
+     */
+    public List<String> getCommonPrimaryKeys() {
+        return Collections.unmodifiableList(this.commonPrimaryKeys);
+    }
+
+    /**
+     * @return a list of the column configurations which are common to all of the asset tables.
+     */
+    public List<ColumnConfig> getCommonColumns() {
+        return getTableColumns(COMMON_COLUMNS_TABLE_NAME);
+    }
+
+    /**
+     * @param tableName - the name of the wanted asset table.
+     * @return a list of the column configurations of the given table (not including the common
+     * columns), or an empty list if the table is not configured.
+     */
+    public List<ColumnConfig> getTableColumns(String tableName) {
+        return Collections.unmodifiableList(this.tablesColumns.getOrDefault(tableName, Collections.emptyList()));
+    }
+
+    /*
+    This function returns the single table name in the provided set. If there is not exactly one
+    table name in it, the Asset_Tables_Config is not configured properly and a ConfigTableException
+    is thrown with the provided description.
+     */
+    private static String getSingleTableName(Set<String> tableNames, String tableDescription, String guideline)
+            throws ConfigTableException {
+        if (tableNames.isEmpty()) {
+            throw new ConfigTableException("No table was configured as the " + tableDescription
+                    + " in Asset_Tables_Config. " + guideline, new NoTableConfigException());
+        }
+        if (tableNames.size() > 1) {
+            throw new ConfigTableException("More than one table was configured as the " + tableDescription
+                    + " in Asset_Tables_Config " + tableNames + ". " + guideline, new TooManyTablesConfigException());
+        }
+        return tableNames.iterator().next();
+    }
+
+    /*
+    This function returns the names of the primary key columns out of the provided common columns,
+    ordered by their primaryKeyIndex.
+    Throws a ConfigTableException if no common primary key is configured.
+     */
+    private static List<String> getCommonPrimaryKeys(List<ColumnConfig> commonColumns) throws ConfigTableException {
+        List<ColumnConfig> primaryKeyColumns = new ArrayList<>();
+        if (commonColumns != null) {
+            for (ColumnConfig column : commonColumns) {
+                if (column.isPrimaryKey()) {
+                    primaryKeyColumns.add(column);
+                }
+            }
+        }
+        if (primaryKeyColumns.isEmpty()) {
+            throw new ConfigTableException("No primary key columns were configured for '" + COMMON_COLUMNS_TABLE_NAME
+                    + "' in Asset_Tables_Config.", new NoTableConfigException());
+        }
+
+        primaryKeyColumns.sort(Comparator.comparingLong(ColumnConfig::getPrimaryKeyIndex));
+        List<String> primaryKeys = new ArrayList<>();
+        for (ColumnConfig column : primaryKeyColumns) {
+            primaryKeys.add(column.getColumnName());
+        }
+        return primaryKeys;
+    }
+
+    /*
+    This function returns the value of a boolean column in the current row of the resultSet, where
+    a null value is considered false.
+     */
+    private static boolean getBoolean(ResultSet resultSet, String columnName) {
+        return !resultSet.isNull(columnName) && resultSet.getBoolean(columnName);
+    }
+}
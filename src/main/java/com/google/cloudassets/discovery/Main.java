@@ -1,17 +1,41 @@
 package com.google.cloudassets.discovery;
 
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableCreationException;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.cloudassets.discovery.RunLedger.ProjectStatus;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics;
+import com.google.cloudassets.discovery.metrics.MetricsExporter;
+import com.google.cloudassets.discovery.projectobjects.ApiEnablementCache;
+import com.google.cloudassets.discovery.projectobjects.PageFingerprintStore;
+import com.google.cloudassets.discovery.projectobjects.ProjectAssetsDiff;
 import com.google.cloudassets.discovery.projectobjects.ProjectAssetsMapper;
+import com.google.cloudassets.discovery.projectobjects.ProjectAssetsWriter;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 import com.google.cloudassets.discovery.projectobjects.ProjectMutationsList;
+import com.google.cloudassets.discovery.projectobjects.ProjectMutationsPipeline;
 import com.google.api.gax.longrunning.OperationFuture;
 import com.google.cloud.spanner.*;
 import com.google.common.flogger.FluentLogger;
 import com.google.spanner.admin.database.v1.UpdateDatabaseDdlMetadata;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The Main class is in charge of initializing all of the backend flow - creating asset tables in
@@ -27,17 +51,47 @@ public class Main {
             "SELECT workspaceId, p.projectId, s.serviceAccountEmail "
             + "FROM Workspace_Project_Table as p inner join Workspace_Service_Account_Table as s "
             + "USING (workspaceId) WHERE p.isActive = True and p.serviceAccountActive = True";
-    private static final String GET_TABLES_LIST_QUERY = "SELECT table_name "
-                                                        + "FROM information_schema.tables "
-                                                        + "WHERE table_name like '%Assets'";
-    // The order by part is important as the main asset table should be created before any other asset table
-    private static final String GET_SUPPORTED_TABLES_QUERY = "SELECT DISTINCT assetTableName, isMainTable "
-                                                        + "FROM Asset_Tables_Config "
-                                                        + "WHERE assetTableName != 'forAllAssets' "
-                                                        + "ORDER BY isMainTable DESC";
+    private static final String GET_TABLES_COLUMNS_QUERY = "SELECT table_name, column_name "
+                                                        + "FROM information_schema.columns "
+                                                        + "WHERE table_schema = '' "
+                                                        + "AND table_name like '%Assets'";
+    private static final String GET_TABLE_QUERY = "SELECT table_name FROM information_schema.tables "
+                                                + "WHERE table_schema = '' AND table_name = @tableName";
+
+    // The number of projects which are discovered concurrently (can be set with the
+    // -Ddiscovery.projectThreads system property). The default of 1 keeps the sequential behavior.
+    private static final int NUM_OF_PROJECT_THREADS = Integer.getInteger("discovery.projectThreads", 1);
+    // The way in which the discovered assets of each project are written (can be set with the
+    // -Ddiscovery.syncMode system property): 'full' replaces all of the project's rows, 'diff' only
+    // writes the delta from the existing rows and 'stream' writes the assets page by page.
+    private static final String SYNC_MODE = System.getProperty("discovery.syncMode", "full");
+    // The source of the discovered assets (can be set with the -Ddiscovery.runMode system property):
+    // 'sweep' lists all of the assets of every project and 'changeFeed' consumes the asset change
+    // notifications of the discovery.changeFeedSubscription Pub/Sub subscription for
+    // discovery.changeFeedRunMinutes minutes.
+    private static final String RUN_MODE = System.getProperty("discovery.runMode", "sweep");
+    private static final String CHANGE_FEED_SUBSCRIPTION = System.getProperty("discovery.changeFeedSubscription");
+    private static final int CHANGE_FEED_RUN_MINUTES = Integer.getInteger("discovery.changeFeedRunMinutes", 60);
+    // The number of shards into which the projects are split, so that several workers with the same
+    // discovery.runId can discover them together (can be set with the -Ddiscovery.shards system
+    // property). The default of 0 discovers all of the projects in this process.
+    private static final int NUM_OF_SHARDS = Integer.getInteger("discovery.shards", 0);
+    // The ID of the discovery run (can be set with the -Ddiscovery.runId system property). When it is
+    // set, the progress of every project is recorded in the run ledger, and running again with the
+    // same run ID after an interruption skips the projects which were already committed.
+    private static final String RUN_ID = System.getProperty("discovery.runId");
+    private static final String WORKER_ID = System.getProperty("discovery.workerId", UUID.randomUUID().toString());
+    // Whether or not the Workspace_Facets table (which fills the filters of the frontend) is rebuilt for
+    // every project whose assets were updated (can be set with the -Ddiscovery.refreshFacets system
+    // property).
+    private static final boolean REFRESH_FACETS = Boolean.parseBoolean(
+            System.getProperty("discovery.refreshFacets", "true"));
+    // The time a worker waits before it checks again whether a shard which is held by another worker
+    // was completed or can be reclaimed
+    private static final long SHARD_POLL_MILLIS = TimeUnit.SECONDS.toMillis(15);
 
     private static List<String> existingTableNames;
-    private static List<String> newSupportedTableNames;
+    private static Map<String, Set<String>> existingTablesColumns;
 
     private static final FluentLogger logger = FluentLogger.forEnclosingClass();
 
@@ -45,6 +99,8 @@ public class Main {
     private static DatabaseId db;
     private static DatabaseClient dbClient;
     private static ReadOnlyTransaction readFromDb;
+    private static RunLedger runLedger;
+    private static WorkspaceFacets workspaceFacets;
 
     /**
      * This function initializes all of the mapping and updating of all of the assets for each
@@ -54,13 +110,32 @@ public class Main {
      */
     public static void main(String[] args) throws TableCreationException, TableInsertionException {
         initializeDbVars();
+        MetricsExporter metricsExporter = MetricsExporter.createConfiguredExporter();
+        if (metricsExporter != null) {
+            metricsExporter.start(DiscoveryMetrics.getSharedMetrics());
+        }
 
         try {
             maintainTables();
-            updateAllProjectsAssets();
+            if (RUN_ID != null) {
+                runLedger = new RunLedger(dbClient, RUN_ID);
+            }
+            if (REFRESH_FACETS) {
+                workspaceFacets = new WorkspaceFacets(dbClient);
+            }
+            if (RUN_MODE.equals("changeFeed")) {
+                consumeAssetChanges();
+            } else if (NUM_OF_SHARDS > 0) {
+                updateShardedProjectsAssets();
+            } else {
+                updateAllProjectsAssets();
+            }
         } catch (Throwable exception) {
             throw exception;
         } finally {
+            if (metricsExporter != null) {
+                metricsExporter.finish(DiscoveryMetrics.getSharedMetrics());
+            }
             closeDbVars();
         }
     }
@@ -88,9 +163,213 @@ public class Main {
     This function updates in out spanner db all of the assets for all of the relevant projects.
      */
     private static void updateAllProjectsAssets() throws TableInsertionException {
+        updateProjectsAssets(getProjectsList());
+    }
+
+    /*
+    This function updates in our spanner db the assets of the projects of every shard which this
+    worker manages to claim, until all of the shards of the run were completed (by any of its
+    workers). A shard with a project which could not be updated is released instead of completed, so
+    that it is retried by the other workers and by a rerun of the same run (but not by this worker).
+    A failure in the projects of one shard does not stop the other shards from being updated, and a
+    TableInsertionException is thrown once the run was completed if there were any.
+     */
+    private static void updateShardedProjectsAssets() throws TableInsertionException {
+        if (RUN_ID == null) {
+            throw new TableInsertionException("The discovery.runId system property must be set when the "
+                    + "projects are split into shards.", null);
+        }
+        Map<Long, List<ProjectConfig>> shardsProjects = new HashMap<>();
         for (ProjectConfig project : getProjectsList()) {
-            updateProjectAssets(project);
+            shardsProjects.computeIfAbsent(ShardLeaseManager.getShardId(project, NUM_OF_SHARDS),
+                                            shardId -> new ArrayList<>()).add(project);
+        }
+
+        ShardLeaseManager leaseManager = new ShardLeaseManager(dbClient, RUN_ID, NUM_OF_SHARDS, WORKER_ID);
+        TableInsertionException firstFailure = null;
+        Set<Long> failedShards = new HashSet<>();
+        try {
+            while (!leaseManager.isRunCompleted(failedShards)) {
+                Long shardId = leaseManager.claimShard(failedShards);
+                if (shardId == null) {
+                    // The remaining shards are held by other workers, which may still crash
+                    Thread.sleep(SHARD_POLL_MILLIS);
+                    continue;
+                }
+
+                logger.atInfo().log("Worker %s is updating shard %d of run %s", WORKER_ID, shardId, RUN_ID);
+                try {
+                    updateProjectsAssets(shardsProjects.getOrDefault(shardId, Collections.emptyList()));
+                    leaseManager.completeShard(shardId);
+                } catch (TableInsertionException exception) {
+                    failedShards.add(shardId);
+                    if (firstFailure == null) {
+                        firstFailure = exception;
+                    }
+                    leaseManager.releaseShard(shardId);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new TableInsertionException("Interrupted while waiting for the shards of run " + RUN_ID
+                    + " to be completed.", exception);
+        } finally {
+            leaseManager.close();
+        }
+
+        if (firstFailure != null) {
+            throw new TableInsertionException(failedShards.size() + " of the shards which were updated by this worker "
+                    + "had projects which could not be updated.", firstFailure);
+        }
+    }
+
+    /*
+    The ProjectUpdater interface updates the assets of a single project. It is used by the pool of
+    project threads (and is replaced by tests, so that no project is really discovered).
+     */
+    interface ProjectUpdater {
+        void updateProject(ProjectConfig project) throws TableInsertionException;
+    }
+
+    /*
+    This function updates in out spanner db all of the assets for the provided projects, on a bounded
+    pool of NUM_OF_PROJECT_THREADS threads, and then persists the shared caches.
+     */
+    private static void updateProjectsAssets(List<ProjectConfig> projectsList) throws TableInsertionException {
+        try {
+            updateProjectsAssets(projectsList, NUM_OF_PROJECT_THREADS, project -> {
+                updateProjectAssets(project);
+                if (workspaceFacets != null) {
+                    workspaceFacets.refreshProjectFacets(project);
+                }
+            });
+        } finally {
+            // The shared caches are persisted once all of the projects were handled
+            ApiEnablementCache.getSharedCache().save();
+            if (SYNC_MODE.equals("diff")) {
+                PageFingerprintStore.getSharedStore().save();
+            }
+        }
+    }
+
+    /*
+    This function updates the provided projects with the provided projectUpdater (it is used by tests).
+    The projects are spread over a bounded pool of numOfThreads threads, and projects which were
+    already committed by this run (before it was interrupted) are skipped. A failure in one project
+    does not stop the other projects from being updated - all of the failures are logged once every
+    project was handled and a TableInsertionException is thrown if there were any.
+     */
+    static void updateProjectsAssets(List<ProjectConfig> projectsList, int numOfThreads,
+                                     ProjectUpdater projectUpdater) throws TableInsertionException {
+        ExecutorService projectsExecutor = Executors.newFixedThreadPool(numOfThreads);
+        Map<ProjectConfig, Future<Void>> projectsFutures = new LinkedHashMap<>();
+        List<ProjectConfig> failedProjects = new ArrayList<>();
+        Throwable firstFailure = null;
+
+        try {
+            int committedProjects = 0;
+            if (runLedger != null) {
+                runLedger.reloadCommittedProjects();
+            }
+            for (ProjectConfig project : getFairProjectsOrder(projectsList)) {
+                if (runLedger != null && runLedger.isCommitted(project)) {
+                    committedProjects++;
+                    continue;
+                }
+                projectsFutures.put(project, projectsExecutor.submit((Callable<Void>) () -> {
+                    DiscoveryMetrics metrics = DiscoveryMetrics.getSharedMetrics();
+                    long projectStartNanos = System.nanoTime();
+                    metrics.startProjectSpan(project.getWorkspaceId(), project.getProjectId());
+                    recordProjectStatus(project, ProjectStatus.STARTED, null);
+                    try {
+                        projectUpdater.updateProject(project);
+                    } catch (Throwable exception) {
+                        recordProjectStatus(project, ProjectStatus.FAILED, null);
+                        metrics.incrementCounter(DiscoveryMetrics.ERRORS_METRIC, 1, "stage", "project");
+                        metrics.endProjectSpan(project.getWorkspaceId(), project.getProjectId(), false);
+                        throw exception;
+                    }
+                    recordProjectStatus(project, ProjectStatus.COMMITTED, null);
+                    metrics.recordLatency(DiscoveryMetrics.PROJECT_LATENCY_METRIC,
+                                          System.nanoTime() - projectStartNanos);
+                    metrics.endProjectSpan(project.getWorkspaceId(), project.getProjectId(), true);
+                    return null;
+                }));
+            }
+            if (committedProjects > 0) {
+                logger.atInfo().log("Resuming run %s, skipping %d projects which were already committed.",
+                                    RUN_ID, committedProjects);
+            }
+
+            for (Map.Entry<ProjectConfig, Future<Void>> projectFuture : projectsFutures.entrySet()) {
+                try {
+                    projectFuture.getValue().get();
+                } catch (ExecutionException exception) {
+                    failedProjects.add(projectFuture.getKey());
+                    if (firstFailure == null) {
+                        firstFailure = exception.getCause();
+                    }
+                    logger.atSevere().withCause(exception.getCause()).log("Could not update the assets " +
+                            "of workspace ID: %s, project ID: %s", projectFuture.getKey().getWorkspaceId(),
+                            projectFuture.getKey().getProjectId());
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new TableInsertionException("Interrupted while waiting for the projects " +
+                            "assets to be updated.", exception);
+                }
+            }
+        } finally {
+            projectsExecutor.shutdownNow();
+        }
+
+        if (!failedProjects.isEmpty()) {
+            throw new TableInsertionException(failedProjects.size() + " out of " + projectsFutures.size()
+                    + " projects could not be updated. Please see the logs for more details.", firstFailure);
+        }
+    }
+
+    /*
+    This function writes the assets which were changed in all of the relevant projects, as their
+    change notifications arrive from the Cloud Asset Inventory feed subscription.
+     */
+    private static void consumeAssetChanges() throws TableInsertionException {
+        if (CHANGE_FEED_SUBSCRIPTION == null) {
+            throw new TableInsertionException("The discovery.changeFeedSubscription system property must be "
+                    + "set in the changeFeed run mode.", null);
+        }
+        AssetChangeMapper changeMapper;
+        try {
+            changeMapper = new AssetChangeMapper(getProjectsList(), AssetTablesConfig.getInstance());
+        } catch (ConfigTableException exception) {
+            throw new TableInsertionException("Could not consume the asset changes as the asset tables "
+                    + "configuration could not be properly retrieved.", exception);
         }
+        new AssetChangeFeed(dbClient, CHANGE_FEED_SUBSCRIPTION, changeMapper)
+                .run(TimeUnit.MINUTES.toMillis(CHANGE_FEED_RUN_MINUTES));
+    }
+
+    /*
+    This function returns the provided projects ordered in a round robin between their workspaces,
+    so that consecutive projects belong to different workspaces. As the projects executor runs the
+    projects by their submission order, a workspace with many projects can not starve the others
+    (it is used by tests).
+     */
+    static List<ProjectConfig> getFairProjectsOrder(List<ProjectConfig> projectsList) {
+        Map<String, Queue<ProjectConfig>> workspacesProjects = new LinkedHashMap<>();
+        for (ProjectConfig project : projectsList) {
+            workspacesProjects.computeIfAbsent(project.getWorkspaceId(), workspaceId -> new LinkedList<>())
+                                .add(project);
+        }
+
+        List<ProjectConfig> fairProjectsOrder = new ArrayList<>();
+        while (fairProjectsOrder.size() < projectsList.size()) {
+            for (Queue<ProjectConfig> workspaceProjects : workspacesProjects.values()) {
+                if (!workspaceProjects.isEmpty()) {
+                    fairProjectsOrder.add(workspaceProjects.poll());
+                }
+            }
+        }
+        return fairProjectsOrder;
     }
 
     /*
@@ -116,112 +395,167 @@ public class Main {
      */
     private static void updateProjectAssets(ProjectConfig project) throws TableInsertionException {
         // Update project config and assets
+        if (SYNC_MODE.equals("diff")) {
+            syncProjectAssets(project, new ProjectAssetsMapper(project, PageFingerprintStore.getSharedStore()));
+            return;
+        }
         ProjectAssetsMapper projectAssets = new ProjectAssetsMapper(project);
-        ProjectMutationsList projectMutations = new ProjectMutationsList();
+        if (SYNC_MODE.equals("stream")) {
+            streamProjectAssets(project, projectAssets);
+            return;
+        }
+
+        ProjectMutationsList projectMutations = new ProjectMutationsList(true);
         List<Mutation> mutationsToAdd = projectMutations.getMutationList(projectAssets.getAllAssets());
+        recordProjectStatus(project, ProjectStatus.FETCHED, (long) mutationsToAdd.size());
 
         // We prepare the insertion of the new assets before the deletion of the old ones so
         // that we wont have data loss in case of an error.
-        deleteProjectAssets(project.getWorkspaceId(), project.getProjectId());
-        dbClient.write(mutationsToAdd);
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(dbClient, project, existingTableNames);
+        projectWriter.replaceProjectAssets(mutationsToAdd);
     }
 
     /*
-    This function deletes all of the assets for the given project ID from all of the asset tables
-    that already existed before this process began to run (no need to delete from tables that were
-    just created by this process).
+    This function writes the given project's assets page by page while they are being fetched, and
+    then deletes the project's rows of assets that no longer exist. If the fetching fails, no rows
+    are deleted.
      */
-    private static void deleteProjectAssets(String workspaceId, String projectId) {
-        List<Mutation> deleteMutations = new ArrayList<>();
+    private static void streamProjectAssets(ProjectConfig project, ProjectAssetsMapper projectAssets)
+            throws TableInsertionException {
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(dbClient, project, existingTableNames);
+        ProjectMutationsPipeline projectPipeline = new ProjectMutationsPipeline(projectWriter);
+        try {
+            projectAssets.streamAllAssets(projectPipeline::addPage);
+        } catch (RuntimeException exception) {
+            projectPipeline.abort();
+            throw exception;
+        }
+        recordProjectStatus(project, ProjectStatus.FETCHED, null);
+        projectPipeline.finish();
+    }
+
+    /*
+    This function writes only the changes of the given project's assets: rows of new or changed
+    assets are upserted, rows of assets which were not discovered anymore are deleted and rows of
+    unchanged assets are not written at all. Asset list pages which were not changed since they were
+    last written are not parsed at all, and the rows of their assets are kept as they are.
+     */
+    private static void syncProjectAssets(ProjectConfig project, ProjectAssetsMapper projectAssets)
+            throws TableInsertionException {
+        ProjectMutationsList projectMutations = new ProjectMutationsList(true);
+        List<Mutation> upsertMutations = projectMutations.getMutationList(projectAssets.getAllAssets());
+        recordProjectStatus(project, ProjectStatus.FETCHED, (long) upsertMutations.size());
+
+        ProjectAssetsDiff projectDiff = new ProjectAssetsDiff(dbClient, project, existingTableNames);
+        List<Mutation> deltaMutations = projectDiff.getDeltaMutations(upsertMutations,
+                                                                      projectAssets.getUnchangedAssetKeys());
+        logger.atInfo().log("Writing %d mutations for %d discovered asset rows (and %d unchanged assets) of "
+                + "workspace ID: %s, project ID: %s", deltaMutations.size(), upsertMutations.size(),
+                projectAssets.getUnchangedAssetKeys().size(), project.getWorkspaceId(), project.getProjectId());
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(dbClient, project, existingTableNames);
+        projectWriter.writeMutations(deltaMutations);
+        projectAssets.storePageFingerprints();
+    }
 
-        // Only delete values from tables that existed before this process ran
-        for (String tableName : existingTableNames) {
-            Key projectKey = Key.of(workspaceId, projectId);
-            deleteMutations.add(Mutation.delete(tableName, KeySet.range(KeyRange.closedClosed(projectKey, projectKey))));
+    /*
+    This function records the current status of the given project in the run ledger, if the progress
+    of this run is recorded, and as a stage of the project's span (if tracing is enabled).
+     */
+    private static void recordProjectStatus(ProjectConfig project, ProjectStatus status, Long assetsCount) {
+        DiscoveryMetrics.getSharedMetrics().addProjectSpanStage(project.getWorkspaceId(), project.getProjectId(),
+                                                                status.name());
+        if (runLedger != null) {
+            runLedger.recordStatus(project, status, assetsCount);
         }
-        dbClient.write(deleteMutations);
     }
 
     /*
     This function runs all of functions that are responsible for the tables maintenance which are not
-    project specific (finding existing table names, finding and creating newly supported tables).
+    project specific (loading the tables configuration, finding the existing tables and columns,
+    creating newly supported tables and adding newly supported columns).
     */
     private static void maintainTables() throws TableCreationException {
-        setExistingTableNames();
-        // 'existingTableNames' var must be initialized before getNewSupportedTableNames is called
-        setNewSupportedTableNames();
-        createTablesIfNotExist();
+        AssetTablesConfig tablesConfig;
+        try {
+            tablesConfig = AssetTablesConfig.load();
+        } catch (ConfigTableException exception) {
+            throw new TableCreationException("The Asset_Tables_Config table is not configured properly.", exception);
+        }
+        setExistingTablesColumns();
+        updateTablesSchema(new SchemaPlanner(tablesConfig, existingTablesColumns));
+        if (REFRESH_FACETS) {
+            createTableIfNotExists(WorkspaceFacets.FACETS_TABLE_NAME, WorkspaceFacets.CREATE_FACETS_TABLE_STATEMENT);
+        }
+        if (RUN_ID != null) {
+            createTableIfNotExists(RunLedger.LEDGER_TABLE_NAME, RunLedger.CREATE_LEDGER_TABLE_STATEMENT);
+        }
+        if (NUM_OF_SHARDS > 0) {
+            createTableIfNotExists(ShardLeaseManager.LEASES_TABLE_NAME, ShardLeaseManager.CREATE_LEASES_TABLE_STATEMENT);
+        }
     }
 
     /*
-    This function updates the existingTableNames variable which is a list of strings that represents
-    all of the asset tables which currently exist in our spanner db.
+    This function creates a table which is not an asset table (and is therefore not configured in
+    the Asset_Tables_Config table) with the provided create statement, if it does not exist yet.
     */
-    private static void setExistingTableNames() {
-        existingTableNames = new ArrayList<>();
+    private static void createTableIfNotExists(String tableName, String createTableStatement)
+            throws TableCreationException {
+        Statement tableQuery = Statement.newBuilder(GET_TABLE_QUERY).bind("tableName").to(tableName).build();
+        try (ResultSet resultSet = dbClient.singleUse().executeQuery(tableQuery)) {
+            if (resultSet.next()) {
+                return;
+            }
+        }
 
-        ResultSet resultSet = executeStringQuery(GET_TABLES_LIST_QUERY);
-        while (resultSet.next()) {
-            existingTableNames.add(resultSet.getString("table_name"));
+        logger.atInfo().log("Creating the %s table", tableName);
+        try {
+            spanner.getDatabaseAdminClient().updateDatabaseDdl(db.getInstanceId().getInstance(), db.getDatabase(),
+                    Collections.singletonList(createTableStatement), null).get();
+        } catch (Exception exception) {
+            throw new TableCreationException("Could not create the following table: " + tableName, exception);
         }
     }
 
     /*
-    This function updates the newSupportedTableNames variable which is a list of strings that represents
-    all of the asset tables which do not currently exist in our spanner db but were added to the
-    Asset_Tables_Config table.
-    This function relies on existingTableNames variable being properly initialized.
+    This function updates the existingTableNames variable which is a list of strings that represents
+    all of the asset tables which currently exist in our spanner db, and the existingTablesColumns
+    variable which maps each of these tables to its columns (both with a single query).
     */
-    private static void setNewSupportedTableNames() {
-        newSupportedTableNames = new ArrayList<>();
+    private static void setExistingTablesColumns() {
+        existingTablesColumns = new LinkedHashMap<>();
 
-        ResultSet resultSet = executeStringQuery(GET_SUPPORTED_TABLES_QUERY);
-        try {
-            while (resultSet.next()) {
-                String tableName = resultSet.getString("assetTableName");
-                if (!existingTableNames.contains(tableName)) {
-                    newSupportedTableNames.add(tableName);
-                }
-            }
-        } catch (NullPointerException exception) {
-            logger.atInfo().withCause(exception).log("existingTableNames variable was not " +
-                    "initialized before calling the setNewSupportedTableNames function.");
+        ResultSet resultSet = executeStringQuery(GET_TABLES_COLUMNS_QUERY);
+        while (resultSet.next()) {
+            existingTablesColumns.computeIfAbsent(resultSet.getString("table_name"), tableName -> new HashSet<>())
+                                .add(resultSet.getString("column_name"));
         }
+        existingTableNames = new ArrayList<>(existingTablesColumns.keySet());
     }
 
     /*
-    This function executes the tables creation in our spanner db for tables that do not yet exist.
+    This function executes all of the DDL statements planned by the provided schemaPlanner (tables
+    creation for tables that do not yet exist and columns addition for existing tables) in our
+    spanner db as a single DDL batch.
     */
-    private static void createTablesIfNotExist() throws TableCreationException {
-        // Create asset tables only if there are new ones
-        if (newSupportedTableNames.size() > 0) {
+    private static void updateTablesSchema(SchemaPlanner schemaPlanner) throws TableCreationException {
+        List<String> ddlStatements = schemaPlanner.getDdlStatements();
+        // Update the schema only if there are new tables or columns
+        if (ddlStatements.size() > 0) {
+            logger.atInfo().log("Updating the asset tables schema with %d DDL statements (new tables: %s)",
+                    ddlStatements.size(), schemaPlanner.getNewTableNames());
             DatabaseAdminClient dbAdminClient = spanner.getDatabaseAdminClient();
-            OperationFuture<Void, UpdateDatabaseDdlMetadata> createTables;
-            createTables = dbAdminClient.updateDatabaseDdl(db.getInstanceId().getInstance(),
-                    db.getDatabase(), getCreateTableQueriesList(), null);
+            OperationFuture<Void, UpdateDatabaseDdlMetadata> updateSchema;
+            updateSchema = dbAdminClient.updateDatabaseDdl(db.getInstanceId().getInstance(),
+                    db.getDatabase(), ddlStatements, null);
             try {
-                createTables.get();
+                updateSchema.get();
             } catch (Exception exception) {
                 logger.atInfo().withCause(exception).log("Encountered an Exception while " +
-                        "creating new asset tables.");
+                        "updating the asset tables schema.");
             }
         }
     }
 
-    /*
-    This function returns a list of strings that represent the SQL create table queries to be
-    executed in our spanner DB (of the newly added asset kinds).
-    */
-    private static List<String> getCreateTableQueriesList() throws TableCreationException {
-        List<String> createTableQueries = new ArrayList<>();
-
-        for (String tableName : newSupportedTableNames) {
-            TableCreation tableCreation = new TableCreation(tableName);
-            createTableQueries.add(tableCreation.getCreateTableStatement());
-        }
-        return createTableQueries;
-    }
-
     /**
      * This function receives a string representing a read only SQL query and executes it in our
      * spanner DB.
@@ -232,4 +566,25 @@ public class Main {
         Statement statement = Statement.newBuilder(query).build();
         return readFromDb.executeQuery(statement);
     }
+
+    /**
+     * This function receives a string representing a read only SQL query and executes it in our
+     * spanner DB in a new single use transaction (so that the current data is read, unlike the
+     * executeStringQuery function which reads the data as of the first query of this process).
+     * @param query - a string representing an SQL statement.
+     * @return a ResultSet of the query results.
+     */
+    public static ResultSet executeSingleUseQuery(String query) {
+        return executeSingleUseQuery(Statement.newBuilder(query).build());
+    }
+
+    /**
+     * This function executes the provided read only statement (with its bound parameters) in our
+     * spanner DB in a new single use transaction, like the executeSingleUseQuery function of a string.
+     * @param statement - an SQL statement with its parameters.
+     * @return a ResultSet of the query results.
+     */
+    public static ResultSet executeSingleUseQuery(Statement statement) {
+        return dbClient.singleUse().executeQuery(statement);
+    }
 }
@@ -0,0 +1,121 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Value;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import com.google.common.flogger.FluentLogger;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The RunLedger class records the progress of every project of a discovery run in the
+ * Discovery_Run_Ledger table of our spanner db, so that a run which was interrupted can be resumed
+ * (by running again with the same run ID) without discovering again the projects whose assets were
+ * already committed. The ledger also shows the status of every project while the run is in progress.
+ */
+public class RunLedger {
+    public static final String LEDGER_TABLE_NAME = "Discovery_Run_Ledger";
+    public static final String CREATE_LEDGER_TABLE_STATEMENT = "CREATE TABLE " + LEDGER_TABLE_NAME + " ("
+            + "runId STRING(MAX) NOT NULL, workspaceId STRING(MAX) NOT NULL, projectId STRING(MAX) NOT NULL, "
+            + "status STRING(MAX) NOT NULL, assetsCount INT64, "
+            + "updateTime TIMESTAMP NOT NULL OPTIONS (allow_commit_timestamp=true)) "
+            + "PRIMARY KEY (runId, workspaceId, projectId)";
+
+    private static final String GET_COMMITTED_PROJECTS_QUERY = "SELECT workspaceId, projectId FROM "
+            + LEDGER_TABLE_NAME + " WHERE runId = @runId AND status = '" + ProjectStatus.COMMITTED + "'";
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final DatabaseClient dbClient;
+    private final String runId;
+    private Set<List<String>> committedProjects;
+
+    /**
+     * The ProjectStatus enum represents the progress of a single project in a discovery run.
+     */
+    public enum ProjectStatus {
+        // The discovery of the project's assets began
+        STARTED,
+        // All of the project's assets were fetched and are being written
+        FETCHED,
+        // All of the project's assets were committed
+        COMMITTED,
+        // The project could not be updated, it is discovered again when the run is resumed
+        FAILED
+    }
+
+    /**
+     * The RunLedger constructor initializes the run whose progress is recorded.
+     * @param client - the spanner DatabaseClient in which the ledger is stored.
+     * @param run - the ID of the discovery run.
+     */
+    public RunLedger(DatabaseClient client, String run) {
+        this.dbClient = client;
+        this.runId = run;
+    }
+
+    /**
+     * This function reads the projects which were already committed by this run (by any of its
+     * workers), which are then checked by the isCommitted function. It should be called before
+     * every batch of projects is discovered, as a shard which is reclaimed from a crashed worker may
+     * have projects which were committed by it after the previous batch began.
+     */
+    public synchronized void reloadCommittedProjects() {
+        Set<List<String>> currentCommittedProjects = new HashSet<>();
+        Statement committedQuery = Statement.newBuilder(GET_COMMITTED_PROJECTS_QUERY)
+                                            .bind("runId").to(this.runId).build();
+        try (ResultSet resultSet = this.dbClient.singleUse().executeQuery(committedQuery)) {
+            while (resultSet.next()) {
+                currentCommittedProjects.add(Arrays.asList(resultSet.getString("workspaceId"),
+                                                           resultSet.getString("projectId")));
+            }
+        }
+        this.committedProjects = currentCommittedProjects;
+    }
+
+    /**
+     * This function returns whether the assets of the provided project were already committed by
+     * this run, as of the last time the committed projects were reloaded.
+     * @param project - the relevant project configurations.
+     * @return true if the project's assets were already committed by this run.
+     */
+    public synchronized boolean isCommitted(ProjectConfig project) {
+        if (this.committedProjects == null) {
+            reloadCommittedProjects();
+        }
+        return this.committedProjects.contains(Arrays.asList(project.getWorkspaceId(), project.getProjectId()));
+    }
+
+    /**
+     * This function records the current status of the provided project. If the status could not be
+     * recorded the incident is logged, as the worst outcome is that the project is discovered again
+     * when the run is resumed.
+     * @param project - the relevant project configurations.
+     * @param status - the current status of the project.
+     * @param assetsCount - the number of the project's assets, or null if it is not known yet.
+     */
+    public void recordStatus(ProjectConfig project, ProjectStatus status, Long assetsCount) {
+        Mutation ledgerMutation = Mutation.newInsertOrUpdateBuilder(LEDGER_TABLE_NAME)
+                .set("runId").to(this.runId)
+                .set("workspaceId").to(project.getWorkspaceId())
+                .set("projectId").to(project.getProjectId())
+                .set("status").to(status.name())
+                .set("assetsCount").to(assetsCount)
+                .set("updateTime").to(Value.COMMIT_TIMESTAMP)
+                .build();
+        try {
+            this.dbClient.write(Collections.singletonList(ledgerMutation));
+        } catch (SpannerException exception) {
+            logger.atWarning().withCause(exception).log("Could not record the %s status of workspace ID: %s, "
+                    + "project ID: %s in run %s", status, project.getWorkspaceId(), project.getProjectId(), this.runId);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableCreationException;
+import com.google.cloudassets.discovery.AssetTablesConfig.ColumnConfig;
+import com.google.common.flogger.FluentLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The SchemaPlanner class compares a snapshot of the Asset_Tables_Config table with the current
+ * schema of the asset tables in our spanner db, and plans all of the DDL statements which are
+ * needed in order to bring the schema up to date: CREATE TABLE statements for the configured tables
+ * which do not exist yet, and ALTER TABLE ADD COLUMN statements for the configured columns which are
+ * missing from existing tables. The statements are built in memory, so that they can be submitted
+ * to spanner as a single DDL batch.
+ */
+public class SchemaPlanner {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final AssetTablesConfig tablesConfig;
+    private final Map<String, Set<String>> existingTablesColumns;
+
+    /**
+     * The SchemaPlanner constructor initialized the configured schema and the existing one.
+     * @param config - a snapshot of the Asset_Tables_Config table.
+     * @param existingColumns - a map between the name of every asset table which exists in our
+     *                        spanner db and the names of its columns.
+     */
+    public SchemaPlanner(AssetTablesConfig config, Map<String, Set<String>> existingColumns) {
+        this.tablesConfig = config;
+        this.existingTablesColumns = existingColumns;
+    }
+
+    /**
+     * This function returns the names of the configured asset tables which do not exist yet, where
+     * the main table is first (as it should be created before any other asset table).
+     * @return a list of the names of the tables to be created.
+     */
+    public List<String> getNewTableNames() {
+        List<String> newTableNames = new ArrayList<>();
+        for (String tableName : this.tablesConfig.getAssetTableNames()) {
+            if (!this.existingTablesColumns.containsKey(tableName)) {
+                newTableNames.add(tableName);
+            }
+        }
+        return newTableNames;
+    }
+
+    /**
+     * This is the main function of this class and it returns all of the DDL statements which should
+     * be executed (in their order) in order to bring the schema of the asset tables up to date.
+     * @return a list of DDL statements, or an empty list if the schema is already up to date.
+     * @throws TableCreationException if a create table statement could not be constructed.
+     */
+    public List<String> getDdlStatements() throws TableCreationException {
+        List<String> ddlStatements = new ArrayList<>();
+        for (String tableName : getNewTableNames()) {
+            ddlStatements.add(new TableCreation(tableName, this.tablesConfig).getCreateTableStatement());
+        }
+
+        for (String tableName : this.tablesConfig.getAssetTableNames()) {
+            Set<String> existingColumns = this.existingTablesColumns.get(tableName);
+            if (existingColumns != null) {
+                addMissingColumnsStatements(ddlStatements, tableName, this.tablesConfig.getCommonColumns(),
+                                            existingColumns);
+                addMissingColumnsStatements(ddlStatements, tableName, this.tablesConfig.getTableColumns(tableName),
+                                            existingColumns);
+            }
+        }
+        return ddlStatements;
+    }
+
+    /*
+    This function adds an ALTER TABLE ADD COLUMN statement to the provided ddlStatements list for
+    every one of the provided configured columns which does not exist in the given table.
+    Spanner does not allow adding a NOT NULL column or changing the primary key of an existing table,
+    and therefore such columns are added without the NOT NULL constraint and missing primary key
+    columns are only logged.
+     */
+    private void addMissingColumnsStatements(List<String> ddlStatements, String tableName,
+                                             List<ColumnConfig> configuredColumns, Set<String> existingColumns) {
+        for (ColumnConfig column : configuredColumns) {
+            if (existingColumns.contains(column.getColumnName())) {
+                continue;
+            }
+            if (column.isPrimaryKey()) {
+                logger.atWarning().log("The %s primary key column can not be added to the existing %s table, "
+                        + "the table should be recreated.", column.getColumnName(), tableName);
+                continue;
+            }
+
+            StringBuilder alterStatement = new StringBuilder("ALTER TABLE " + tableName + " ADD COLUMN ");
+            alterStatement.append(column.getColumnName());
+            alterStatement.append(" ");
+            alterStatement.append(column.getColumnType());
+            if (column.isNotNull()) {
+                logger.atWarning().log("The %s column is added to the existing %s table without its NOT NULL "
+                        + "constraint.", column.getColumnName(), tableName);
+            }
+            if (column.isAllowCommitTimestamp()) {
+                alterStatement.append(" OPTIONS (allow_commit_timestamp=true)");
+            }
+            ddlStatements.add(alterStatement.toString());
+        }
+    }
+}
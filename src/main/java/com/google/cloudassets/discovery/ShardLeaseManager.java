@@ -0,0 +1,233 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Statement;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import com.google.common.flogger.FluentLogger;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ShardLeaseManager class distributes the shards of a single discovery run between several
+ * workers (processes which can run on different machines). Every project belongs to a single shard
+ * and a worker has to claim a shard before it discovers its projects, by holding a lease on it in
+ * the Discovery_Shard_Leases table of our spanner db. The leases of the held shards are extended by
+ * a background heartbeat, and the shards of a crashed worker are reclaimed by the other workers once
+ * their leases expire. A shard whose projects could not all be updated is released instead of being
+ * completed, so that it is retried by the other workers and by a rerun of the same run. All of the
+ * lease times are compared with the spanner server time, so that the clocks of the workers do not
+ * have to be synchronized.
+ */
+public class ShardLeaseManager {
+    public static final String LEASES_TABLE_NAME = "Discovery_Shard_Leases";
+    public static final String CREATE_LEASES_TABLE_STATEMENT = "CREATE TABLE " + LEASES_TABLE_NAME + " ("
+            + "runId STRING(MAX) NOT NULL, shardId INT64 NOT NULL, ownerId STRING(MAX) NOT NULL, "
+            + "leaseExpireTime TIMESTAMP NOT NULL, isCompleted BOOL NOT NULL) PRIMARY KEY (runId, shardId)";
+
+    private static final String GET_SHARDS_QUERY = "SELECT shardId, isCompleted, "
+            + "leaseExpireTime <= CURRENT_TIMESTAMP() AS isExpired FROM " + LEASES_TABLE_NAME + " WHERE runId = @runId";
+    private static final String LEASE_EXPIRE_TIME_EXP = "TIMESTAMP_ADD(CURRENT_TIMESTAMP(), INTERVAL @leaseSeconds SECOND)";
+    private static final String INSERT_LEASE_DML = "INSERT INTO " + LEASES_TABLE_NAME + " (runId, shardId, ownerId, "
+            + "leaseExpireTime, isCompleted) VALUES (@runId, @shardId, @ownerId, " + LEASE_EXPIRE_TIME_EXP + ", false)";
+    private static final String RECLAIM_LEASE_DML = "UPDATE " + LEASES_TABLE_NAME + " SET ownerId = @ownerId, "
+            + "leaseExpireTime = " + LEASE_EXPIRE_TIME_EXP + " WHERE runId = @runId AND shardId = @shardId";
+    private static final String EXTEND_LEASE_DML = "UPDATE " + LEASES_TABLE_NAME + " SET leaseExpireTime = "
+            + LEASE_EXPIRE_TIME_EXP + " WHERE runId = @runId AND shardId = @shardId AND ownerId = @ownerId "
+            + "AND isCompleted = false";
+    private static final String COMPLETE_LEASE_DML = "UPDATE " + LEASES_TABLE_NAME + " SET isCompleted = true "
+            + "WHERE runId = @runId AND shardId = @shardId AND ownerId = @ownerId";
+    // A released lease expires immediately, so that its shard can be reclaimed
+    private static final String RELEASE_LEASE_DML = "UPDATE " + LEASES_TABLE_NAME + " SET leaseExpireTime = "
+            + "CURRENT_TIMESTAMP() WHERE runId = @runId AND shardId = @shardId AND ownerId = @ownerId "
+            + "AND isCompleted = false";
+
+    // The duration of a lease, which is extended every third of it while the shard is held (can be
+    // set with the -Ddiscovery.shardLeaseSeconds system property).
+    private static final int LEASE_SECONDS = Integer.getInteger("discovery.shardLeaseSeconds", 300);
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final DatabaseClient dbClient;
+    private final String runId;
+    private final int numOfShards;
+    private final String ownerId;
+    private final Set<Long> heldShards;
+    private final ScheduledExecutorService heartbeatExecutor;
+
+    /**
+     * The ShardLeaseManager constructor initializes the run and the worker whose leases are managed,
+     * and starts the heartbeat of the held leases.
+     * @param client - the spanner DatabaseClient in which the leases are stored.
+     * @param run - the ID of the discovery run, which is shared by all of its workers.
+     * @param shards - the number of shards of the run, which is shared by all of its workers.
+     * @param worker - the unique ID of this worker.
+     */
+    public ShardLeaseManager(DatabaseClient client, String run, int shards, String worker) {
+        this.dbClient = client;
+        this.runId = run;
+        this.numOfShards = shards;
+        this.ownerId = worker;
+        this.heldShards = ConcurrentHashMap.newKeySet();
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread heartbeatThread = new Thread(runnable, "shard-lease-heartbeat");
+            heartbeatThread.setDaemon(true);
+            return heartbeatThread;
+        });
+        long heartbeatSeconds = Math.max(1, LEASE_SECONDS / 3);
+        this.heartbeatExecutor.scheduleAtFixedRate(this::extendHeldLeases, heartbeatSeconds, heartbeatSeconds,
+                                                   TimeUnit.SECONDS);
+    }
+
+    /**
+     * This function returns the shard to which the provided project belongs. It only depends on the
+     * workspace ID & project ID, so that all of the workers assign every project to the same shard.
+     * @param project - the relevant project configurations.
+     * @param shards - the number of shards of the run.
+     * @return the ID of the project's shard (between 0 and shards - 1).
+     */
+    public static long getShardId(ProjectConfig project, int shards) {
+        return Math.floorMod((project.getWorkspaceId() + "/" + project.getProjectId()).hashCode(), shards);
+    }
+
+    /**
+     * This function claims a shard of the run for this worker: a shard which was not claimed yet, or
+     * otherwise a shard which was not completed and whose lease expired (as its worker crashed).
+     * The lease of the claimed shard is extended by the heartbeat until it is completed or released.
+     * @param excludedShards - the IDs of shards which should not be reclaimed (the shards which
+     *                       already failed in this worker).
+     * @return the ID of the claimed shard, or null if there is no shard to claim at the moment.
+     */
+    public Long claimShard(Set<Long> excludedShards) {
+        Long claimedShard = this.dbClient.readWriteTransaction().run(transaction -> {
+            Set<Long> existingShards = new HashSet<>();
+            Long expiredShard = null;
+            try (ResultSet resultSet = transaction.executeQuery(bindLease(GET_SHARDS_QUERY, null).build())) {
+                while (resultSet.next()) {
+                    existingShards.add(resultSet.getLong("shardId"));
+                    if (expiredShard == null && !resultSet.getBoolean("isCompleted")
+                            && resultSet.getBoolean("isExpired")
+                            && !excludedShards.contains(resultSet.getLong("shardId"))) {
+                        expiredShard = resultSet.getLong("shardId");
+                    }
+                }
+            }
+
+            for (long shardId = 0; shardId < this.numOfShards; shardId++) {
+                if (!existingShards.contains(shardId)) {
+                    transaction.executeUpdate(bindLease(INSERT_LEASE_DML, shardId).build());
+                    return shardId;
+                }
+            }
+            if (expiredShard != null) {
+                transaction.executeUpdate(bindLease(RECLAIM_LEASE_DML, expiredShard).build());
+                logger.atWarning().log("Reclaiming shard %d of run %s whose lease expired", expiredShard, this.runId);
+            }
+            return expiredShard;
+        });
+
+        if (claimedShard != null) {
+            this.heldShards.add(claimedShard);
+        }
+        return claimedShard;
+    }
+
+    /**
+     * This function marks the provided shard as completed, so that it is not claimed again.
+     * @param shardId - the ID of a shard which is held by this worker.
+     */
+    public void completeShard(long shardId) {
+        this.heldShards.remove(shardId);
+        long updatedRows = this.dbClient.readWriteTransaction().run(transaction ->
+                transaction.executeUpdate(bindLease(COMPLETE_LEASE_DML, shardId).build()));
+        if (updatedRows == 0) {
+            logger.atWarning().log("Shard %d of run %s was completed after its lease was reclaimed by another "
+                    + "worker.", shardId, this.runId);
+        }
+    }
+
+    /**
+     * This function releases the provided shard without completing it (as its projects could not
+     * all be updated), so that it can be reclaimed right away by another worker or by a rerun.
+     * @param shardId - the ID of a shard which is held by this worker.
+     */
+    public void releaseShard(long shardId) {
+        this.heldShards.remove(shardId);
+        this.dbClient.readWriteTransaction().run(transaction ->
+                transaction.executeUpdate(bindLease(RELEASE_LEASE_DML, shardId).build()));
+    }
+
+    /**
+     * @param excludedShards - the IDs of shards which this worker should not wait for (the shards
+     *                       which already failed in this worker).
+     * @return whether or not all of the shards of the run, except for the excluded shards, were
+     * completed (by any of its workers).
+     */
+    public boolean isRunCompleted(Set<Long> excludedShards) {
+        Set<Long> completedShards = new HashSet<>(excludedShards);
+        try (ResultSet resultSet = this.dbClient.singleUse().executeQuery(bindLease(GET_SHARDS_QUERY, null).build())) {
+            while (resultSet.next()) {
+                if (resultSet.getBoolean("isCompleted")) {
+                    completedShards.add(resultSet.getLong("shardId"));
+                }
+            }
+        }
+        for (long shardId = 0; shardId < this.numOfShards; shardId++) {
+            if (!completedShards.contains(shardId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This function stops the heartbeat of the held leases.
+     */
+    public void close() {
+        this.heartbeatExecutor.shutdownNow();
+    }
+
+    /*
+    This function extends the leases of all of the shards which are held by this worker. A lease
+    which could not be extended is logged, as its shard may be claimed by another worker.
+     */
+    private void extendHeldLeases() {
+        for (Long shardId : this.heldShards) {
+            try {
+                long updatedRows = this.dbClient.readWriteTransaction().run(transaction ->
+                        transaction.executeUpdate(bindLease(EXTEND_LEASE_DML, shardId).build()));
+                if (updatedRows == 0) {
+                    logger.atWarning().log("The lease of shard %d of run %s was lost.", shardId, this.runId);
+                }
+            } catch (SpannerException exception) {
+                logger.atWarning().withCause(exception).log("Could not extend the lease of shard %d of run %s",
+                                                            shardId, this.runId);
+            }
+        }
+    }
+
+    /*
+    This function creates a statement builder of the provided lease query and binds the parameters
+    which it uses.
+     */
+    private Statement.Builder bindLease(String leaseQuery, Long shardId) {
+        Statement.Builder statementBuilder = Statement.newBuilder(leaseQuery)
+                .bind("runId").to(this.runId);
+        if (leaseQuery.contains("@shardId")) {
+            statementBuilder.bind("shardId").to(shardId);
+        }
+        if (leaseQuery.contains("@ownerId")) {
+            statementBuilder.bind("ownerId").to(this.ownerId);
+        }
+        if (leaseQuery.contains("@leaseSeconds")) {
+            statementBuilder.bind("leaseSeconds").to(LEASE_SECONDS);
+        }
+        return statementBuilder;
+    }
+}
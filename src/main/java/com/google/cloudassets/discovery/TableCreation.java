@@ -1,36 +1,38 @@
 package com.google.cloudassets.discovery;
 
-import com.google.cloud.spanner.ResultSet;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableCreationException;
+import com.google.cloudassets.discovery.AssetTablesConfig.ColumnConfig;
 
-import static com.google.cloudassets.discovery.Main.executeStringQuery;
+import java.util.List;
 
 /**
  * This class generates a DDL create table statement for a given table name (based on the
  * Asset_Tables_Config table).
  */
 public class TableCreation {
-    private static final String GET_TABLES_CONFIG_QUERY = "SELECT columnName, columnType, "
-                                                        + "isNotNull, isPrimaryKey, "
-                                                        + "allowCommitTimestamp "
-                                                        + "FROM Asset_Tables_Config";
-    // The order of the primary keys in the create table statement matters
-    private static final String GET_COMMON_PRIMARY_KEYS_QUERY = "SELECT columnName "
-                                                        + "FROM Asset_Tables_Config "
-                                                        + "WHERE assetTableName = 'forAllAssets' "
-                                                        + "and isPrimaryKey = True "
-                                                        + "ORDER BY primaryKeyIndex";
-
     private String tableName;
+    private AssetTablesConfig tablesConfig;
     private StringBuilder createStatement;
 
     /**
-     * This function constructs a TableCreation object with the given table name.
+     * This function constructs a TableCreation object with the given table name, which is based on
+     * the current snapshot of the Asset_Tables_Config table.
      * @param name - a string representing the table for which to create the statement.
      */
     public TableCreation(String name) {
+        this(name, null);
+    }
+
+    /**
+     * This function constructs a TableCreation object with the given table name, which is based on
+     * the given snapshot of the Asset_Tables_Config table.
+     * @param name - a string representing the table for which to create the statement.
+     * @param config - a snapshot of the Asset_Tables_Config table.
+     */
+    public TableCreation(String name, AssetTablesConfig config) {
         this.tableName = name;
+        this.tablesConfig = config;
         this.createStatement = new StringBuilder();
     }
 
@@ -42,21 +44,23 @@ public class TableCreation {
     public String getCreateTableStatement() throws TableCreationException {
         // No need to reconstruct the create statement if this function was already called once
         if (this.createStatement.length() == 0) {
-            // Add CREATE TABLE statement and common columns
-            addCommonColumnsStatement();
+            try {
+                AssetTablesConfig tablesConfig = this.tablesConfig != null ? this.tablesConfig
+                                                                            : AssetTablesConfig.getInstance();
 
-            // Add specific table columns
-            ResultSet tableConfig = executeStringQuery(GET_TABLES_CONFIG_QUERY + " WHERE assetTableName = '"
-                    + this.tableName + "'");
-            addColumnsStatement(tableConfig);
+                // Add CREATE TABLE statement and common columns
+                this.createStatement.append("CREATE TABLE " + this.tableName + " (");
+                addColumnsStatement(tablesConfig.getCommonColumns());
 
-            // Add primary keys
-            addCommonPrimaryKeysStatement();
+                // Add specific table columns
+                addColumnsStatement(tablesConfig.getTableColumns(this.tableName));
+
+                // Add primary keys
+                addCommonPrimaryKeysStatement(tablesConfig.getCommonPrimaryKeys());
 
-            try {
                 // Add interleaved statement for all tables except for the main asset table
-                if (!this.tableName.equals(AssetKind.getMainTableName())) {
-                    addInterleavedStatement();
+                if (!this.tableName.equals(tablesConfig.getMainTableName())) {
+                    addInterleavedStatement(tablesConfig.getMainTableName());
                 }
             } catch (ConfigTableException exception) {
                 String errorMsg = "Could not construct the DDL create table statement for " + tableName;
@@ -67,30 +71,19 @@ public class TableCreation {
         return this.createStatement.toString();
     }
 
-    /*
-    This function appends a string of the beginning of the DDL create table statement for the given
-    table name with the columns that are common for all of the asset tables.
-     */
-    private void addCommonColumnsStatement() {
-        this.createStatement.append("CREATE TABLE " + this.tableName + " (");
-
-        ResultSet commonConfig = executeStringQuery(GET_TABLES_CONFIG_QUERY + " WHERE assetTableName = 'forAllAssets'");
-        addColumnsStatement(commonConfig);
-    }
-
     /*
     This function appends a string representing the columns part of the DDL create table statement
     to the createStatement variable.
      */
-    private void addColumnsStatement(ResultSet tableConfig) {
-        while (tableConfig.next()) {
-            this.createStatement.append(tableConfig.getString("columnName"));
+    private void addColumnsStatement(List<ColumnConfig> tableColumns) {
+        for (ColumnConfig column : tableColumns) {
+            this.createStatement.append(column.getColumnName());
             this.createStatement.append(" ");
-            this.createStatement.append(tableConfig.getString("columnType"));
-            if (tableConfig.getBoolean("isNotNull")) {
+            this.createStatement.append(column.getColumnType());
+            if (column.isNotNull()) {
                 this.createStatement.append(" NOT NULL");
             }
-            if (tableConfig.getBoolean("allowCommitTimestamp")) {
+            if (column.isAllowCommitTimestamp()) {
                 this.createStatement.append(" OPTIONS (allow_commit_timestamp=true)");
             }
             this.createStatement.append(", ");
@@ -102,30 +95,17 @@ public class TableCreation {
     common to all of the asset tables - should be used after the statement of last column wanted for
     a given table.
      */
-    private void addCommonPrimaryKeysStatement() {
-        ResultSet tableConfig = executeStringQuery(GET_COMMON_PRIMARY_KEYS_QUERY);
-
+    private void addCommonPrimaryKeysStatement(List<String> primaryKeys) {
         this.createStatement.append(") PRIMARY KEY (");
-
-        while (tableConfig.next()) {
-            this.createStatement.append(tableConfig.getString("columnName"));
-            this.createStatement.append(", ");
-        }
-        // Delete the last comma from the createStatement variable
-        if (this.createStatement.length() > 0) {
-            this.createStatement.delete(this.createStatement.length() - 2, this.createStatement.length());
-        }
-
+        this.createStatement.append(String.join(", ", primaryKeys));
         this.createStatement.append(")");
     }
 
     /*
     This function appends a string of the interleave statements part of the DDL create table statement -
     should be used after the primary keys statement.
-    Throws a ConfigTableException if the main table is not properly configured in the configuration
-    table.
      */
-    private void addInterleavedStatement() throws ConfigTableException {
-        this.createStatement.append(", INTERLEAVE IN PARENT " + AssetKind.getMainTableName() + " ON DELETE CASCADE");
+    private void addInterleavedStatement(String mainTableName) {
+        this.createStatement.append(", INTERLEAVE IN PARENT " + mainTableName + " ON DELETE CASCADE");
     }
 }
@@ -0,0 +1,103 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Statement;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import com.google.common.flogger.FluentLogger;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The WorkspaceFacets class maintains the Workspace_Facets table of our spanner db, which holds the
+ * number of assets of every project by every value of the filters of the frontend (location, status
+ * and kind). The frontend sums the facets of a workspace instead of scanning all of its assets to
+ * fill its filters. The facets of a project are rebuilt from its rows in the main table whenever its
+ * assets were updated, so they are correct in every sync mode.
+ */
+public class WorkspaceFacets {
+    public static final String FACETS_TABLE_NAME = "Workspace_Facets";
+    public static final String CREATE_FACETS_TABLE_STATEMENT = "CREATE TABLE " + FACETS_TABLE_NAME + " ("
+            + "workspaceId STRING(MAX) NOT NULL, projectId STRING(MAX) NOT NULL, facetType STRING(MAX) NOT NULL, "
+            + "facetValue STRING(MAX) NOT NULL, assetsCount INT64 NOT NULL) "
+            + "PRIMARY KEY (workspaceId, projectId, facetType, facetValue)";
+
+    // The columns of the main table by which the frontend filters the assets
+    private static final List<String> FACET_COLUMNS = Arrays.asList("location", "status", "kind");
+    private static final String DELETE_PROJECT_FACETS_DML = "DELETE FROM " + FACETS_TABLE_NAME
+            + " WHERE workspaceId = @workspaceId AND projectId = @projectId";
+    private static final String SELECT_FACET_QUERY = "SELECT workspaceId, projectId, '%1$s', %1$s, COUNT(*) "
+            + "FROM %2$s WHERE workspaceId = @workspaceId AND projectId = @projectId AND %1$s IS NOT NULL "
+            + "GROUP BY workspaceId, projectId, %1$s";
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final DatabaseClient dbClient;
+    // The name of the main asset table, or null if it should be read from the asset tables config
+    private final String mainTableName;
+
+    /**
+     * The WorkspaceFacets constructor initializes the client of the facets table.
+     * @param client - the spanner DatabaseClient in which the facets are stored.
+     */
+    public WorkspaceFacets(DatabaseClient client) {
+        this(client, null);
+    }
+
+    /*
+    The WorkspaceFacets constructor with the name of the main asset table, instead of reading it
+    from the asset tables config (it is used by tests).
+     */
+    WorkspaceFacets(DatabaseClient client, String mainTable) {
+        this.dbClient = client;
+        this.mainTableName = mainTable;
+    }
+
+    /**
+     * This function replaces the facets of the provided project with the current facets of its rows
+     * in the main table, in a single transaction. If the facets could not be rebuilt the incident is
+     * logged, as the assets themselves were already updated and the facets are rebuilt by the next
+     * update of the project.
+     * @param project - the relevant project configurations.
+     */
+    public void refreshProjectFacets(ProjectConfig project) {
+        try {
+            String insertFacetsDml = getInsertFacetsDml(this.mainTableName != null ? this.mainTableName
+                                                                                    : AssetKind.getMainTableName());
+            this.dbClient.readWriteTransaction().run(transaction -> {
+                transaction.executeUpdate(bindProject(DELETE_PROJECT_FACETS_DML, project));
+                return transaction.executeUpdate(bindProject(insertFacetsDml, project));
+            });
+        } catch (ConfigTableException | SpannerException exception) {
+            logger.atWarning().withCause(exception).log("Could not refresh the facets of workspace ID: %s, "
+                    + "project ID: %s", project.getWorkspaceId(), project.getProjectId());
+        }
+    }
+
+    /**
+     * This function returns a DML statement which inserts the facets of a project, as they are
+     * counted from its rows in the provided main table.
+     * @param mainTableName - the name of the main asset table.
+     * @return the insert DML statement (with the workspaceId & projectId parameters).
+     */
+    public static String getInsertFacetsDml(String mainTableName) {
+        StringBuilder insertFacetsDml = new StringBuilder("INSERT INTO " + FACETS_TABLE_NAME
+                + " (workspaceId, projectId, facetType, facetValue, assetsCount) ");
+        for (int i = 0; i < FACET_COLUMNS.size(); i++) {
+            if (i > 0) {
+                insertFacetsDml.append(" UNION ALL ");
+            }
+            insertFacetsDml.append(String.format(SELECT_FACET_QUERY, FACET_COLUMNS.get(i), mainTableName));
+        }
+        return insertFacetsDml.toString();
+    }
+
+    private static Statement bindProject(String statement, ProjectConfig project) {
+        return Statement.newBuilder(statement)
+                .bind("workspaceId").to(project.getWorkspaceId())
+                .bind("projectId").to(project.getProjectId())
+                .build();
+    }
+}
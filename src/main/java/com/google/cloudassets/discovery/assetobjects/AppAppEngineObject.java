@@ -1,5 +1,6 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
@@ -16,6 +17,24 @@ public class AppAppEngineObject extends AssetObject {
     private String defaultBucket;
     private String databaseType;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String id;
+        public String locationId;
+        public String servingStatus;
+        public String authDomain;
+        public String defaultHostname;
+        public String codeBucket;
+        public String gcrDomain;
+        public String defaultBucket;
+        public String databaseType;
+    }
+
     public static class Builder extends AssetObject.BaseBuilder<AppAppEngineObject, AppAppEngineObject.Builder> {
         /*
         This function returns a new AppAppEngineObject.
@@ -42,25 +61,45 @@ public class AppAppEngineObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the AppAppEngineObject.
-         * Fields that should be initialized for this object are: kind, name, id, location and status.
+         * This function returns a Builder object for the AppAppEngineObject class, which should be
+         * built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the AppAppEngineObject from the asset
+         * properties map which this Builder was constructed with.
          * @return the newly initialized AppAppEngineObject
          */
         public AppAppEngineObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the AppAppEngineObject from its typed json
+         * properties.
+         * Fields that should be initialized for this object are: kind, name, id, location and status.
+         * @param properties - the typed json properties of this AppAppEngineObject.
+         * @return the newly initialized AppAppEngineObject
+         */
+        public AppAppEngineObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.APP_APP_ENGINE_ASSET);
-            setName(getProperty("name"));
-            setId(getProperty("id"));
-            setLocation(getLastSeg(getProperty("locationId")));
-            setStatus(getProperty("servingStatus"));
+            setName(properties.name);
+            setId(properties.id);
+            setLocation(getLastSeg(properties.locationId));
+            setStatus(properties.servingStatus);
 
             // Set specific asset type fields
-            specificObjectClass.authDomain = castToString(getProperty("authDomain"));
-            specificObjectClass.defaultHostname = castToString(getProperty("defaultHostname"));
-            specificObjectClass.codeBucket = castToString(getProperty("codeBucket"));
-            specificObjectClass.gcrDomain = castToString(getProperty("gcrDomain"));
-            specificObjectClass.defaultBucket = castToString(getProperty("defaultBucket"));
-            specificObjectClass.databaseType = castToString(getProperty("databaseType"));
+            specificObjectClass.authDomain = properties.authDomain;
+            specificObjectClass.defaultHostname = properties.defaultHostname;
+            specificObjectClass.codeBucket = properties.codeBucket;
+            specificObjectClass.gcrDomain = properties.gcrDomain;
+            specificObjectClass.defaultBucket = properties.defaultBucket;
+            specificObjectClass.databaseType = properties.databaseType;
 
             return super.build();
         }
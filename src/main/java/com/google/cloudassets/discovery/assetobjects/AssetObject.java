@@ -1,12 +1,12 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 import com.google.cloud.Timestamp;
 import com.google.common.flogger.FluentLogger;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,12 +37,17 @@ abstract public class AssetObject {
 
     protected static final FluentLogger logger = FluentLogger.forEnclosingClass();
     private static final Pattern LAST_SEGMENT_PATTERN = Pattern.compile("/?([^/]*$)");
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
 
     protected abstract static class BaseBuilder<T extends AssetObject, B extends BaseBuilder> {
+        // The mapper is thread safe and is shared, as creating it is relatively expensive
+        private static final ObjectMapper jsonMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .addHandler(new LenientPropertiesHandler());
+
         protected Map<String,Object> assetProperties;
         protected T specificObjectClass;
         protected B specificObjectClassBuilder;
+        private String defaultLocation;
 
         protected abstract T getSpecificClass();
         protected abstract B getSpecificClassBuilder();
@@ -62,6 +67,25 @@ abstract public class AssetObject {
             assetProperties = assetMap;
         }
 
+        /*
+         * The constructor of the BaseBuilder class for objects which are built from typed json
+         * properties (instead of a map of the asset properties).
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        protected BaseBuilder(ProjectConfig projectConfig) {
+            this(null, projectConfig);
+        }
+
+        /*
+        Set the location that should be used in case the asset properties do not include one (for
+        example the zone of the aggregated list scope in which the asset was found) and return its
+        specific Builder.
+        */
+        public B setDefaultLocation(String scopeName) {
+            this.defaultLocation = getLastSeg(scopeName);
+            return specificObjectClassBuilder;
+        }
+
         /*
         Set the kind field of this object with the provided AssetKind and return its specific Builder.
         */
@@ -111,46 +135,23 @@ abstract public class AssetObject {
         }
 
         /**
-         * This function returns the value of the provided propertyKey from the assetProperties map.
-         * If there is no such key for this asset the incident is logged and a null value is returned.
-         * @param propertyKey a String representing the key of the property to be retrieved.
-         * @return an object of the property or null if it could not be found.
+         * This function converts the asset properties map which this Builder was constructed with
+         * into the provided typed json properties class. Properties which are not declared by the
+         * class are ignored, and malformed properties are logged and set to null.
+         * @param propertiesClass - the typed json properties class of the specific object.
+         * @return the typed json properties of this asset.
          */
-        public Object getProperty(String propertyKey) {
-            Object property = assetProperties.get(propertyKey);
-            if (property == null) {
-                logger.atInfo().log("%s object was missing %s property", specificObjectClass.getKind(), propertyKey);
-            }
-            return property;
-        }
-
-        /**
-         * This function returns the value of the provided propertyKey from the provided map.
-         * If there is no such key for this asset or the provided map is null the incident is logged
-         * and a null value is returned.
-         * @param propertyMap the Map from which the property should be extracted.
-         * @param propertyKey a String representing the key of the property to be retrieved.
-         * @return an object of the property or null if it could not be found.
-         */
-        public Object getProperty(Map<String,Object> propertyMap, String propertyKey) {
-            // In case the given propertyMap is null we want to avoid a NullPointerException
-            if (propertyMap != null) {
-                Object property = propertyMap.get(propertyKey);
-                if (property == null) {
-                    logger.atInfo().log("%s object was missing %s property", specificObjectClass.getKind(), propertyKey);
-                }
-                return property;
-            } else {
-                logger.atInfo().log("Could not retrieve %s object %s property because the relevant" +
-                        " map did not exist", specificObjectClass.getKind(), propertyKey);
-            }
-            return null;
+        protected <P> P convertProperties(Class<P> propertiesClass) {
+            return jsonMapper.convertValue(assetProperties, propertiesClass);
         }
 
         /*
         This function returns the specific asset object.
          */
         public T build() {
+            if (specificObjectClass.location == null) {
+                specificObjectClass.location = defaultLocation;
+            }
             return specificObjectClass;
         }
     }
@@ -232,17 +233,18 @@ abstract public class AssetObject {
     }
 
     /*
-    This function receives a string representing a date and time and returns it as a Date object.
-    The provided dateString should be in the following format: yyyy-MM-ddTHH:mm:ss
+    This function receives a string representing a date and time and returns it as a Timestamp object.
+    The provided dateString should be in RFC3339 format: yyyy-MM-ddTHH:mm:ss[.fraction][offset]
     If the provided dateString does not match this format null is returned and details are logged.
+    This function is thread safe.
      */
     protected static Timestamp convertStringToDate(Object dateString) {
         if (dateString != null) {
             try {
-                return Timestamp.of(DATE_FORMAT.parse((String) dateString));
-            } catch (ParseException exception) {
+                return TimestampParser.parseRfc3339((String) dateString);
+            } catch (IllegalArgumentException exception) {
                 logger.atInfo().withCause(exception).log("Encountered a date parsing error. " +
-                        "Dates should be in yyyy-MM-ddTHH:mm:ss format, provided date: %s", dateString);
+                        "Dates should be in RFC3339 format, provided date: %s", dateString);
             } catch (ClassCastException exception) {
                 logger.atInfo().withCause(exception).log("Encountered a casting error, expected to get an " +
                         "object that can be casted into a string. Received object: %s", dateString);
@@ -251,25 +253,6 @@ abstract public class AssetObject {
         return null;
     }
 
-    /*
-    This function receives a string representing an int and returns it as an Integer.
-    If the provided intString does not match this format null is returned and details are logged.
-     */
-    protected static Integer convertStringToInt(Object intString) {
-        if (intString != null) {
-            try {
-                return Integer.valueOf((String) intString);
-            } catch (ClassCastException exception) {
-                logger.atInfo().withCause(exception).log("Encountered a casting error, expected to get an " +
-                        "object that can be casted into a string. Received object: %s", intString);
-            } catch (NumberFormatException exception) {
-                logger.atInfo().withCause(exception).log("Encountered a formatting error, expected to get an " +
-                        "object that can be casted into an Integer. Received object: %s", intString);
-            }
-        }
-        return null;
-    }
-
     /*
     This function receives an Object representing a string and returns it as a String.
     If the provided stringToCast can not be casted into a String, null is returned and details
@@ -1,5 +1,6 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloud.Timestamp;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
@@ -13,6 +14,20 @@ public class BucketStorageObject extends AssetObject {
     private String storageClass;
     private Timestamp updatedTime;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String id;
+        public String location;
+        public String timeCreated;
+        public String storageClass;
+        public String updated;
+    }
+
     public static class Builder extends BaseBuilder<BucketStorageObject, BucketStorageObject.Builder> {
         /*
         This function returns a new BucketStorageObject.
@@ -39,22 +54,42 @@ public class BucketStorageObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the BucketStorageObject.
+         * This function returns a Builder object for the BucketStorageObject class, which should be
+         * built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the BucketStorageObject from the asset
+         * properties map which this Builder was constructed with.
+         * @return the newly initialized BucketStorageObject
+         */
+        public BucketStorageObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the BucketStorageObject from its typed json
+         * properties.
          * Fields that should be initialized for this object are: kind, name, id, location and
          * creationTime.
+         * @param properties - the typed json properties of this BucketStorageObject.
          * @return the newly initialized BucketStorageObject
          */
-        public BucketStorageObject build() {
+        public BucketStorageObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.BUCKET_STORAGE_ASSET);
-            setName(getProperty("name"));
-            setId(getProperty("id"));
-            setLocation(getLastSeg(getProperty("location")));
-            setCreationTime(convertStringToDate(getProperty("timeCreated")));
+            setName(properties.name);
+            setId(properties.id);
+            setLocation(getLastSeg(properties.location));
+            setCreationTime(convertStringToDate(properties.timeCreated));
 
             // Set specific asset type fields
-            specificObjectClass.storageClass = castToString(getProperty("storageClass"));
-            specificObjectClass.updatedTime = convertStringToDate(getProperty("updated"));
+            specificObjectClass.storageClass = properties.storageClass;
+            specificObjectClass.updatedTime = convertStringToDate(properties.updated);
 
             return super.build();
         }
@@ -1,5 +1,6 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloud.Timestamp;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
@@ -10,12 +11,29 @@ import java.util.Map;
  * The ClusterKubernetesObject class represents the cluster asset in Google Cloud Kubernetes Engine.
  */
 public class ClusterKubernetesObject extends AssetObject {
-    private int currentNodeCount;
+    private Integer currentNodeCount;
     private String loggingService;
     private String monitoringService;
     private String statusMessage;
     private Timestamp expireTime;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String location;
+        public String createTime;
+        public String status;
+        public Integer currentNodeCount;
+        public String loggingService;
+        public String monitoringService;
+        public String statusMessage;
+        public String expireTime;
+    }
+
     public static class Builder extends BaseBuilder<ClusterKubernetesObject, ClusterKubernetesObject.Builder> {
         /*
         This function returns a new ClusterKubernetesObject.
@@ -42,31 +60,51 @@ public class ClusterKubernetesObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the ClusterKubernetesObject.
+         * This function returns a Builder object for the ClusterKubernetesObject class, which
+         * should be built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the ClusterKubernetesObject from the asset
+         * properties map which this Builder was constructed with.
+         * @return the newly initialized ClusterKubernetesObject
+         */
+        public ClusterKubernetesObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the ClusterKubernetesObject from its typed json
+         * properties.
          * Fields that should be initialized for this object are: kind, name, location, creation
          * time and status.
+         * @param properties - the typed json properties of this ClusterKubernetesObject.
          * @return the newly initialized ClusterKubernetesObject
          */
-        public ClusterKubernetesObject build() {
+        public ClusterKubernetesObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.CLUSTER_KUBERNETES_ASSET);
-            setName(getProperty("name"));
-            setLocation(getProperty("location"));
-            setCreationTime(convertStringToDate(getProperty("createTime")));
-            setStatus(getProperty("status"));
+            setName(properties.name);
+            setLocation(properties.location);
+            setCreationTime(convertStringToDate(properties.createTime));
+            setStatus(properties.status);
 
             // Set specific asset type fields
-            specificObjectClass.currentNodeCount = castToInt(getProperty("currentNodeCount"));
-            specificObjectClass.loggingService = castToString(getProperty("loggingService"));
-            specificObjectClass.monitoringService = castToString(getProperty("monitoringService"));
-            specificObjectClass.statusMessage = castToString(getProperty("statusMessage"));
-            specificObjectClass.expireTime = convertStringToDate(getProperty("expireTime"));
+            specificObjectClass.currentNodeCount = properties.currentNodeCount;
+            specificObjectClass.loggingService = properties.loggingService;
+            specificObjectClass.monitoringService = properties.monitoringService;
+            specificObjectClass.statusMessage = properties.statusMessage;
+            specificObjectClass.expireTime = convertStringToDate(properties.expireTime);
 
             return super.build();
         }
     }
 
-    public int getCurrentNodeCount() {
+    public Integer getCurrentNodeCount() {
         return this.currentNodeCount;
     }
 
@@ -1,5 +1,6 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloud.Timestamp;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
@@ -11,11 +12,28 @@ import java.util.Map;
  * The DiskComputeObject class represents a disk asset in Google Cloud Compute.
  */
 public class DiskComputeObject extends AssetObject {
-    private int diskSizeGb;
+    private Integer diskSizeGb;
     private Timestamp updatedTime;
     private List<String> licenses;
     private String type;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String id;
+        public String zone;
+        public String creationTimestamp;
+        public String status;
+        public Integer sizeGb;
+        public String lastAttachTimestamp;
+        public List<String> licenses;
+        public String type;
+    }
+
     public static class Builder extends BaseBuilder<DiskComputeObject, DiskComputeObject.Builder> {
         /*
         This function returns a new DiskComputeObject.
@@ -42,31 +60,51 @@ public class DiskComputeObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the DiskComputeObject.
+         * This function returns a Builder object for the DiskComputeObject class, which should be
+         * built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the DiskComputeObject from the asset properties
+         * map which this Builder was constructed with.
+         * @return the newly initialized DiskComputeObject
+         */
+        public DiskComputeObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the DiskComputeObject from its typed json
+         * properties.
          * Fields that should be initialized for this object are: kind, name, id, location,
          * creationTime and status.
+         * @param properties - the typed json properties of this DiskComputeObject.
          * @return the newly initialized DiskComputeObject
          */
-        public DiskComputeObject build() {
+        public DiskComputeObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.DISK_COMPUTE_ASSET);
-            setName(getProperty("name"));
-            setId(getProperty("id"));
-            setLocation(getLastSeg(getProperty("zone")));
-            setCreationTime(convertStringToDate(getProperty("creationTimestamp")));
-            setStatus(getProperty("status"));
+            setName(properties.name);
+            setId(properties.id);
+            setLocation(getLastSeg(properties.zone));
+            setCreationTime(convertStringToDate(properties.creationTimestamp));
+            setStatus(properties.status);
 
             // Set specific asset type fields
-            specificObjectClass.diskSizeGb = convertStringToInt(getProperty("sizeGb"));
-            specificObjectClass.updatedTime = convertStringToDate(getProperty("lastAttachTimestamp"));
-            specificObjectClass.licenses = convertListToLastSegList(getProperty("licenses"));
-            specificObjectClass.type = getLastSeg(getProperty("type"));
+            specificObjectClass.diskSizeGb = properties.sizeGb;
+            specificObjectClass.updatedTime = convertStringToDate(properties.lastAttachTimestamp);
+            specificObjectClass.licenses = convertListToLastSegList(properties.licenses);
+            specificObjectClass.type = getLastSeg(properties.type);
 
             return super.build();
         }
     }
 
-    public int getDiskSizeGb() {
+    public Integer getDiskSizeGb() {
         return this.diskSizeGb;
     }
 
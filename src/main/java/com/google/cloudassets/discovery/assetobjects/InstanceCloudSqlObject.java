@@ -1,9 +1,9 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -11,12 +11,39 @@ import java.util.Map;
  */
 public class InstanceCloudSqlObject extends AssetObject {
     private String etag;
-    private int diskSizeGb;
+    private Integer diskSizeGb;
     private Boolean backupEnabled;
     private String replicationType;
     private String activationPolicy;
     private String databaseVersion;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String region;
+        public String state;
+        public String etag;
+        public Settings settings;
+        public String databaseVersion;
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class Settings {
+            public Integer dataDiskSizeGb;
+            public BackupConfiguration backupConfiguration;
+            public String replicationType;
+            public String activationPolicy;
+        }
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class BackupConfiguration {
+            public Boolean enabled;
+        }
+    }
+
     public static class Builder extends BaseBuilder<InstanceCloudSqlObject, InstanceCloudSqlObject.Builder> {
         /*
         This function returns a new InstanceCloudSqlObject.
@@ -43,36 +70,60 @@ public class InstanceCloudSqlObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the InstanceCloudSqlObject.
-         * Fields that should be initialized for this object are: kind, name, location and status.
+         * This function returns a Builder object for the InstanceCloudSqlObject class, which should
+         * be built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the InstanceCloudSqlObject from the asset
+         * properties map which this Builder was constructed with.
          * @return the newly initialized InstanceCloudSqlObject
          */
         public InstanceCloudSqlObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the InstanceCloudSqlObject from its typed json
+         * properties.
+         * Fields that should be initialized for this object are: kind, name, location and status.
+         * @param properties - the typed json properties of this InstanceCloudSqlObject.
+         * @return the newly initialized InstanceCloudSqlObject
+         */
+        public InstanceCloudSqlObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.INSTANCE_CLOUD_SQL_ASSET);
-            setName(getProperty("name"));
-            setLocation(getLastSeg(getProperty("region")));
-            setStatus(getProperty("state"));
+            setName(properties.name);
+            setLocation(getLastSeg(properties.region));
+            setStatus(properties.state);
 
             // Set specific asset type fields
-            specificObjectClass.etag = (String) getProperty("etag");
-            updateFieldsFromSettings();
-            specificObjectClass.databaseVersion = getLastSeg(getProperty("databaseVersion"));
+            specificObjectClass.etag = properties.etag;
+            updateFieldsFromSettings(properties.settings);
+            specificObjectClass.databaseVersion = getLastSeg(properties.databaseVersion);
 
             return super.build();
         }
 
         /*
-        This function updates the following fields from this object's settings list: diskSizeGb,
+        This function updates the following fields from this object's settings: diskSizeGb,
         backupEnabled, replicationType & activationPolicy.
          */
-        private void updateFieldsFromSettings() {
-            HashMap<String, Object> settingsMap = castToMap(getProperty("settings"));
-            specificObjectClass.diskSizeGb = convertStringToInt(getProperty(settingsMap, "dataDiskSizeGb"));
-            HashMap<String, Object> backupConfig = castToMap(getProperty(settingsMap, "backupConfiguration"));
-            specificObjectClass.backupEnabled = castToBoolean(getProperty(backupConfig, "enabled"));
-            specificObjectClass.replicationType = castToString(getProperty(settingsMap, "replicationType"));
-            specificObjectClass.activationPolicy = castToString(getProperty(settingsMap, "activationPolicy"));
+        private void updateFieldsFromSettings(JsonProperties.Settings settings) {
+            if (settings == null) {
+                logger.atInfo().log("%s object was missing settings property", specificObjectClass.getKind());
+                return;
+            }
+            specificObjectClass.diskSizeGb = settings.dataDiskSizeGb;
+            if (settings.backupConfiguration != null) {
+                specificObjectClass.backupEnabled = settings.backupConfiguration.enabled;
+            }
+            specificObjectClass.replicationType = settings.replicationType;
+            specificObjectClass.activationPolicy = settings.activationPolicy;
         }
     }
 
@@ -80,7 +131,7 @@ public class InstanceCloudSqlObject extends AssetObject {
         return this.etag;
     }
 
-    public int getDiskSizeGb() {
+    public Integer getDiskSizeGb() {
         return this.diskSizeGb;
     }
 
@@ -1,5 +1,6 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
@@ -15,6 +16,23 @@ public class InstanceComputeObject extends AssetObject {
     private String cpuPlatform;
     private String machineType;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String id;
+        public String zone;
+        public String creationTimestamp;
+        public String status;
+        public String description;
+        public Boolean canIpForward;
+        public String cpuPlatform;
+        public String machineType;
+    }
+
     public static class Builder extends BaseBuilder<InstanceComputeObject, Builder> {
         /*
         This function returns a new InstanceComputeObject.
@@ -41,25 +59,45 @@ public class InstanceComputeObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the InstanceComputeObject.
+         * This function returns a Builder object for the InstanceComputeObject class, which should
+         * be built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the InstanceComputeObject from the asset
+         * properties map which this Builder was constructed with.
+         * @return the newly initialized InstanceComputeObject
+         */
+        public InstanceComputeObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the InstanceComputeObject from its typed json
+         * properties.
          * Fields that should be initialized for this object are: kind, name, id, location,
          * creationTime and status.
+         * @param properties - the typed json properties of this InstanceComputeObject.
          * @return the newly initialized InstanceComputeObject
          */
-        public InstanceComputeObject build() {
+        public InstanceComputeObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.INSTANCE_COMPUTE_ASSET);
-            setName(getProperty("name"));
-            setId(getProperty("id"));
-            setLocation(getLastSeg(getProperty("zone")));
-            setCreationTime(convertStringToDate(getProperty("creationTimestamp")));
-            setStatus(getProperty("status"));
+            setName(properties.name);
+            setId(properties.id);
+            setLocation(getLastSeg(properties.zone));
+            setCreationTime(convertStringToDate(properties.creationTimestamp));
+            setStatus(properties.status);
 
             // Set specific asset type fields
-            specificObjectClass.description = castToString(getProperty("description"));
-            specificObjectClass.canIpForward = castToBoolean(getProperty("canIpForward"));
-            specificObjectClass.cpuPlatform = castToString(getProperty("cpuPlatform"));
-            specificObjectClass.machineType = getLastSeg(getProperty("machineType"));
+            specificObjectClass.description = properties.description;
+            specificObjectClass.canIpForward = properties.canIpForward;
+            specificObjectClass.cpuPlatform = properties.cpuPlatform;
+            specificObjectClass.machineType = getLastSeg(properties.machineType);
 
             return super.build();
         }
@@ -1,5 +1,6 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
@@ -10,7 +11,20 @@ import java.util.Map;
  */
 public class InstanceSpannerObject extends AssetObject {
     private String displayName;
-    private int nodeCount;
+    private Integer nodeCount;
+
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String config;
+        public String state;
+        public String displayName;
+        public Integer nodeCount;
+    }
 
     public static class Builder extends AssetObject.BaseBuilder<InstanceSpannerObject, InstanceSpannerObject.Builder> {
         /*
@@ -38,20 +52,40 @@ public class InstanceSpannerObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the InstanceSpannerObject.
-         * Fields that should be initialized for this object are: kind, name, location and status.
+         * This function returns a Builder object for the InstanceSpannerObject class, which should
+         * be built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the InstanceSpannerObject from the asset
+         * properties map which this Builder was constructed with.
          * @return the newly initialized InstanceSpannerObject
          */
         public InstanceSpannerObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the InstanceSpannerObject from its typed json
+         * properties.
+         * Fields that should be initialized for this object are: kind, name, location and status.
+         * @param properties - the typed json properties of this InstanceSpannerObject.
+         * @return the newly initialized InstanceSpannerObject
+         */
+        public InstanceSpannerObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.INSTANCE_SPANNER_ASSET);
-            setName(getProperty("name"));
-            setLocation(getLastSeg(getProperty("config")));
-            setStatus(getProperty("state"));
+            setName(properties.name);
+            setLocation(getLastSeg(properties.config));
+            setStatus(properties.state);
 
             // Set specific asset type fields
-            specificObjectClass.displayName = castToString(getProperty("displayName"));
-            specificObjectClass.nodeCount = castToInt(getProperty("nodeCount"));
+            specificObjectClass.displayName = properties.displayName;
+            specificObjectClass.nodeCount = properties.nodeCount;
 
             return super.build();
         }
@@ -61,7 +95,7 @@ public class InstanceSpannerObject extends AssetObject {
         return this.displayName;
     }
 
-    public int getNodeCount() {
+    public Integer getNodeCount() {
         return this.nodeCount;
     }
 }
@@ -0,0 +1,78 @@
+package com.google.cloudassets.discovery.assetobjects;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
+import com.google.common.flogger.FluentLogger;
+
+import java.io.IOException;
+
+/**
+ * The LenientPropertiesHandler class is used while binding the json properties of an asset into
+ * its typed json properties class. A property whose value does not match the type of its field
+ * (such as a string which is not a number in an Integer field) is logged and set to null, so that
+ * a single malformed property does not fail the whole page of assets.
+ */
+public class LenientPropertiesHandler extends DeserializationProblemHandler {
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    /**
+     * This function handles a string value which could not be converted into the type of its field.
+     * @param ctxt - the context of the current deserialization.
+     * @param targetType - the type of the field.
+     * @param valueToConvert - the string value of the property.
+     * @param failureMsg - the description of the conversion failure.
+     * @return null, which is set as the value of the field.
+     */
+    @Override
+    public Object handleWeirdStringValue(DeserializationContext ctxt, Class<?> targetType, String valueToConvert,
+                                         String failureMsg) throws IOException {
+        logMalformedProperty(ctxt.getParser(), targetType, valueToConvert);
+        return null;
+    }
+
+    /**
+     * This function handles a number value which could not be converted into the type of its field.
+     * @param ctxt - the context of the current deserialization.
+     * @param targetType - the type of the field.
+     * @param valueToConvert - the number value of the property.
+     * @param failureMsg - the description of the conversion failure.
+     * @return null, which is set as the value of the field.
+     */
+    @Override
+    public Object handleWeirdNumberValue(DeserializationContext ctxt, Class<?> targetType, Number valueToConvert,
+                                         String failureMsg) throws IOException {
+        logMalformedProperty(ctxt.getParser(), targetType, valueToConvert);
+        return null;
+    }
+
+    /**
+     * This function handles a json token which can not be the value of its field (such as an object
+     * in a String field). The whole value of the property is skipped.
+     * @param ctxt - the context of the current deserialization.
+     * @param targetType - the type of the field.
+     * @param token - the current token of the property value.
+     * @param p - the JsonParser which points to the property value.
+     * @param failureMsg - the description of the failure.
+     * @return null, which is set as the value of the field.
+     */
+    @Override
+    public Object handleUnexpectedToken(DeserializationContext ctxt, JavaType targetType, JsonToken token,
+                                        JsonParser p, String failureMsg) throws IOException {
+        logMalformedProperty(p, targetType.getRawClass(), token);
+        p.skipChildren();
+        return null;
+    }
+
+    /*
+    This function logs the name of the property which could not be converted and its value.
+     */
+    private static void logMalformedProperty(JsonParser parser, Class<?> targetType, Object value)
+            throws IOException {
+        logger.atInfo().log("Encountered a formatting error in the %s property, expected to get an object " +
+                "that can be converted into %s. Received object: %s", parser.getCurrentName(),
+                targetType.getSimpleName(), value);
+    }
+}
@@ -1,9 +1,9 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -13,6 +13,22 @@ public class SubscriptionPubSubObject extends AssetObject {
     private String topic;
     private String ttl;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public String topic;
+        public ExpirationPolicy expirationPolicy;
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class ExpirationPolicy {
+            public String ttl;
+        }
+    }
+
     public static class Builder extends BaseBuilder<SubscriptionPubSubObject, SubscriptionPubSubObject.Builder> {
         /*
         This function returns a new SubscriptionPubSubObject.
@@ -39,19 +55,40 @@ public class SubscriptionPubSubObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the SubscriptionPubSubObject.
-         * Fields that should be initialized for this object are: kind and name.
+         * This function returns a Builder object for the SubscriptionPubSubObject class, which
+         * should be built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the SubscriptionPubSubObject from the asset
+         * properties map which this Builder was constructed with.
          * @return the newly initialized SubscriptionPubSubObject
          */
         public SubscriptionPubSubObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the SubscriptionPubSubObject from its typed
+         * json properties.
+         * Fields that should be initialized for this object are: kind and name.
+         * @param properties - the typed json properties of this SubscriptionPubSubObject.
+         * @return the newly initialized SubscriptionPubSubObject
+         */
+        public SubscriptionPubSubObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.SUBSCRIPTION_PUB_SUB_ASSET);
-            setName(getProperty("name"));
+            setName(properties.name);
 
             // Set specific asset type fields
-            specificObjectClass.topic = castToString(getProperty("topic"));
-            HashMap<String, Object> expirationPolicyMap = castToMap(getProperty("expirationPolicy"));
-            specificObjectClass.ttl = castToString(getProperty(expirationPolicyMap, "ttl"));
+            specificObjectClass.topic = properties.topic;
+            if (properties.expirationPolicy != null) {
+                specificObjectClass.ttl = properties.expirationPolicy.ttl;
+            }
 
             return super.build();
         }
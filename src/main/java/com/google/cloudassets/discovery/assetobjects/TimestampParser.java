@@ -0,0 +1,164 @@
+package com.google.cloudassets.discovery.assetobjects;
+
+import com.google.cloud.Timestamp;
+
+/**
+ * The TimestampParser class parses RFC3339 date and time strings (the format in which all of our
+ * supported asset REST APIs return their timestamps, such as 2020-07-01T10:21:45.123-07:00) into
+ * Timestamp objects. Unlike SimpleDateFormat it keeps the sub-second and timezone offset parts of
+ * the string, it is thread safe (it has no state at all) and it does not create any intermediate
+ * object while parsing - the Timestamp is computed directly from the characters of the string.
+ */
+public final class TimestampParser {
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int SECONDS_PER_HOUR = 60 * SECONDS_PER_MINUTE;
+    private static final int SECONDS_PER_DAY = 24 * SECONDS_PER_HOUR;
+    private static final int NANOS_DIGITS = 9;
+    // The number of days between 0000-03-01 and 1970-01-01 (used by the getEpochDay function)
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_PER_400_YEARS = 146097;
+
+    private TimestampParser() {
+    }
+
+    /**
+     * This function parses the provided RFC3339 date and time string into a Timestamp.
+     * The provided dateString should be in the following format: yyyy-MM-ddTHH:mm:ss[.fraction][offset]
+     * where the offset is either 'Z' or +HH:mm / -HH:mm. A string without an offset is considered
+     * to be in UTC.
+     * @param dateString - the date and time string to be parsed.
+     * @return a Timestamp of the provided date and time.
+     * @throws IllegalArgumentException if the provided dateString is not a valid RFC3339 string.
+     */
+    public static Timestamp parseRfc3339(CharSequence dateString) {
+        int length = dateString.length();
+        if (length < 19 || dateString.charAt(4) != '-' || dateString.charAt(7) != '-'
+                || !isDateTimeSeparator(dateString.charAt(10))
+                || dateString.charAt(13) != ':' || dateString.charAt(16) != ':') {
+            throw invalidDate(dateString);
+        }
+
+        int year = parseDigits(dateString, 0, 4);
+        int month = parseDigits(dateString, 5, 7);
+        int day = parseDigits(dateString, 8, 10);
+        int hour = parseDigits(dateString, 11, 13);
+        int minute = parseDigits(dateString, 14, 16);
+        // A leap second (60) is accepted and rolls over to the next minute
+        int second = parseDigits(dateString, 17, 19);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 60) {
+            throw invalidDate(dateString);
+        }
+
+        int index = 19;
+        int nanos = 0;
+        if (index < length && dateString.charAt(index) == '.') {
+            int fractionStart = ++index;
+            while (index < length && isDigit(dateString.charAt(index))) {
+                // Digits beyond nanoseconds precision are ignored
+                if (index - fractionStart < NANOS_DIGITS) {
+                    nanos = nanos * 10 + (dateString.charAt(index) - '0');
+                }
+                index++;
+            }
+            int fractionDigits = index - fractionStart;
+            if (fractionDigits == 0) {
+                throw invalidDate(dateString);
+            }
+            for (int digit = fractionDigits; digit < NANOS_DIGITS; digit++) {
+                nanos *= 10;
+            }
+        }
+
+        int offsetSeconds = 0;
+        if (index < length) {
+            char offsetSign = dateString.charAt(index);
+            if (offsetSign == 'Z' || offsetSign == 'z') {
+                index++;
+            } else if (offsetSign == '+' || offsetSign == '-') {
+                if (index + 6 > length || dateString.charAt(index + 3) != ':') {
+                    throw invalidDate(dateString);
+                }
+                int offsetHours = parseDigits(dateString, index + 1, index + 3);
+                int offsetMinutes = parseDigits(dateString, index + 4, index + 6);
+                if (offsetHours > 23 || offsetMinutes > 59) {
+                    throw invalidDate(dateString);
+                }
+                offsetSeconds = offsetHours * SECONDS_PER_HOUR + offsetMinutes * SECONDS_PER_MINUTE;
+                if (offsetSign == '-') {
+                    offsetSeconds = -offsetSeconds;
+                }
+                index += 6;
+            }
+        }
+        if (index != length) {
+            throw invalidDate(dateString);
+        }
+
+        long epochSeconds = getEpochDay(year, month, day) * SECONDS_PER_DAY + hour * SECONDS_PER_HOUR
+                            + minute * SECONDS_PER_MINUTE + second - offsetSeconds;
+        return Timestamp.ofTimeSecondsAndNanos(epochSeconds, nanos);
+    }
+
+    /*
+    This function returns the number of days between 1970-01-01 and the provided date (in the
+    proleptic Gregorian calendar), by counting from a year which starts in March so that the leap
+    day is the last day of the year.
+     */
+    private static long getEpochDay(int year, int month, int day) {
+        int marchYear = month <= 2 ? year - 1 : year;
+        int era = marchYear / 400;
+        int yearOfEra = marchYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_0000_TO_1970;
+    }
+
+    /*
+    This function returns the number of days in the provided month of the provided year.
+     */
+    private static int getDaysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean isLeapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return isLeapYear ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /*
+    This function returns the non negative number which is represented by the digits between the
+    provided start (inclusive) and end (exclusive) indexes of the provided string.
+    If any of these chars is not a digit, an IllegalArgumentException is thrown.
+     */
+    private static int parseDigits(CharSequence dateString, int start, int end) {
+        int number = 0;
+        for (int index = start; index < end; index++) {
+            char digit = dateString.charAt(index);
+            if (!isDigit(digit)) {
+                throw invalidDate(dateString);
+            }
+            number = number * 10 + (digit - '0');
+        }
+        return number;
+    }
+
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static boolean isDateTimeSeparator(char character) {
+        return character == 'T' || character == 't' || character == ' ';
+    }
+
+    private static IllegalArgumentException invalidDate(CharSequence dateString) {
+        return new IllegalArgumentException("Dates should be in RFC3339 format "
+                + "(yyyy-MM-ddTHH:mm:ss[.fraction][offset]), provided date: " + dateString);
+    }
+}
@@ -1,9 +1,9 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.google.cloudassets.discovery.AssetKind;
 import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -13,6 +13,21 @@ import java.util.Map;
 public class TopicPubSubObject extends AssetObject {
     private List<String> allowedPersistenceRegions;
 
+    /**
+     * The JsonProperties class is the typed representation of the json properties which are
+     * returned by the API of this asset. Any other json field is skipped while parsing.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class JsonProperties {
+        public String name;
+        public MessageStoragePolicy messageStoragePolicy;
+
+        @JsonIgnoreProperties(ignoreUnknown = true)
+        public static class MessageStoragePolicy {
+            public List<String> allowedPersistenceRegions;
+        }
+    }
+
     public static class Builder extends BaseBuilder<TopicPubSubObject, TopicPubSubObject.Builder> {
         /*
         This function returns a new TopicPubSubObject.
@@ -39,19 +54,40 @@ public class TopicPubSubObject extends AssetObject {
         }
 
         /**
-         * This function sets the relevant fields of the TopicPubSubObject.
-         * Fields that should be initialized for this object are: kind and name.
+         * This function returns a Builder object for the TopicPubSubObject class, which should be
+         * built from typed json properties.
+         * @param projectConfig - the relevant project configurations for this asset.
+         */
+        public Builder(ProjectConfig projectConfig) {
+            super(projectConfig);
+        }
+
+        /**
+         * This function sets the relevant fields of the TopicPubSubObject from the asset properties
+         * map which this Builder was constructed with.
          * @return the newly initialized TopicPubSubObject
          */
         public TopicPubSubObject build() {
+            return build(convertProperties(JsonProperties.class));
+        }
+
+        /**
+         * This function sets the relevant fields of the TopicPubSubObject from its typed json
+         * properties.
+         * Fields that should be initialized for this object are: kind and name.
+         * @param properties - the typed json properties of this TopicPubSubObject.
+         * @return the newly initialized TopicPubSubObject
+         */
+        public TopicPubSubObject build(JsonProperties properties) {
             // Set AssetObject fields
             setKind(AssetKind.TOPIC_PUB_SUB_ASSET);
-            setName(getProperty("name"));
+            setName(properties.name);
 
             // Set specific asset type fields
-            HashMap<String, Object> messageStoragePolicyMap = castToMap(getProperty("messageStoragePolicy"));
-            specificObjectClass.allowedPersistenceRegions = convertListToLastSegList(
-                    getProperty(messageStoragePolicyMap, "allowedPersistenceRegions"));
+            if (properties.messageStoragePolicy != null) {
+                specificObjectClass.allowedPersistenceRegions = convertListToLastSegList(
+                        properties.messageStoragePolicy.allowedPersistenceRegions);
+            }
 
             return super.build();
         }
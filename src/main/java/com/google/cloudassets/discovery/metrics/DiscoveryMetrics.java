@@ -0,0 +1,252 @@
+package com.google.cloudassets.discovery.metrics;
+
+import com.google.common.flogger.FluentLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The DiscoveryMetrics class is the registry of the metrics of a single discovery run: counters
+ * (such as the fetched pages & bytes, the parsed assets and the written mutations) and latency
+ * histograms (such as the latencies of the asset list pages and of the spanner commits), each of
+ * which is identified by its name and labels (such as the API host and the asset kind). When
+ * tracing is enabled, a span is also kept for every project with the time of each of its stages.
+ * The metrics are exported by a MetricsExporter. This class is thread safe.
+ */
+public class DiscoveryMetrics {
+    // The names of the metrics which are recorded by the discovery components
+    public static final String PAGE_LATENCY_METRIC = "discovery_page_latency_seconds";
+    public static final String PAGES_FETCHED_METRIC = "discovery_pages_fetched_total";
+    public static final String PAGES_UNCHANGED_METRIC = "discovery_pages_unchanged_total";
+    public static final String PAGE_BYTES_METRIC = "discovery_page_bytes_total";
+    public static final String ASSETS_PARSED_METRIC = "discovery_assets_parsed_total";
+    public static final String MUTATIONS_METRIC = "discovery_mutations_total";
+    public static final String COMMIT_LATENCY_METRIC = "discovery_commit_latency_seconds";
+    public static final String COMMITTED_MUTATIONS_METRIC = "discovery_committed_mutations_total";
+    public static final String REQUEST_RETRIES_METRIC = "discovery_request_retries_total";
+    public static final String ERRORS_METRIC = "discovery_errors_total";
+    public static final String PROJECT_LATENCY_METRIC = "discovery_project_latency_seconds";
+
+    // Whether or not a span is kept for every project (can be set with the
+    // -Ddiscovery.traceProjects system property).
+    private static final boolean TRACE_PROJECTS = Boolean.parseBoolean(
+            System.getProperty("discovery.traceProjects", "false"));
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final DiscoveryMetrics sharedMetrics = new DiscoveryMetrics(TRACE_PROJECTS);
+
+    private final long runStartMillis;
+    private final boolean isTracingEnabled;
+    private final ConcurrentMap<MetricKey, LongAdder> counters;
+    private final ConcurrentMap<MetricKey, LatencyHistogram> histograms;
+    private final ConcurrentMap<String, ProjectSpan> projectSpans;
+
+    /**
+     * The MetricKey class identifies a single metric by its name and labels.
+     */
+    public static class MetricKey {
+        private final String name;
+        private final SortedMap<String, String> labels;
+
+        /*
+        This constructor receives the labels as consecutive pairs of label names and values.
+         */
+        private MetricKey(String metricName, String... labelPairs) {
+            if (labelPairs.length % 2 != 0) {
+                throw new IllegalArgumentException("Every label of " + metricName + " must have a value.");
+            }
+            this.name = metricName;
+            this.labels = new TreeMap<>();
+            for (int i = 0; i < labelPairs.length; i += 2) {
+                this.labels.put(labelPairs[i], String.valueOf(labelPairs[i + 1]));
+            }
+        }
+
+        /**
+         * @return the name of the metric.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return the labels of the metric, sorted by their names.
+         */
+        public SortedMap<String, String> getLabels() {
+            return Collections.unmodifiableSortedMap(this.labels);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey otherKey = (MetricKey) other;
+            return this.name.equals(otherKey.name) && this.labels.equals(otherKey.labels);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.name, this.labels);
+        }
+    }
+
+    /**
+     * The ProjectSpan class represents the discovery of a single project: its start time and the
+     * offset of every stage it reached (in milliseconds since it started).
+     */
+    public static class ProjectSpan {
+        public String workspaceId;
+        public String projectId;
+        public long startTimeMillis;
+        public Map<String, Long> stageOffsetsMillis = Collections.synchronizedMap(new LinkedHashMap<>());
+        public Long durationMillis;
+        public Boolean isSucceeded;
+    }
+
+    /**
+     * The DiscoveryMetrics constructor initializes an empty registry whose run starts now.
+     * @param tracingEnabled - whether or not a span should be kept for every project.
+     */
+    public DiscoveryMetrics(boolean tracingEnabled) {
+        this.runStartMillis = System.currentTimeMillis();
+        this.isTracingEnabled = tracingEnabled;
+        this.counters = new ConcurrentHashMap<>();
+        this.histograms = new ConcurrentHashMap<>();
+        this.projectSpans = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the DiscoveryMetrics which are shared by all of the components of this process.
+     */
+    public static DiscoveryMetrics getSharedMetrics() {
+        return sharedMetrics;
+    }
+
+    /**
+     * This function adds the provided amount to a counter.
+     * @param name - the name of the counter.
+     * @param amount - the amount to add.
+     * @param labelPairs - consecutive pairs of label names and values.
+     */
+    public void incrementCounter(String name, long amount, String... labelPairs) {
+        this.counters.computeIfAbsent(new MetricKey(name, labelPairs), key -> new LongAdder()).add(amount);
+    }
+
+    /**
+     * This function records a latency in a latency histogram.
+     * @param name - the name of the histogram.
+     * @param latencyNanos - the latency in nanoseconds.
+     * @param labelPairs - consecutive pairs of label names and values.
+     */
+    public void recordLatency(String name, long latencyNanos, String... labelPairs) {
+        this.histograms.computeIfAbsent(new MetricKey(name, labelPairs), key -> new LatencyHistogram())
+                       .record(latencyNanos);
+    }
+
+    /**
+     * @return a snapshot of the values of all of the counters.
+     */
+    public Map<MetricKey, Long> getCounters() {
+        Map<MetricKey, Long> countersSnapshot = new LinkedHashMap<>();
+        for (Map.Entry<MetricKey, LongAdder> counter : this.counters.entrySet()) {
+            countersSnapshot.put(counter.getKey(), counter.getValue().sum());
+        }
+        return countersSnapshot;
+    }
+
+    /**
+     * This function sums all of the counters with the provided name (over all of their labels).
+     * @param name - the name of the counters.
+     * @return the sum of the counters.
+     */
+    public long getCounterTotal(String name) {
+        long total = 0;
+        for (Map.Entry<MetricKey, LongAdder> counter : this.counters.entrySet()) {
+            if (counter.getKey().getName().equals(name)) {
+                total += counter.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return all of the latency histograms.
+     */
+    public Map<MetricKey, LatencyHistogram> getHistograms() {
+        return Collections.unmodifiableMap(this.histograms);
+    }
+
+    /**
+     * @return the time in which the run started, in milliseconds since the epoch.
+     */
+    public long getRunStartMillis() {
+        return this.runStartMillis;
+    }
+
+    /**
+     * This function starts the span of a project, if tracing is enabled.
+     * @param workspaceId - the workspace ID of the project.
+     * @param projectId - the ID of the project.
+     */
+    public void startProjectSpan(String workspaceId, String projectId) {
+        if (!this.isTracingEnabled) {
+            return;
+        }
+        ProjectSpan projectSpan = new ProjectSpan();
+        projectSpan.workspaceId = workspaceId;
+        projectSpan.projectId = projectId;
+        projectSpan.startTimeMillis = System.currentTimeMillis();
+        this.projectSpans.put(getSpanKey(workspaceId, projectId), projectSpan);
+    }
+
+    /**
+     * This function records that the span of a project reached a stage, if the span was started.
+     * @param workspaceId - the workspace ID of the project.
+     * @param projectId - the ID of the project.
+     * @param stage - the name of the stage.
+     */
+    public void addProjectSpanStage(String workspaceId, String projectId, String stage) {
+        ProjectSpan projectSpan = this.projectSpans.get(getSpanKey(workspaceId, projectId));
+        if (projectSpan != null) {
+            projectSpan.stageOffsetsMillis.put(stage, System.currentTimeMillis() - projectSpan.startTimeMillis);
+        }
+    }
+
+    /**
+     * This function ends the span of a project and logs it, if the span was started.
+     * @param workspaceId - the workspace ID of the project.
+     * @param projectId - the ID of the project.
+     * @param succeeded - whether or not the assets of the project were updated.
+     */
+    public void endProjectSpan(String workspaceId, String projectId, boolean succeeded) {
+        ProjectSpan projectSpan = this.projectSpans.get(getSpanKey(workspaceId, projectId));
+        if (projectSpan == null) {
+            return;
+        }
+        projectSpan.durationMillis = System.currentTimeMillis() - projectSpan.startTimeMillis;
+        projectSpan.isSucceeded = succeeded;
+        logger.atInfo().log("Span of workspace ID: %s, project ID: %s took %d ms (succeeded: %s), stages: %s",
+                workspaceId, projectId, projectSpan.durationMillis, succeeded, projectSpan.stageOffsetsMillis);
+    }
+
+    /**
+     * @return the spans of all of the projects (empty if tracing is disabled).
+     */
+    public List<ProjectSpan> getProjectSpans() {
+        return new ArrayList<>(this.projectSpans.values());
+    }
+
+    private static String getSpanKey(String workspaceId, String projectId) {
+        return workspaceId + "/" + projectId;
+    }
+}
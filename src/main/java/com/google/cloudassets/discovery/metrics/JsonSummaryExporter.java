@@ -0,0 +1,134 @@
+package com.google.cloudassets.discovery.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics.MetricKey;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics.ProjectSpan;
+import com.google.common.flogger.FluentLogger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The JsonSummaryExporter class writes a summary of the metrics of the run into a json file when
+ * the run ends: the value of every counter, the count, sum & estimated percentiles of every latency
+ * histogram, the rate in which assets were parsed and the spans of the projects (if tracing is
+ * enabled).
+ */
+public class JsonSummaryExporter implements MetricsExporter {
+    // The file into which the summary is written (can be set with the -Ddiscovery.metricsFile
+    // system property).
+    private static final String SUMMARY_FILE = System.getProperty("discovery.metricsFile", "discovery-metrics.json");
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private final Path summaryFile;
+
+    /**
+     * The MetricsSummary class represents the summary of a run, as it is written into the json file.
+     */
+    public static class MetricsSummary {
+        public long runStartTimeMillis;
+        public double runSeconds;
+        public double assetsPerSecond;
+        public List<CounterSummary> counters = new ArrayList<>();
+        public List<LatencySummary> latencies = new ArrayList<>();
+        public List<ProjectSpan> projectSpans;
+    }
+
+    /**
+     * The CounterSummary class represents the value of a single counter.
+     */
+    public static class CounterSummary {
+        public String name;
+        public SortedMap<String, String> labels;
+        public long value;
+    }
+
+    /**
+     * The LatencySummary class represents a single latency histogram.
+     */
+    public static class LatencySummary {
+        public String name;
+        public SortedMap<String, String> labels;
+        public long count;
+        public double sumSeconds;
+        public double p50Seconds;
+        public double p95Seconds;
+        public double p99Seconds;
+    }
+
+    /**
+     * The JsonSummaryExporter constructor initializes the configured summary file.
+     */
+    public JsonSummaryExporter() {
+        this(Paths.get(SUMMARY_FILE));
+    }
+
+    /**
+     * The JsonSummaryExporter constructor initializes the provided summary file.
+     * @param file - the file into which the summary should be written.
+     */
+    public JsonSummaryExporter(Path file) {
+        this.summaryFile = file;
+    }
+
+    @Override
+    public void start(DiscoveryMetrics metrics) {
+        // The summary is only written when the run ends
+    }
+
+    @Override
+    public void finish(DiscoveryMetrics metrics) {
+        try {
+            jsonMapper.writeValue(this.summaryFile.toFile(), createSummary(metrics, System.currentTimeMillis()));
+            logger.atInfo().log("Wrote the metrics summary of the run into %s", this.summaryFile);
+        } catch (IOException exception) {
+            logger.atWarning().withCause(exception).log("Could not write the metrics summary into %s",
+                                                        this.summaryFile);
+        }
+    }
+
+    /**
+     * This function creates the summary of the provided metrics.
+     * @param metrics - the metrics of the run.
+     * @param runEndMillis - the time in which the run ended, in milliseconds since the epoch.
+     * @return the MetricsSummary of the run.
+     */
+    public static MetricsSummary createSummary(DiscoveryMetrics metrics, long runEndMillis) {
+        MetricsSummary summary = new MetricsSummary();
+        summary.runStartTimeMillis = metrics.getRunStartMillis();
+        summary.runSeconds = (runEndMillis - metrics.getRunStartMillis()) / 1000.0;
+        if (summary.runSeconds > 0) {
+            summary.assetsPerSecond = metrics.getCounterTotal(DiscoveryMetrics.ASSETS_PARSED_METRIC)
+                                      / summary.runSeconds;
+        }
+
+        for (Map.Entry<MetricKey, Long> counter : metrics.getCounters().entrySet()) {
+            CounterSummary counterSummary = new CounterSummary();
+            counterSummary.name = counter.getKey().getName();
+            counterSummary.labels = counter.getKey().getLabels();
+            counterSummary.value = counter.getValue();
+            summary.counters.add(counterSummary);
+        }
+        for (Map.Entry<MetricKey, LatencyHistogram> histogram : metrics.getHistograms().entrySet()) {
+            LatencySummary latencySummary = new LatencySummary();
+            latencySummary.name = histogram.getKey().getName();
+            latencySummary.labels = histogram.getKey().getLabels();
+            latencySummary.count = histogram.getValue().getCount();
+            latencySummary.sumSeconds = histogram.getValue().getSumSeconds();
+            latencySummary.p50Seconds = histogram.getValue().getPercentileSeconds(50);
+            latencySummary.p95Seconds = histogram.getValue().getPercentileSeconds(95);
+            latencySummary.p99Seconds = histogram.getValue().getPercentileSeconds(99);
+            summary.latencies.add(latencySummary);
+        }
+        summary.projectSpans = metrics.getProjectSpans();
+        return summary;
+    }
+}
@@ -0,0 +1,106 @@
+package com.google.cloudassets.discovery.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts latencies in fixed buckets (in seconds), the same way as a
+ * Prometheus histogram, so that its percentiles can be estimated without keeping every latency.
+ * This class is thread safe.
+ */
+public class LatencyHistogram {
+    // The upper bounds (inclusive) of the buckets in seconds, the last bucket has no upper bound
+    private static final double[] BUCKET_BOUNDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    private final LongAdder[] bucketCounts;
+    private final LongAdder sumNanos;
+
+    /**
+     * The LatencyHistogram constructor initializes all of the buckets as empty.
+     */
+    public LatencyHistogram() {
+        this.bucketCounts = new LongAdder[BUCKET_BOUNDS.length + 1];
+        for (int i = 0; i < this.bucketCounts.length; i++) {
+            this.bucketCounts[i] = new LongAdder();
+        }
+        this.sumNanos = new LongAdder();
+    }
+
+    /**
+     * This function records a single latency in its bucket.
+     * @param latencyNanos - the latency in nanoseconds.
+     */
+    public void record(long latencyNanos) {
+        double latencySeconds = toSeconds(latencyNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && latencySeconds > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        this.bucketCounts[bucket].increment();
+        this.sumNanos.add(latencyNanos);
+    }
+
+    /**
+     * @return the upper bounds of the buckets in seconds (without the last bucket, which has no upper
+     * bound).
+     */
+    public static double[] getBucketBounds() {
+        return BUCKET_BOUNDS.clone();
+    }
+
+    /**
+     * @return the cumulative count of every bucket (the number of latencies which are lower than or
+     * equal to its upper bound), where the last count is of all of the latencies.
+     */
+    public long[] getCumulativeCounts() {
+        long[] cumulativeCounts = new long[this.bucketCounts.length];
+        long count = 0;
+        for (int i = 0; i < this.bucketCounts.length; i++) {
+            count += this.bucketCounts[i].sum();
+            cumulativeCounts[i] = count;
+        }
+        return cumulativeCounts;
+    }
+
+    /**
+     * @return the number of recorded latencies.
+     */
+    public long getCount() {
+        long[] cumulativeCounts = getCumulativeCounts();
+        return cumulativeCounts[cumulativeCounts.length - 1];
+    }
+
+    /**
+     * @return the sum of all of the recorded latencies in seconds.
+     */
+    public double getSumSeconds() {
+        return toSeconds(this.sumNanos.sum());
+    }
+
+    /**
+     * This function estimates a percentile of the recorded latencies by the upper bound of the
+     * bucket in which it falls. A percentile which falls in the last bucket (which has no upper
+     * bound) is capped at the upper bound of the bucket before it, so that it is always a finite
+     * number (which can be written as a json number).
+     * @param percentile - the percentile to estimate (between 0 and 100).
+     * @return the estimated percentile in seconds, or 0 if no latency was recorded.
+     */
+    public double getPercentileSeconds(double percentile) {
+        long[] cumulativeCounts = getCumulativeCounts();
+        long count = cumulativeCounts[cumulativeCounts.length - 1];
+        if (count == 0) {
+            return 0;
+        }
+        double rank = Math.ceil(count * percentile / 100);
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (cumulativeCounts[i] >= rank) {
+                return BUCKET_BOUNDS[i];
+            }
+        }
+        return BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1];
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
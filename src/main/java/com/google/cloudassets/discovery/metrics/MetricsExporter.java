@@ -0,0 +1,49 @@
+package com.google.cloudassets.discovery.metrics;
+
+/**
+ * The MetricsExporter interface is implemented by every way in which the DiscoveryMetrics of a run
+ * can be exported. An exporter is started when the run begins and finished when it ends (whether or
+ * not the run succeeded). A failure to export the metrics is logged and never fails the run.
+ */
+public interface MetricsExporter {
+    // The exporter of the run (can be set with the -Ddiscovery.metricsExporter system property):
+    // 'none', 'json' for a JsonSummaryExporter, 'prometheus' for a PrometheusExporter or the full
+    // class name of any other MetricsExporter which has a public constructor with no parameters.
+    String EXPORTER_TYPE = System.getProperty("discovery.metricsExporter", "none");
+
+    /**
+     * This function is called when the run begins.
+     * @param metrics - the metrics of the run.
+     */
+    void start(DiscoveryMetrics metrics);
+
+    /**
+     * This function is called when the run ends.
+     * @param metrics - the metrics of the run.
+     */
+    void finish(DiscoveryMetrics metrics);
+
+    /**
+     * This function creates the exporter which is configured by the discovery.metricsExporter system
+     * property.
+     * @return the configured MetricsExporter, or null if the metrics should not be exported.
+     * @throws IllegalArgumentException if the configured exporter could not be created.
+     */
+    static MetricsExporter createConfiguredExporter() {
+        switch (EXPORTER_TYPE) {
+            case "none":
+                return null;
+            case "json":
+                return new JsonSummaryExporter();
+            case "prometheus":
+                return new PrometheusExporter();
+            default:
+                try {
+                    return (MetricsExporter) Class.forName(EXPORTER_TYPE).getConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException exception) {
+                    throw new IllegalArgumentException("Could not create the following metrics exporter: "
+                                                        + EXPORTER_TYPE, exception);
+                }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.google.cloudassets.discovery.metrics;
+
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics.MetricKey;
+import com.google.common.flogger.FluentLogger;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The PrometheusExporter class serves the current metrics of the run in the Prometheus text format
+ * on the /metrics path of an HTTP endpoint, for as long as the run is in progress.
+ */
+public class PrometheusExporter implements MetricsExporter {
+    // The port of the metrics endpoint (can be set with the -Ddiscovery.metricsPort system property).
+    private static final int METRICS_PORT = Integer.getInteger("discovery.metricsPort", 9464);
+    private static final String METRICS_PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    // The samples are written by the order of their metric names (and then their labels), as all of
+    // the samples of a metric must be written together
+    private static final Comparator<Map.Entry<MetricKey, ?>> METRIC_KEY_ORDER = Comparator.comparing(
+            (Map.Entry<MetricKey, ?> metric) -> metric.getKey().getName())
+            .thenComparing(metric -> metric.getKey().getLabels().toString());
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private HttpServer metricsServer;
+
+    @Override
+    public void start(DiscoveryMetrics metrics) {
+        try {
+            this.metricsServer = HttpServer.create(new InetSocketAddress(METRICS_PORT), 0);
+        } catch (IOException exception) {
+            logger.atWarning().withCause(exception).log("Could not serve the metrics on port %d", METRICS_PORT);
+            return;
+        }
+        this.metricsServer.createContext(METRICS_PATH, exchange -> {
+            byte[] responseBody = format(metrics).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, responseBody.length);
+            try (OutputStream responseStream = exchange.getResponseBody()) {
+                responseStream.write(responseBody);
+            }
+        });
+        this.metricsServer.start();
+        logger.atInfo().log("Serving the metrics on port %d%s", METRICS_PORT, METRICS_PATH);
+    }
+
+    @Override
+    public void finish(DiscoveryMetrics metrics) {
+        if (this.metricsServer != null) {
+            this.metricsServer.stop(0);
+        }
+    }
+
+    /**
+     * This function formats the provided metrics in the Prometheus text format: every counter as a
+     * counter and every latency histogram as a histogram (with its cumulative buckets, sum & count).
+     * The samples of every metric are grouped together, sorted by their metric names.
+     * @param metrics - the metrics to format.
+     * @return the metrics in the Prometheus text format.
+     */
+    public static String format(DiscoveryMetrics metrics) {
+        StringBuilder metricsText = new StringBuilder();
+        Set<String> typedMetrics = new HashSet<>();
+
+        List<Map.Entry<MetricKey, Long>> counters = new ArrayList<>(metrics.getCounters().entrySet());
+        counters.sort(METRIC_KEY_ORDER);
+        for (Map.Entry<MetricKey, Long> counter : counters) {
+            appendType(metricsText, typedMetrics, counter.getKey().getName(), "counter");
+            appendSample(metricsText, counter.getKey().getName(), counter.getKey(), null, counter.getValue());
+        }
+
+        double[] bucketBounds = LatencyHistogram.getBucketBounds();
+        List<Map.Entry<MetricKey, LatencyHistogram>> histograms = new ArrayList<>(metrics.getHistograms().entrySet());
+        histograms.sort(METRIC_KEY_ORDER);
+        for (Map.Entry<MetricKey, LatencyHistogram> histogram : histograms) {
+            String name = histogram.getKey().getName();
+            appendType(metricsText, typedMetrics, name, "histogram");
+            long[] cumulativeCounts = histogram.getValue().getCumulativeCounts();
+            for (int i = 0; i < cumulativeCounts.length; i++) {
+                String bucketBound = i < bucketBounds.length ? String.valueOf(bucketBounds[i]) : "+Inf";
+                appendSample(metricsText, name + "_bucket", histogram.getKey(), bucketBound, cumulativeCounts[i]);
+            }
+            appendSample(metricsText, name + "_sum", histogram.getKey(), null, histogram.getValue().getSumSeconds());
+            appendSample(metricsText, name + "_count", histogram.getKey(), null,
+                         cumulativeCounts[cumulativeCounts.length - 1]);
+        }
+        return metricsText.toString();
+    }
+
+    /*
+    This function appends the TYPE line of a metric, once for every metric name.
+     */
+    private static void appendType(StringBuilder metricsText, Set<String> typedMetrics, String name, String type) {
+        if (typedMetrics.add(name)) {
+            metricsText.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    /*
+    This function appends a single sample line with the labels of the provided metric key (and the
+    provided bucket bound as the 'le' label, if it is not null).
+     */
+    private static void appendSample(StringBuilder metricsText, String name, MetricKey metricKey,
+                                     String bucketBound, Object value) {
+        metricsText.append(name);
+        StringBuilder labelsText = new StringBuilder();
+        for (Map.Entry<String, String> label : metricKey.getLabels().entrySet()) {
+            appendLabel(labelsText, label.getKey(), label.getValue());
+        }
+        if (bucketBound != null) {
+            appendLabel(labelsText, "le", bucketBound);
+        }
+        if (labelsText.length() > 0) {
+            metricsText.append('{').append(labelsText).append('}');
+        }
+        metricsText.append(' ').append(value).append('\n');
+    }
+
+    private static void appendLabel(StringBuilder labelsText, String name, String value) {
+        if (labelsText.length() > 0) {
+            labelsText.append(',');
+        }
+        String escapedValue = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        labelsText.append(name).append("=\"").append(escapedValue).append('"');
+    }
+}
@@ -0,0 +1,162 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.flogger.FluentLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ApiEnablementCache class caches the API services which are enabled in each project, as
+ * service enablement rarely changes. The states are persisted in a local json file, so that they
+ * are reused across runs until they are older than the configured TTL. Disabled services are not
+ * cached, as a stale disabled state would skip the assets of the service (and their rows would then
+ * be deleted), so they are always checked again.
+ * This class is thread safe.
+ */
+public class ApiEnablementCache {
+    // The file in which the states are persisted (can be set with the -Ddiscovery.apiCacheFile
+    // system property, an empty value keeps the states in memory only).
+    private static final String CACHE_FILE = System.getProperty("discovery.apiCacheFile", "api-enablement-cache.json");
+    // The time after which a cached state is checked again (can be set with the
+    // -Ddiscovery.apiCacheTtlMinutes system property).
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(Integer.getInteger("discovery.apiCacheTtlMinutes",
+                                                                                        24 * 60));
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final ApiEnablementCache sharedCache = new ApiEnablementCache(
+            CACHE_FILE.isEmpty() ? null : Paths.get(CACHE_FILE), TTL_MILLIS);
+
+    private final Path cacheFile;
+    private final long ttlMillis;
+    private final Map<String, CachedState> cachedStates;
+    private volatile boolean isChanged;
+
+    /**
+     * The CachedState class represents the state of a single API service in a single project, as
+     * it is persisted in the cache file.
+     */
+    public static class CachedState {
+        public boolean isEnabled;
+        public long checkTimeMillis;
+    }
+
+    /**
+     * The ApiEnablementCache constructor loads the persisted states from the provided file (if it
+     * exists).
+     * @param file - the file in which the states are persisted, or null if they should only be
+     *             kept in memory.
+     * @param ttl - the time in milliseconds after which a cached state expires.
+     */
+    public ApiEnablementCache(Path file, long ttl) {
+        this.cacheFile = file;
+        this.ttlMillis = ttl;
+        this.cachedStates = new ConcurrentHashMap<>();
+        loadCacheFile();
+    }
+
+    /**
+     * @return the ApiEnablementCache which is shared by all of the projects of this process.
+     */
+    public static ApiEnablementCache getSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * This function returns whether the given apiService is cached as enabled in the given project.
+     * @param projectId - the ID of the project.
+     * @param apiService - the name of the API service (such as compute.googleapis.com).
+     * @return true if the API is cached as enabled (and its state did not expire), or false if its
+     * state should be checked.
+     */
+    public boolean isCachedAsEnabled(String projectId, String apiService) {
+        CachedState cachedState = this.cachedStates.get(getCacheKey(projectId, apiService));
+        // States of disabled services may have been persisted by earlier versions, and are ignored
+        return cachedState != null && cachedState.isEnabled
+                && System.currentTimeMillis() - cachedState.checkTimeMillis <= this.ttlMillis;
+    }
+
+    /**
+     * This function caches the current state of the given apiService in the given project. A
+     * disabled state removes the cached state of the service instead.
+     * @param projectId - the ID of the project.
+     * @param apiService - the name of the API service (such as compute.googleapis.com).
+     * @param isEnabled - whether or not the API is enabled.
+     */
+    public void putApiState(String projectId, String apiService, boolean isEnabled) {
+        if (!isEnabled) {
+            invalidateApiState(projectId, apiService);
+            return;
+        }
+        CachedState cachedState = new CachedState();
+        cachedState.isEnabled = true;
+        cachedState.checkTimeMillis = System.currentTimeMillis();
+        this.cachedStates.put(getCacheKey(projectId, apiService), cachedState);
+        this.isChanged = true;
+    }
+
+    /**
+     * This function removes the cached state of the given apiService in the given project, so that
+     * it is checked again (for example when the service was cached as enabled but its API call was
+     * rejected because it is disabled).
+     * @param projectId - the ID of the project.
+     * @param apiService - the name of the API service (such as compute.googleapis.com).
+     */
+    public void invalidateApiState(String projectId, String apiService) {
+        if (this.cachedStates.remove(getCacheKey(projectId, apiService)) != null) {
+            this.isChanged = true;
+        }
+    }
+
+    /**
+     * This function persists the cached states into the cache file if they were changed since they
+     * were last persisted. The file is replaced atomically, so that a concurrent run never reads a
+     * partially written file. If the file could not be written the incident is logged, as the
+     * states can always be checked again.
+     */
+    public synchronized void save() {
+        if (this.cacheFile == null || !this.isChanged) {
+            return;
+        }
+        this.isChanged = false;
+        try {
+            Path absoluteFile = this.cacheFile.toAbsolutePath();
+            Path tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+            jsonMapper.writeValue(tempFile.toFile(), this.cachedStates);
+            Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            logger.atInfo().withCause(exception).log("Could not persist the API enablement cache into %s",
+                                                    this.cacheFile);
+        }
+    }
+
+    /*
+    This function loads the persisted states from the cache file (if it exists). Expired states are
+    loaded as well, but they are ignored by the isCachedAsEnabled function.
+     */
+    private void loadCacheFile() {
+        if (this.cacheFile == null || !Files.exists(this.cacheFile)) {
+            return;
+        }
+        try {
+            Map<String, CachedState> persistedStates = jsonMapper.readValue(this.cacheFile.toFile(),
+                    new TypeReference<Map<String, CachedState>>() {});
+            this.cachedStates.putAll(persistedStates);
+        } catch (IOException exception) {
+            logger.atInfo().withCause(exception).log("Could not load the API enablement cache from %s, "
+                    + "all of the API states will be checked again.", this.cacheFile);
+        }
+    }
+
+    private static String getCacheKey(String projectId, String apiService) {
+        return projectId + "/" + apiService;
+    }
+}
@@ -0,0 +1,103 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.common.flogger.FluentLogger;
+import com.google.common.util.concurrent.RateLimiter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The ApiRateLimiter class is a token bucket rate limiter of the requests which are sent to a
+ * single Google API host for a single project. Its rate adapts to the quota of the API (AIMD):
+ * it grows additively (by about one request per second every second) while the requests succeed,
+ * up to the maximal rate, and it is halved whenever the API answers with 429 Too Many Requests,
+ * down to the minimal rate.
+ * This class is thread safe.
+ */
+public class ApiRateLimiter {
+    // The maximal (and initial) & the minimal rate of requests per second to a single API host for a
+    // single project (can be set with the -Ddiscovery.maxRequestsPerSecond &
+    // -Ddiscovery.minRequestsPerSecond system properties).
+    private static final double MAX_REQUESTS_PER_SECOND = Double.parseDouble(
+            System.getProperty("discovery.maxRequestsPerSecond", "20"));
+    private static final double MIN_REQUESTS_PER_SECOND = Double.parseDouble(
+            System.getProperty("discovery.minRequestsPerSecond", "1"));
+    // The rate is halved at most once in this interval, so that a burst of 429 responses to requests
+    // which were sent at the same time only counts as a single congestion signal
+    private static final long DECREASE_INTERVAL_MILLIS = 1000;
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final Map<String, ApiRateLimiter> sharedLimiters = new ConcurrentHashMap<>();
+
+    private final RateLimiter rateLimiter;
+    private final double minRate;
+    private final double maxRate;
+    private double currentRate;
+    private long lastDecreaseMillis;
+
+    /**
+     * The ApiRateLimiter constructor initializes a rate limiter which starts at its maximal rate.
+     * @param minRequestsPerSecond - the rate below which the limiter is never decreased.
+     * @param maxRequestsPerSecond - the initial rate, above which the limiter is never increased.
+     */
+    public ApiRateLimiter(double minRequestsPerSecond, double maxRequestsPerSecond) {
+        this.minRate = minRequestsPerSecond;
+        this.maxRate = maxRequestsPerSecond;
+        this.currentRate = maxRequestsPerSecond;
+        this.rateLimiter = RateLimiter.create(maxRequestsPerSecond);
+    }
+
+    /**
+     * This function returns the ApiRateLimiter of the provided API host and project, which is shared
+     * by all of the requests of this process, and creates it on its first call.
+     * @param host - the API host (such as compute.googleapis.com).
+     * @param projectId - the ID of the project.
+     * @return the shared ApiRateLimiter of the host and project.
+     */
+    public static ApiRateLimiter getSharedLimiter(String host, String projectId) {
+        return sharedLimiters.computeIfAbsent(host + "/" + projectId,
+                limiterKey -> new ApiRateLimiter(MIN_REQUESTS_PER_SECOND, MAX_REQUESTS_PER_SECOND));
+    }
+
+    /**
+     * This function blocks until a request may be sent according to the current rate.
+     */
+    public void acquire() {
+        this.rateLimiter.acquire();
+    }
+
+    /**
+     * This function increases the current rate additively after a successful request.
+     */
+    public synchronized void onSuccess() {
+        if (this.currentRate < this.maxRate) {
+            setCurrentRate(Math.min(this.maxRate, this.currentRate + 1 / this.currentRate));
+        }
+    }
+
+    /**
+     * This function halves the current rate after a request was throttled by the API.
+     */
+    public synchronized void onThrottled() {
+        long currentTimeMillis = System.currentTimeMillis();
+        if (currentTimeMillis - this.lastDecreaseMillis < DECREASE_INTERVAL_MILLIS) {
+            return;
+        }
+        this.lastDecreaseMillis = currentTimeMillis;
+        setCurrentRate(Math.max(this.minRate, this.currentRate / 2));
+        logger.atInfo().log("Requests were throttled, decreasing the rate to %.2f requests per second",
+                            this.currentRate);
+    }
+
+    /**
+     * @return the current rate of this limiter in requests per second.
+     */
+    public synchronized double getCurrentRate() {
+        return this.currentRate;
+    }
+
+    private void setCurrentRate(double requestsPerSecond) {
+        this.currentRate = requestsPerSecond;
+        this.rateLimiter.setRate(requestsPerSecond);
+    }
+}
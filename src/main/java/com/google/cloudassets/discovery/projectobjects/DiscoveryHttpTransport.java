@@ -0,0 +1,71 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.common.flogger.FluentLogger;
+
+/**
+ * The DiscoveryHttpTransport class provides the HttpTransport which is shared by all of the API
+ * requests of this process (the asset lists, the API checks and the access tokens generation).
+ * By default it is a pooled transport which keeps the connections to every Google API host alive
+ * and reuses them, so that the TLS handshake is only paid once per pooled connection instead of
+ * once per request. The transport can be replaced with the setSharedTransport function.
+ */
+public class DiscoveryHttpTransport {
+    // The type of the shared transport (can be set with the -Ddiscovery.httpTransport system
+    // property): 'pooled' for a pooled Apache HttpClient or 'net' for the JDK HttpURLConnection.
+    private static final String TRANSPORT_TYPE = System.getProperty("discovery.httpTransport", "pooled");
+    // The maximal number of open connections per API host and in total (can be set with the
+    // -Ddiscovery.maxConnectionsPerHost & -Ddiscovery.maxConnections system properties).
+    private static final int MAX_CONNECTIONS_PER_HOST = Integer.getInteger("discovery.maxConnectionsPerHost", 20);
+    private static final int MAX_CONNECTIONS = Integer.getInteger("discovery.maxConnections", 200);
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+
+    private static HttpTransport sharedTransport;
+
+    private DiscoveryHttpTransport() {
+    }
+
+    /**
+     * This function returns the HttpTransport which is shared by all of the API requests of this
+     * process, and creates it on its first call.
+     * This function is thread safe.
+     * @return the shared HttpTransport.
+     */
+    public static synchronized HttpTransport getSharedTransport() {
+        if (sharedTransport == null) {
+            sharedTransport = createTransport(TRANSPORT_TYPE);
+        }
+        return sharedTransport;
+    }
+
+    /**
+     * This function replaces the shared HttpTransport (for example with a mock transport in tests).
+     * It should be called before any API request is sent.
+     * @param transport - the HttpTransport to be used by all of the API requests.
+     */
+    public static synchronized void setSharedTransport(HttpTransport transport) {
+        sharedTransport = transport;
+    }
+
+    /*
+    This function creates a new HttpTransport of the provided type.
+     */
+    private static HttpTransport createTransport(String transportType) {
+        if (transportType.equals("net")) {
+            return new NetHttpTransport();
+        }
+        if (!transportType.equals("pooled")) {
+            logger.atWarning().log("Unknown discovery.httpTransport '%s', using the pooled transport.", transportType);
+        }
+
+        logger.atInfo().log("Using a pooled HttpTransport with up to %d connections per host and %d in total",
+                MAX_CONNECTIONS_PER_HOST, MAX_CONNECTIONS);
+        return new ApacheHttpTransport(ApacheHttpTransport.newDefaultHttpClientBuilder()
+                                                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_HOST)
+                                                        .setMaxConnTotal(MAX_CONNECTIONS)
+                                                        .build());
+    }
+}
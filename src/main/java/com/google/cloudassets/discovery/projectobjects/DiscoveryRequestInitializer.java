@@ -0,0 +1,138 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.api.client.http.HttpBackOffIOExceptionHandler;
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.BackOff;
+import com.google.api.client.util.ExponentialBackOff;
+import com.google.api.client.util.Sleeper;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics;
+
+import java.io.IOException;
+
+/**
+ * The DiscoveryRequestInitializer class initializes every API request of a single project: the
+ * request is authorized by the provided credentials initializer, it waits for the ApiRateLimiter of
+ * its host and project before every attempt, and transient failures (429 & 5xx responses and
+ * IOExceptions) are retried with an exponential backoff with jitter. A request which still fails
+ * after all of its retries throws an exception, so that its failure is never silently ignored.
+ * Every retry is counted in the DiscoveryMetrics by its host and reason.
+ */
+public class DiscoveryRequestInitializer implements HttpRequestInitializer {
+    private static final int TOO_MANY_REQUESTS_CODE = 429;
+    // The maximal number of retries of a single request (can be set with the
+    // -Ddiscovery.maxRequestRetries system property).
+    private static final int MAX_RETRIES = Integer.getInteger("discovery.maxRequestRetries", 5);
+    // The backoff before the first retry, which is doubled on every retry up to the maximal backoff.
+    // Every backoff is randomized by up to 50% in each direction, so that the requests which failed
+    // together are not retried together.
+    private static final int INITIAL_BACKOFF_MILLIS = 500;
+    private static final int MAX_BACKOFF_MILLIS = 32000;
+    private static final double BACKOFF_JITTER = 0.5;
+
+    private final HttpRequestInitializer credentialsInitializer;
+    private final String projectId;
+    private final Sleeper sleeper;
+
+    /**
+     * The DiscoveryRequestInitializer constructor initializes the credentials and the project of
+     * the requests.
+     * @param credentials - the initializer which authorizes the requests (or null if the requests
+     *                    should not be authorized).
+     * @param projectId - the ID of the project whose rate limiters should be used.
+     */
+    public DiscoveryRequestInitializer(HttpRequestInitializer credentials, String projectId) {
+        this(credentials, projectId, Sleeper.DEFAULT);
+    }
+
+    /*
+    This constructor allows replacing the backoff sleeper (for example with a no-op one in tests).
+     */
+    DiscoveryRequestInitializer(HttpRequestInitializer credentials, String projectId, Sleeper backOffSleeper) {
+        this.credentialsInitializer = credentials;
+        this.projectId = projectId;
+        this.sleeper = backOffSleeper;
+    }
+
+    @Override
+    public void initialize(HttpRequest request) throws IOException {
+        if (this.credentialsInitializer != null) {
+            this.credentialsInitializer.initialize(request);
+        }
+        // The credentials interceptor & handler add the access token and refresh it on 401 responses
+        HttpExecuteInterceptor credentialsInterceptor = request.getInterceptor();
+        HttpUnsuccessfulResponseHandler credentialsHandler = request.getUnsuccessfulResponseHandler();
+        DiscoveryMetrics metrics = DiscoveryMetrics.getSharedMetrics();
+
+        // The request factory initializes the request before its url is set, so the host (and its
+        // rate limiter) is only read from the request when it is executed
+        request.setInterceptor(httpRequest -> {
+            getRateLimiter(httpRequest).acquire();
+            if (credentialsInterceptor != null) {
+                credentialsInterceptor.intercept(httpRequest);
+            }
+        });
+        // The response interceptor is only called with the final response of the request (after its
+        // retries), while the unsuccessful response handler is called with every failed attempt
+        request.setResponseInterceptor(response -> {
+            if (response.isSuccessStatusCode()) {
+                getRateLimiter(response.getRequest()).onSuccess();
+            }
+        });
+
+        HttpBackOffUnsuccessfulResponseHandler backOffHandler = new HttpBackOffUnsuccessfulResponseHandler(
+                createBackOff()).setBackOffRequired(response -> isTransientError(response.getStatusCode()))
+                                .setSleeper(this.sleeper);
+        request.setUnsuccessfulResponseHandler((httpRequest, response, supportsRetry) -> {
+            if (response.getStatusCode() == TOO_MANY_REQUESTS_CODE) {
+                getRateLimiter(httpRequest).onThrottled();
+            }
+            boolean isRetried = (credentialsHandler != null && credentialsHandler.handleResponse(httpRequest,
+                                                                                    response, supportsRetry))
+                    || backOffHandler.handleResponse(httpRequest, response, supportsRetry);
+            if (isRetried) {
+                metrics.incrementCounter(DiscoveryMetrics.REQUEST_RETRIES_METRIC, 1,
+                                         "host", httpRequest.getUrl().getHost(), "reason", String.valueOf(response.getStatusCode()));
+            }
+            return isRetried;
+        });
+        HttpBackOffIOExceptionHandler ioExceptionHandler = new HttpBackOffIOExceptionHandler(createBackOff())
+                .setSleeper(this.sleeper);
+        request.setIOExceptionHandler((httpRequest, supportsRetry) -> {
+            boolean isRetried = ioExceptionHandler.handleIOException(httpRequest, supportsRetry);
+            if (isRetried) {
+                metrics.incrementCounter(DiscoveryMetrics.REQUEST_RETRIES_METRIC, 1,
+                                         "host", httpRequest.getUrl().getHost(), "reason", "IOException");
+            }
+            return isRetried;
+        });
+        request.setNumberOfRetries(MAX_RETRIES);
+    }
+
+    /*
+    This function returns the shared rate limiter of the host of the provided request and of the project.
+     */
+    private ApiRateLimiter getRateLimiter(HttpRequest httpRequest) {
+        return ApiRateLimiter.getSharedLimiter(httpRequest.getUrl().getHost(), this.projectId);
+    }
+
+    /*
+    This function returns whether the provided response status code is of a transient error, which
+    is worth retrying.
+     */
+    private static boolean isTransientError(int statusCode) {
+        return statusCode == TOO_MANY_REQUESTS_CODE || statusCode / 100 == 5;
+    }
+
+    private static BackOff createBackOff() {
+        return new ExponentialBackOff.Builder()
+                .setInitialIntervalMillis(INITIAL_BACKOFF_MILLIS)
+                .setMaxIntervalMillis(MAX_BACKOFF_MILLIS)
+                .setRandomizationFactor(BACKOFF_JITTER)
+                .setMultiplier(2)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.flogger.FluentLogger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PageFingerprintStore class stores a fingerprint of every asset list page which was written
+ * into the asset tables: its ETag, a hash of its content, the token of its next page and the keys of
+ * its assets. When a page is fetched again and its fingerprint matches, the page does not have to be
+ * parsed and its assets are known to be unchanged. The fingerprints are persisted in a local json
+ * file, so that they are reused across runs until they are older than the configured TTL (after which
+ * the page is parsed again, so that rows which were changed outside of the discovery are fixed).
+ * This class is thread safe.
+ */
+public class PageFingerprintStore {
+    // The file in which the fingerprints are persisted (can be set with the
+    // -Ddiscovery.pageFingerprintFile system property, an empty value keeps them in memory only).
+    private static final String FINGERPRINT_FILE = System.getProperty("discovery.pageFingerprintFile",
+                                                                      "page-fingerprints.json");
+    // The time after which a page is parsed again even if it was not changed (can be set with the
+    // -Ddiscovery.pageFingerprintTtlMinutes system property).
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(
+            Integer.getInteger("discovery.pageFingerprintTtlMinutes", 24 * 60));
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final PageFingerprintStore sharedStore = new PageFingerprintStore(
+            FINGERPRINT_FILE.isEmpty() ? null : Paths.get(FINGERPRINT_FILE), TTL_MILLIS);
+
+    private final Path fingerprintFile;
+    private final long ttlMillis;
+    private final Map<String, PageFingerprint> pageFingerprints;
+    private volatile boolean isChanged;
+
+    /**
+     * The PageFingerprint class represents the fingerprint of a single asset list page, as it is
+     * persisted in the fingerprint file.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class PageFingerprint {
+        public String etag;
+        public String contentHash;
+        public String nextPageToken;
+        // The [kind, assetName] keys of the assets of the page
+        public List<List<String>> assetKeys;
+        public long writeTimeMillis;
+    }
+
+    /**
+     * The PageFingerprintStore constructor loads the persisted fingerprints from the provided file
+     * (if it exists).
+     * @param file - the file in which the fingerprints are persisted, or null if they should only be
+     *             kept in memory.
+     * @param ttl - the time in milliseconds after which a fingerprint expires.
+     */
+    public PageFingerprintStore(Path file, long ttl) {
+        this.fingerprintFile = file;
+        this.ttlMillis = ttl;
+        this.pageFingerprints = new ConcurrentHashMap<>();
+        loadFingerprintFile();
+    }
+
+    /**
+     * @return the PageFingerprintStore which is shared by all of the projects of this process.
+     */
+    public static PageFingerprintStore getSharedStore() {
+        return sharedStore;
+    }
+
+    /**
+     * This function returns the fingerprint of the page which was last written for the given key.
+     * @param pageKey - the key of the page (its url and the workspace to which it was written).
+     * @return the fingerprint of the page, or null if it is not stored or expired.
+     */
+    public PageFingerprint getFingerprint(String pageKey) {
+        PageFingerprint fingerprint = this.pageFingerprints.get(pageKey);
+        if (fingerprint == null || isExpired(fingerprint)) {
+            return null;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * This function stores the fingerprints of pages whose assets were written into the asset
+     * tables. It should only be called once the assets were committed, as a stored fingerprint causes
+     * the page to be skipped by the following runs.
+     * @param fingerprints - a map between the keys of the written pages and their fingerprints.
+     */
+    public void putFingerprints(Map<String, PageFingerprint> fingerprints) {
+        long writeTimeMillis = System.currentTimeMillis();
+        for (PageFingerprint fingerprint : fingerprints.values()) {
+            fingerprint.writeTimeMillis = writeTimeMillis;
+        }
+        this.pageFingerprints.putAll(fingerprints);
+        this.isChanged = true;
+    }
+
+    /**
+     * This function persists the fingerprints which are not expired into the fingerprint file if
+     * they were changed since they were last persisted. The file is replaced atomically. If the file
+     * could not be written the incident is logged, as the pages can always be parsed again.
+     */
+    public synchronized void save() {
+        if (this.fingerprintFile == null || !this.isChanged) {
+            return;
+        }
+        this.isChanged = false;
+        // The urls of pages which are not the first page contain a page token, which can change
+        // between runs, and therefore expired fingerprints are removed so that the file does not grow
+        this.pageFingerprints.values().removeIf(this::isExpired);
+        try {
+            Path absoluteFile = this.fingerprintFile.toAbsolutePath();
+            Path tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+            jsonMapper.writeValue(tempFile.toFile(), this.pageFingerprints);
+            Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            logger.atInfo().withCause(exception).log("Could not persist the page fingerprints into %s",
+                                                    this.fingerprintFile);
+        }
+    }
+
+    /*
+    This function loads the persisted fingerprints from the fingerprint file (if it exists).
+     */
+    private void loadFingerprintFile() {
+        if (this.fingerprintFile == null || !Files.exists(this.fingerprintFile)) {
+            return;
+        }
+        try {
+            Map<String, PageFingerprint> persistedFingerprints = jsonMapper.readValue(this.fingerprintFile.toFile(),
+                    new TypeReference<Map<String, PageFingerprint>>() {});
+            this.pageFingerprints.putAll(persistedFingerprints);
+        } catch (IOException exception) {
+            logger.atInfo().withCause(exception).log("Could not load the page fingerprints from %s, "
+                    + "all of the pages will be parsed.", this.fingerprintFile);
+        }
+    }
+
+    private boolean isExpired(PageFingerprint fingerprint) {
+        return System.currentTimeMillis() - fingerprint.writeTimeMillis > this.ttlMillis;
+    }
+}
@@ -0,0 +1,276 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
+import com.google.cloudassets.discovery.AssetTablesConfig;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Value;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ProjectAssetsDiff class is in charge of comparing the freshly discovered assets of a specific
+ * project (as a list of insertOrUpdate Mutations which can be generated by the ProjectMutationsList
+ * class) with the rows which currently exist in our spanner db tables for this project. It returns
+ * only the Mutations needed in order to bring the tables up to date: upserts for new and changed
+ * rows and deletes for rows of assets which no longer exist.
+ */
+public class ProjectAssetsDiff {
+    private static final String ROW_LAST_UPDATE_TIME_COLUMN = "rowLastUpdateTime";
+    private static final String KIND_COLUMN = "kind";
+    private static final String ASSET_NAME_COLUMN = "assetName";
+
+    private final DatabaseClient dbClient;
+    private final ProjectConfig projectConfig;
+    private final List<String> existingTableNames;
+    private List<String> primaryKeyColumns;
+
+    /**
+     * The ProjectAssetsDiff constructor initialized the relevant project configurations.
+     * @param client - the spanner DatabaseClient from which the current rows should be read.
+     * @param config - the relevant project configurations.
+     * @param existingTables - the asset tables which existed in our spanner db before this process
+     *                       began to run (only these tables can have rows to compare with).
+     */
+    public ProjectAssetsDiff(DatabaseClient client, ProjectConfig config, List<String> existingTables) {
+        this(client, config, existingTables, null);
+    }
+
+    /*
+    This constructor allows to provide the primary key columns of the asset tables instead of
+    retrieving them from the AssetTablesConfig (it is used by tests).
+     */
+    ProjectAssetsDiff(DatabaseClient client, ProjectConfig config, List<String> existingTables,
+                      List<String> primaryKeys) {
+        this.dbClient = client;
+        this.projectConfig = config;
+        this.existingTableNames = existingTables;
+        this.primaryKeyColumns = primaryKeys;
+    }
+
+    /**
+     * This is the main function of this class and it is in charge of finding the delta between the
+     * provided mutations and the current rows of this project.
+     * @param upsertMutations - a list of insertOrUpdate Mutations of all of the project's assets.
+     * @return a list of delete Mutations for the rows which were not discovered anymore, followed by
+     * the provided Mutations of the rows which are new or whose content was changed (in their
+     * original order, so main table rows are still written before their interleaved rows).
+     */
+    public List<Mutation> getDeltaMutations(List<Mutation> upsertMutations) {
+        return getDeltaMutations(upsertMutations, Collections.emptySet());
+    }
+
+    /**
+     * This function finds the delta between the provided mutations and the current rows of this
+     * project, where the rows of the provided unchanged assets are kept as they are (even though
+     * they have no Mutations).
+     * @param upsertMutations - a list of insertOrUpdate Mutations of the project's changed assets.
+     * @param unchangedAssetKeys - the [kind, assetName] keys of the project's assets which were not
+     *                           changed since their rows were written (and therefore have no Mutations).
+     * @return a list of delete Mutations for the rows which were not discovered anymore, followed by
+     * the provided Mutations of the rows which are new or whose content was changed.
+     */
+    public List<Mutation> getDeltaMutations(List<Mutation> upsertMutations, Set<List<String>> unchangedAssetKeys) {
+        int kindKeyIndex = getPrimaryKeyColumns().indexOf(KIND_COLUMN);
+        int assetNameKeyIndex = getPrimaryKeyColumns().indexOf(ASSET_NAME_COLUMN);
+        Map<String, List<Mutation>> tablesMutations = new LinkedHashMap<>();
+        for (Mutation mutation : upsertMutations) {
+            tablesMutations.computeIfAbsent(mutation.getTable(), tableName -> new ArrayList<>()).add(mutation);
+        }
+
+        List<Mutation> deltaMutations = new ArrayList<>();
+        Set<Mutation> unchangedMutations = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String tableName : this.existingTableNames) {
+            List<Mutation> tableMutations = tablesMutations.getOrDefault(tableName, Collections.emptyList());
+            List<String> fingerprintColumns = getFingerprintColumns(tableMutations);
+            Map<List<Value>, String> existingFingerprints = getExistingFingerprints(tableName, fingerprintColumns);
+
+            for (Mutation mutation : tableMutations) {
+                Map<String, Value> mutationValues = mutation.asMap();
+                String existingFingerprint = existingFingerprints.remove(getRowKey(mutationValues));
+                if (getFingerprint(mutationValues, fingerprintColumns).equals(existingFingerprint)) {
+                    unchangedMutations.add(mutation);
+                }
+            }
+
+            // Rows that are left were not discovered in this run and should be deleted, unless they
+            // belong to an asset which was not changed
+            for (List<Value> rowKey : existingFingerprints.keySet()) {
+                if (unchangedAssetKeys.isEmpty() || !unchangedAssetKeys.contains(Arrays.asList(
+                        rowKey.get(kindKeyIndex).getString(), rowKey.get(assetNameKeyIndex).getString()))) {
+                    deltaMutations.add(Mutation.delete(tableName, getKey(rowKey)));
+                }
+            }
+        }
+
+        for (Mutation mutation : upsertMutations) {
+            if (!unchangedMutations.contains(mutation)) {
+                deltaMutations.add(mutation);
+            }
+        }
+        return deltaMutations;
+    }
+
+    /*
+    This function returns the primary key columns which are common to all of the asset tables (the
+    order of the primary keys matters as they are used to build the Key of deleted rows).
+     */
+    private List<String> getPrimaryKeyColumns() {
+        if (this.primaryKeyColumns == null) {
+            try {
+                this.primaryKeyColumns = AssetTablesConfig.getInstance().getCommonPrimaryKeys();
+            } catch (ConfigTableException exception) {
+                throw new IllegalStateException("Could not retrieve the primary keys of the asset tables.", exception);
+            }
+        }
+        return this.primaryKeyColumns;
+    }
+
+    /*
+    This function returns the columns which should be compared for the given table: the primary
+    keys and every column which is set by the provided mutations, except for the rowLastUpdateTime
+    column which is a commit timestamp and is therefore always different.
+     */
+    private List<String> getFingerprintColumns(List<Mutation> tableMutations) {
+        Set<String> fingerprintColumns = new LinkedHashSet<>(getPrimaryKeyColumns());
+        if (!tableMutations.isEmpty()) {
+            for (String columnName : tableMutations.get(0).getColumns()) {
+                fingerprintColumns.add(columnName);
+            }
+        }
+        fingerprintColumns.remove(ROW_LAST_UPDATE_TIME_COLUMN);
+        return new ArrayList<>(fingerprintColumns);
+    }
+
+    /*
+    This function reads the rows of this project from the given table and returns a map between
+    the primary key of each row and the fingerprint of its content.
+     */
+    private Map<List<Value>, String> getExistingFingerprints(String tableName, List<String> fingerprintColumns) {
+        Map<List<Value>, String> existingFingerprints = new HashMap<>();
+        Statement existingRowsStatement = Statement.newBuilder("SELECT " + String.join(", ", fingerprintColumns)
+                                                        + " FROM " + tableName
+                                                        + " WHERE workspaceId = @workspaceId AND projectId = @projectId")
+                .bind("workspaceId").to(this.projectConfig.getWorkspaceId())
+                .bind("projectId").to(this.projectConfig.getProjectId())
+                .build();
+
+        // The rows are read in a new single use transaction, as the rows may have been changed (for
+        // example by another worker) since the process began to run
+        try (ResultSet resultSet = this.dbClient.singleUse().executeQuery(existingRowsStatement)) {
+            while (resultSet.next()) {
+                Map<String, Value> rowValues = new HashMap<>();
+                for (String columnName : fingerprintColumns) {
+                    rowValues.put(columnName, getColumnValue(resultSet, columnName));
+                }
+                existingFingerprints.put(getRowKey(rowValues), getFingerprint(rowValues, fingerprintColumns));
+            }
+        }
+        return existingFingerprints;
+    }
+
+    /*
+    This function returns the primary key of a row (as a list of Values, so that primary key columns
+    of any type can be compared) from its column values.
+     */
+    private List<Value> getRowKey(Map<String, Value> rowValues) {
+        List<Value> rowKey = new ArrayList<>();
+        for (String columnName : getPrimaryKeyColumns()) {
+            rowKey.add(rowValues.get(columnName));
+        }
+        return rowKey;
+    }
+
+    /*
+    This function converts the primary key of a row (as returned by the getRowKey function) into
+    the spanner Key of the row.
+     */
+    private Key getKey(List<Value> rowKey) {
+        Key.Builder keyBuilder = Key.newBuilder();
+        for (Value keyValue : rowKey) {
+            if (keyValue == null) {
+                throw new IllegalStateException("A primary key column of the asset tables has an unsupported type.");
+            } else if (keyValue.isNull()) {
+                keyBuilder.appendObject(null);
+                continue;
+            }
+            switch (keyValue.getType().getCode()) {
+                case INT64:
+                    keyBuilder.append(keyValue.getInt64());
+                    break;
+                case BOOL:
+                    keyBuilder.append(keyValue.getBool());
+                    break;
+                case FLOAT64:
+                    keyBuilder.append(keyValue.getFloat64());
+                    break;
+                case TIMESTAMP:
+                    keyBuilder.append(keyValue.getTimestamp());
+                    break;
+                case DATE:
+                    keyBuilder.append(keyValue.getDate());
+                    break;
+                default:
+                    keyBuilder.append(keyValue.getString());
+            }
+        }
+        return keyBuilder.build();
+    }
+
+    /*
+    This function returns a fingerprint of the content of a row (a hash of the values of the given
+    columns), so that rows can be compared without holding all of their values in memory.
+     */
+    private String getFingerprint(Map<String, Value> rowValues, List<String> fingerprintColumns) {
+        StringBuilder rowContent = new StringBuilder();
+        for (String columnName : fingerprintColumns) {
+            rowContent.append(columnName).append('=').append(rowValues.get(columnName)).append('\u0000');
+        }
+        return Hashing.sha256().hashString(rowContent, StandardCharsets.UTF_8).toString();
+    }
+
+    /*
+    This function returns the value of the given column in the current row of the resultSet as a
+    Value object, in the same representation that is used by the Mutations that we create.
+    Column types which are not used by our asset tables are returned as null (so that rows which
+    contain them are always considered changed).
+     */
+    private Value getColumnValue(ResultSet resultSet, String columnName) {
+        Type columnType = resultSet.getColumnType(columnName);
+        boolean isNull = resultSet.isNull(columnName);
+        switch (columnType.getCode()) {
+            case STRING:
+                return Value.string(isNull ? null : resultSet.getString(columnName));
+            case INT64:
+                return Value.int64(isNull ? null : resultSet.getLong(columnName));
+            case BOOL:
+                return Value.bool(isNull ? null : resultSet.getBoolean(columnName));
+            case FLOAT64:
+                return Value.float64(isNull ? null : resultSet.getDouble(columnName));
+            case TIMESTAMP:
+                return Value.timestamp(isNull ? null : resultSet.getTimestamp(columnName));
+            case DATE:
+                return Value.date(isNull ? null : resultSet.getDate(columnName));
+            case ARRAY:
+                if (columnType.getArrayElementType().getCode() == Type.Code.STRING) {
+                    return Value.stringArray(isNull ? null : resultSet.getStringList(columnName));
+                }
+        }
+        return null;
+    }
+}
@@ -2,24 +2,34 @@ package com.google.cloudassets.discovery.projectobjects;
 
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpRequest;
-import com.google.api.client.http.HttpRequestInitializer;
-import com.google.api.client.http.HttpTransport;
-import com.google.api.client.http.json.JsonHttpContent;
-import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
 import com.google.auth.http.HttpCredentialsAdapter;
-import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloudassets.discovery.*;
 import com.google.cloudassets.discovery.assetobjects.AssetObject;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics;
+import com.google.cloudassets.discovery.projectobjects.PageFingerprintStore.PageFingerprint;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.common.flogger.FluentLogger;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * The ProjectAssetsMapper class is in charge of getting all of the different assets for the given
@@ -30,151 +40,258 @@ public class ProjectAssetsMapper {
     private static final String ZONE_NAME_EXP = "{zone_name}";
     private static final String ASSET_TYPE_EXP = "{asset_type}";
     private static final String API_ENABLED_STR = "ENABLED";
+    private static final int NOT_MODIFIED_CODE = 304;
+    private static final int FORBIDDEN_CODE = 403;
+    private static final String SERVICE_NAME_EXP = "/services/";
+    // The API services of all of the assets which are listed by this class
+    private static final List<String> API_SERVICES = Arrays.asList("compute.googleapis.com",
+            "pubsub.googleapis.com", "storage.googleapis.com", "sqladmin.googleapis.com", "spanner.googleapis.com",
+            "appengine.googleapis.com", "container.googleapis.com");
+    // The maximal number of concurrent API requests for a single project (can be set with the
+    // -Ddiscovery.projectRequestThreads system property).
+    private static final int MAX_CONCURRENT_REQUESTS = Integer.getInteger("discovery.projectRequestThreads", 8);
+    // Whether compute instances & disks should be listed with the aggregated list API (one paginated
+    // listing for all of the zones) instead of listing every zone separately (can be disabled with
+    // -Ddiscovery.computeAggregatedList=false).
+    private static final boolean COMPUTE_AGGREGATED_LIST = Boolean.parseBoolean(
+            System.getProperty("discovery.computeAggregatedList", "true"));
+    // Whether the states of all of the API services which are not cached are checked with a single
+    // batchGet request instead of a request per service (can be disabled with
+    // -Ddiscovery.apiBatchGet=false).
+    private static final boolean API_BATCH_GET = Boolean.parseBoolean(
+            System.getProperty("discovery.apiBatchGet", "true"));
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
     private static final ObjectMapper jsonMapper = new ObjectMapper();
     private static final AssetObjectsFactory assetObjectFactory = new AssetObjectsFactory();
-    private static final HttpTransport requestFactory = new NetHttpTransport();
 
     private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final DiscoveryMetrics metrics = DiscoveryMetrics.getSharedMetrics();
 
     private final ProjectConfig projectConfig;
-    private AccessToken accessToken;
-    private GoogleCredentials credentials;
-
+    private final HttpRequestFactory requestFactory;
+    private final ApiEnablementCache apiCache;
+    // The API states which were resolved before the assets fetching (from the cache or the batchGet
+    // request), the states of the missing services are checked separately
+    private volatile Map<String, Boolean> apiEnabledStates = Collections.emptyMap();
+    private final PageFingerprintStore fingerprintStore;
+    // The fingerprints of the pages which were parsed in this run, which are stored once their
+    // assets were written
+    private final Map<String, PageFingerprint> parsedPageFingerprints;
+    // The [kind, assetName] keys of the assets of the pages which were not changed since they were
+    // last written (and were therefore not parsed)
+    private final Set<List<String>> unchangedAssetKeys;
 
     /**
      * The ProjectAssetsMapper constructor initialized the relevant project configurations.
      * @param config the relevant project configurations.
      */
     public ProjectAssetsMapper(ProjectConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * The ProjectAssetsMapper constructor initialized the relevant project configurations and the
+     * store of the fingerprints of the asset list pages. Pages whose fingerprint matches the one
+     * which was stored when they were last written are not parsed, and their assets are returned by
+     * the getUnchangedAssetKeys function instead.
+     * @param config the relevant project configurations.
+     * @param pageFingerprints the store of the page fingerprints, or null if every page should be
+     *                         parsed.
+     */
+    public ProjectAssetsMapper(ProjectConfig config, PageFingerprintStore pageFingerprints) {
         this.projectConfig = config;
-        generateAccessToken();
+        this.fingerprintStore = pageFingerprints;
+        this.parsedPageFingerprints = new ConcurrentHashMap<>();
+        this.unchangedAssetKeys = ConcurrentHashMap.newKeySet();
+        // The access tokens of the service account are shared with all of its other projects
+        GoogleCredentials credentials = ServiceAccountTokenCache.getSharedCache()
+                                                                .getCredentials(config.getServiceAccountEmail());
+        // The connections of the shared transport are reused by all of the requests of this process,
+        // and the requests are rate limited and retried per API host of this project
+        this.requestFactory = DiscoveryHttpTransport.getSharedTransport().createRequestFactory(
+                new DiscoveryRequestInitializer(new HttpCredentialsAdapter(credentials), config.getProjectId()));
+        this.apiCache = ApiEnablementCache.getSharedCache();
     }
 
     /*
-    This function creates a map of the data needed for the POST request for generating a new access
-    token (a list of the scopes we need permission for).
+    This function reads the json HttpResponse body of the given url into the provided valueType
+    while it is being received (without reading the whole body into a string first).
+    Throws an IOException if the request failed (after all of its retries) or its body could not be
+    parsed.
      */
-    private Map<String, List<String>> getScopeMap() {
-        Map<String, List<String>> scopeMap =  new HashMap<>();
-        List<String> scopesList = new ArrayList<>();
-        scopesList.add("https://www.googleapis.com/auth/cloud-platform");
-        scopeMap.put("scope", scopesList);
-        return scopeMap;
+    private <T> T readHttpJson(String url, Class<T> valueType) throws IOException {
+        HttpRequest request = this.requestFactory.buildGetRequest(new GenericUrl(url));
+        try (InputStream responseStream = request.execute().getContent()) {
+            return jsonMapper.readValue(responseStream, valueType);
+        }
     }
 
     /*
-    This function generates an access token for the specific project's service account.
+    This function returns an InputStream of the HttpResponse body of the given url (in json format).
+    The caller is in charge of closing it, so that its connection is returned to the pool.
+    If the request fails an UncheckedIOException is thrown, so that the assets of the project are
+    not updated with partial data.
      */
-    private void generateAccessToken() {
-        String accessTokenUrl = "https://iamcredentials.googleapis.com/v1/projects/-/serviceAccounts/"
-                            + this.projectConfig.getServiceAccountEmail() + ":generateAccessToken";
+    private InputStream getHttpStream(String assetListUrl) {
         try {
-            // Build POST request to get AccessToken
-            GoogleCredentials credentials = GoogleCredentials.getApplicationDefault();
-            HttpRequestInitializer requestInitializer = new HttpCredentialsAdapter(credentials);
-            HttpRequest request = this.requestFactory.createRequestFactory(requestInitializer)
-                    .buildPostRequest(new GenericUrl(accessTokenUrl),
-                                    new JsonHttpContent(new JacksonFactory(), getScopeMap()));
-
-            // Update newly generated AccessToken
-            JsonNode jsonNode = jsonMapper.readTree(request.execute().parseAsString());
-            Map<String, Object> accessTokenMap = jsonMapper.convertValue(jsonNode, Map.class);
-            Date expireTime = DATE_FORMAT.parse((String) accessTokenMap.get("expireTime"));
-            this.accessToken = new AccessToken((String) accessTokenMap.get("accessToken"), expireTime);
+            HttpRequest request = this.requestFactory.buildGetRequest(new GenericUrl(assetListUrl));
+            return request.execute().getContent();
         } catch (IOException exception) {
-            logger.atInfo().withCause(exception).log("Encountered an IOException. Provided url was: %s",
-                                                    accessTokenUrl);
-        } catch (ParseException exception) {
-            logger.atInfo().withCause(exception).log("Encountered a date parsing error while " +
-                    "parsing 'expireTime' value. Dates should be in yyyy-MM-ddTHH:mm:ss format.");
+            throw new UncheckedIOException("Could not get the HttpResponse of the following url: "
+                                            + assetListUrl, exception);
         }
-
     }
 
     /*
-    This function creates the GoogleCredentials needed to access the different APIs and refreshes
-    it if the access token has expired.
+     * This function hands all of the AssetObjects of a given assetKind to the assetsConsumer. The
+     * assets of each page are handed as soon as the page is parsed.
+     * @param assetsConsumer - a thread safe consumer to which the assets of each page are handed.
+     * @param assetListUrl - a string representing the url of a certain Google Cloud Api asset list
+     * @param assetKind - an enum from the AssetKind representing the relevant asset type that
+     *                    should be listed.
+     * @param isAggregatedList - whether or not the assetListUrl is of an aggregated list API.
+     * If the json response could not be parsed an UncheckedIOException is thrown, so that the assets
+     * of the project are not updated without the assets of this assetKind.
+     * The latency, the number & the size of the pages are recorded in the DiscoveryMetrics by the
+     * API host and the assetKind.
      */
-    private void updateCredentials() {
-        if (this.credentials == null) {
-            this.credentials = new GoogleCredentials(this.accessToken);
-        }
-
-        // Refreshes the AccessToken used for the credentials if needed
+    private void getAssetObjectList(Consumer<List<AssetObject>> assetsConsumer, String assetListUrl,
+                                    AssetKind assetKind, boolean isAggregatedList) {
+        String apiHost = new GenericUrl(assetListUrl).getHost();
+        String pageUrl = assetListUrl;
         try {
-            credentials.refreshIfExpired();
+            while (pageUrl != null) {
+                long pageStartNanos = System.nanoTime();
+                String nextPageToken;
+                if (this.fingerprintStore == null) {
+                    CountingInputStream pageStream = new CountingInputStream(getHttpStream(pageUrl));
+                    nextPageToken = readAssetsPage(assetsConsumer, pageStream, assetKind, isAggregatedList, null);
+                    metrics.incrementCounter(DiscoveryMetrics.PAGE_BYTES_METRIC, pageStream.getCount(),
+                                             "host", apiHost, "kind", assetKind.toString());
+                } else {
+                    nextPageToken = readFingerprintedAssetsPage(assetsConsumer, pageUrl, assetKind, isAggregatedList);
+                }
+                metrics.recordLatency(DiscoveryMetrics.PAGE_LATENCY_METRIC, System.nanoTime() - pageStartNanos,
+                                      "host", apiHost, "kind", assetKind.toString());
+                metrics.incrementCounter(DiscoveryMetrics.PAGES_FETCHED_METRIC, 1,
+                                         "host", apiHost, "kind", assetKind.toString());
+
+                pageUrl = null;
+                if (nextPageToken != null) {
+                    pageUrl = assetListUrl + getPageTokenExp(assetKind) + nextPageToken;
+                }
+            }
         } catch (IOException exception) {
-            logger.atInfo().withCause(exception).log("Encountered an IOException while trying to " +
-                    "refresh the AccessToken of workspace ID: %s", this.projectConfig.getWorkspaceId());
+            metrics.incrementCounter(DiscoveryMetrics.ERRORS_METRIC, 1,
+                                     "stage", "fetch", "kind", assetKind.toString());
+            throw new UncheckedIOException("Encountered an IOException while parsing the json response. "
+                                            + "Provided url was: " + pageUrl, exception);
+        } catch (RuntimeException exception) {
+            metrics.incrementCounter(DiscoveryMetrics.ERRORS_METRIC, 1,
+                                     "stage", "fetch", "kind", assetKind.toString());
+            throw exception;
         }
     }
 
     /*
-     * This function returns a string representing the HttpResponse of the given HttpRequest url (in
-     * json format).
-     * @param assetListUrl - a string representing the url of a certain Google Cloud Api asset list
-     * If an exception is caught, it logs the details to the logger and returns null.
+    This function parses a single page of assets from the provided pageStream and hands its
+    AssetObjects to the assetsConsumer. If pageAssetKeys is provided, the [kind, assetName] key of
+    every asset of the page is added to it.
+    Returns the token of the next page, or null if this is the last page.
      */
-    private String getHttpInfo(String assetListUrl) {
-        try {
-            updateCredentials();
-            HttpRequestInitializer requestInitializer = new HttpCredentialsAdapter(this.credentials);
-            HttpRequest request = this.requestFactory.createRequestFactory(requestInitializer)
-                                                .buildGetRequest(new GenericUrl(assetListUrl));
-            return request.execute().parseAsString();
-        } catch (IOException exception) {
-            logger.atInfo().withCause(exception).log("Encountered an IOException. Provided url was: %s",
-                                                    assetListUrl);
+    private String readAssetsPage(Consumer<List<AssetObject>> assetsConsumer, InputStream pageStream,
+                                  AssetKind assetKind, boolean isAggregatedList, List<List<String>> pageAssetKeys)
+            throws IOException {
+        List<AssetObject> pageAssets = new ArrayList<>();
+        AssetJsonParser assetJsonParser = new AssetJsonParser(pageStream, assetKind, isAggregatedList,
+                (assetParser, scopeName) -> pageAssets.add(assetObjectFactory.createAssetObject(assetKind,
+                                                                assetParser, projectConfig, scopeName)));
+        metrics.incrementCounter(DiscoveryMetrics.ASSETS_PARSED_METRIC, pageAssets.size(),
+                                 "kind", assetKind.toString());
+        assetsConsumer.accept(pageAssets);
+
+        if (pageAssetKeys != null) {
+            for (AssetObject asset : pageAssets) {
+                pageAssetKeys.add(Arrays.asList(asset.getKind(), asset.getName()));
+            }
         }
-        return null;
+        return assetJsonParser.getHasNextPage() ? assetJsonParser.getNextPageToken() : null;
     }
 
     /*
-     * This function creates a list of all of the AssetObjects of a given assetKind.
-     * @param assetListUrl - a string representing the url of a certain Google Cloud Api asset list
-     * @param assetKind - an enum from the AssetKind representing the relevant asset type that
-     *                    should be listed.
-     * @return
-     * If an exception is caught, it logs the details to the logger.
+    This function fetches a single page of assets and compares it with the fingerprint of the page
+    which was stored when it was last written. The stored ETag of a last page is sent in an
+    If-None-Match header (so that APIs which support it do not send the page again), and otherwise
+    the hash of the page's content is compared. The ETag of a page with a next page is not sent, as
+    a 304 response would only leave the next page token of the earlier run, which may have expired
+    (while an identical content has the current token). An unchanged page is not parsed and its
+    assets are only added to the unchangedAssetKeys, while a changed page is parsed and its new
+    fingerprint is kept until the storePageFingerprints function is called.
+    Returns the token of the next page, or null if this is the last page.
      */
-    private void getAssetObjectList(List<AssetObject> assetObjectList, String assetListUrl,
-                                           AssetKind assetKind) {
+    private String readFingerprintedAssetsPage(Consumer<List<AssetObject>> assetsConsumer, String pageUrl,
+                                               AssetKind assetKind, boolean isAggregatedList) throws IOException {
+        // The same project can be written into several workspaces, each of which has its own rows
+        String pageKey = this.projectConfig.getWorkspaceId() + " " + pageUrl;
+        PageFingerprint storedFingerprint = this.fingerprintStore.getFingerprint(pageKey);
+
+        HttpRequest request = this.requestFactory.buildGetRequest(new GenericUrl(pageUrl))
+                                                 .setThrowExceptionOnExecuteError(false);
+        boolean isConditionalRequest = storedFingerprint != null && storedFingerprint.etag != null
+                && storedFingerprint.nextPageToken == null;
+        if (isConditionalRequest) {
+            request.getHeaders().setIfNoneMatch(storedFingerprint.etag);
+        }
+        HttpResponse response = request.execute();
+        String apiHost = request.getUrl().getHost();
         try {
-            JsonNode jsonNode = jsonMapper.readTree(getHttpInfo(assetListUrl));
-
-            Boolean hasNextPage;
-            do {
-                AssetJsonParser assetJsonParser = new AssetJsonParser(jsonNode, assetKind);
+            if (isConditionalRequest && response.getStatusCode() == NOT_MODIFIED_CODE) {
+                metrics.incrementCounter(DiscoveryMetrics.PAGES_UNCHANGED_METRIC, 1,
+                                         "host", apiHost, "kind", assetKind.toString());
+                this.unchangedAssetKeys.addAll(storedFingerprint.assetKeys);
+                return null;
+            }
+            if (!response.isSuccessStatusCode()) {
+                throw new HttpResponseException(response);
+            }
 
-                for (Map<String, Object> assetProperties : assetJsonParser.getAssetsList()) {
-                    AssetObject assetObject = assetObjectFactory.createAssetObject(assetKind,
-                            assetProperties, projectConfig);
-                    assetObjectList.add(assetObject);
-                }
+            byte[] pageContent;
+            try (InputStream pageStream = response.getContent()) {
+                pageContent = ByteStreams.toByteArray(pageStream);
+            }
+            metrics.incrementCounter(DiscoveryMetrics.PAGE_BYTES_METRIC, pageContent.length,
+                                     "host", apiHost, "kind", assetKind.toString());
+            String contentHash = Hashing.sha256().hashBytes(pageContent).toString();
+            if (storedFingerprint != null && contentHash.equals(storedFingerprint.contentHash)) {
+                metrics.incrementCounter(DiscoveryMetrics.PAGES_UNCHANGED_METRIC, 1,
+                                         "host", apiHost, "kind", assetKind.toString());
+                this.unchangedAssetKeys.addAll(storedFingerprint.assetKeys);
+                return storedFingerprint.nextPageToken;
+            }
 
-                hasNextPage = assetJsonParser.getHasNextPage();
-                if (hasNextPage) {
-                    String nextPageUrl = assetListUrl + getPageTokenExp(assetKind) + assetJsonParser.getNextPageToken();
-                    jsonNode = jsonMapper.readTree(getHttpInfo(nextPageUrl));
-                }
-            } while (hasNextPage);
-        } catch (IOException exception) {
-            logger.atInfo().withCause(exception).log("Encountered an IOException while calling " +
-                    "jsonMapper.readValue(). Provided url was: %s", assetListUrl);
+            PageFingerprint pageFingerprint = new PageFingerprint();
+            pageFingerprint.etag = response.getHeaders().getETag();
+            pageFingerprint.contentHash = contentHash;
+            pageFingerprint.assetKeys = new ArrayList<>();
+            pageFingerprint.nextPageToken = readAssetsPage(assetsConsumer, new ByteArrayInputStream(pageContent),
+                                                           assetKind, isAggregatedList, pageFingerprint.assetKeys);
+            this.parsedPageFingerprints.put(pageKey, pageFingerprint);
+            return pageFingerprint.nextPageToken;
+        } finally {
+            response.disconnect();
         }
     }
 
     /*
     This function returns a list of strings of all of the zones in a certain project based on the
     provided zonesUrl string.
-    If an exception is caught, it logs the details to the logger and returns an empty list.
+    If the zones could not be listed an UncheckedIOException is thrown, so that the assets of the
+    project are not updated without the assets of these zones.
      */
     private List<String> getZonesList(String zonesUrl, String zoneJsonKey) {
         List<String> zonesList = new ArrayList<>();
         try {
-            JsonNode jsonNode = jsonMapper.readTree(getHttpInfo(zonesUrl));
+            JsonNode jsonNode = readHttpJson(zonesUrl, JsonNode.class);
 
             Boolean hasNextPage;
             do {
@@ -184,15 +301,14 @@ public class ProjectAssetsMapper {
                 hasNextPage = zoneJsonParser.getHasNextPage();
                 if (hasNextPage) {
                     String nextPageUrl = zonesUrl + getPageTokenExp(null) + zoneJsonParser.getNextPageToken();
-                    jsonNode = jsonMapper.readTree(getHttpInfo(nextPageUrl));
+                    jsonNode = readHttpJson(nextPageUrl, JsonNode.class);
                 }
             } while (hasNextPage);
             return zonesList;
         } catch (IOException exception) {
-            logger.atInfo().withCause(exception).log("Encountered an IOException while calling " +
-                    "jsonMapper.readTree(). Provided url was: %s", zonesUrl);
+            throw new UncheckedIOException("Encountered an IOException while reading the zones list. "
+                                            + "Provided url was: " + zonesUrl, exception);
         }
-        return zonesList;
     }
 
     /*
@@ -208,164 +324,349 @@ public class ProjectAssetsMapper {
         }
     }
 
+    /**
+     * This function returns the [kind, assetName] keys of the assets of the pages which were not
+     * parsed by the last getAllAssets or streamAllAssets call, as they were not changed since they
+     * were last written. It is always empty if no PageFingerprintStore was provided.
+     * @return a set of the keys of the unchanged assets.
+     */
+    public Set<List<String>> getUnchangedAssetKeys() {
+        return this.unchangedAssetKeys;
+    }
+
+    /**
+     * This function stores the fingerprints of the pages which were parsed by the last getAllAssets
+     * or streamAllAssets call, so that they are not parsed again by the following runs as long as
+     * they do not change. It should only be called once the assets of the project were written.
+     */
+    public void storePageFingerprints() {
+        if (this.fingerprintStore != null) {
+            this.fingerprintStore.putFingerprints(this.parsedPageFingerprints);
+            this.parsedPageFingerprints.clear();
+        }
+    }
+
     /**
      * This function creates and returns a list of the different AssetObjects that belong to a
      * specific Google Cloud project.
+     * The API checks, zones listing and asset list calls of the different services run concurrently
+     * (up to MAX_CONCURRENT_REQUESTS requests at a time) and each page of assets is merged into the
+     * returned list as soon as it arrives.
      * @return a list of the AssetObjects in a project.
      */
     public List<AssetObject> getAllAssets() {
-        List<AssetObject> assetObjectList = new ArrayList<>();
+        List<AssetObject> assetObjectList = Collections.synchronizedList(new ArrayList<>());
+        streamAllAssets(assetObjectList::addAll);
+        return assetObjectList;
+    }
 
-        getAllComputeAssets(assetObjectList);
-        getAllPubSubAssets(assetObjectList);
-        getAllStorageAssets(assetObjectList);
-        getAllCloudSqlAssets(assetObjectList);
-        getAllSpannerAssets(assetObjectList);
-        getAllAppEngineAssets(assetObjectList);
-        getAllKubernetesAssets(assetObjectList);
+    /**
+     * This function fetches the different AssetObjects that belong to a specific Google Cloud
+     * project and hands them to the provided consumer page by page, as soon as each page is parsed,
+     * so that the assets of the whole project never have to be held in memory at once.
+     * @param assetsConsumer - a thread safe consumer of the assets of a single page. It is called
+     *                       concurrently from several request threads and may block in order to
+     *                       slow down the fetching (for example, when its writer falls behind).
+     */
+    public void streamAllAssets(Consumer<List<AssetObject>> assetsConsumer) {
+        ExecutorService requestsExecutor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS);
 
-        return assetObjectList;
+        try {
+            this.apiEnabledStates = getApiEnabledStates();
+            CompletableFuture.allOf(getAllComputeAssets(assetsConsumer, requestsExecutor),
+                                    getAllPubSubAssets(assetsConsumer, requestsExecutor),
+                                    getAllStorageAssets(assetsConsumer, requestsExecutor),
+                                    getAllCloudSqlAssets(assetsConsumer, requestsExecutor),
+                                    getAllSpannerAssets(assetsConsumer, requestsExecutor),
+                                    getAllAppEngineAssets(assetsConsumer, requestsExecutor),
+                                    getAllKubernetesAssets(assetsConsumer, requestsExecutor)).join();
+        } finally {
+            requestsExecutor.shutdownNow();
+        }
+    }
+
+    /*
+    This function checks asynchronously whether or not the given apiService is enabled in this
+    project and if so, runs the provided assets fetching stage. The returned future completes once
+    the fetching stage completed (or immediately after the check if the API is not enabled).
+     */
+    private CompletableFuture<Void> fetchIfApiEnabled(String apiService, ExecutorService requestsExecutor,
+                                                      Supplier<CompletableFuture<Void>> fetchAssets) {
+        Boolean resolvedState = this.apiEnabledStates.get(apiService);
+        CompletableFuture<Boolean> apiCheck = resolvedState != null ? CompletableFuture.completedFuture(resolvedState)
+                : CompletableFuture.supplyAsync(() -> isApiEnabled(apiService), requestsExecutor);
+        return apiCheck
+                .thenCompose(isEnabled -> isEnabled ? fetchAssets.get()
+                                                    : CompletableFuture.<Void>completedFuture(null))
+                .whenComplete((result, exception) -> {
+                    // The service may have been disabled since it was cached as enabled, so its
+                    // state is checked again by the next run of this project
+                    if (exception != null && isForbiddenError(exception)) {
+                        this.apiCache.invalidateApiState(projectConfig.getProjectId(), apiService);
+                    }
+                });
+    }
+
+    /*
+    This function returns whether the given exception (or one of its causes) is a 403 Forbidden
+    response of an API call, which is returned when the API service is disabled in the project
+    (SERVICE_DISABLED) or when the project's service account lacks a permission.
+     */
+    private static boolean isForbiddenError(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException
+                    && ((HttpResponseException) cause).getStatusCode() == FORBIDDEN_CODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+    This function asynchronously hands all of the AssetObjects of the given assetKind to the
+    assetsConsumer.
+     */
+    private CompletableFuture<Void> fetchAssetObjectList(Consumer<List<AssetObject>> assetsConsumer, String assetListUrl,
+                                                         AssetKind assetKind, ExecutorService requestsExecutor) {
+        return fetchAssetObjectList(assetsConsumer, assetListUrl, assetKind, false, requestsExecutor);
+    }
+
+    /*
+    This function asynchronously hands all of the AssetObjects of the given assetKind to the
+    assetsConsumer from a regular or an aggregated list API.
+     */
+    private CompletableFuture<Void> fetchAssetObjectList(Consumer<List<AssetObject>> assetsConsumer, String assetListUrl,
+                                                         AssetKind assetKind, boolean isAggregatedList,
+                                                         ExecutorService requestsExecutor) {
+        return CompletableFuture.runAsync(() -> getAssetObjectList(assetsConsumer, assetListUrl, assetKind,
+                                                                isAggregatedList), requestsExecutor);
+    }
+
+    /*
+    This function asynchronously lists the zones of the given zonesUrl and then runs the provided
+    zone fetching stage for each of the zones concurrently.
+     */
+    private CompletableFuture<Void> fetchForEachZone(String zonesUrl, String zoneJsonKey,
+                                                     ExecutorService requestsExecutor,
+                                                     Function<String, CompletableFuture<Void>> fetchZoneAssets) {
+        return CompletableFuture.supplyAsync(() -> getZonesList(zonesUrl, zoneJsonKey), requestsExecutor)
+                .thenCompose(zonesList -> CompletableFuture.allOf(zonesList.stream()
+                        .map(fetchZoneAssets)
+                        .toArray(CompletableFuture[]::new)));
+    }
+
+    /*
+    This function returns the states of all of the API_SERVICES in this project which could be
+    resolved without a request per service: the services which are cached as enabled (and not
+    expired) in the ApiEnablementCache, and the states of all of the other services from a single
+    batchGet request.
+    If the batchGet request fails (or is disabled) the other services are missing from the returned
+    map, and they are checked separately by the isApiEnabled function.
+     */
+    private Map<String, Boolean> getApiEnabledStates() {
+        String projectId = projectConfig.getProjectId();
+        Map<String, Boolean> apiStates = new HashMap<>();
+        StringBuilder batchGetUrl = new StringBuilder(("https://serviceusage.googleapis.com/v1/projects/"
+                + PROJECT_ID_EXP + "/services:batchGet").replace(PROJECT_ID_EXP, projectId));
+        String namesSeparator = "?";
+        for (String apiService : API_SERVICES) {
+            if (this.apiCache.isCachedAsEnabled(projectId, apiService)) {
+                apiStates.put(apiService, true);
+            } else {
+                batchGetUrl.append(namesSeparator).append("names=projects/").append(projectId)
+                           .append(SERVICE_NAME_EXP).append(apiService);
+                namesSeparator = "&";
+            }
+        }
+        if (!API_BATCH_GET || apiStates.size() == API_SERVICES.size()) {
+            return apiStates;
+        }
+
+        try {
+            ApiDetailsBatch apiDetailsBatch = readHttpJson(batchGetUrl.toString(), ApiDetailsBatch.class);
+            for (ApiDetails apiDetails : apiDetailsBatch.getApiDetailsList()) {
+                // The name of the service is returned with the project number instead of its ID
+                String apiName = apiDetails.getApiName();
+                String apiService = apiName.substring(apiName.lastIndexOf(SERVICE_NAME_EXP)
+                                                      + SERVICE_NAME_EXP.length());
+                boolean isEnabled = API_ENABLED_STR.equals(apiDetails.getApiState());
+                apiStates.put(apiService, isEnabled);
+                this.apiCache.putApiState(projectId, apiService, isEnabled);
+            }
+        } catch (IOException | RuntimeException exception) {
+            logger.atInfo().withCause(exception).log("Encountered an exception while reading the " +
+                    "API states. Provided url was: %s", batchGetUrl);
+        }
+        return apiStates;
     }
 
     /*
     This function gets a String representing a specific apiService and checks whether or not it is
-    enabled in this project.
+    enabled in this project. The checked state is cached in the ApiEnablementCache.
+    If the state could not be checked an UncheckedIOException is thrown, so that the assets of the
+    project are not updated without the assets of this apiService.
      */
-    private Boolean isApiEnabled(String apiService) {
+    private boolean isApiEnabled(String apiService) {
         String url = ("https://serviceusage.googleapis.com/v1/projects/" + PROJECT_ID_EXP + "/services/"
                     + apiService).replace(PROJECT_ID_EXP, projectConfig.getProjectId());
         try {
-            ApiDetails apiDetails = jsonMapper.readValue(getHttpInfo(url), ApiDetails.class);
-            if (apiDetails.getApiState().equals(API_ENABLED_STR)) {
-                return Boolean.TRUE;
-            }
-            return Boolean.FALSE;
+            ApiDetails apiDetails = readHttpJson(url, ApiDetails.class);
+            boolean isEnabled = API_ENABLED_STR.equals(apiDetails.getApiState());
+            this.apiCache.putApiState(projectConfig.getProjectId(), apiService, isEnabled);
+            return isEnabled;
         } catch (IOException exception) {
-            logger.atInfo().withCause(exception).log("Encountered an IOException while calling " +
-                    "jsonMapper.readValue(). Provided url was: %s", apiService);
+            throw new UncheckedIOException("Encountered an IOException while reading the API state. "
+                                            + "Provided url was: " + url, exception);
         }
-        return null;
     }
 
     /*
-    This function adds the different Compute Asset Objects that belong to a specific Google Cloud
-    project to the assetObjectList (if the compute API is enabled for this project).
+    This function hands the different Compute Asset Objects that belong to a specific Google Cloud
+    project to the assetsConsumer (if the compute API is enabled for this project).
      */
-    private void getAllComputeAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllComputeAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                        ExecutorService requestsExecutor) {
         String apiService = "compute.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
+            if (COMPUTE_AGGREGATED_LIST) {
+                String aggregatedComputeUrl = ("https://" + apiService + "/compute/v1/projects/" +
+                        PROJECT_ID_EXP + "/aggregated/" + ASSET_TYPE_EXP)
+                        .replace(PROJECT_ID_EXP, projectConfig.getProjectId());
+
+                String instanceComputeUrl = aggregatedComputeUrl.replace(ASSET_TYPE_EXP, "instances");
+                String diskComputeUrl = aggregatedComputeUrl.replace(ASSET_TYPE_EXP, "disks");
+                return CompletableFuture.allOf(
+                        fetchAssetObjectList(assetsConsumer, instanceComputeUrl,
+                                            AssetKind.INSTANCE_COMPUTE_ASSET, true, requestsExecutor),
+                        fetchAssetObjectList(assetsConsumer, diskComputeUrl,
+                                            AssetKind.DISK_COMPUTE_ASSET, true, requestsExecutor));
+            }
+
             String zonesComputeUrl = ("https://" + apiService + "/compute/v1/projects/" +
                     PROJECT_ID_EXP + "/zones").replace(PROJECT_ID_EXP, projectConfig.getProjectId());
-            List<String> zonesList = getZonesList(zonesComputeUrl, "items");
 
-            for (String zone : zonesList) {
+            return fetchForEachZone(zonesComputeUrl, "items", requestsExecutor, zone -> {
                 String computeUrl = (zonesComputeUrl + "/" + ZONE_NAME_EXP + "/" + ASSET_TYPE_EXP)
                         .replace(ZONE_NAME_EXP, zone);
 
                 String instanceComputeUrl = computeUrl.replace(ASSET_TYPE_EXP, "instances");
-                getAssetObjectList(assetObjectList, instanceComputeUrl, AssetKind.INSTANCE_COMPUTE_ASSET);
-
                 String diskComputeUrl = computeUrl.replace(ASSET_TYPE_EXP, "disks");
-                getAssetObjectList(assetObjectList, diskComputeUrl, AssetKind.DISK_COMPUTE_ASSET);
-            }
-        }
+                return CompletableFuture.allOf(
+                        fetchAssetObjectList(assetsConsumer, instanceComputeUrl,
+                                            AssetKind.INSTANCE_COMPUTE_ASSET, requestsExecutor),
+                        fetchAssetObjectList(assetsConsumer, diskComputeUrl,
+                                            AssetKind.DISK_COMPUTE_ASSET, requestsExecutor));
+            });
+        });
     }
 
     /*
-    This function adds the different Pub Sub Asset Objects that belong to a specific Google Cloud
-    project to the assetObjectList (if the pubsub API is enabled for this project).
+    This function hands the different Pub Sub Asset Objects that belong to a specific Google Cloud
+    project to the assetsConsumer (if the pubsub API is enabled for this project).
      */
-    private void getAllPubSubAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllPubSubAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                       ExecutorService requestsExecutor) {
         String apiService = "pubsub.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
             String pubSubUrl = ("https://" + apiService + "/v1/projects/" + PROJECT_ID_EXP + "/" +
                     ASSET_TYPE_EXP).replace(PROJECT_ID_EXP, projectConfig.getProjectId());
 
             String topicPubSubUrl = pubSubUrl.replace(ASSET_TYPE_EXP, "topics");
-            getAssetObjectList(assetObjectList, topicPubSubUrl, AssetKind.TOPIC_PUB_SUB_ASSET);
-
             String subscriptionPubSubUrl = pubSubUrl.replace(ASSET_TYPE_EXP, "subscriptions");
-            getAssetObjectList(assetObjectList, subscriptionPubSubUrl, AssetKind.SUBSCRIPTION_PUB_SUB_ASSET);
-        }
+            return CompletableFuture.allOf(
+                    fetchAssetObjectList(assetsConsumer, topicPubSubUrl,
+                                        AssetKind.TOPIC_PUB_SUB_ASSET, requestsExecutor),
+                    fetchAssetObjectList(assetsConsumer, subscriptionPubSubUrl,
+                                        AssetKind.SUBSCRIPTION_PUB_SUB_ASSET, requestsExecutor));
+        });
     }
 
     /*
-    This function adds the different Storage Asset Objects that belong to a specific Google Cloud
-    project to the assetObjectList (if the storage API is enabled for this project).
+    This function hands the different Storage Asset Objects that belong to a specific Google Cloud
+    project to the assetsConsumer (if the storage API is enabled for this project).
      */
-    private void getAllStorageAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllStorageAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                        ExecutorService requestsExecutor) {
         String apiService = "storage.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
             String storageUrl = ("https://" + apiService + "/storage/v1/" + ASSET_TYPE_EXP +
                     "?project=" + PROJECT_ID_EXP).replace(PROJECT_ID_EXP, projectConfig.getProjectId());
 
             String bucketStorageUrl = storageUrl.replace(ASSET_TYPE_EXP, "b");
-            getAssetObjectList(assetObjectList, bucketStorageUrl, AssetKind.BUCKET_STORAGE_ASSET);
-        }
+            return fetchAssetObjectList(assetsConsumer, bucketStorageUrl,
+                                        AssetKind.BUCKET_STORAGE_ASSET, requestsExecutor);
+        });
     }
 
     /*
-    This function adds the different Cloud Sql Asset Objects that belong to a specific Google Cloud
-    project to the assetObjectList (if the sqladmin API is enabled for this project).
+    This function hands the different Cloud Sql Asset Objects that belong to a specific Google Cloud
+    project to the assetsConsumer (if the sqladmin API is enabled for this project).
      */
-    private void getAllCloudSqlAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllCloudSqlAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                         ExecutorService requestsExecutor) {
         String apiService = "sqladmin.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
             String cloudSqlUrl = ("https://" + apiService + "/sql/v1beta4/projects/" +
                     PROJECT_ID_EXP + "/" + ASSET_TYPE_EXP).replace(PROJECT_ID_EXP, projectConfig.getProjectId());
 
             String instanceCloudSqlUrl = cloudSqlUrl.replace(ASSET_TYPE_EXP, "instances");
-            getAssetObjectList(assetObjectList, instanceCloudSqlUrl, AssetKind.INSTANCE_CLOUD_SQL_ASSET);
-        }
+            return fetchAssetObjectList(assetsConsumer, instanceCloudSqlUrl,
+                                        AssetKind.INSTANCE_CLOUD_SQL_ASSET, requestsExecutor);
+        });
     }
 
     /*
-    This function adds the different Spanner Asset Objects that belong to a specific Google Cloud
-    project to the assetObjectList (if the spanner API is enabled for this project).
+    This function hands the different Spanner Asset Objects that belong to a specific Google Cloud
+    project to the assetsConsumer (if the spanner API is enabled for this project).
      */
-    private void getAllSpannerAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllSpannerAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                        ExecutorService requestsExecutor) {
         String apiService = "spanner.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
             String spannerUrl = ("https://" + apiService + "/v1/projects/" + PROJECT_ID_EXP +
                     "/" + ASSET_TYPE_EXP).replace(PROJECT_ID_EXP, projectConfig.getProjectId());
 
             String instanceSpannerUrl = spannerUrl.replace(ASSET_TYPE_EXP, "instances");
-            getAssetObjectList(assetObjectList, instanceSpannerUrl, AssetKind.INSTANCE_SPANNER_ASSET);
-        }
+            return fetchAssetObjectList(assetsConsumer, instanceSpannerUrl,
+                                        AssetKind.INSTANCE_SPANNER_ASSET, requestsExecutor);
+        });
     }
 
     /*
-    This function adds the different App Engine Asset Objects that belong to a specific Google Cloud
-    project to the assetObjectList (if the appengine API is enabled for this project).
+    This function hands the different App Engine Asset Objects that belong to a specific Google Cloud
+    project to the assetsConsumer (if the appengine API is enabled for this project).
      */
-    private void getAllAppEngineAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllAppEngineAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                          ExecutorService requestsExecutor) {
         String apiService = "appengine.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
             String appEngineUrl = ("https://" + apiService + "/v1/apps/" + PROJECT_ID_EXP)
                     .replace(PROJECT_ID_EXP, projectConfig.getProjectId());
 
-            getAssetObjectList(assetObjectList, appEngineUrl, AssetKind.APP_APP_ENGINE_ASSET);
-        }
+            return fetchAssetObjectList(assetsConsumer, appEngineUrl,
+                                        AssetKind.APP_APP_ENGINE_ASSET, requestsExecutor);
+        });
     }
 
     /*
-    This function adds the different Kubernetes Engine Asset Objects that belong to a specific Google
-    Cloud project to the assetObjectList (if the container API is enabled for this project).
+    This function hands the different Kubernetes Engine Asset Objects that belong to a specific Google
+    Cloud project to the assetsConsumer (if the container API is enabled for this project).
      */
-    private void getAllKubernetesAssets(List<AssetObject> assetObjectList) {
+    private CompletableFuture<Void> getAllKubernetesAssets(Consumer<List<AssetObject>> assetsConsumer,
+                                                           ExecutorService requestsExecutor) {
         String apiService = "container.googleapis.com";
-        if (isApiEnabled(apiService)) {
+        return fetchIfApiEnabled(apiService, requestsExecutor, () -> {
             // We are using v1beta1 instead of v1 as it does not have this API which returns a list
             // of all of the locations
             String zonesKubernetesUrl = ("https://" + apiService + "/v1beta1/projects/" +
                     PROJECT_ID_EXP + "/locations").replace(PROJECT_ID_EXP, projectConfig.getProjectId());
-            List<String> zonesList = getZonesList(zonesKubernetesUrl, "locations");
 
-            for (String zone : zonesList) {
+            return fetchForEachZone(zonesKubernetesUrl, "locations", requestsExecutor, zone -> {
                 String kubernetesUrl = (zonesKubernetesUrl + "/" + ZONE_NAME_EXP + "/clusters")
                         .replace(ZONE_NAME_EXP, zone);
-                getAssetObjectList(assetObjectList, kubernetesUrl, AssetKind.CLUSTER_KUBERNETES_ASSET);
-            }
-        }
+                return fetchAssetObjectList(assetsConsumer, kubernetesUrl,
+                                            AssetKind.CLUSTER_KUBERNETES_ASSET, requestsExecutor);
+            });
+        });
     }
 }
@@ -0,0 +1,259 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.KeyRange;
+import com.google.cloud.spanner.KeySet;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Value;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics;
+import com.google.common.collect.Iterables;
+import com.google.common.flogger.FluentLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ProjectAssetsWriter class is in charge of writing the asset rows of a specific project into
+ * our spanner db. The Mutations are packed into batches which are bounded by the number of
+ * mutations and the size that spanner allows in a single commit. The latency of every commit and
+ * the number of its mutations are recorded in the DiscoveryMetrics.
+ */
+public class ProjectAssetsWriter {
+    // Spanner counts every column value that is written (and every deleted key range) as a mutation
+    // and limits a single commit to 20,000 mutations and 100MB. The byte size of a batch is only
+    // estimated, and therefore a lower limit is used by default.
+    private static final int MAX_MUTATIONS_PER_COMMIT = Integer.getInteger("discovery.maxMutationsPerCommit", 20000);
+    private static final long MAX_BYTES_PER_COMMIT = Long.getLong("discovery.maxBytesPerCommit", 64L * 1024 * 1024);
+
+    private static final String DELETE_STALE_ROWS_QUERY = "DELETE FROM %s WHERE workspaceId = @workspaceId "
+                                                        + "AND projectId = @projectId "
+                                                        + "AND rowLastUpdateTime < @writeStartTime";
+
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final DiscoveryMetrics metrics = DiscoveryMetrics.getSharedMetrics();
+
+    private final DatabaseClient dbClient;
+    private final ProjectConfig projectConfig;
+    private final List<String> existingTableNames;
+    private final int maxMutationsPerCommit;
+    private final long maxBytesPerCommit;
+
+    /**
+     * The ProjectAssetsWriter constructor initialized the relevant project configurations.
+     * @param client - the spanner DatabaseClient to which the rows should be written.
+     * @param config - the relevant project configurations.
+     * @param existingTables - the asset tables which existed in our spanner db before this process
+     *                       began to run (only these tables can have old rows of the project).
+     */
+    public ProjectAssetsWriter(DatabaseClient client, ProjectConfig config, List<String> existingTables) {
+        this(client, config, existingTables, MAX_MUTATIONS_PER_COMMIT, MAX_BYTES_PER_COMMIT);
+    }
+
+    /*
+    This constructor allows to provide the limits of a single commit instead of the configured
+    ones (it is used by tests).
+     */
+    ProjectAssetsWriter(DatabaseClient client, ProjectConfig config, List<String> existingTables,
+                        int maxMutations, long maxBytes) {
+        this.dbClient = client;
+        this.projectConfig = config;
+        this.existingTableNames = existingTables;
+        this.maxMutationsPerCommit = maxMutations;
+        this.maxBytesPerCommit = maxBytes;
+    }
+
+    /**
+     * This function replaces all of the rows of this project with the provided Mutations.
+     * If the deletion of the old rows together with the provided Mutations fit in a single commit,
+     * they are all written in one transaction. Otherwise the new rows are first upserted in several
+     * batches (while the old rows are still readable) and only then the rows that were not
+     * rewritten are deleted, so that there is never a point in time in which the project has no data.
+     * @param upsertMutations - a list of insertOrUpdate Mutations of all of the project's assets.
+     */
+    public void replaceProjectAssets(List<Mutation> upsertMutations) {
+        List<Mutation> allMutations = getDeleteProjectMutations();
+        allMutations.addAll(upsertMutations);
+        if (getBatches(allMutations).size() == 1) {
+            commit(allMutations);
+            return;
+        }
+
+        logger.atInfo().log("Assets of workspace ID: %s, project ID: %s do not fit in a single commit, " +
+                "writing them in batches.", this.projectConfig.getWorkspaceId(), this.projectConfig.getProjectId());
+        deleteStaleRows(writeMutations(upsertMutations));
+    }
+
+    /**
+     * This function writes the provided Mutations in as many commits as needed, in their original
+     * order. Please notice that the Mutations are not written atomically if more than one commit
+     * is needed.
+     * @param mutations - a list of Mutations to be written.
+     * @return the commit timestamp of the first commit, or null if there were no Mutations to write.
+     */
+    public Timestamp writeMutations(List<Mutation> mutations) {
+        Timestamp firstCommitTime = null;
+        List<List<Mutation>> batches = getBatches(mutations);
+        for (List<Mutation> batch : batches) {
+            Timestamp commitTime = commit(batch);
+            if (firstCommitTime == null) {
+                firstCommitTime = commitTime;
+            }
+        }
+
+        if (batches.size() > 1) {
+            logger.atInfo().log("Wrote %d mutations in %d commits for workspace ID: %s, project ID: %s",
+                    mutations.size(), batches.size(), this.projectConfig.getWorkspaceId(),
+                    this.projectConfig.getProjectId());
+        }
+        return firstCommitTime;
+    }
+
+    /**
+     * This function deletes the rows of this project which were last updated before the provided
+     * time (rows of assets which were not rewritten since then) from all of the existing asset tables.
+     * @param writeStartTime - the commit timestamp of the first write of the current assets.
+     */
+    public void deleteStaleRows(Timestamp writeStartTime) {
+        for (String tableName : this.existingTableNames) {
+            Statement deleteStatement = Statement.newBuilder(String.format(DELETE_STALE_ROWS_QUERY, tableName))
+                    .bind("workspaceId").to(this.projectConfig.getWorkspaceId())
+                    .bind("projectId").to(this.projectConfig.getProjectId())
+                    .bind("writeStartTime").to(writeStartTime)
+                    .build();
+            long deleteStartNanos = System.nanoTime();
+            try {
+                this.dbClient.executePartitionedUpdate(deleteStatement);
+            } catch (SpannerException exception) {
+                metrics.incrementCounter(DiscoveryMetrics.ERRORS_METRIC, 1, "stage", "deleteStaleRows");
+                throw exception;
+            }
+            metrics.recordLatency(DiscoveryMetrics.COMMIT_LATENCY_METRIC, System.nanoTime() - deleteStartNanos,
+                                  "operation", "deleteStaleRows");
+        }
+    }
+
+    /*
+    This function writes the provided Mutations in a single commit and records its latency and the
+    number of its mutations.
+    Returns the commit timestamp.
+     */
+    private Timestamp commit(List<Mutation> mutations) {
+        long commitStartNanos = System.nanoTime();
+        Timestamp commitTime;
+        try {
+            commitTime = this.dbClient.write(mutations);
+        } catch (SpannerException exception) {
+            metrics.incrementCounter(DiscoveryMetrics.ERRORS_METRIC, 1, "stage", "commit");
+            throw exception;
+        }
+        metrics.recordLatency(DiscoveryMetrics.COMMIT_LATENCY_METRIC, System.nanoTime() - commitStartNanos,
+                              "operation", "write");
+        metrics.incrementCounter(DiscoveryMetrics.COMMITTED_MUTATIONS_METRIC, mutations.size());
+        return commitTime;
+    }
+
+    /*
+    This function returns delete Mutations for all of the rows of this project in all of the asset
+    tables that already existed before this process began to run (no need to delete from tables that
+    were just created by this process).
+     */
+    private List<Mutation> getDeleteProjectMutations() {
+        List<Mutation> deleteMutations = new ArrayList<>();
+        Key projectKey = Key.of(this.projectConfig.getWorkspaceId(), this.projectConfig.getProjectId());
+        for (String tableName : this.existingTableNames) {
+            deleteMutations.add(Mutation.delete(tableName, KeySet.range(KeyRange.closedClosed(projectKey, projectKey))));
+        }
+        return deleteMutations;
+    }
+
+    /*
+    This function splits the provided Mutations (by their original order) into batches which each
+    fit in a single commit.
+     */
+    private List<List<Mutation>> getBatches(List<Mutation> mutations) {
+        List<List<Mutation>> batches = new ArrayList<>();
+        List<Mutation> currentBatch = new ArrayList<>();
+        int batchMutationsCount = 0;
+        long batchBytesCount = 0;
+
+        for (Mutation mutation : mutations) {
+            int mutationsCount = getMutationsCount(mutation);
+            long bytesCount = getEstimatedBytes(mutation);
+            if (!currentBatch.isEmpty() && (batchMutationsCount + mutationsCount > this.maxMutationsPerCommit
+                                            || batchBytesCount + bytesCount > this.maxBytesPerCommit)) {
+                batches.add(currentBatch);
+                currentBatch = new ArrayList<>();
+                batchMutationsCount = 0;
+                batchBytesCount = 0;
+            }
+            currentBatch.add(mutation);
+            batchMutationsCount += mutationsCount;
+            batchBytesCount += bytesCount;
+        }
+
+        if (!currentBatch.isEmpty()) {
+            batches.add(currentBatch);
+        }
+        return batches;
+    }
+
+    /*
+    This function returns the number of mutations that spanner counts for the given Mutation - one
+    for a delete and one for every written column otherwise.
+     */
+    static int getMutationsCount(Mutation mutation) {
+        if (mutation.getOperation() == Mutation.Op.DELETE) {
+            return 1;
+        }
+        return Iterables.size(mutation.getColumns());
+    }
+
+    /*
+    This function returns a rough estimation of the size in bytes of the given Mutation.
+     */
+    static long getEstimatedBytes(Mutation mutation) {
+        if (mutation.getOperation() == Mutation.Op.DELETE) {
+            return mutation.getKeySet().toString().length();
+        }
+        long bytesCount = 0;
+        for (String columnName : mutation.getColumns()) {
+            bytesCount += columnName.length();
+        }
+        for (Value value : mutation.getValues()) {
+            bytesCount += getEstimatedBytes(value);
+        }
+        return bytesCount;
+    }
+
+    /*
+    This function returns a rough estimation of the size in bytes of the given column value (the
+    toString of a Value cannot be used as it truncates long strings).
+     */
+    private static long getEstimatedBytes(Value value) {
+        if (value.isNull()) {
+            return 1;
+        }
+        switch (value.getType().getCode()) {
+            case STRING:
+                return value.getString().length();
+            case BYTES:
+                return value.getBytes().length();
+            case ARRAY:
+                if (value.getType().getArrayElementType().getCode() == Type.Code.STRING) {
+                    long bytesCount = 0;
+                    for (String element : value.getStringArray()) {
+                        bytesCount += element == null ? 1 : element.length();
+                    }
+                    return bytesCount;
+                }
+                return value.toString().length();
+            default:
+                return 8;
+        }
+    }
+}
@@ -6,9 +6,12 @@ import com.google.cloud.spanner.Mutation;
 import com.google.cloud.spanner.Value;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.cloudassets.discovery.metrics.DiscoveryMetrics;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The ProjectMutationsList is in charge of converting an AssetObject list (which can be generated
@@ -17,17 +20,30 @@ import java.util.List;
  */
 public class ProjectMutationsList {
     private List<Mutation> mutations;
+    private final boolean isInsertOrUpdate;
 
     /**
-     * The constructor of the ProjectMutationsList which initialized a new Mutation list.
+     * The constructor of the ProjectMutationsList which initialized a new Mutation list of insert
+     * mutations.
      */
     public ProjectMutationsList() {
+        this(false);
+    }
+
+    /**
+     * The constructor of the ProjectMutationsList which initialized a new Mutation list.
+     * @param insertOrUpdate - if true, insertOrUpdate mutations are created instead of insert
+     *                       mutations (so that existing rows can be overwritten).
+     */
+    public ProjectMutationsList(boolean insertOrUpdate) {
         this.mutations = new ArrayList<>();
+        this.isInsertOrUpdate = insertOrUpdate;
     }
 
     /**
      * This is the main function of this class and it is in charge of converting an AssetObject list
-     * into a Mutation list.
+     * into a Mutation list. The number of the new Mutations of every table is recorded in the
+     * DiscoveryMetrics.
      * @param assetObjectList - a list of AssetObjects to be converted.
      * @return a list of Mutations of the AssetObjects as they should be inserted into the spanner
      * db tables.
@@ -42,6 +58,7 @@ public class ProjectMutationsList {
                     "could not be properly retrieved.", exception);
         }
 
+        int previousMutationsCount = this.mutations.size();
         for (AssetObject asset : assetObjectList) {
             this.mutations.add(setCommonColumnValues(tableName, asset)
                                 .set("assetId").to(asset.getId())
@@ -54,6 +71,17 @@ public class ProjectMutationsList {
             // insertion of the AssetObject as the specific tables are interleaved with MAIN_TABLE.
             addSpecificAssetMutation(asset);
         }
+
+        // The mutations are counted by their tables first, so that every counter is incremented once
+        Map<String, Integer> tablesMutationsCount = new HashMap<>();
+        for (Mutation mutation : this.mutations.subList(previousMutationsCount, this.mutations.size())) {
+            tablesMutationsCount.merge(mutation.getTable(), 1, Integer::sum);
+        }
+        DiscoveryMetrics metrics = DiscoveryMetrics.getSharedMetrics();
+        for (Map.Entry<String, Integer> tableMutationsCount : tablesMutationsCount.entrySet()) {
+            metrics.incrementCounter(DiscoveryMetrics.MUTATIONS_METRIC, tableMutationsCount.getValue(),
+                                     "table", tableMutationsCount.getKey());
+        }
         return this.mutations;
     }
 
@@ -83,7 +111,7 @@ public class ProjectMutationsList {
             case DISK_COMPUTE_ASSET:
                 DiskComputeObject diskComputeObject = (DiskComputeObject) asset;
                 this.mutations.add(setCommonColumnValues(tableName, asset)
-                                .set("diskSizeGb").to(diskComputeObject.getDiskSizeGb())
+                                .set("diskSizeGb").to(toLong(diskComputeObject.getDiskSizeGb()))
                                 .set("updatedTime").to(diskComputeObject.getUpdatedTime())
                                 .set("licenses").to(Value.stringArray(diskComputeObject.getLicenses()))
                                 .set("type").to(diskComputeObject.getType())
@@ -100,7 +128,7 @@ public class ProjectMutationsList {
                 InstanceCloudSqlObject instanceCloudSqlObject = (InstanceCloudSqlObject) asset;
                 this.mutations.add(setCommonColumnValues(tableName, asset)
                                 .set("etag").to(instanceCloudSqlObject.getEtag())
-                                .set("diskSizeGb").to(instanceCloudSqlObject.getDiskSizeGb())
+                                .set("diskSizeGb").to(toLong(instanceCloudSqlObject.getDiskSizeGb()))
                                 .set("backupEnabled").to(instanceCloudSqlObject.getBackupEnabled())
                                 .set("replicationType").to(instanceCloudSqlObject.getReplicationType())
                                 .set("activationPolicy").to(instanceCloudSqlObject.getActivationPolicy())
@@ -124,7 +152,7 @@ public class ProjectMutationsList {
                 InstanceSpannerObject instanceSpannerObject = (InstanceSpannerObject) asset;
                 this.mutations.add(setCommonColumnValues(tableName, asset)
                         .set("displayName").to(instanceSpannerObject.getDisplayName())
-                        .set("nodeCount").to(instanceSpannerObject.getNodeCount())
+                        .set("nodeCount").to(toLong(instanceSpannerObject.getNodeCount()))
                         .build());
                 break;
             case APP_APP_ENGINE_ASSET:
@@ -141,7 +169,7 @@ public class ProjectMutationsList {
             case CLUSTER_KUBERNETES_ASSET:
                 ClusterKubernetesObject clusterKubernetesObject = (ClusterKubernetesObject) asset;
                 this.mutations.add(setCommonColumnValues(tableName, asset)
-                        .set("currentNodeCount").to(clusterKubernetesObject.getCurrentNodeCount())
+                        .set("currentNodeCount").to(toLong(clusterKubernetesObject.getCurrentNodeCount()))
                         .set("loggingService").to(clusterKubernetesObject.getLoggingService())
                         .set("monitoringService").to(clusterKubernetesObject.getMonitoringService())
                         .set("statusMessage").to(clusterKubernetesObject.getStatusMessage())
@@ -156,11 +184,21 @@ public class ProjectMutationsList {
     common to all of the asset tables.
      */
     private Mutation.WriteBuilder setCommonColumnValues(String tableName, AssetObject asset) {
-        return Mutation.newInsertBuilder(tableName)
+        Mutation.WriteBuilder writeBuilder = this.isInsertOrUpdate ? Mutation.newInsertOrUpdateBuilder(tableName)
+                                                                : Mutation.newInsertBuilder(tableName);
+        return writeBuilder
                 .set("workspaceId").to(asset.getWorkspaceId())
                 .set("projectId").to(asset.getProjectId())
                 .set("kind").to(asset.getKind())
                 .set("assetName").to(asset.getName())
                 .set("rowLastUpdateTime").to(Value.COMMIT_TIMESTAMP);
     }
-}
\ No newline at end of file
+
+    /*
+    This function returns the provided Integer as a Long (the type of the INT64 columns), or null
+    if the asset property was missing or malformed.
+     */
+    private static Long toLong(Integer value) {
+        return value != null ? value.longValue() : null;
+    }
+}
@@ -0,0 +1,158 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.cloudassets.discovery.assetobjects.AssetObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * The ProjectMutationsPipeline class streams the assets of a specific project into our spanner db
+ * page by page. Pages of AssetObjects (which can be generated by the ProjectAssetsMapper
+ * streamAllAssets function) are handed to a bounded queue, from which a writer thread converts
+ * each page into insertOrUpdate Mutations and writes them. When the queue is full the fetching
+ * threads are blocked until the writer catches up, so that the memory used for a project is
+ * proportional to the page size rather than to the number of assets in the project.
+ */
+public class ProjectMutationsPipeline {
+    // The number of pages which can wait to be written (can be set with the
+    // -Ddiscovery.pipelineQueuePages system property).
+    private static final int QUEUE_CAPACITY = Integer.getInteger("discovery.pipelineQueuePages", 4);
+    // This page marks the end of the stream for the writer thread
+    private static final List<AssetObject> END_OF_STREAM = new ArrayList<>();
+
+    private final ProjectAssetsWriter projectWriter;
+    private final PageConverter pageConverter;
+    private final BlockingQueue<List<AssetObject>> pagesQueue;
+    private final Thread writerThread;
+
+    private volatile Exception writerFailure;
+    private Timestamp writeStartTime;
+
+    /**
+     * The ProjectMutationsPipeline constructor starts the writer thread of this pipeline.
+     * @param writer - the ProjectAssetsWriter of the relevant project.
+     */
+    public ProjectMutationsPipeline(ProjectAssetsWriter writer) {
+        this(writer, QUEUE_CAPACITY, pageAssets -> new ProjectMutationsList(true).getMutationList(pageAssets));
+    }
+
+    /*
+    This constructor allows to provide the capacity of the pages queue and the conversion of pages
+    into Mutations instead of the default ones (it is used by tests).
+     */
+    ProjectMutationsPipeline(ProjectAssetsWriter writer, int queueCapacity, PageConverter converter) {
+        this.projectWriter = writer;
+        this.pageConverter = converter;
+        this.pagesQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writerThread = new Thread(this::writePages, "project-mutations-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * This function hands the assets of a single page to the writer thread. If the queue of pages
+     * is full, it blocks until the writer thread takes a page from it.
+     * This function is thread safe.
+     * @param pageAssets - a list of the AssetObjects of a single page.
+     */
+    public void addPage(List<AssetObject> pageAssets) {
+        if (pageAssets.isEmpty()) {
+            return;
+        }
+        try {
+            this.pagesQueue.put(pageAssets);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the project mutations writer.",
+                                            exception);
+        }
+    }
+
+    /**
+     * This function should be called once all of the project's pages were added. It waits for the
+     * writer thread to write all of the remaining pages and then deletes the project's rows which
+     * were not rewritten by this pipeline (rows of assets that no longer exist).
+     * @throws TableInsertionException if any of the pages could not be written.
+     */
+    public void finish() throws TableInsertionException {
+        stopWriter();
+        if (this.writerFailure != null) {
+            throw new TableInsertionException("Could not write the streamed project assets.", this.writerFailure);
+        }
+
+        if (this.writeStartTime != null) {
+            this.projectWriter.deleteStaleRows(this.writeStartTime);
+        } else {
+            // No assets were discovered for this project
+            this.projectWriter.replaceProjectAssets(new ArrayList<>());
+        }
+    }
+
+    /**
+     * This function should be called instead of the finish function if the fetching of the project's
+     * assets failed. It stops the writer thread without deleting any row, as the rows of the assets
+     * which were not fetched yet are still valid.
+     */
+    public void abort() {
+        stopWriter();
+    }
+
+    /*
+    This function signals the writer thread that there are no more pages and waits for it to end.
+     */
+    private void stopWriter() {
+        try {
+            this.pagesQueue.put(END_OF_STREAM);
+            this.writerThread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            this.writerThread.interrupt();
+        }
+    }
+
+    /*
+    This function is run by the writer thread. It converts every page of assets into Mutations and
+    writes them until the end of the stream. Once a page could not be written, the following pages
+    are discarded (so that the fetching threads are not blocked) and the failure is kept in order
+    to be reported by the finish function.
+     */
+    private void writePages() {
+        try {
+            List<AssetObject> pageAssets = this.pagesQueue.take();
+            while (pageAssets != END_OF_STREAM) {
+                if (this.writerFailure == null) {
+                    writePage(pageAssets);
+                }
+                pageAssets = this.pagesQueue.take();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+    This function converts the given page of assets into Mutations and writes them.
+     */
+    private void writePage(List<AssetObject> pageAssets) {
+        try {
+            Timestamp commitTime = this.projectWriter.writeMutations(this.pageConverter.getMutationList(pageAssets));
+            if (this.writeStartTime == null) {
+                this.writeStartTime = commitTime;
+            }
+        } catch (TableInsertionException | RuntimeException exception) {
+            this.writerFailure = exception;
+        }
+    }
+
+    /*
+    This interface converts the assets of a single page into the Mutations which should be written.
+     */
+    interface PageConverter {
+        List<Mutation> getMutationList(List<AssetObject> pageAssets) throws TableInsertionException;
+    }
+}
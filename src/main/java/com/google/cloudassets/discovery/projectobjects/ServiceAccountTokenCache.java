@@ -0,0 +1,282 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.json.JsonHttpContent;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloudassets.discovery.assetobjects.TimestampParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.flogger.FluentLogger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ServiceAccountTokenCache class is a shared, thread safe cache of the access tokens of the
+ * workspaces service accounts (which are generated by impersonating them with the application
+ * default credentials). A token is reused by all of the projects of the same service account until
+ * it is close to its expiry, it is refreshed in the background before that time (as long as it is
+ * still being used), and concurrent refreshes of the same service account are coalesced into a
+ * single generateAccessToken request.
+ */
+public class ServiceAccountTokenCache {
+    private static final String GENERATE_ACCESS_TOKEN_URL = "https://iamcredentials.googleapis.com/v1/projects/-/"
+                                                            + "serviceAccounts/%s:generateAccessToken";
+    private static final String CLOUD_PLATFORM_SCOPE = "https://www.googleapis.com/auth/cloud-platform";
+    // A token is not used anymore once it expires in less than this margin, and it is refreshed in
+    // the background when it expires in less than twice this margin (can be set with the
+    // -Ddiscovery.tokenRefreshMarginSeconds system property).
+    private static final long REFRESH_MARGIN_MILLIS = TimeUnit.SECONDS.toMillis(
+            Integer.getInteger("discovery.tokenRefreshMarginSeconds", 300));
+
+    private static final ObjectMapper jsonMapper = new ObjectMapper();
+    private static final FluentLogger logger = FluentLogger.forEnclosingClass();
+    private static final ServiceAccountTokenCache sharedCache = new ServiceAccountTokenCache(null, null);
+
+    private final HttpTransport httpTransport;
+    private final Map<String, CachedToken> cachedTokens;
+    private final ScheduledExecutorService refreshExecutor;
+    private GoogleCredentials sourceCredentials;
+
+    /**
+     * The ServiceAccountTokenCache constructor initializes an empty cache.
+     * @param transport - the HttpTransport with which the tokens are generated, or null if the
+     *                  shared DiscoveryHttpTransport should be used.
+     * @param source - the credentials with which the service accounts are impersonated, or null if
+     *               the application default credentials should be used.
+     */
+    public ServiceAccountTokenCache(HttpTransport transport, GoogleCredentials source) {
+        this.httpTransport = transport;
+        this.sourceCredentials = source;
+        this.cachedTokens = new ConcurrentHashMap<>();
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread refreshThread = new Thread(runnable, "service-account-token-refresh");
+            refreshThread.setDaemon(true);
+            return refreshThread;
+        });
+    }
+
+    /**
+     * @return the ServiceAccountTokenCache which is shared by all of the projects of this process.
+     */
+    public static ServiceAccountTokenCache getSharedCache() {
+        return sharedCache;
+    }
+
+    /**
+     * This function returns GoogleCredentials of the provided service account which take their
+     * access tokens from this cache.
+     * @param serviceAccountEmail - the email of the service account to be impersonated.
+     * @return GoogleCredentials of the provided service account.
+     */
+    public GoogleCredentials getCredentials(String serviceAccountEmail) {
+        // The credentials cache the token themselves until it expires soon, so the token is considered
+        // used (and worth refreshing in the background) as soon as new credentials are created
+        this.cachedTokens.computeIfAbsent(serviceAccountEmail, CachedToken::new).isUsed = true;
+        return new CachedTokenCredentials(this, serviceAccountEmail);
+    }
+
+    /**
+     * This function returns a valid access token of the provided service account. A cached token is
+     * returned if it does not expire soon, otherwise a new token is generated (only once for all of
+     * the threads which request it at the same time).
+     * This function is thread safe.
+     * @param serviceAccountEmail - the email of the service account to be impersonated.
+     * @return an AccessToken of the provided service account.
+     * @throws IOException if a new access token could not be generated.
+     */
+    public AccessToken getAccessToken(String serviceAccountEmail) throws IOException {
+        return this.cachedTokens.computeIfAbsent(serviceAccountEmail, CachedToken::new).getAccessToken();
+    }
+
+    /*
+    This function generates a new access token of the provided service account instead of the
+    provided token, which the caller read before (it is used by tests, in order to simulate a thread
+    which reaches the refresh only after another thread has completed it).
+     */
+    AccessToken refreshAccessToken(String serviceAccountEmail, AccessToken staleToken) throws IOException {
+        return this.cachedTokens.computeIfAbsent(serviceAccountEmail, CachedToken::new).refresh(staleToken);
+    }
+
+    /*
+    The CachedToken class holds the current access token of a single service account and the
+    refresh of it which is currently in progress (if any).
+     */
+    private class CachedToken {
+        private final String serviceAccountEmail;
+        private volatile AccessToken accessToken;
+        // Whether the token was requested (or new credentials were created) since it was last refreshed
+        private volatile boolean isUsed;
+        private CompletableFuture<AccessToken> pendingRefresh;
+
+        private CachedToken(String email) {
+            this.serviceAccountEmail = email;
+        }
+
+        /*
+        This function returns the current access token if it does not expire soon, and refreshes it
+        otherwise.
+         */
+        private AccessToken getAccessToken() throws IOException {
+            this.isUsed = true;
+            AccessToken token = this.accessToken;
+            if (token != null && getMillisToExpiry(token) > REFRESH_MARGIN_MILLIS) {
+                return token;
+            }
+            return refresh(token);
+        }
+
+        /*
+        This function generates a new access token instead of the provided token (the token which
+        the caller found to be stale, or null). If another thread is already generating one, this
+        function waits for it instead of sending another request, and if another thread has already
+        replaced the provided token since the caller read it, its new token is returned.
+         */
+        private AccessToken refresh(AccessToken staleToken) throws IOException {
+            CompletableFuture<AccessToken> refresh;
+            boolean isRefreshOwner = false;
+            synchronized (this) {
+                // The refresh of another thread may have completed after the caller read the token
+                AccessToken currentToken = this.accessToken;
+                if (currentToken != staleToken && currentToken != null
+                        && getMillisToExpiry(currentToken) > REFRESH_MARGIN_MILLIS) {
+                    return currentToken;
+                }
+                if (this.pendingRefresh == null) {
+                    this.pendingRefresh = new CompletableFuture<>();
+                    isRefreshOwner = true;
+                }
+                refresh = this.pendingRefresh;
+            }
+
+            if (isRefreshOwner) {
+                try {
+                    AccessToken token = generateAccessToken(this.serviceAccountEmail);
+                    this.accessToken = token;
+                    this.isUsed = false;
+                    scheduleBackgroundRefresh(this, token);
+                    refresh.complete(token);
+                } catch (IOException | RuntimeException exception) {
+                    refresh.completeExceptionally(exception);
+                } finally {
+                    synchronized (this) {
+                        this.pendingRefresh = null;
+                    }
+                }
+            }
+
+            try {
+                return refresh.join();
+            } catch (CompletionException exception) {
+                throw new IOException("Could not generate an access token for the following service account: "
+                                        + this.serviceAccountEmail, exception.getCause());
+            }
+        }
+    }
+
+    /*
+    This function schedules a refresh of the provided token before it expires, so that requests
+    do not have to wait for it. The token is only refreshed if it was used since its last refresh,
+    so that service accounts which are not used anymore are not refreshed forever.
+     */
+    private void scheduleBackgroundRefresh(CachedToken cachedToken, AccessToken token) {
+        long refreshDelayMillis = getMillisToExpiry(token) - 2 * REFRESH_MARGIN_MILLIS;
+        if (refreshDelayMillis <= 0) {
+            // The token is too short lived to be refreshed in the background
+            return;
+        }
+        this.refreshExecutor.schedule(() -> {
+            if (!cachedToken.isUsed || cachedToken.accessToken != token) {
+                return;
+            }
+            try {
+                cachedToken.refresh(token);
+            } catch (IOException exception) {
+                logger.atInfo().withCause(exception).log("Could not refresh the access token of %s in "
+                        + "the background, it will be refreshed on its next use.", cachedToken.serviceAccountEmail);
+            }
+        }, refreshDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /*
+    This function generates a new access token for the provided service account by impersonating
+    it with the application default credentials.
+     */
+    private AccessToken generateAccessToken(String serviceAccountEmail) throws IOException {
+        String accessTokenUrl = String.format(GENERATE_ACCESS_TOKEN_URL, serviceAccountEmail);
+        HttpTransport transport = this.httpTransport != null ? this.httpTransport
+                                                             : DiscoveryHttpTransport.getSharedTransport();
+        HttpRequest request = transport.createRequestFactory(new HttpCredentialsAdapter(getSourceCredentials()))
+                .buildPostRequest(new GenericUrl(accessTokenUrl),
+                                new JsonHttpContent(new JacksonFactory(), getScopeMap()));
+
+        JsonNode jsonNode = jsonMapper.readTree(request.execute().parseAsString());
+        try {
+            return new AccessToken(jsonNode.get("accessToken").asText(),
+                    TimestampParser.parseRfc3339(jsonNode.get("expireTime").asText()).toDate());
+        } catch (NullPointerException | IllegalArgumentException exception) {
+            throw new IOException("Encountered an invalid generateAccessToken response for the following "
+                                    + "service account: " + serviceAccountEmail, exception);
+        }
+    }
+
+    /*
+    This function returns the credentials with which the service accounts are impersonated. The
+    application default credentials are only loaded once.
+     */
+    private synchronized GoogleCredentials getSourceCredentials() throws IOException {
+        if (this.sourceCredentials == null) {
+            this.sourceCredentials = GoogleCredentials.getApplicationDefault();
+        }
+        return this.sourceCredentials;
+    }
+
+    /*
+    This function creates a map of the data needed for the POST request for generating a new access
+    token (a list of the scopes we need permission for).
+     */
+    private static Map<String, List<String>> getScopeMap() {
+        Map<String, List<String>> scopeMap = new HashMap<>();
+        List<String> scopesList = new ArrayList<>();
+        scopesList.add(CLOUD_PLATFORM_SCOPE);
+        scopeMap.put("scope", scopesList);
+        return scopeMap;
+    }
+
+    private static long getMillisToExpiry(AccessToken token) {
+        return token.getExpirationTime().getTime() - System.currentTimeMillis();
+    }
+
+    /*
+    The CachedTokenCredentials class is a GoogleCredentials of a single service account, which
+    takes its access tokens from the ServiceAccountTokenCache.
+     */
+    private static class CachedTokenCredentials extends GoogleCredentials {
+        private final transient ServiceAccountTokenCache tokenCache;
+        private final String serviceAccountEmail;
+
+        private CachedTokenCredentials(ServiceAccountTokenCache cache, String email) {
+            this.tokenCache = cache;
+            this.serviceAccountEmail = email;
+        }
+
+        @Override
+        public AccessToken refreshAccessToken() throws IOException {
+            return this.tokenCache.getAccessToken(this.serviceAccountEmail);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Struct;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
+import com.google.cloudassets.discovery.assetobjects.AssetObject;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AssetChangeMapperTest {
+    private static final List<ProjectConfig> PROJECTS_LIST = Arrays.asList(
+            new ProjectConfig("workspace1", "project1", "sa1@project1.iam.gserviceaccount.com"),
+            new ProjectConfig("workspace2", "project1", "sa2@project1.iam.gserviceaccount.com"));
+
+    /*
+    This helper function returns an AssetChangeMapper of the test projects with a valid tables
+    configuration, where the name column of the common primary keys is assetName.
+     */
+    private AssetChangeMapper createChangeMapper() throws ConfigTableException {
+        List<Struct> configRows = new ArrayList<>();
+        for (Struct configRow : AssetTablesConfigTest.createValidConfigRows()) {
+            if (!configRow.getString("columnName").equals("name")) {
+                configRows.add(configRow);
+            }
+        }
+        configRows.add(AssetTablesConfigTest.createConfigRow("forAllAssets", null, false, "assetName", true, 4));
+        return new AssetChangeMapper(PROJECTS_LIST, new AssetTablesConfig(AssetTablesConfigTest.toResultSet(configRows)));
+    }
+
+    /**
+     * This function validates that a changed compute instance is converted into an AssetObject in
+     * every workspace of its project.
+     */
+    @Test
+    public void testChangedAsset() throws Exception {
+        String notificationJson = "{\"asset\": {\"name\": \"//compute.googleapis.com/projects/project1/zones/"
+                + "us-central1-a/instances/instance1\", \"assetType\": \"compute.googleapis.com/Instance\", "
+                + "\"resource\": {\"version\": \"v1\", \"location\": \"us-central1-a\", \"data\": {\"name\": "
+                + "\"instance1\", \"status\": \"RUNNING\", \"cpuPlatform\": \"Intel Haswell\"}}}, "
+                + "\"window\": {\"startTime\": \"2020-08-01T10:00:00Z\"}}";
+
+        List<AssetObject> changedAssets = createChangeMapper().getChangedAssets(
+                AssetChangeMapper.parseNotification(notificationJson));
+        assertEquals(2, changedAssets.size());
+        assertEquals("workspace1", changedAssets.get(0).getWorkspaceId());
+        assertEquals("workspace2", changedAssets.get(1).getWorkspaceId());
+        assertEquals("instance1", changedAssets.get(0).getName());
+        assertEquals(AssetKind.INSTANCE_COMPUTE_ASSET, changedAssets.get(0).getKindEnum());
+    }
+
+    /**
+     * This function validates that a deleted topic is converted into delete Mutations of its main
+     * table rows, by its name as it is returned by the topics list API.
+     */
+    @Test
+    public void testDeletedAsset() throws Exception {
+        String notificationJson = "{\"asset\": {\"name\": \"//pubsub.googleapis.com/projects/project1/topics/"
+                + "topic1\", \"assetType\": \"pubsub.googleapis.com/Topic\"}, \"deleted\": true}";
+
+        List<Mutation> mutations = createChangeMapper().getMutations(notificationJson);
+        assertEquals(Arrays.asList(
+                Mutation.delete("Main_Assets", Key.of("workspace1", "project1", "pubsub#topic",
+                                                      "projects/project1/topics/topic1")),
+                Mutation.delete("Main_Assets", Key.of("workspace2", "project1", "pubsub#topic",
+                                                      "projects/project1/topics/topic1"))), mutations);
+    }
+
+    /**
+     * This function validates that the changes of assets of inactive projects and of unsupported
+     * asset types are ignored.
+     */
+    @Test
+    public void testIgnoredChanges() throws Exception {
+        AssetChangeMapper changeMapper = createChangeMapper();
+        assertTrue(changeMapper.getMutations("{\"asset\": {\"name\": \"//pubsub.googleapis.com/projects/"
+                + "project2/topics/topic1\", \"assetType\": \"pubsub.googleapis.com/Topic\"}, \"deleted\": true}")
+                .isEmpty());
+        assertEquals(Collections.emptyList(), changeMapper.getMutations("{\"asset\": {\"name\": "
+                + "\"//dns.googleapis.com/projects/project1/managedZones/zone1\", "
+                + "\"assetType\": \"dns.googleapis.com/ManagedZone\"}, \"deleted\": true}"));
+    }
+}
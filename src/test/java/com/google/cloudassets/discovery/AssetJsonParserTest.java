@@ -2,9 +2,17 @@ package com.google.cloudassets.discovery;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloudassets.discovery.assetobjects.AssetObject;
+import com.google.cloudassets.discovery.assetobjects.DiskComputeObject;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -99,4 +107,170 @@ public class AssetJsonParserTest {
         assertEquals(true, jsonParser.getHasNextPage());
         assertEquals("testToken", jsonParser.getNextPageToken());
     }
-}
\ No newline at end of file
+
+    /**
+     * This function tests that a valid AssetJsonParser object is created from an aggregated list
+     * json containing two zones with instances and one zone without any instances.
+     */
+    @Test
+    public void testAggregatedInstanceJsonParser() {
+        String instanceProperties = "{\"kind\": \"compute#instanceAggregatedList\"," +
+                                    "\"nextPageToken\": \"testToken\"," +
+                                    "\"items\": {" +
+                                    "\"zones/us-central1-a\": {\"instances\": [" +
+                                    "{\"name\": \"test1\"}," +
+                                    "{\"name\": \"test2\", \"zone\": \"projects/p/zones/us-central1-a\"}]}," +
+                                    "\"zones/us-east1-b\": {\"warning\": {\"code\": \"NO_RESULTS_ON_PAGE\"}}," +
+                                    "\"zones/europe-west1-c\": {\"instances\": [{\"name\": \"test3\"}]}}}";
+        AssetJsonParser jsonParser = new AssetJsonParser(createJsonNode(instanceProperties),
+                                                        AssetKind.INSTANCE_COMPUTE_ASSET, true);
+        assertEquals(3, jsonParser.getAssetsList().size());
+        assertEquals("zones/us-central1-a", jsonParser.getAssetsList().get(0).get("zone"));
+        assertEquals("projects/p/zones/us-central1-a", jsonParser.getAssetsList().get(1).get("zone"));
+        assertEquals("test3", jsonParser.getAssetsList().get(2).get("name"));
+        assertEquals("zones/europe-west1-c", jsonParser.getAssetsList().get(2).get("zone"));
+        assertEquals(true, jsonParser.getHasNextPage());
+        assertEquals("testToken", jsonParser.getNextPageToken());
+    }
+
+    /*
+    This helper function parses the provided json string with the streaming AssetJsonParser
+    constructor and adds the properties of every asset it reads to the provided assetsList. If
+    there is an exception while parsing the string the test will fail.
+     */
+    private AssetJsonParser createStreamingJsonParser(String jsonString, AssetKind assetKind,
+                                                      boolean isAggregatedList,
+                                                      List<Map<String,Object>> assetsList) {
+        AssetJsonParser jsonParser = null;
+        try {
+            jsonParser = new AssetJsonParser(new ByteArrayInputStream(jsonString.getBytes(StandardCharsets.UTF_8)),
+                    assetKind, isAggregatedList, (assetParser, scopeName) ->
+                            assetsList.add(AssetJsonParser.readAssetProperties(assetParser, scopeName)));
+        } catch (IOException exception) {
+            fail("Could not parse provided Json: " + jsonString);
+        }
+        return jsonParser;
+    }
+
+    /**
+     * This function tests that the streaming AssetJsonParser reads two Bucket assets and the
+     * nextPageToken, even when the token appears after the assets list and there are other fields.
+     */
+    @Test
+    public void testStreamingBucketJsonParser() {
+        String bucketProperties = "{\"kind\":\"storage#buckets\", " +
+                                "\"items\": [{" +
+                                "\"kind\": \"storage#bucket\"," +
+                                "\"labels\": {\"items\": [1, 2]}," +
+                                "\"name\": \"test1\"}," +
+                                "{\"kind\": \"storage#bucket\"," +
+                                "\"name\": \"test2\"}]," +
+                                "\"nextPageToken\": \"testToken\"}";
+        List<Map<String,Object>> assetsList = new ArrayList<>();
+        AssetJsonParser jsonParser = createStreamingJsonParser(bucketProperties,
+                                                            AssetKind.BUCKET_STORAGE_ASSET, false, assetsList);
+        assertEquals(2, assetsList.size());
+        assertEquals("test1", assetsList.get(0).get("name"));
+        assertEquals("test2", assetsList.get(1).get("name"));
+        assertEquals(true, jsonParser.getHasNextPage());
+        assertEquals("testToken", jsonParser.getNextPageToken());
+    }
+
+    /**
+     * This function tests that the streaming AssetJsonParser reads the assets of an aggregated
+     * list json and adds their zone from the scope key.
+     */
+    @Test
+    public void testStreamingAggregatedDiskJsonParser() {
+        String diskProperties = "{\"items\": {" +
+                                "\"zones/us-east1-b\": {\"warning\": {\"code\": \"NO_RESULTS_ON_PAGE\"}}," +
+                                "\"zones/us-central1-a\": {\"disks\": [{\"name\": \"test1\"}]}}}";
+        List<Map<String,Object>> assetsList = new ArrayList<>();
+        AssetJsonParser jsonParser = createStreamingJsonParser(diskProperties,
+                                                            AssetKind.DISK_COMPUTE_ASSET, true, assetsList);
+        assertEquals(1, assetsList.size());
+        assertEquals("test1", assetsList.get(0).get("name"));
+        assertEquals("zones/us-central1-a", assetsList.get(0).get("zone"));
+        assertEquals(false, jsonParser.getHasNextPage());
+    }
+
+    /**
+     * This function tests that the streaming AssetJsonParser reads a whole AppEngine json as a
+     * single asset.
+     */
+    @Test
+    public void testStreamingAppEngineJsonParser() {
+        String appEngineProperties = "{\"name\":\"test\"}";
+        List<Map<String,Object>> assetsList = new ArrayList<>();
+        createStreamingJsonParser(appEngineProperties, AssetKind.APP_APP_ENGINE_ASSET, false, assetsList);
+        assertEquals(1, assetsList.size());
+        assertEquals("test", assetsList.get(0).get("name"));
+    }
+
+    /**
+     * This function tests that the AssetObjectsFactory binds the assets read by the streaming
+     * AssetJsonParser into typed DiskComputeObjects, skipping unknown (and nested) json fields and
+     * using the aggregated list scope as the location of a disk without a zone.
+     */
+    @Test
+    public void testStreamingTypedDiskObjects() {
+        String diskProperties = "{\"items\": {\"regions/us-east1\": {\"disks\": [{" +
+                                "\"name\": \"test1\"," +
+                                "\"labels\": {\"env\": \"test\"}," +
+                                "\"sizeGb\": \"10\"," +
+                                "\"licenses\": [\"a/b/license\"]," +
+                                "\"creationTimestamp\": \"2020-07-01T10:00:00.000-07:00\"}]}}}";
+        AssetObjectsFactory assetObjectsFactory = new AssetObjectsFactory();
+        ProjectConfig projectConfig = new ProjectConfig("workspace", "project", "serviceAccount");
+        List<AssetObject> assetsList = new ArrayList<>();
+        try {
+            new AssetJsonParser(new ByteArrayInputStream(diskProperties.getBytes(StandardCharsets.UTF_8)),
+                    AssetKind.DISK_COMPUTE_ASSET, true, (assetParser, scopeName) ->
+                            assetsList.add(assetObjectsFactory.createAssetObject(AssetKind.DISK_COMPUTE_ASSET,
+                                    assetParser, projectConfig, scopeName)));
+        } catch (IOException exception) {
+            fail("Could not parse provided Json: " + diskProperties);
+        }
+
+        assertEquals(1, assetsList.size());
+        DiskComputeObject disk = (DiskComputeObject) assetsList.get(0);
+        assertEquals("test1", disk.getName());
+        assertEquals("us-east1", disk.getLocation());
+        assertEquals(10, disk.getDiskSizeGb());
+        assertEquals("license", disk.getLicenses().get(0));
+        assertNotNull(disk.getCreationTime());
+    }
+
+    /**
+     * This function tests that a streamed asset with malformed properties is still read (where only
+     * the malformed properties are null), and that the following assets of the page are read too.
+     */
+    @Test
+    public void testStreamingMalformedDiskProperties() {
+        String diskProperties = "{\"items\": [{" +
+                                "\"name\": \"test1\"," +
+                                "\"sizeGb\": \"not a number\"," +
+                                "\"licenses\": \"not a list\"," +
+                                "\"status\": {\"nested\": [1, 2]}}," +
+                                "{\"name\": \"test2\", \"sizeGb\": 20}]}";
+        AssetObjectsFactory assetObjectsFactory = new AssetObjectsFactory();
+        ProjectConfig projectConfig = new ProjectConfig("workspace", "project", "serviceAccount");
+        List<AssetObject> assetsList = new ArrayList<>();
+        try {
+            new AssetJsonParser(new ByteArrayInputStream(diskProperties.getBytes(StandardCharsets.UTF_8)),
+                    AssetKind.DISK_COMPUTE_ASSET, false, (assetParser, scopeName) ->
+                            assetsList.add(assetObjectsFactory.createAssetObject(AssetKind.DISK_COMPUTE_ASSET,
+                                    assetParser, projectConfig, scopeName)));
+        } catch (IOException exception) {
+            fail("Could not parse provided Json: " + diskProperties);
+        }
+
+        assertEquals(2, assetsList.size());
+        DiskComputeObject malformedDisk = (DiskComputeObject) assetsList.get(0);
+        assertEquals("test1", malformedDisk.getName());
+        assertNull(malformedDisk.getDiskSizeGb());
+        assertNull(malformedDisk.getLicenses());
+        assertNull(malformedDisk.getStatus());
+        assertEquals(20, ((DiskComputeObject) assetsList.get(1)).getDiskSizeGb());
+    }
+}
@@ -1,52 +1,59 @@
 package com.google.cloudassets.discovery;
 
+import com.google.cloud.spanner.Struct;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.NoTableConfigException;
 import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TooManyTablesConfigException;
-import org.junit.jupiter.api.AfterAll;
-import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.fail;
+import java.util.List;
+
+import static com.google.cloudassets.discovery.AssetTablesConfigTest.createConfigRow;
+import static com.google.cloudassets.discovery.AssetTablesConfigTest.createValidConfigRows;
+import static com.google.cloudassets.discovery.AssetTablesConfigTest.toResultSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class AssetKindTest {
-    /*
-    This function initializes the DB variables in the Main class which are needed in order to
-    execute queries.
+    /**
+     * This function validates that the asset table of every asset kind is resolved by its kind
+     * string in the Asset_Tables_Config table.
      */
-    @BeforeAll
-    private static void initializeDb() {
-        Main.initializeDbVars();
+    @Test
+    public void testAssetTableNames() throws ConfigTableException {
+        AssetTablesConfig tablesConfig = new AssetTablesConfig(toResultSet(createValidConfigRows()));
+        for (AssetKind assetKind : AssetKind.values()) {
+            assertEquals(assetKind.name() + "_Assets", tablesConfig.getAssetTableName(assetKind));
+        }
     }
 
     /**
-     * This function validates that a TooManyTablesConfigException is thrown when a certain
-     * asset has two table names configured in the Asset_Tables_Config table.
+     * This function validates that a TooManyTablesConfigException is the cause of the failure when
+     * a certain asset has two table names configured in the Asset_Tables_Config table.
      */
     @Test
     public void testTwoAssetTables() {
-        String sqlQuery = "SELECT \"App_App_Engine_Assets\" as assetTableName, " +
-                        "\"authDomain\" as columnName, \"appengine#app\" as assetKind, " +
-                        "\"STRING(MAX)\" as columnType, False as isMainTable, False as isNotNull, " +
-                        "False as isPrimaryKey, 0 as primaryKeyIndex, True as toDisplay, False as allowCommitTimestamp " +
-                        "UNION ALL " +
-                        "SELECT \"App_App_Engine_Assets2\", \"codeBucket\", \"appengine#app\", " +
-                        "\"STRING(MAX)\", False, False, False, 0, True, False;";
-
-        try {
-            AssetKind.getTableName(sqlQuery);
-        } catch (TooManyTablesConfigException exception) {
-            return;
-        }
-        catch (NoTableConfigException exception) {
-            fail("Wrong exception was thrown. Expected: TooManyTablesConfigException, Actual: NoTableConfigException");
-        }
+        List<Struct> configRows = createValidConfigRows();
+        configRows.add(createConfigRow("App_App_Engine_Assets2", "appengine#app", false, "codeBucket", false, 0));
+
+        ConfigTableException exception = assertThrows(ConfigTableException.class,
+                () -> new AssetTablesConfig(toResultSet(configRows)));
+        assertTrue(exception.getCause() instanceof TooManyTablesConfigException);
     }
 
-    /*
-    This function closes the DB variables in the Main class.
+    /**
+     * This function validates that a NoTableConfigException is the cause of the failure when a
+     * certain asset has no table name configured in the Asset_Tables_Config table.
      */
-    @AfterAll
-    private static void closeDb() {
-        Main.closeDbVars();
+    @Test
+    public void testNoAssetTable() {
+        List<Struct> configRows = createValidConfigRows();
+        configRows.removeIf(configRow -> !configRow.isNull("assetKind")
+                && configRow.getString("assetKind").equals("appengine#app"));
+
+        ConfigTableException exception = assertThrows(ConfigTableException.class,
+                () -> new AssetTablesConfig(toResultSet(configRows)));
+        assertTrue(exception.getCause() instanceof NoTableConfigException);
     }
 }
@@ -0,0 +1,110 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AssetTablesConfigTest {
+    private static final Type CONFIG_ROW_TYPE = Type.struct(
+            StructField.of("assetTableName", Type.string()),
+            StructField.of("assetKind", Type.string()),
+            StructField.of("isMainTable", Type.bool()),
+            StructField.of("columnName", Type.string()),
+            StructField.of("columnType", Type.string()),
+            StructField.of("isNotNull", Type.bool()),
+            StructField.of("isPrimaryKey", Type.bool()),
+            StructField.of("primaryKeyIndex", Type.int64()),
+            StructField.of("allowCommitTimestamp", Type.bool()));
+
+    /*
+    This helper function returns a single row of the Asset_Tables_Config table.
+     */
+    static Struct createConfigRow(String tableName, String assetKind, boolean isMainTable, String columnName,
+                                  boolean isPrimaryKey, long primaryKeyIndex) {
+        return Struct.newBuilder()
+                .set("assetTableName").to(tableName)
+                .set("assetKind").to(assetKind)
+                .set("isMainTable").to(isMainTable)
+                .set("columnName").to(columnName)
+                .set("columnType").to("STRING(MAX)")
+                .set("isNotNull").to(isPrimaryKey)
+                .set("isPrimaryKey").to(isPrimaryKey)
+                .set("primaryKeyIndex").to(primaryKeyIndex)
+                .set("allowCommitTimestamp").to(false)
+                .build();
+    }
+
+    /*
+    This helper function returns the rows of a valid Asset_Tables_Config table, where every asset
+    kind has a single column in its own table.
+     */
+    static List<Struct> createValidConfigRows() {
+        List<Struct> configRows = new ArrayList<>();
+        configRows.add(createConfigRow("forAllAssets", null, false, "projectId", true, 2));
+        configRows.add(createConfigRow("forAllAssets", null, false, "workspaceId", true, 1));
+        configRows.add(createConfigRow("forAllAssets", null, false, "name", true, 4));
+        configRows.add(createConfigRow("forAllAssets", null, false, "kind", true, 3));
+        configRows.add(createConfigRow("Main_Assets", null, true, "location", false, 0));
+        for (AssetKind assetKind : AssetKind.values()) {
+            configRows.add(createConfigRow(assetKind.name() + "_Assets", assetKind.toString(), false,
+                                            "column", false, 0));
+        }
+        return configRows;
+    }
+
+    /*
+    This helper function returns the provided rows as the ResultSet of the Asset_Tables_Config query.
+     */
+    static ResultSet toResultSet(List<Struct> configRows) {
+        return ResultSets.forRows(CONFIG_ROW_TYPE, configRows);
+    }
+
+    /**
+     * This function validates that a valid configuration is resolved from memory: the main table,
+     * the table of every asset kind and the common primary keys by their primaryKeyIndex order.
+     */
+    @Test
+    public void testValidConfig() throws ConfigTableException {
+        AssetTablesConfig tablesConfig = new AssetTablesConfig(toResultSet(createValidConfigRows()));
+
+        assertEquals("Main_Assets", tablesConfig.getMainTableName());
+        assertEquals("DISK_COMPUTE_ASSET_Assets", tablesConfig.getAssetTableName(AssetKind.DISK_COMPUTE_ASSET));
+        assertEquals(Arrays.asList("workspaceId", "projectId", "kind", "name"), tablesConfig.getCommonPrimaryKeys());
+        assertEquals("Main_Assets", tablesConfig.getAssetTableNames().get(0));
+        assertEquals(AssetKind.values().length + 1, tablesConfig.getAssetTableNames().size());
+        assertEquals(4, tablesConfig.getCommonColumns().size());
+    }
+
+    /**
+     * This function validates that a ConfigTableException is thrown when a certain asset kind has
+     * two table names configured.
+     */
+    @Test
+    public void testTwoAssetTables() {
+        List<Struct> configRows = createValidConfigRows();
+        configRows.add(createConfigRow("Other_Assets", AssetKind.APP_APP_ENGINE_ASSET.toString(), false,
+                                        "column", false, 0));
+        assertThrows(ConfigTableException.class, () -> new AssetTablesConfig(toResultSet(configRows)));
+    }
+
+    /**
+     * This function validates that a ConfigTableException is thrown when no main table is configured.
+     */
+    @Test
+    public void testNoMainTable() {
+        List<Struct> configRows = createValidConfigRows();
+        configRows.remove(4);
+        assertThrows(ConfigTableException.class, () -> new AssetTablesConfig(toResultSet(configRows)));
+    }
+}
@@ -0,0 +1,101 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MainProjectsTest {
+    /**
+     * This function validates that the projects are ordered in a round robin between their
+     * workspaces (by the order in which the workspaces first appear), keeping the order of the
+     * projects of every workspace.
+     */
+    @Test
+    public void testFairProjectsOrder() {
+        List<ProjectConfig> projectsList = createProjects("a:1", "a:2", "a:3", "b:1", "c:1", "c:2");
+        assertEquals(Arrays.asList("a:1", "b:1", "c:1", "a:2", "c:2", "a:3"),
+                     getNames(Main.getFairProjectsOrder(projectsList)));
+        assertEquals(Collections.emptyList(), Main.getFairProjectsOrder(new ArrayList<>()));
+    }
+
+    /**
+     * This function validates that the projects are updated by their fair order.
+     */
+    @Test
+    public void testProjectsUpdateOrder() throws TableInsertionException {
+        List<ProjectConfig> projectsList = createProjects("a:1", "a:2", "b:1", "b:2");
+        List<String> updatedProjects = Collections.synchronizedList(new ArrayList<>());
+        Main.updateProjectsAssets(projectsList, 1, project -> updatedProjects.add(getName(project)));
+
+        assertEquals(Arrays.asList("a:1", "b:1", "a:2", "b:2"), updatedProjects);
+    }
+
+    /**
+     * This function validates that the projects which failed (with a TableInsertionException or with
+     * any other exception) do not stop the other projects from being updated, and that the failures
+     * are reported once all of the projects were handled.
+     */
+    @Test
+    public void testProjectFailureIsolation() {
+        List<ProjectConfig> projectsList = createProjects("a:1", "a:2", "b:1", "b:2", "c:1");
+        TableInsertionException insertionFailure = new TableInsertionException("Could not insert", null);
+        Set<String> updatedProjects = Collections.synchronizedSet(new HashSet<>());
+
+        TableInsertionException exception = assertThrows(TableInsertionException.class, () ->
+                Main.updateProjectsAssets(projectsList, 2, project -> {
+                    if (getName(project).equals("a:1")) {
+                        throw insertionFailure;
+                    } else if (getName(project).equals("b:1")) {
+                        throw new IllegalStateException("Could not fetch");
+                    }
+                    updatedProjects.add(getName(project));
+                }));
+
+        assertEquals(new HashSet<>(Arrays.asList("a:2", "b:2", "c:1")), updatedProjects);
+        assertTrue(exception.getMessage().startsWith("2 out of 5 projects could not be updated."));
+        // The first failure by the order of the projects is the cause
+        assertSame(insertionFailure, exception.getCause());
+    }
+
+    /*
+    This function creates projects from names of the form "workspaceId:projectId".
+     */
+    private static List<ProjectConfig> createProjects(String... names) {
+        List<ProjectConfig> projectsList = new ArrayList<>();
+        for (String name : names) {
+            String[] ids = name.split(":");
+            projectsList.add(new ProjectConfig(ids[0], ids[1], null));
+        }
+        return projectsList;
+    }
+
+    /*
+    This function returns the name of the provided project, of the form "workspaceId:projectId".
+     */
+    private static String getName(ProjectConfig project) {
+        return project.getWorkspaceId() + ":" + project.getProjectId();
+    }
+
+    /*
+    This function returns the names of the provided projects by their order.
+     */
+    private static List<String> getNames(List<ProjectConfig> projectsList) {
+        List<String> names = new ArrayList<>();
+        for (ProjectConfig project : projectsList) {
+            names.add(getName(project));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,141 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.Value;
+import com.google.cloudassets.discovery.RunLedger.ProjectStatus;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RunLedgerTest {
+    private static final ProjectConfig FIRST_PROJECT = new ProjectConfig("workspace", "first", null);
+    private static final ProjectConfig SECOND_PROJECT = new ProjectConfig("workspace", "second", null);
+    private static final ProjectConfig THIRD_PROJECT = new ProjectConfig("other", "third", null);
+
+    /**
+     * This function validates that when a run is restarted (with a new RunLedger of the same run
+     * ID), only the projects which were committed by the interrupted run are skipped - and not the
+     * projects which were started or failed, or which were committed by another run.
+     */
+    @Test
+    public void testCommittedProjectsSkippedOnRestart() {
+        FakeLedgerTable ledgerTable = new FakeLedgerTable();
+        RunLedger interruptedLedger = new RunLedger(ledgerTable.createClient(), "run");
+        interruptedLedger.recordStatus(FIRST_PROJECT, ProjectStatus.STARTED, null);
+        interruptedLedger.recordStatus(FIRST_PROJECT, ProjectStatus.COMMITTED, null);
+        interruptedLedger.recordStatus(SECOND_PROJECT, ProjectStatus.FAILED, null);
+        new RunLedger(ledgerTable.createClient(), "other-run").recordStatus(THIRD_PROJECT,
+                                                                            ProjectStatus.COMMITTED, null);
+
+        RunLedger resumedLedger = new RunLedger(ledgerTable.createClient(), "run");
+        assertTrue(resumedLedger.isCommitted(FIRST_PROJECT));
+        assertFalse(resumedLedger.isCommitted(SECOND_PROJECT));
+        assertFalse(resumedLedger.isCommitted(THIRD_PROJECT));
+        // The committed projects are read once, and not for every project
+        assertEquals(1, ledgerTable.queriesCount);
+    }
+
+    /**
+     * This function validates that reloading the committed projects (which is done for every
+     * claimed shard) finds the projects which were committed by other workers since the previous
+     * reload, while without a reload they are still considered as not committed.
+     */
+    @Test
+    public void testReloadForEveryClaimedShard() {
+        FakeLedgerTable ledgerTable = new FakeLedgerTable();
+        RunLedger ledger = new RunLedger(ledgerTable.createClient(), "run");
+        RunLedger crashedWorkerLedger = new RunLedger(ledgerTable.createClient(), "run");
+
+        // The first shard of this worker
+        ledger.reloadCommittedProjects();
+        assertFalse(ledger.isCommitted(SECOND_PROJECT));
+
+        // A crashed worker committed a project of a shard which is then reclaimed by this worker
+        crashedWorkerLedger.recordStatus(SECOND_PROJECT, ProjectStatus.COMMITTED, null);
+        assertFalse(ledger.isCommitted(SECOND_PROJECT));
+
+        // The reclaimed shard of this worker
+        ledger.reloadCommittedProjects();
+        assertTrue(ledger.isCommitted(SECOND_PROJECT));
+        assertFalse(ledger.isCommitted(FIRST_PROJECT));
+        assertEquals(2, ledgerTable.queriesCount);
+    }
+
+    /*
+    This class is an in memory Discovery_Run_Ledger table of all of the runs, which records the
+    written statuses and answers the committed projects query of a single run.
+     */
+    private static class FakeLedgerTable {
+        private final Map<List<String>, String> statuses = new LinkedHashMap<>();
+        private int queriesCount = 0;
+
+        /*
+        This function returns a DatabaseClient whose writes and single use reads are executed on
+        this table.
+         */
+        DatabaseClient createClient() {
+            ReadContext readContext = (ReadContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {ReadContext.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("executeQuery")) {
+                            return executeQuery((Statement) args[0]);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            return (DatabaseClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {DatabaseClient.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("write")) {
+                            for (Object mutation : (Iterable<?>) args[0]) {
+                                write((Mutation) mutation);
+                            }
+                            return Timestamp.now();
+                        } else if (method.getName().equals("singleUse")) {
+                            return readContext;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private void write(Mutation mutation) {
+            assertEquals(RunLedger.LEDGER_TABLE_NAME, mutation.getTable());
+            Map<String, Value> values = mutation.asMap();
+            this.statuses.put(Arrays.asList(values.get("runId").getString(), values.get("workspaceId").getString(),
+                                            values.get("projectId").getString()), values.get("status").getString());
+        }
+
+        private ResultSet executeQuery(Statement statement) {
+            this.queriesCount++;
+            assertTrue(statement.getSql().contains("status = '" + ProjectStatus.COMMITTED + "'"));
+            String runId = statement.getParameters().get("runId").getString();
+            List<Struct> rows = new ArrayList<>();
+            for (Map.Entry<List<String>, String> status : this.statuses.entrySet()) {
+                if (status.getKey().get(0).equals(runId) && status.getValue().equals(ProjectStatus.COMMITTED.name())) {
+                    rows.add(Struct.newBuilder()
+                            .set("workspaceId").to(status.getKey().get(1))
+                            .set("projectId").to(status.getKey().get(2))
+                            .build());
+                }
+            }
+            return ResultSets.forRows(Type.struct(StructField.of("workspaceId", Type.string()),
+                                                  StructField.of("projectId", Type.string())), rows);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.Struct;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.ConfigTableException;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableCreationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.cloudassets.discovery.AssetTablesConfigTest.createConfigRow;
+import static com.google.cloudassets.discovery.AssetTablesConfigTest.createValidConfigRows;
+import static com.google.cloudassets.discovery.AssetTablesConfigTest.toResultSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchemaPlannerTest {
+    private static final Set<String> COMMON_COLUMNS = new HashSet<>(Arrays.asList("workspaceId", "projectId",
+                                                                                  "kind", "name"));
+
+    /*
+    This helper function returns the existing columns of all of the configured tables, where every
+    table has all of its configured columns.
+     */
+    private Map<String, Set<String>> getUpToDateColumns(AssetTablesConfig tablesConfig) {
+        Map<String, Set<String>> existingColumns = new HashMap<>();
+        for (String tableName : tablesConfig.getAssetTableNames()) {
+            Set<String> tableColumns = new HashSet<>(COMMON_COLUMNS);
+            for (AssetTablesConfig.ColumnConfig column : tablesConfig.getTableColumns(tableName)) {
+                tableColumns.add(column.getColumnName());
+            }
+            existingColumns.put(tableName, tableColumns);
+        }
+        return existingColumns;
+    }
+
+    /**
+     * This function validates that when no asset table exists, a create table statement is planned
+     * for every configured table, starting with the main table.
+     */
+    @Test
+    public void testCreateAllTables() throws ConfigTableException, TableCreationException {
+        AssetTablesConfig tablesConfig = new AssetTablesConfig(toResultSet(createValidConfigRows()));
+        List<String> ddlStatements = new SchemaPlanner(tablesConfig, new HashMap<>()).getDdlStatements();
+
+        assertEquals(tablesConfig.getAssetTableNames().size(), ddlStatements.size());
+        assertTrue(ddlStatements.get(0).startsWith("CREATE TABLE Main_Assets ("));
+        assertTrue(ddlStatements.get(0).endsWith("PRIMARY KEY (workspaceId, projectId, kind, name)"));
+        assertTrue(ddlStatements.get(1).endsWith("INTERLEAVE IN PARENT Main_Assets ON DELETE CASCADE"));
+    }
+
+    /**
+     * This function validates that only an add column statement is planned for a new column of an
+     * existing table, and that nothing is planned when the schema is up to date.
+     */
+    @Test
+    public void testAddNewColumn() throws ConfigTableException, TableCreationException {
+        List<Struct> configRows = createValidConfigRows();
+        AssetTablesConfig tablesConfig = new AssetTablesConfig(toResultSet(configRows));
+        Map<String, Set<String>> existingColumns = getUpToDateColumns(tablesConfig);
+        assertEquals(0, new SchemaPlanner(tablesConfig, existingColumns).getDdlStatements().size());
+
+        configRows.add(createConfigRow("Main_Assets", null, true, "newColumn", false, 0));
+        tablesConfig = new AssetTablesConfig(toResultSet(configRows));
+        List<String> ddlStatements = new SchemaPlanner(tablesConfig, existingColumns).getDdlStatements();
+        assertEquals(Arrays.asList("ALTER TABLE Main_Assets ADD COLUMN newColumn STRING(MAX)"), ddlStatements);
+    }
+}
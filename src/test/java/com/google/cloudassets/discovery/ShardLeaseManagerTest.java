@@ -0,0 +1,219 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.spanner.TransactionRunner;
+import com.google.cloud.spanner.TransactionRunner.TransactionCallable;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.Value;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardLeaseManagerTest {
+    /**
+     * This function validates that every project is assigned to a valid shard, that the same
+     * project is always assigned to the same shard and that the projects are spread between shards.
+     */
+    @Test
+    public void testShardId() {
+        int numOfShards = 8;
+        Set<Long> usedShards = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            ProjectConfig project = new ProjectConfig("workspace", "project-" + i, "sa@project.iam.gserviceaccount.com");
+            long shardId = ShardLeaseManager.getShardId(project, numOfShards);
+            assertTrue(shardId >= 0 && shardId < numOfShards);
+            assertEquals(shardId, ShardLeaseManager.getShardId(new ProjectConfig("workspace", "project-" + i, null),
+                                                               numOfShards));
+            usedShards.add(shardId);
+        }
+        assertEquals(numOfShards, usedShards.size());
+    }
+
+    /**
+     * This function validates that every shard is claimed by a single worker, and that the run is
+     * completed only once all of its shards were completed.
+     */
+    @Test
+    public void testClaimAndCompleteShards() {
+        FakeLeasesTable leasesTable = new FakeLeasesTable();
+        ShardLeaseManager firstWorker = new ShardLeaseManager(leasesTable.createClient(), "run", 2, "first");
+        ShardLeaseManager secondWorker = new ShardLeaseManager(leasesTable.createClient(), "run", 2, "second");
+        try {
+            assertEquals(Long.valueOf(0), firstWorker.claimShard(Collections.emptySet()));
+            assertEquals(Long.valueOf(1), secondWorker.claimShard(Collections.emptySet()));
+            assertNull(firstWorker.claimShard(Collections.emptySet()));
+
+            firstWorker.completeShard(0);
+            assertFalse(firstWorker.isRunCompleted(Collections.emptySet()));
+            secondWorker.completeShard(1);
+            assertTrue(firstWorker.isRunCompleted(Collections.emptySet()));
+            assertNull(secondWorker.claimShard(Collections.emptySet()));
+        } finally {
+            firstWorker.close();
+            secondWorker.close();
+        }
+    }
+
+    /**
+     * This function validates that the shard of a crashed worker is reclaimed once its lease
+     * expired, and that the crashed worker cannot complete it anymore.
+     */
+    @Test
+    public void testReclaimExpiredShard() {
+        FakeLeasesTable leasesTable = new FakeLeasesTable();
+        ShardLeaseManager crashedWorker = new ShardLeaseManager(leasesTable.createClient(), "run", 1, "crashed");
+        ShardLeaseManager secondWorker = new ShardLeaseManager(leasesTable.createClient(), "run", 1, "second");
+        try {
+            assertEquals(Long.valueOf(0), crashedWorker.claimShard(Collections.emptySet()));
+            assertNull(secondWorker.claimShard(Collections.emptySet()));
+
+            leasesTable.currentSeconds += 3600;
+            assertEquals(Long.valueOf(0), secondWorker.claimShard(Collections.emptySet()));
+            crashedWorker.completeShard(0);
+            assertFalse(secondWorker.isRunCompleted(Collections.emptySet()));
+            secondWorker.completeShard(0);
+            assertTrue(secondWorker.isRunCompleted(Collections.emptySet()));
+        } finally {
+            crashedWorker.close();
+            secondWorker.close();
+        }
+    }
+
+    /**
+     * This function validates that a released shard is not completed, that it is reclaimed right
+     * away by another worker but not by the worker in which it failed.
+     */
+    @Test
+    public void testReleaseFailedShard() {
+        FakeLeasesTable leasesTable = new FakeLeasesTable();
+        ShardLeaseManager failedWorker = new ShardLeaseManager(leasesTable.createClient(), "run", 1, "failed");
+        ShardLeaseManager secondWorker = new ShardLeaseManager(leasesTable.createClient(), "run", 1, "second");
+        try {
+            Set<Long> failedShards = new HashSet<>();
+            assertEquals(Long.valueOf(0), failedWorker.claimShard(failedShards));
+            failedShards.add(0L);
+            failedWorker.releaseShard(0);
+
+            assertTrue(failedWorker.isRunCompleted(failedShards));
+            assertNull(failedWorker.claimShard(failedShards));
+            assertFalse(secondWorker.isRunCompleted(Collections.emptySet()));
+            assertEquals(Long.valueOf(0), secondWorker.claimShard(Collections.emptySet()));
+            secondWorker.completeShard(0);
+            assertTrue(secondWorker.isRunCompleted(Collections.emptySet()));
+        } finally {
+            failedWorker.close();
+            secondWorker.close();
+        }
+    }
+
+    /*
+    This class is an in memory Discovery_Shard_Leases table of a single run, which answers the
+    statements of the ShardLeaseManager by their SQL (with a controllable spanner server time).
+     */
+    private static class FakeLeasesTable {
+        private final Map<Long, String> owners = new TreeMap<>();
+        private final Map<Long, Long> leaseExpireSeconds = new TreeMap<>();
+        private final Set<Long> completedShards = new HashSet<>();
+        private long currentSeconds = 0;
+
+        /*
+        This function returns a DatabaseClient whose transactions and single use reads are
+        executed on this table.
+         */
+        DatabaseClient createClient() {
+            TransactionContext transaction = createProxy(TransactionContext.class, this);
+            TransactionRunner transactionRunner = (TransactionRunner) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] {TransactionRunner.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("run")) {
+                            return ((TransactionCallable<?>) args[0]).run(transaction);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            ReadContext readContext = createProxy(ReadContext.class, this);
+            return (DatabaseClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {DatabaseClient.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("readWriteTransaction")) {
+                            return transactionRunner;
+                        } else if (method.getName().equals("singleUse")) {
+                            return readContext;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private static <T> T createProxy(Class<T> contextClass, FakeLeasesTable table) {
+            return contextClass.cast(Proxy.newProxyInstance(table.getClass().getClassLoader(),
+                    new Class<?>[] {contextClass}, (proxy, method, args) -> {
+                        if (method.getName().equals("executeQuery")) {
+                            return table.executeQuery();
+                        } else if (method.getName().equals("executeUpdate")) {
+                            return table.executeUpdate((Statement) args[0]);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }));
+        }
+
+        private ResultSet executeQuery() {
+            List<Struct> rows = new ArrayList<>();
+            for (Map.Entry<Long, String> lease : this.owners.entrySet()) {
+                rows.add(Struct.newBuilder()
+                        .set("shardId").to(lease.getKey())
+                        .set("isCompleted").to(this.completedShards.contains(lease.getKey()))
+                        .set("isExpired").to(this.leaseExpireSeconds.get(lease.getKey()) <= this.currentSeconds)
+                        .build());
+            }
+            return ResultSets.forRows(Type.struct(StructField.of("shardId", Type.int64()),
+                                                  StructField.of("isCompleted", Type.bool()),
+                                                  StructField.of("isExpired", Type.bool())), rows);
+        }
+
+        private long executeUpdate(Statement statement) {
+            String sql = statement.getSql();
+            Map<String, Value> parameters = statement.getParameters();
+            long shardId = parameters.get("shardId").getInt64();
+            String ownerId = parameters.get("ownerId").getString();
+            long newExpireSeconds = parameters.containsKey("leaseSeconds")
+                    ? this.currentSeconds + parameters.get("leaseSeconds").getInt64() : this.currentSeconds;
+
+            if (sql.startsWith("INSERT")) {
+                this.owners.put(shardId, ownerId);
+                this.leaseExpireSeconds.put(shardId, newExpireSeconds);
+                return 1;
+            } else if (sql.contains("SET ownerId")) {
+                this.owners.put(shardId, ownerId);
+                this.leaseExpireSeconds.put(shardId, newExpireSeconds);
+                return 1;
+            } else if (!ownerId.equals(this.owners.get(shardId))) {
+                return 0;
+            } else if (sql.contains("SET isCompleted = true")) {
+                this.completedShards.add(shardId);
+                return 1;
+            } else if (this.completedShards.contains(shardId)) {
+                return 0;
+            }
+            // Extending or releasing the lease
+            this.leaseExpireSeconds.put(shardId, newExpireSeconds);
+            return 1;
+        }
+    }
+}
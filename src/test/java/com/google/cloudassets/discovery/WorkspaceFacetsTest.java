@@ -0,0 +1,126 @@
+package com.google.cloudassets.discovery;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.TransactionContext;
+import com.google.cloud.spanner.TransactionRunner;
+import com.google.cloud.spanner.TransactionRunner.TransactionCallable;
+import com.google.cloud.spanner.Value;
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkspaceFacetsTest {
+    private static final ProjectConfig PROJECT = new ProjectConfig("workspace", "project", null);
+
+    /**
+     * This function validates that the facets of a project are counted by every filter column of
+     * the provided main table, without the assets in which the column is null.
+     */
+    @Test
+    public void testInsertFacetsDml() {
+        String selectProject = "FROM Main_Assets WHERE workspaceId = @workspaceId AND projectId = @projectId AND ";
+        assertEquals("INSERT INTO Workspace_Facets (workspaceId, projectId, facetType, facetValue, assetsCount) "
+                + "SELECT workspaceId, projectId, 'location', location, COUNT(*) " + selectProject
+                + "location IS NOT NULL GROUP BY workspaceId, projectId, location UNION ALL "
+                + "SELECT workspaceId, projectId, 'status', status, COUNT(*) " + selectProject
+                + "status IS NOT NULL GROUP BY workspaceId, projectId, status UNION ALL "
+                + "SELECT workspaceId, projectId, 'kind', kind, COUNT(*) " + selectProject
+                + "kind IS NOT NULL GROUP BY workspaceId, projectId, kind",
+                WorkspaceFacets.getInsertFacetsDml("Main_Assets"));
+    }
+
+    /**
+     * This function validates that the old facets of a project are deleted and its current facets
+     * are inserted in a single transaction, so that the frontend never reads a project without
+     * facets (or with both its old and its current facets).
+     */
+    @Test
+    public void testRefreshInSingleTransaction() {
+        FakeTransactions transactions = new FakeTransactions();
+        new WorkspaceFacets(transactions.createClient(), "Main_Assets").refreshProjectFacets(PROJECT);
+
+        assertEquals(1, transactions.transactionsStatements.size());
+        List<Statement> statements = transactions.transactionsStatements.get(0);
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(0).getSql().startsWith("DELETE FROM Workspace_Facets "));
+        assertEquals(WorkspaceFacets.getInsertFacetsDml("Main_Assets"), statements.get(1).getSql());
+        for (Statement statement : statements) {
+            assertEquals(Value.string(PROJECT.getWorkspaceId()), statement.getParameters().get("workspaceId"));
+            assertEquals(Value.string(PROJECT.getProjectId()), statement.getParameters().get("projectId"));
+        }
+    }
+
+    /**
+     * This function validates that when the facets could not be refreshed, the failure is not
+     * thrown (as the assets of the project were already updated) and the delete is not committed
+     * without the insert.
+     */
+    @Test
+    public void testFailedRefresh() {
+        FakeTransactions transactions = new FakeTransactions();
+        transactions.failInsert = true;
+        new WorkspaceFacets(transactions.createClient(), "Main_Assets").refreshProjectFacets(PROJECT);
+
+        assertEquals(1, transactions.transactionsStatements.size());
+        assertTrue(transactions.committedStatements.isEmpty());
+    }
+
+    /*
+    This class records the statements of every read write transaction of a DatabaseClient, and the
+    statements of the transactions which were committed (which did not throw). Its insert
+    statements can fail.
+     */
+    private static class FakeTransactions {
+        private final List<List<Statement>> transactionsStatements = new ArrayList<>();
+        private final List<Statement> committedStatements = new ArrayList<>();
+        private boolean failInsert;
+
+        DatabaseClient createClient() {
+            return (DatabaseClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {DatabaseClient.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("readWriteTransaction")) {
+                            return createTransactionRunner();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private TransactionRunner createTransactionRunner() {
+            return (TransactionRunner) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {TransactionRunner.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("run")) {
+                            List<Statement> statements = new ArrayList<>();
+                            this.transactionsStatements.add(statements);
+                            Object result = ((TransactionCallable<?>) args[0]).run(createTransaction(statements));
+                            this.committedStatements.addAll(statements);
+                            return result;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private TransactionContext createTransaction(List<Statement> statements) {
+            return (TransactionContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {TransactionContext.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("executeUpdate")) {
+                            Statement statement = (Statement) args[0];
+                            statements.add(statement);
+                            if (this.failInsert && statement.getSql().startsWith("INSERT")) {
+                                throw SpannerExceptionFactory.newSpannerException(ErrorCode.INTERNAL, "Insert failed");
+                            }
+                            return 1L;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
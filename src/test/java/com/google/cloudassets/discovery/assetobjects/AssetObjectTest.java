@@ -1,9 +1,13 @@
 package com.google.cloudassets.discovery.assetobjects;
 
+import com.google.cloudassets.discovery.projectobjects.ProjectConfig;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -104,35 +108,6 @@ public class AssetObjectTest {
         assertNull(AssetObject.convertStringToDate("2020-02-02"));
     }
 
-    /**
-     * This function validates that the convertStringToInt function in the AssetObject class
-     * returns null (invalid value returned due to an exception being encountered) when provided
-     * a Boolean value that can't be converted into String with regular casting.
-     */
-    @Test
-    public void testConvertStringToIntBoolean() {
-        assertNull(AssetObject.convertStringToInt(true));
-    }
-
-    /**
-     * This function validates that the convertStringToInt function in the AssetObject class
-     * returns null (invalid value returned due to an exception being encountered) when provided
-     * a String value that can't be converted into an int.
-     */
-    @Test
-    public void testConvertStringToIntString() {
-        assertNull(AssetObject.convertStringToInt("not a number"));
-    }
-
-    /**
-     * This function validates that the convertStringToInt function returns the right value when
-     * called with a valid argument.
-     */
-    @Test
-    public void testConvertStringToIntValid() {
-        assertEquals(24, AssetObject.convertStringToInt("24"));
-    }
-
     /**
      * This function validates that the convertObjectToString function in the AssetObject class
      * returns null (invalid value returned due to an exception being encountered) when provided
@@ -162,4 +137,24 @@ public class AssetObjectTest {
     public void testCastToMapString() {
         assertNull(AssetObject.castToMap("invalid"));
     }
+
+    /**
+     * This function validates that an asset which is built from a map with malformed properties is
+     * still built, where only the malformed properties are null.
+     */
+    @Test
+    public void testBuildWithMalformedProperties() {
+        Map<String, Object> assetProperties = new HashMap<>();
+        assetProperties.put("name", "disk");
+        assetProperties.put("sizeGb", "not a number");
+        assetProperties.put("licenses", "not a list");
+        assetProperties.put("status", Collections.singletonMap("not", "a string"));
+        DiskComputeObject disk = new DiskComputeObject.Builder(assetProperties,
+                new ProjectConfig("workspace", "project", null)).build();
+
+        assertEquals("disk", disk.getName());
+        assertNull(disk.getDiskSizeGb());
+        assertNull(disk.getLicenses());
+        assertNull(disk.getStatus());
+    }
 }
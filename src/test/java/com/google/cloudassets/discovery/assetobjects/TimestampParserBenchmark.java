@@ -0,0 +1,89 @@
+package com.google.cloudassets.discovery.assetobjects;
+
+import com.google.cloud.Timestamp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TimestampParserBenchmark class compares the TimestampParser with the SimpleDateFormat based
+ * parsing which was previously used by the AssetObject class, on a corpus of creation & update
+ * timestamps in the formats which are returned by our supported asset REST APIs.
+ * It can be run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.google.cloudassets.discovery.assetobjects.TimestampParserBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampParserBenchmark {
+    private static final int CORPUS_SIZE = 1024;
+    // Compute (local offset with milliseconds), Storage & Cloud SQL (UTC with milliseconds),
+    // Kubernetes (UTC offset without fraction) and IAM (UTC with nanoseconds) timestamp formats
+    private static final DateTimeFormatter[] API_FORMATS = {
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx").withZone(ZoneOffset.ofHours(-7)),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx").withZone(ZoneOffset.UTC),
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSSSS'Z'").withZone(ZoneOffset.UTC)};
+
+    private String[] corpus;
+    // The previous parsing path shared a single SimpleDateFormat (which is only valid with a
+    // single thread, as this benchmark state is)
+    private SimpleDateFormat simpleDateFormat;
+
+    @Setup(Level.Trial)
+    public void createCorpus() {
+        Random random = new Random(CORPUS_SIZE);
+        long corpusStart = Instant.parse("2015-01-01T00:00:00Z").getEpochSecond();
+        long corpusEnd = Instant.parse("2021-01-01T00:00:00Z").getEpochSecond();
+
+        this.corpus = new String[CORPUS_SIZE];
+        for (int index = 0; index < CORPUS_SIZE; index++) {
+            long epochSeconds = corpusStart + (long) (random.nextDouble() * (corpusEnd - corpusStart));
+            Instant instant = Instant.ofEpochSecond(epochSeconds, random.nextInt(1000000000));
+            this.corpus[index] = API_FORMATS[index % API_FORMATS.length].format(instant);
+        }
+        this.simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+    }
+
+    @Benchmark
+    public void simpleDateFormat(Blackhole blackhole) throws ParseException {
+        for (String dateString : this.corpus) {
+            blackhole.consume(Timestamp.of(this.simpleDateFormat.parse(dateString)));
+        }
+    }
+
+    @Benchmark
+    public void timestampParser(Blackhole blackhole) {
+        for (String dateString : this.corpus) {
+            blackhole.consume(TimestampParser.parseRfc3339(dateString));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TimestampParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}
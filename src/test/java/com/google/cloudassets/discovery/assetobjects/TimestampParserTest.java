@@ -0,0 +1,70 @@
+package com.google.cloudassets.discovery.assetobjects;
+
+import com.google.cloud.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TimestampParserTest {
+    /*
+    This helper function returns the Timestamp of the provided RFC3339 string as parsed by java.time
+    (which is used as the reference implementation for these tests).
+     */
+    private Timestamp getExpectedTimestamp(String dateString) {
+        Instant instant = OffsetDateTime.parse(dateString).toInstant();
+        return Timestamp.ofTimeSecondsAndNanos(instant.getEpochSecond(), instant.getNano());
+    }
+
+    /**
+     * This function validates that the parseRfc3339 function keeps the sub-second and timezone
+     * offset parts of the timestamps in the formats returned by our supported asset REST APIs.
+     */
+    @Test
+    public void testParseRfc3339WithOffsets() {
+        String[] dateStrings = {"2020-07-01T10:21:45.123-07:00", "2020-07-01T17:21:45.123Z",
+                                "2020-07-01T17:21:45+00:00", "2016-02-29T23:59:59.999999999+05:30",
+                                "1969-12-31T23:59:59.5Z", "2000-03-01T00:00:00Z"};
+        for (String dateString : dateStrings) {
+            assertEquals(getExpectedTimestamp(dateString), TimestampParser.parseRfc3339(dateString));
+        }
+    }
+
+    /**
+     * This function validates that the parseRfc3339 function considers a timestamp without an
+     * offset to be in UTC, and ignores fraction digits beyond nanoseconds precision.
+     */
+    @Test
+    public void testParseRfc3339WithoutOffset() {
+        assertEquals(getExpectedTimestamp("2020-07-01T17:21:45Z"),
+                     TimestampParser.parseRfc3339("2020-07-01T17:21:45"));
+        assertEquals(getExpectedTimestamp("2020-07-01T17:21:45.123456789Z"),
+                     TimestampParser.parseRfc3339("2020-07-01T17:21:45.1234567891Z"));
+    }
+
+    /**
+     * This function validates that the parseRfc3339 function throws an IllegalArgumentException
+     * when provided strings which are not valid RFC3339 timestamps.
+     */
+    @Test
+    public void testParseRfc3339Invalid() {
+        String[] dateStrings = {"", "2020-07-01", "2020-07-01T17:21", "2020/07/01T17:21:45Z",
+                                "2020-02-30T17:21:45Z", "2020-07-01T24:00:00Z", "2020-07-01T17:21:45.Z",
+                                "2020-07-01T17:21:45+0700", "2020-07-01T17:21:45Zabc"};
+        for (String dateString : dateStrings) {
+            assertThrows(IllegalArgumentException.class, () -> TimestampParser.parseRfc3339(dateString));
+        }
+    }
+
+    /**
+     * This function validates that the convertStringToDate function in the AssetObject class
+     * returns null when provided an invalid date string.
+     */
+    @Test
+    public void testConvertStringToDateInvalid() {
+        assertEquals(null, AssetObject.convertStringToDate("not a date"));
+    }
+}
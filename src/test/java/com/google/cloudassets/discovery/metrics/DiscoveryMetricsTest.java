@@ -0,0 +1,145 @@
+package com.google.cloudassets.discovery.metrics;
+
+import com.google.cloudassets.discovery.metrics.JsonSummaryExporter.CounterSummary;
+import com.google.cloudassets.discovery.metrics.JsonSummaryExporter.MetricsSummary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiscoveryMetricsTest {
+    /*
+    This helper function returns metrics of two pages of pubsub topics and a single commit.
+     */
+    private DiscoveryMetrics createMetrics() {
+        DiscoveryMetrics metrics = new DiscoveryMetrics(false);
+        metrics.incrementCounter(DiscoveryMetrics.ASSETS_PARSED_METRIC, 30, "kind", "pubsub#topic");
+        metrics.incrementCounter(DiscoveryMetrics.ASSETS_PARSED_METRIC, 10, "kind", "pubsub#topic");
+        metrics.recordLatency(DiscoveryMetrics.PAGE_LATENCY_METRIC, TimeUnit.MILLISECONDS.toNanos(40),
+                              "host", "pubsub.googleapis.com", "kind", "pubsub#topic");
+        metrics.recordLatency(DiscoveryMetrics.PAGE_LATENCY_METRIC, TimeUnit.SECONDS.toNanos(2),
+                              "kind", "pubsub#topic", "host", "pubsub.googleapis.com");
+        metrics.incrementCounter(DiscoveryMetrics.COMMITTED_MUTATIONS_METRIC, 80);
+        return metrics;
+    }
+
+    /**
+     * This function validates that the latencies are counted in their buckets and that the
+     * percentiles are estimated by the upper bounds of the buckets (which are finite).
+     */
+    @Test
+    public void testLatencyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.SECONDS.toNanos(100));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(90 * 0.02 + 10 * 100, histogram.getSumSeconds(), 0.0001);
+        assertEquals(0.025, histogram.getPercentileSeconds(50));
+        assertEquals(0.025, histogram.getPercentileSeconds(90));
+        // The percentiles in the last bucket are capped at the upper bound of the bucket before it
+        assertEquals(60, histogram.getPercentileSeconds(95));
+        assertEquals(60, histogram.getPercentileSeconds(100));
+        assertEquals(0, new LatencyHistogram().getPercentileSeconds(50));
+    }
+
+    /**
+     * This function validates that the metrics are formatted in the Prometheus text format, where
+     * metrics with the same labels (in any order) are a single metric.
+     */
+    @Test
+    public void testPrometheusFormat() {
+        String metricsText = PrometheusExporter.format(createMetrics());
+
+        assertTrue(metricsText.contains("# TYPE discovery_assets_parsed_total counter\n"
+                + "discovery_assets_parsed_total{kind=\"pubsub#topic\"} 40\n"));
+        assertTrue(metricsText.contains("discovery_committed_mutations_total 80\n"));
+        assertTrue(metricsText.contains("# TYPE discovery_page_latency_seconds histogram\n"));
+        assertTrue(metricsText.contains("discovery_page_latency_seconds_bucket{host=\"pubsub.googleapis.com\","
+                + "kind=\"pubsub#topic\",le=\"0.05\"} 1\n"));
+        assertTrue(metricsText.contains("discovery_page_latency_seconds_bucket{host=\"pubsub.googleapis.com\","
+                + "kind=\"pubsub#topic\",le=\"+Inf\"} 2\n"));
+        assertTrue(metricsText.contains("discovery_page_latency_seconds_count{host=\"pubsub.googleapis.com\","
+                + "kind=\"pubsub#topic\"} 2\n"));
+    }
+
+    /**
+     * This function validates that all of the samples of a metric are written together, even when
+     * they were recorded in between the samples of other metrics.
+     */
+    @Test
+    public void testPrometheusMetricsGrouped() {
+        DiscoveryMetrics metrics = new DiscoveryMetrics(false);
+        for (int i = 0; i < 20; i++) {
+            metrics.incrementCounter(DiscoveryMetrics.MUTATIONS_METRIC, 1, "table", "Table_" + i);
+            metrics.incrementCounter(DiscoveryMetrics.ERRORS_METRIC, 1, "stage", "stage_" + i);
+        }
+        String metricsText = PrometheusExporter.format(metrics);
+
+        List<String> metricNames = new ArrayList<>();
+        for (String sampleLine : metricsText.split("\n")) {
+            if (!sampleLine.startsWith("#")) {
+                String metricName = sampleLine.split("[{ ]")[0];
+                if (metricNames.isEmpty() || !metricNames.get(metricNames.size() - 1).equals(metricName)) {
+                    metricNames.add(metricName);
+                }
+            }
+        }
+        assertEquals(2, metricNames.size());
+    }
+
+    /**
+     * This function validates that the json summary contains the counters, the latency percentiles
+     * and the rate in which the assets were parsed.
+     */
+    @Test
+    public void testJsonSummary() {
+        DiscoveryMetrics metrics = createMetrics();
+        MetricsSummary summary = JsonSummaryExporter.createSummary(metrics, metrics.getRunStartMillis() + 4000);
+
+        assertEquals(4, summary.runSeconds, 0.0001);
+        assertEquals(10, summary.assetsPerSecond, 0.0001);
+        assertEquals(2, summary.counters.size());
+        for (CounterSummary counter : summary.counters) {
+            if (counter.name.equals(DiscoveryMetrics.ASSETS_PARSED_METRIC)) {
+                assertEquals(40, counter.value);
+                assertEquals("pubsub#topic", counter.labels.get("kind"));
+            }
+        }
+        assertEquals(1, summary.latencies.size());
+        assertEquals(0.05, summary.latencies.get(0).p50Seconds);
+        assertEquals(2.5, summary.latencies.get(0).p99Seconds);
+        assertTrue(summary.projectSpans.isEmpty());
+    }
+
+    /**
+     * This function validates that the percentiles of a latency which falls in the last bucket are
+     * written into the json summary file as numbers.
+     */
+    @Test
+    public void testJsonSummaryFileSlowLatency(@TempDir Path tempDir) throws IOException {
+        DiscoveryMetrics metrics = new DiscoveryMetrics(false);
+        metrics.recordLatency(DiscoveryMetrics.PROJECT_LATENCY_METRIC, TimeUnit.MINUTES.toNanos(10));
+        Path summaryFile = tempDir.resolve("summary.json");
+        new JsonSummaryExporter(summaryFile).finish(metrics);
+
+        JsonNode latencySummary = new ObjectMapper().readTree(summaryFile.toFile()).get("latencies").get(0);
+        for (String percentileField : new String[] {"p50Seconds", "p95Seconds", "p99Seconds"}) {
+            assertTrue(latencySummary.get(percentileField).isNumber());
+            assertEquals(60, latencySummary.get(percentileField).asDouble());
+        }
+    }
+}
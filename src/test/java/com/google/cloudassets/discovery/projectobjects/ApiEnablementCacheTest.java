@@ -0,0 +1,86 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApiEnablementCacheTest {
+    private static final long TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * This function validates that the enabled API states are persisted into the cache file and
+     * loaded by the next run, and that disabled services and services of an unknown project are not
+     * cached as enabled.
+     */
+    @Test
+    public void testPersistedStates(@TempDir Path tempDir) {
+        Path cacheFile = tempDir.resolve("api-cache.json");
+        ApiEnablementCache apiCache = new ApiEnablementCache(cacheFile, TTL_MILLIS);
+        apiCache.putApiState("project1", "compute.googleapis.com", true);
+        apiCache.putApiState("project1", "spanner.googleapis.com", false);
+        apiCache.save();
+
+        ApiEnablementCache nextRunCache = new ApiEnablementCache(cacheFile, TTL_MILLIS);
+        assertTrue(nextRunCache.isCachedAsEnabled("project1", "compute.googleapis.com"));
+        assertFalse(nextRunCache.isCachedAsEnabled("project1", "spanner.googleapis.com"));
+        assertFalse(nextRunCache.isCachedAsEnabled("project2", "compute.googleapis.com"));
+        assertFalse(nextRunCache.isCachedAsEnabled("project1", "pubsub.googleapis.com"));
+    }
+
+    /**
+     * This function validates that a state which is older than the TTL is not returned.
+     */
+    @Test
+    public void testExpiredState() {
+        ApiEnablementCache apiCache = new ApiEnablementCache(null, -1);
+        apiCache.putApiState("project1", "compute.googleapis.com", true);
+        assertFalse(apiCache.isCachedAsEnabled("project1", "compute.googleapis.com"));
+    }
+
+    /**
+     * This function validates that an invalidated or disabled service is checked again (also by the
+     * next run), and that disabled states which were persisted by earlier versions are ignored.
+     */
+    @Test
+    public void testInvalidatedAndDisabledStates(@TempDir Path tempDir) throws Exception {
+        Path cacheFile = tempDir.resolve("api-cache.json");
+        ApiEnablementCache apiCache = new ApiEnablementCache(cacheFile, TTL_MILLIS);
+        apiCache.putApiState("project1", "compute.googleapis.com", true);
+        apiCache.putApiState("project1", "spanner.googleapis.com", true);
+        apiCache.save();
+
+        apiCache.invalidateApiState("project1", "compute.googleapis.com");
+        apiCache.putApiState("project1", "spanner.googleapis.com", false);
+        assertFalse(apiCache.isCachedAsEnabled("project1", "compute.googleapis.com"));
+        assertFalse(apiCache.isCachedAsEnabled("project1", "spanner.googleapis.com"));
+        apiCache.save();
+        assertFalse(new ApiEnablementCache(cacheFile, TTL_MILLIS).isCachedAsEnabled("project1",
+                                                                                      "compute.googleapis.com"));
+
+        Files.write(cacheFile, ("{\"project1/pubsub.googleapis.com\":{\"isEnabled\":false,\"checkTimeMillis\":"
+                                + System.currentTimeMillis() + "}}").getBytes("UTF-8"));
+        assertFalse(new ApiEnablementCache(cacheFile, TTL_MILLIS).isCachedAsEnabled("project1",
+                                                                                      "pubsub.googleapis.com"));
+    }
+
+    /**
+     * This function validates that the cache file is not written when no state was changed, and
+     * that a corrupted cache file is ignored.
+     */
+    @Test
+    public void testUnchangedAndCorruptedFile(@TempDir Path tempDir) throws Exception {
+        Path cacheFile = tempDir.resolve("api-cache.json");
+        new ApiEnablementCache(cacheFile, TTL_MILLIS).save();
+        assertFalse(Files.exists(cacheFile));
+
+        Files.write(cacheFile, "{not json".getBytes("UTF-8"));
+        ApiEnablementCache apiCache = new ApiEnablementCache(cacheFile, TTL_MILLIS);
+        assertFalse(apiCache.isCachedAsEnabled("project1", "compute.googleapis.com"));
+    }
+}
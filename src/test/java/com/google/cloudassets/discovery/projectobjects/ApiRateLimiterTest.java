@@ -0,0 +1,37 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ApiRateLimiterTest {
+    /**
+     * This function validates that the rate is halved once on a burst of throttled requests, and
+     * that it then grows back up to the maximal rate while the requests succeed.
+     */
+    @Test
+    public void testAdaptiveRate() {
+        ApiRateLimiter rateLimiter = new ApiRateLimiter(1, 8);
+        rateLimiter.onThrottled();
+        rateLimiter.onThrottled();
+        assertEquals(4, rateLimiter.getCurrentRate());
+
+        rateLimiter.onSuccess();
+        assertTrue(rateLimiter.getCurrentRate() > 4);
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertEquals(8, rateLimiter.getCurrentRate());
+    }
+
+    /**
+     * This function validates that the rate is never decreased below the minimal rate.
+     */
+    @Test
+    public void testMinimalRate() {
+        ApiRateLimiter rateLimiter = new ApiRateLimiter(3, 4);
+        rateLimiter.onThrottled();
+        assertEquals(3, rateLimiter.getCurrentRate());
+    }
+}
@@ -0,0 +1,75 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiscoveryRequestInitializerTest {
+    /*
+    This helper function returns a request factory of a MockHttpTransport which answers the requests
+    with the provided status codes by their order, and counts the requests. The backoff between the
+    retries is skipped.
+     */
+    private HttpRequestFactory createRequestFactory(AtomicInteger requestsCount, String projectId,
+                                                    Integer... statusCodes) {
+        Iterator<Integer> statusCodesIterator = Arrays.asList(statusCodes).iterator();
+        MockHttpTransport transport = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest() {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        requestsCount.incrementAndGet();
+                        return new MockLowLevelHttpResponse().setStatusCode(statusCodesIterator.next())
+                                                             .setContent("{}");
+                    }
+                };
+            }
+        };
+        return transport.createRequestFactory(new DiscoveryRequestInitializer(null, projectId, millis -> {}));
+    }
+
+    /**
+     * This function validates that transient errors are retried until the request succeeds, and
+     * that a 429 response decreases the rate of the host & project rate limiter.
+     */
+    @Test
+    public void testTransientErrorsRetried() throws Exception {
+        AtomicInteger requestsCount = new AtomicInteger();
+        HttpRequestFactory requestFactory = createRequestFactory(requestsCount, "retried-project", 503, 429, 200);
+
+        int statusCode = requestFactory.buildGetRequest(new GenericUrl("https://compute.googleapis.com/zones"))
+                                       .execute().getStatusCode();
+        assertEquals(200, statusCode);
+        assertEquals(3, requestsCount.get());
+        assertTrue(ApiRateLimiter.getSharedLimiter("compute.googleapis.com", "retried-project").getCurrentRate()
+                    < ApiRateLimiter.getSharedLimiter("compute.googleapis.com", "other-project").getCurrentRate());
+    }
+
+    /**
+     * This function validates that a non transient error is not retried and is thrown.
+     */
+    @Test
+    public void testNonTransientErrorThrown() {
+        AtomicInteger requestsCount = new AtomicInteger();
+        HttpRequestFactory requestFactory = createRequestFactory(requestsCount, "failed-project", 404, 200);
+
+        assertThrows(HttpResponseException.class, () -> requestFactory.buildGetRequest(
+                new GenericUrl("https://compute.googleapis.com/zones")).execute());
+        assertEquals(1, requestsCount.get());
+    }
+}
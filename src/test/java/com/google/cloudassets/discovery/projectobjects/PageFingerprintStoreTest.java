@@ -0,0 +1,64 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloudassets.discovery.projectobjects.PageFingerprintStore.PageFingerprint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PageFingerprintStoreTest {
+    private static final long TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final String PAGE_KEY = "workspace1 https://pubsub.googleapis.com/v1/projects/project1/topics";
+
+    /*
+    This helper function returns a map of a single page fingerprint with a single asset.
+     */
+    private Map<String, PageFingerprint> createFingerprints() {
+        PageFingerprint fingerprint = new PageFingerprint();
+        fingerprint.etag = "etag1";
+        fingerprint.contentHash = "hash1";
+        fingerprint.nextPageToken = "token1";
+        fingerprint.assetKeys = Collections.singletonList(Arrays.asList("pubsub#topic", "projects/project1/topics/t"));
+
+        Map<String, PageFingerprint> fingerprints = new HashMap<>();
+        fingerprints.put(PAGE_KEY, fingerprint);
+        return fingerprints;
+    }
+
+    /**
+     * This function validates that the stored fingerprints are persisted into the fingerprint file
+     * and loaded by the next run.
+     */
+    @Test
+    public void testPersistedFingerprints(@TempDir Path tempDir) {
+        Path fingerprintFile = tempDir.resolve("page-fingerprints.json");
+        PageFingerprintStore fingerprintStore = new PageFingerprintStore(fingerprintFile, TTL_MILLIS);
+        fingerprintStore.putFingerprints(createFingerprints());
+        fingerprintStore.save();
+
+        PageFingerprint fingerprint = new PageFingerprintStore(fingerprintFile, TTL_MILLIS).getFingerprint(PAGE_KEY);
+        assertEquals("etag1", fingerprint.etag);
+        assertEquals("hash1", fingerprint.contentHash);
+        assertEquals("token1", fingerprint.nextPageToken);
+        assertEquals(createFingerprints().get(PAGE_KEY).assetKeys, fingerprint.assetKeys);
+    }
+
+    /**
+     * This function validates that an expired fingerprint is not returned, so that its page is
+     * parsed again.
+     */
+    @Test
+    public void testExpiredFingerprint() {
+        PageFingerprintStore fingerprintStore = new PageFingerprintStore(null, -1);
+        fingerprintStore.putFingerprints(createFingerprints());
+        assertNull(fingerprintStore.getFingerprint(PAGE_KEY));
+    }
+}
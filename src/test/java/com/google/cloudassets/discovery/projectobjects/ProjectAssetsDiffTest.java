@@ -0,0 +1,160 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Key;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.ReadContext;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.Value;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProjectAssetsDiffTest {
+    private static final String TABLE_NAME = "Main_Assets";
+    private static final ProjectConfig PROJECT = new ProjectConfig("workspace", "project", null);
+    private static final List<String> PRIMARY_KEYS = Arrays.asList("workspaceId", "projectId", "kind", "assetName");
+
+    /**
+     * This function validates that the rows of unchanged assets are not written again, that new and
+     * changed rows are upserted (in their original order) and that the rows of assets which were not
+     * discovered anymore are deleted.
+     */
+    @Test
+    public void testDeltaMutations() {
+        List<Struct> existingRows = Arrays.asList(createRow("unchanged", "us"), createRow("changed", "us"),
+                                                  createRow("vanished", "us"));
+        Mutation changedMutation = createMutation("changed", "eu");
+        Mutation newMutation = createMutation("new", "us");
+        List<Mutation> upsertMutations = Arrays.asList(createMutation("unchanged", "us"), changedMutation,
+                                                       newMutation);
+
+        ProjectAssetsDiff projectDiff = new ProjectAssetsDiff(createClient(existingRows), PROJECT,
+                                                              Collections.singletonList(TABLE_NAME), PRIMARY_KEYS);
+        List<Mutation> deltaMutations = projectDiff.getDeltaMutations(upsertMutations);
+
+        assertEquals(Arrays.asList(Mutation.delete(TABLE_NAME, Key.of("workspace", "project", "vm", "vanished")),
+                                   changedMutation, newMutation), deltaMutations);
+    }
+
+    /**
+     * This function validates that the rows of the provided unchanged assets are kept, even though
+     * they have no Mutations.
+     */
+    @Test
+    public void testUnchangedAssetKeysKept() {
+        List<Struct> existingRows = Arrays.asList(createRow("unchanged", "us"), createRow("vanished", "us"));
+        Set<List<String>> unchangedAssetKeys = new HashSet<>();
+        unchangedAssetKeys.add(Arrays.asList("vm", "unchanged"));
+
+        ProjectAssetsDiff projectDiff = new ProjectAssetsDiff(createClient(existingRows), PROJECT,
+                                                              Collections.singletonList(TABLE_NAME), PRIMARY_KEYS);
+        List<Mutation> deltaMutations = projectDiff.getDeltaMutations(Collections.emptyList(), unchangedAssetKeys);
+
+        assertEquals(Collections.singletonList(
+                Mutation.delete(TABLE_NAME, Key.of("workspace", "project", "vm", "vanished"))), deltaMutations);
+    }
+
+    /**
+     * This function validates that primary key columns which are not strings are compared and
+     * deleted by their own type.
+     */
+    @Test
+    public void testNonStringPrimaryKey() {
+        List<String> primaryKeys = Arrays.asList("shardId", "assetName");
+        Struct unchangedRow = Struct.newBuilder().set("shardId").to(1L).set("assetName").to("unchanged").build();
+        Struct vanishedRow = Struct.newBuilder().set("shardId").to(2L).set("assetName").to("vanished").build();
+        Mutation unchangedMutation = Mutation.newInsertOrUpdateBuilder(TABLE_NAME)
+                .set("shardId").to(1L)
+                .set("assetName").to("unchanged")
+                .build();
+
+        ProjectAssetsDiff projectDiff = new ProjectAssetsDiff(createClient(Arrays.asList(unchangedRow, vanishedRow)),
+                                                              PROJECT, Collections.singletonList(TABLE_NAME),
+                                                              primaryKeys);
+        List<Mutation> deltaMutations = projectDiff.getDeltaMutations(Collections.singletonList(unchangedMutation));
+
+        assertEquals(Collections.singletonList(Mutation.delete(TABLE_NAME, Key.of(2L, "vanished"))), deltaMutations);
+    }
+
+    /**
+     * This function validates that tables which did not exist before the run are not read, so all
+     * of their Mutations are written.
+     */
+    @Test
+    public void testNewTable() {
+        List<Mutation> upsertMutations = Collections.singletonList(createMutation("new", "us"));
+        ProjectAssetsDiff projectDiff = new ProjectAssetsDiff(createClient(new ArrayList<>()), PROJECT,
+                                                              Collections.emptyList(), PRIMARY_KEYS);
+        assertEquals(upsertMutations, projectDiff.getDeltaMutations(upsertMutations));
+    }
+
+    /*
+    This function creates a Mutation of an asset of this test's project, as the ProjectMutationsList
+    class creates it.
+     */
+    private static Mutation createMutation(String assetName, String location) {
+        return Mutation.newInsertOrUpdateBuilder(TABLE_NAME)
+                .set("workspaceId").to(PROJECT.getWorkspaceId())
+                .set("projectId").to(PROJECT.getProjectId())
+                .set("kind").to("vm")
+                .set("assetName").to(assetName)
+                .set("location").to(location)
+                .set("rowLastUpdateTime").to(Value.COMMIT_TIMESTAMP)
+                .build();
+    }
+
+    /*
+    This function creates an existing row of an asset of this test's project.
+     */
+    private static Struct createRow(String assetName, String location) {
+        return Struct.newBuilder()
+                .set("workspaceId").to(PROJECT.getWorkspaceId())
+                .set("projectId").to(PROJECT.getProjectId())
+                .set("kind").to("vm")
+                .set("assetName").to(assetName)
+                .set("location").to(location)
+                .build();
+    }
+
+    /*
+    This function returns a DatabaseClient whose single use reads return the provided rows and
+    validates that only the rows of this test's project are queried.
+     */
+    private static DatabaseClient createClient(List<Struct> existingRows) {
+        ReadContext readContext = (ReadContext) Proxy.newProxyInstance(ProjectAssetsDiffTest.class.getClassLoader(),
+                new Class<?>[] {ReadContext.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("executeQuery")) {
+                        Statement statement = (Statement) args[0];
+                        assertTrue(statement.getSql().contains("FROM " + TABLE_NAME));
+                        assertEquals(Value.string(PROJECT.getProjectId()), statement.getParameters().get("projectId"));
+                        List<StructField> fields = new ArrayList<>();
+                        if (!existingRows.isEmpty()) {
+                            fields.addAll(existingRows.get(0).getType().getStructFields());
+                        }
+                        return ResultSets.forRows(Type.struct(fields), existingRows);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return (DatabaseClient) Proxy.newProxyInstance(ProjectAssetsDiffTest.class.getClassLoader(),
+                new Class<?>[] {DatabaseClient.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("singleUse")) {
+                        return readContext;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
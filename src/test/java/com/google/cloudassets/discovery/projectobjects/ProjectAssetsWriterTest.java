@@ -0,0 +1,219 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Value;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProjectAssetsWriterTest {
+    private static final ProjectConfig PROJECT = new ProjectConfig("workspace", "project", null);
+    private static final List<String> EXISTING_TABLES = Arrays.asList("Main_Assets", "Disk_Assets");
+
+    /**
+     * This function validates that no commit goes over the mutations limit, and that all of the
+     * Mutations are written by their original order.
+     */
+    @Test
+    public void testMutationsLimit() {
+        FakeDatabase database = new FakeDatabase();
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(database.createClient(), PROJECT,
+                                                                    EXISTING_TABLES, 10, Long.MAX_VALUE);
+        List<Mutation> mutations = createAssetMutations(20);
+        projectWriter.writeMutations(mutations);
+
+        assertTrue(database.commits.size() > 1);
+        for (List<Mutation> commit : database.commits) {
+            int commitMutationsCount = 0;
+            for (Mutation mutation : commit) {
+                commitMutationsCount += ProjectAssetsWriter.getMutationsCount(mutation);
+            }
+            assertTrue(commitMutationsCount <= 10);
+        }
+        assertEquals(mutations, database.getWrittenMutations());
+    }
+
+    /**
+     * This function validates that no commit goes over the bytes limit, and that a Mutation which is
+     * bigger than the limit by itself is written in its own commit.
+     */
+    @Test
+    public void testBytesLimit() {
+        List<Mutation> mutations = createAssetMutations(20);
+        long maxBytes = ProjectAssetsWriter.getEstimatedBytes(mutations.get(0)) * 3;
+        Mutation bigMutation = Mutation.newInsertOrUpdateBuilder("Main_Assets")
+                .set("workspaceId").to(PROJECT.getWorkspaceId())
+                .set("projectId").to(PROJECT.getProjectId())
+                .set("assetName").to(String.join("", Collections.nCopies((int) maxBytes, "a")))
+                .build();
+        mutations.add(10, bigMutation);
+
+        FakeDatabase database = new FakeDatabase();
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(database.createClient(), PROJECT,
+                                                                    EXISTING_TABLES, Integer.MAX_VALUE, maxBytes);
+        projectWriter.writeMutations(mutations);
+
+        for (List<Mutation> commit : database.commits) {
+            if (commit.contains(bigMutation)) {
+                assertEquals(Collections.singletonList(bigMutation), commit);
+                continue;
+            }
+            long commitBytes = 0;
+            for (Mutation mutation : commit) {
+                commitBytes += ProjectAssetsWriter.getEstimatedBytes(mutation);
+            }
+            assertTrue(commitBytes <= maxBytes);
+        }
+        assertEquals(mutations, database.getWrittenMutations());
+    }
+
+    /**
+     * This function validates that the main table row of an asset is always written before (or in
+     * the same commit as) its interleaved rows, even when they are split between commits.
+     */
+    @Test
+    public void testMainRowBeforeInterleavedRows() {
+        List<Mutation> mutations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            mutations.add(createMutation("Main_Assets", "asset-" + i));
+            mutations.add(createMutation("Disk_Assets", "asset-" + i));
+        }
+
+        FakeDatabase database = new FakeDatabase();
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(database.createClient(), PROJECT,
+                                                                    EXISTING_TABLES, 7, Long.MAX_VALUE);
+        projectWriter.writeMutations(mutations);
+
+        assertTrue(database.commits.size() > 1);
+        for (int i = 0; i < mutations.size(); i += 2) {
+            assertTrue(database.getCommitIndex(mutations.get(i)) <= database.getCommitIndex(mutations.get(i + 1)));
+        }
+    }
+
+    /**
+     * This function validates that when the rows of a project fit in a single commit, they are
+     * replaced in one commit which first deletes the old rows of every existing table.
+     */
+    @Test
+    public void testReplaceInSingleCommit() {
+        FakeDatabase database = new FakeDatabase();
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(database.createClient(), PROJECT,
+                                                                    EXISTING_TABLES, 1000, Long.MAX_VALUE);
+        List<Mutation> mutations = createAssetMutations(3);
+        projectWriter.replaceProjectAssets(mutations);
+
+        assertEquals(1, database.commits.size());
+        List<Mutation> commit = database.commits.get(0);
+        assertEquals(EXISTING_TABLES.size() + mutations.size(), commit.size());
+        for (int i = 0; i < EXISTING_TABLES.size(); i++) {
+            assertEquals(Mutation.Op.DELETE, commit.get(i).getOperation());
+            assertEquals(EXISTING_TABLES.get(i), commit.get(i).getTable());
+        }
+        assertEquals(mutations, commit.subList(EXISTING_TABLES.size(), commit.size()));
+        assertTrue(database.partitionedUpdates.isEmpty());
+    }
+
+    /**
+     * This function validates that when the rows of a project do not fit in a single commit, they
+     * are upserted in batches and only then the stale rows of every existing table are deleted (the
+     * rows which were last updated before the first commit).
+     */
+    @Test
+    public void testReplaceInBatches() {
+        FakeDatabase database = new FakeDatabase();
+        ProjectAssetsWriter projectWriter = new ProjectAssetsWriter(database.createClient(), PROJECT,
+                                                                    EXISTING_TABLES, 10, Long.MAX_VALUE);
+        List<Mutation> mutations = createAssetMutations(20);
+        projectWriter.replaceProjectAssets(mutations);
+
+        assertEquals(mutations, database.getWrittenMutations());
+        assertEquals(EXISTING_TABLES.size(), database.partitionedUpdates.size());
+        for (int i = 0; i < EXISTING_TABLES.size(); i++) {
+            Statement deleteStatement = database.partitionedUpdates.get(i);
+            assertTrue(deleteStatement.getSql().startsWith("DELETE FROM " + EXISTING_TABLES.get(i) + " "));
+            assertEquals(Value.string(PROJECT.getProjectId()), deleteStatement.getParameters().get("projectId"));
+            assertEquals(Value.timestamp(database.getCommitTime(0)),
+                         deleteStatement.getParameters().get("writeStartTime"));
+        }
+    }
+
+    /*
+    This function creates Mutations of the main table rows of the given number of assets.
+     */
+    private static List<Mutation> createAssetMutations(int numOfAssets) {
+        List<Mutation> mutations = new ArrayList<>();
+        for (int i = 0; i < numOfAssets; i++) {
+            mutations.add(createMutation("Main_Assets", "asset-" + i));
+        }
+        return mutations;
+    }
+
+    /*
+    This function creates a Mutation of a single row with 3 columns.
+     */
+    private static Mutation createMutation(String tableName, String assetName) {
+        return Mutation.newInsertOrUpdateBuilder(tableName)
+                .set("workspaceId").to(PROJECT.getWorkspaceId())
+                .set("projectId").to(PROJECT.getProjectId())
+                .set("assetName").to(assetName)
+                .build();
+    }
+
+    /*
+    This class records the commits and partitioned updates of a DatabaseClient, where the commit
+    timestamps are the commit indexes (in seconds).
+     */
+    private static class FakeDatabase {
+        private final List<List<Mutation>> commits = new ArrayList<>();
+        private final List<Statement> partitionedUpdates = new ArrayList<>();
+
+        DatabaseClient createClient() {
+            return (DatabaseClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {DatabaseClient.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("write")) {
+                            List<Mutation> commit = new ArrayList<>();
+                            for (Object mutation : (Iterable<?>) args[0]) {
+                                commit.add((Mutation) mutation);
+                            }
+                            this.commits.add(commit);
+                            return getCommitTime(this.commits.size() - 1);
+                        } else if (method.getName().equals("executePartitionedUpdate")) {
+                            this.partitionedUpdates.add((Statement) args[0]);
+                            return 0L;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        Timestamp getCommitTime(int commitIndex) {
+            return Timestamp.ofTimeSecondsAndNanos(commitIndex + 1, 0);
+        }
+
+        List<Mutation> getWrittenMutations() {
+            List<Mutation> writtenMutations = new ArrayList<>();
+            for (List<Mutation> commit : this.commits) {
+                writtenMutations.addAll(commit);
+            }
+            return writtenMutations;
+        }
+
+        int getCommitIndex(Mutation mutation) {
+            for (int i = 0; i < this.commits.size(); i++) {
+                if (this.commits.get(i).contains(mutation)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
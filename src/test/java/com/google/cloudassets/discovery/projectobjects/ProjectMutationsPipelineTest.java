@@ -0,0 +1,196 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.Value;
+import com.google.cloudassets.discovery.AssetDiscoveryExceptions.TableInsertionException;
+import com.google.cloudassets.discovery.assetobjects.AssetObject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProjectMutationsPipelineTest {
+    private static final ProjectConfig PROJECT = new ProjectConfig("workspace", "project", null);
+    private static final List<String> EXISTING_TABLES = Collections.singletonList("Main_Assets");
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * This function validates that the fetching threads are blocked once the queue of pages is full
+     * (while the writer is busy), and that all of the pages are written and then the stale rows are
+     * deleted once the writer catches up.
+     */
+    @Test
+    public void testBackpressure() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            FakeDatabase database = new FakeDatabase();
+            database.commitsLatch = new CountDownLatch(1);
+            ProjectMutationsPipeline pipeline = new ProjectMutationsPipeline(database.createWriter(), 2,
+                                                                             ProjectMutationsPipelineTest::convertPage);
+            AtomicInteger addedPages = new AtomicInteger();
+            Thread fetchingThread = new Thread(() -> {
+                for (int i = 0; i < 5; i++) {
+                    pipeline.addPage(createPage());
+                    addedPages.incrementAndGet();
+                }
+            });
+            fetchingThread.start();
+
+            // The writer holds one page and the queue holds two more, so the fourth page is blocked
+            while (addedPages.get() < 3 || fetchingThread.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            assertEquals(3, addedPages.get());
+
+            database.commitsLatch.countDown();
+            fetchingThread.join();
+            pipeline.finish();
+
+            assertEquals(5, database.commits.size());
+            assertEquals(1, database.partitionedUpdates.size());
+            assertEquals(Value.timestamp(database.getCommitTime(0)),
+                         database.partitionedUpdates.get(0).getParameters().get("writeStartTime"));
+        });
+    }
+
+    /**
+     * This function validates that once a page could not be written, the following pages do not
+     * block the fetching threads, and that the failure fails the project without deleting any row.
+     */
+    @Test
+    public void testWriterFailure() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            FakeDatabase database = new FakeDatabase();
+            database.failCommits = true;
+            ProjectMutationsPipeline pipeline = new ProjectMutationsPipeline(database.createWriter(), 1,
+                                                                             ProjectMutationsPipelineTest::convertPage);
+            for (int i = 0; i < 10; i++) {
+                pipeline.addPage(createPage());
+            }
+
+            TableInsertionException exception = assertThrows(TableInsertionException.class, pipeline::finish);
+            assertTrue(exception.getCause() instanceof SpannerException);
+            assertEquals(1, database.commits.size());
+            assertTrue(database.partitionedUpdates.isEmpty());
+        });
+    }
+
+    /**
+     * This function validates that an aborted pipeline writes the pages that were already added,
+     * but does not delete any row (as the assets which were not fetched are still valid).
+     */
+    @Test
+    public void testAbort() {
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            FakeDatabase database = new FakeDatabase();
+            ProjectMutationsPipeline pipeline = new ProjectMutationsPipeline(database.createWriter(), 2,
+                                                                             ProjectMutationsPipelineTest::convertPage);
+            pipeline.addPage(createPage());
+            pipeline.addPage(createPage());
+            pipeline.abort();
+
+            assertEquals(2, database.commits.size());
+            assertTrue(database.partitionedUpdates.isEmpty());
+        });
+    }
+
+    /**
+     * This function validates that when a project has no assets, all of its rows are deleted.
+     */
+    @Test
+    public void testNoAssets() throws TableInsertionException {
+        FakeDatabase database = new FakeDatabase();
+        ProjectMutationsPipeline pipeline = new ProjectMutationsPipeline(database.createWriter(), 2,
+                                                                         ProjectMutationsPipelineTest::convertPage);
+        pipeline.addPage(new ArrayList<>());
+        pipeline.finish();
+
+        assertEquals(1, database.commits.size());
+        assertEquals(Collections.singletonList(Mutation.Op.DELETE), getOperations(database.commits.get(0)));
+    }
+
+    /*
+    This function returns a page with a single asset (the assets are not read by the converter of
+    this test).
+     */
+    private static List<AssetObject> createPage() {
+        return Collections.singletonList(null);
+    }
+
+    /*
+    This function converts a page into a single Mutation.
+     */
+    private static List<Mutation> convertPage(List<AssetObject> pageAssets) {
+        return Collections.singletonList(Mutation.newInsertOrUpdateBuilder("Main_Assets")
+                .set("workspaceId").to(PROJECT.getWorkspaceId())
+                .set("projectId").to(PROJECT.getProjectId())
+                .build());
+    }
+
+    /*
+    This function returns the operations of the given Mutations by their order.
+     */
+    private static List<Mutation.Op> getOperations(List<Mutation> mutations) {
+        List<Mutation.Op> operations = new ArrayList<>();
+        for (Mutation mutation : mutations) {
+            operations.add(mutation.getOperation());
+        }
+        return operations;
+    }
+
+    /*
+    This class records the commits and partitioned updates of a DatabaseClient. Its commits can
+    wait for a latch (in order to simulate a slow writer) or fail.
+     */
+    private static class FakeDatabase {
+        private final List<List<Mutation>> commits = Collections.synchronizedList(new ArrayList<>());
+        private final List<Statement> partitionedUpdates = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch commitsLatch;
+        private volatile boolean failCommits;
+
+        ProjectAssetsWriter createWriter() {
+            DatabaseClient client = (DatabaseClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {DatabaseClient.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("write")) {
+                            if (this.commitsLatch != null) {
+                                this.commitsLatch.await();
+                            }
+                            List<Mutation> commit = new ArrayList<>();
+                            for (Object mutation : (Iterable<?>) args[0]) {
+                                commit.add((Mutation) mutation);
+                            }
+                            this.commits.add(commit);
+                            if (this.failCommits) {
+                                throw SpannerExceptionFactory.newSpannerException(ErrorCode.INTERNAL, "Commit failed");
+                            }
+                            return getCommitTime(this.commits.size() - 1);
+                        } else if (method.getName().equals("executePartitionedUpdate")) {
+                            this.partitionedUpdates.add((Statement) args[0]);
+                            return 0L;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            return new ProjectAssetsWriter(client, PROJECT, EXISTING_TABLES, 1000, Long.MAX_VALUE);
+        }
+
+        Timestamp getCommitTime(int commitIndex) {
+            return Timestamp.ofTimeSecondsAndNanos(commitIndex + 1, 0);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.google.cloudassets.discovery.projectobjects;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ServiceAccountTokenCacheTest {
+    private static final GoogleCredentials SOURCE_CREDENTIALS = GoogleCredentials.create(
+            new AccessToken("source", Date.from(Instant.now().plusSeconds(3600))));
+
+    /*
+    This helper function returns a MockHttpTransport which answers every generateAccessToken request
+    with a new token which expires in the provided number of seconds, and counts the requests.
+     */
+    private MockHttpTransport createTokenTransport(AtomicInteger requestsCount, long expiresInSeconds) {
+        return createTokenTransport(requestsCount, expiresInSeconds, expiresInSeconds);
+    }
+
+    /*
+    This helper function returns a MockHttpTransport like the above, whose first token expires in a
+    different number of seconds than the following tokens.
+     */
+    private MockHttpTransport createTokenTransport(AtomicInteger requestsCount, long firstExpiresInSeconds,
+                                                   long expiresInSeconds) {
+        return new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest() {
+                    @Override
+                    public LowLevelHttpResponse execute() throws IOException {
+                        int requestNumber = requestsCount.incrementAndGet();
+                        String expireTime = Instant.now().plusSeconds(requestNumber == 1 ? firstExpiresInSeconds
+                                                                                         : expiresInSeconds).toString();
+                        return new MockLowLevelHttpResponse().setContentType("application/json")
+                                .setContent("{\"accessToken\": \"token" + requestNumber + "\", "
+                                            + "\"expireTime\": \"" + expireTime + "\"}");
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * This function validates that a token which does not expire soon is reused for all of the
+     * projects of the same service account, and that different service accounts get different tokens.
+     */
+    @Test
+    public void testTokenReuse() throws IOException {
+        AtomicInteger requestsCount = new AtomicInteger();
+        ServiceAccountTokenCache tokenCache = new ServiceAccountTokenCache(
+                createTokenTransport(requestsCount, 3600), SOURCE_CREDENTIALS);
+
+        AccessToken firstToken = tokenCache.getAccessToken("first@test.com");
+        assertSame(firstToken, tokenCache.getAccessToken("first@test.com"));
+        assertEquals(1, requestsCount.get());
+
+        tokenCache.getAccessToken("second@test.com");
+        assertEquals(2, requestsCount.get());
+    }
+
+    /**
+     * This function validates that a token which expires within the refresh margin is not reused.
+     */
+    @Test
+    public void testExpiringTokenRefresh() throws IOException {
+        AtomicInteger requestsCount = new AtomicInteger();
+        ServiceAccountTokenCache tokenCache = new ServiceAccountTokenCache(
+                createTokenTransport(requestsCount, 60), SOURCE_CREDENTIALS);
+
+        tokenCache.getAccessToken("first@test.com");
+        tokenCache.getAccessToken("first@test.com");
+        assertEquals(2, requestsCount.get());
+    }
+
+    /**
+     * This function validates that concurrent requests for the token of the same service account
+     * are coalesced into a single generateAccessToken request.
+     */
+    @Test
+    public void testConcurrentRefreshCoalescing() {
+        AtomicInteger requestsCount = new AtomicInteger();
+        ServiceAccountTokenCache tokenCache = new ServiceAccountTokenCache(
+                createTokenTransport(requestsCount, 3600), SOURCE_CREDENTIALS);
+
+        List<CompletableFuture<AccessToken>> tokenFutures = new ArrayList<>();
+        for (int index = 0; index < 8; index++) {
+            tokenFutures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return tokenCache.getAccessToken("first@test.com");
+                } catch (IOException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }));
+        }
+
+        for (CompletableFuture<AccessToken> tokenFuture : tokenFutures) {
+            assertEquals("token1", tokenFuture.join().getTokenValue());
+        }
+        assertEquals(1, requestsCount.get());
+    }
+
+    /**
+     * This function validates that a thread which found a token to be expiring soon, but reaches
+     * its refresh only after another thread has already replaced it, gets the new token instead of
+     * generating another one. A token which is still the current one is refreshed when requested
+     * (as the background refresh does before it expires).
+     */
+    @Test
+    public void testLateStaleTokenRefresh() throws IOException {
+        AtomicInteger requestsCount = new AtomicInteger();
+        ServiceAccountTokenCache tokenCache = new ServiceAccountTokenCache(
+                createTokenTransport(requestsCount, 60, 3600), SOURCE_CREDENTIALS);
+        AccessToken staleToken = tokenCache.getAccessToken("first@test.com");
+        AccessToken newToken = tokenCache.getAccessToken("first@test.com");
+        assertEquals("token2", newToken.getTokenValue());
+
+        assertSame(newToken, tokenCache.refreshAccessToken("first@test.com", staleToken));
+        assertEquals(2, requestsCount.get());
+
+        assertEquals("token3", tokenCache.refreshAccessToken("first@test.com", newToken).getTokenValue());
+        assertEquals(3, requestsCount.get());
+    }
+}